@@ -120,6 +120,14 @@ public interface MessageManager {
      */
     Iterator<MessageUid> expunge(MessageRange set, MailboxSession mailboxSession) throws MailboxException;
 
+    /**
+     * Return the sorted uids of the messages expunged from this mailbox after the given mod-sequence, if the mailbox
+     * keeps track of them. This allows QRESYNC resynchronization to only consider the changes of the mailbox.
+     *
+     * @return the expunged uids, or an empty {@link Optional} if expunged messages are not tracked
+     */
+    Optional<List<MessageUid>> listExpungedUidsSince(ModSeq modSeq, MailboxSession mailboxSession) throws MailboxException;
+
     /**
      * Deletes a list of messages given their uids in the mailbox.
      */
@@ -44,6 +44,7 @@ import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.google.common.base.Preconditions;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraAttachmentDAOV2 {
@@ -123,6 +124,7 @@ public class CassandraAttachmentDAOV2 {
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insertStatement;
     private final PreparedStatement selectStatement;
+    private final PreparedStatement selectAllBlobIds;
 
     @Inject
     public CassandraAttachmentDAOV2(BlobId.Factory blobIdFactory, Session session) {
@@ -131,6 +133,7 @@ public class CassandraAttachmentDAOV2 {
 
         this.selectStatement = prepareSelect(session);
         this.insertStatement = prepareInsert(session);
+        this.selectAllBlobIds = prepareSelectAllBlobIds(session);
     }
 
     private PreparedStatement prepareInsert(Session session) {
@@ -149,6 +152,11 @@ public class CassandraAttachmentDAOV2 {
             .where(eq(ID_AS_UUID, bindMarker(ID_AS_UUID))));
     }
 
+    private PreparedStatement prepareSelectAllBlobIds(Session session) {
+        return session.prepare(select(BLOB_ID)
+            .from(TABLE_NAME));
+    }
+
     public Mono<DAOAttachment> getAttachment(AttachmentId attachmentId) {
         Preconditions.checkArgument(attachmentId != null);
         return cassandraAsyncExecutor.executeSingleRow(
@@ -167,4 +175,8 @@ public class CassandraAttachmentDAOV2 {
                 .setString(BLOB_ID, attachment.getBlobId().asString()));
     }
 
+    public Flux<BlobId> listBlobs() {
+        return cassandraAsyncExecutor.executeRows(selectAllBlobIds.bind())
+            .map(row -> blobIdFactory.from(row.getString(BLOB_ID)));
+    }
 }
@@ -0,0 +1,205 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gt;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.lte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.UID;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.backends.cassandra.utils.CassandraUtils;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.LogStart;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.google.common.annotations.VisibleForTesting;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Logs the UIDs expunged from each mailbox along with the mod-sequence of their removal.
+ *
+ * The log of a mailbox is only complete after its start mod-sequence: mailboxes holding messages before the log was
+ * introduced might have had messages expunged without being logged, and the log is trimmed by moving its start forward.
+ */
+public class CassandraExpungedMessageDAO {
+    private static final String NEW_MOD_SEQ = "newModSeq";
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final CassandraUtils cassandraUtils;
+    private final PreparedStatement addStatement;
+    private final PreparedStatement selectSinceStatement;
+    private final PreparedStatement startLogStatement;
+    private final PreparedStatement selectLogStartStatement;
+    private final PreparedStatement moveLogStartStatement;
+    private final PreparedStatement deleteUpToStatement;
+    private final PreparedStatement deleteAllStatement;
+    private final PreparedStatement deleteLogStartStatement;
+
+    @Inject
+    public CassandraExpungedMessageDAO(Session session, CassandraUtils cassandraUtils) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.cassandraUtils = cassandraUtils;
+        this.addStatement = prepareAddStatement(session);
+        this.selectSinceStatement = prepareSelectSinceStatement(session);
+        this.startLogStatement = prepareStartLogStatement(session);
+        this.selectLogStartStatement = prepareSelectLogStartStatement(session);
+        this.moveLogStartStatement = prepareMoveLogStartStatement(session);
+        this.deleteUpToStatement = prepareDeleteUpToStatement(session);
+        this.deleteAllStatement = prepareDeleteAllStatement(session);
+        this.deleteLogStartStatement = prepareDeleteLogStartStatement(session);
+    }
+
+    @VisibleForTesting
+    public CassandraExpungedMessageDAO(Session session) {
+        this(session, CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+    }
+
+    private PreparedStatement prepareAddStatement(Session session) {
+        return session.prepare(insertInto(TABLE_NAME)
+            .value(MAILBOX_ID, bindMarker(MAILBOX_ID))
+            .value(MOD_SEQ, bindMarker(MOD_SEQ))
+            .value(UID, bindMarker(UID)));
+    }
+
+    private PreparedStatement prepareSelectSinceStatement(Session session) {
+        return session.prepare(select(UID)
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(gt(MOD_SEQ, bindMarker(MOD_SEQ))));
+    }
+
+    private PreparedStatement prepareStartLogStatement(Session session) {
+        return session.prepare(insertInto(LogStart.TABLE_NAME)
+            .value(LogStart.MAILBOX_ID, bindMarker(LogStart.MAILBOX_ID))
+            .value(LogStart.MOD_SEQ, bindMarker(LogStart.MOD_SEQ))
+            .ifNotExists());
+    }
+
+    private PreparedStatement prepareSelectLogStartStatement(Session session) {
+        return session.prepare(select(LogStart.MOD_SEQ)
+            .from(LogStart.TABLE_NAME)
+            .where(eq(LogStart.MAILBOX_ID, bindMarker(LogStart.MAILBOX_ID))));
+    }
+
+    private PreparedStatement prepareMoveLogStartStatement(Session session) {
+        return session.prepare(update(LogStart.TABLE_NAME)
+            .with(set(LogStart.MOD_SEQ, bindMarker(NEW_MOD_SEQ)))
+            .where(eq(LogStart.MAILBOX_ID, bindMarker(LogStart.MAILBOX_ID)))
+            .onlyIf(eq(LogStart.MOD_SEQ, bindMarker(LogStart.MOD_SEQ))));
+    }
+
+    private PreparedStatement prepareDeleteUpToStatement(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID)))
+            .and(lte(MOD_SEQ, bindMarker(MOD_SEQ))));
+    }
+
+    private PreparedStatement prepareDeleteAllStatement(Session session) {
+        return session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(MAILBOX_ID, bindMarker(MAILBOX_ID))));
+    }
+
+    private PreparedStatement prepareDeleteLogStartStatement(Session session) {
+        return session.prepare(delete()
+            .from(LogStart.TABLE_NAME)
+            .where(eq(LogStart.MAILBOX_ID, bindMarker(LogStart.MAILBOX_ID))));
+    }
+
+    public Mono<Void> addExpunged(CassandraId mailboxId, ModSeq modSeq, MessageUid uid) {
+        return cassandraAsyncExecutor.executeVoid(addStatement.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(MOD_SEQ, modSeq.asLong())
+            .setLong(UID, uid.asLong()));
+    }
+
+    /**
+     * Return the UIDs expunged with a mod-sequence strictly higher than the given one, in no particular order
+     */
+    public Flux<MessageUid> retrieveExpungedSince(CassandraId mailboxId, ModSeq modSeq) {
+        return cassandraAsyncExecutor.execute(selectSinceStatement.bind()
+                .setUUID(MAILBOX_ID, mailboxId.asUuid())
+                .setLong(MOD_SEQ, modSeq.asLong()))
+            .flatMapMany(cassandraUtils::convertToFlux)
+            .map(row -> MessageUid.of(row.getLong(UID)));
+    }
+
+    /**
+     * Record that every expunge with a mod-sequence strictly higher than the given one is logged, unless the log of
+     * this mailbox had already been started.
+     *
+     * @return true if this call started the log
+     */
+    public Mono<Boolean> startLog(CassandraId mailboxId, ModSeq modSeq) {
+        return cassandraAsyncExecutor.executeReturnApplied(startLogStatement.bind()
+            .setUUID(LogStart.MAILBOX_ID, mailboxId.asUuid())
+            .setLong(LogStart.MOD_SEQ, modSeq.asLong()));
+    }
+
+    public Mono<ModSeq> retrieveLogStart(CassandraId mailboxId) {
+        return cassandraAsyncExecutor.executeSingleRow(selectLogStartStatement.bind()
+                .setUUID(LogStart.MAILBOX_ID, mailboxId.asUuid()))
+            .map(row -> ModSeq.of(row.getLong(LogStart.MOD_SEQ)));
+    }
+
+    /**
+     * @return true if this call moved the start of the log, false if it no longer was at the expected mod-sequence
+     */
+    public Mono<Boolean> moveLogStart(CassandraId mailboxId, ModSeq expectedStart, ModSeq newStart) {
+        return cassandraAsyncExecutor.executeReturnApplied(moveLogStartStatement.bind()
+            .setUUID(LogStart.MAILBOX_ID, mailboxId.asUuid())
+            .setLong(LogStart.MOD_SEQ, expectedStart.asLong())
+            .setLong(NEW_MOD_SEQ, newStart.asLong()));
+    }
+
+    /**
+     * Removes the UIDs expunged with a mod-sequence lower or equal to the given one
+     */
+    public Mono<Void> removeExpungedUpTo(CassandraId mailboxId, ModSeq modSeq) {
+        return cassandraAsyncExecutor.executeVoid(deleteUpToStatement.bind()
+            .setUUID(MAILBOX_ID, mailboxId.asUuid())
+            .setLong(MOD_SEQ, modSeq.asLong()));
+    }
+
+    public Mono<Void> removeAll(CassandraId mailboxId) {
+        return Flux.merge(
+                cassandraAsyncExecutor.executeVoid(deleteAllStatement.bind()
+                    .setUUID(MAILBOX_ID, mailboxId.asUuid())),
+                cassandraAsyncExecutor.executeVoid(deleteLogStartStatement.bind()
+                    .setUUID(LogStart.MAILBOX_ID, mailboxId.asUuid())))
+            .then();
+    }
+}
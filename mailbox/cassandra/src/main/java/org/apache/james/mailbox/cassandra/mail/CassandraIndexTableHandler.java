@@ -19,10 +19,14 @@
 
 package org.apache.james.mailbox.cassandra.mail;
 
+import java.util.Collection;
+import java.util.Optional;
+
 import javax.inject.Inject;
 import javax.mail.Flags;
 
 import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.UpdatedFlags;
@@ -33,24 +37,31 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraIndexTableHandler {
+    static final long EXPUNGE_LOG_LENGTH = 10_000;
 
     private final CassandraMailboxRecentsDAO mailboxRecentDAO;
     private final CassandraMailboxCounterDAO mailboxCounterDAO;
     private final CassandraFirstUnseenDAO firstUnseenDAO;
     private final CassandraApplicableFlagDAO applicableFlagDAO;
     private final CassandraDeletedMessageDAO deletedMessageDAO;
+    private final CassandraExpungedMessageDAO expungedMessageDAO;
+    private final CassandraModSeqProvider modSeqProvider;
 
     @Inject
     public CassandraIndexTableHandler(CassandraMailboxRecentsDAO mailboxRecentDAO,
                                       CassandraMailboxCounterDAO mailboxCounterDAO,
                                       CassandraFirstUnseenDAO firstUnseenDAO,
                                       CassandraApplicableFlagDAO applicableFlagDAO,
-                                      CassandraDeletedMessageDAO deletedMessageDAO) {
+                                      CassandraDeletedMessageDAO deletedMessageDAO,
+                                      CassandraExpungedMessageDAO expungedMessageDAO,
+                                      CassandraModSeqProvider modSeqProvider) {
         this.mailboxRecentDAO = mailboxRecentDAO;
         this.mailboxCounterDAO = mailboxCounterDAO;
         this.firstUnseenDAO = firstUnseenDAO;
         this.applicableFlagDAO = applicableFlagDAO;
         this.deletedMessageDAO = deletedMessageDAO;
+        this.expungedMessageDAO = expungedMessageDAO;
+        this.modSeqProvider = modSeqProvider;
     }
 
     public Mono<Void> updateIndexOnDelete(ComposedMessageIdWithMetaData composedMessageIdWithMetaData, CassandraId mailboxId) {
@@ -65,6 +76,46 @@ public class CassandraIndexTableHandler {
                 .then();
     }
 
+    /**
+     * Logs the given UIDs, removed from the mailbox, under a new mod-sequence. This needs to be called once the
+     * removals are done, so that clients knowing the new mod-sequence do not see the removed messages.
+     */
+    public Mono<Void> updateIndexOnExpunge(CassandraId mailboxId, Collection<MessageUid> uids) {
+        if (uids.isEmpty()) {
+            return Mono.empty();
+        }
+        return modSeqProvider.nextModSeq(mailboxId)
+            .flatMap(modSeq -> prepareExpungeLog(mailboxId, modSeq)
+                .thenMany(Flux.fromIterable(uids))
+                .flatMap(uid -> expungedMessageDAO.addExpunged(mailboxId, modSeq, uid))
+                .then());
+    }
+
+    private Mono<Void> prepareExpungeLog(CassandraId mailboxId, ModSeq modSeq) {
+        return expungedMessageDAO.retrieveLogStart(mailboxId)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty())
+            .flatMap(maybeLogStart -> maybeLogStart
+                .map(logStart -> trimExpungeLogIfNeeded(mailboxId, logStart, modSeq))
+                // Mailboxes holding messages before the expunge log was introduced have it start with their first logged expunge
+                .orElseGet(() -> expungedMessageDAO.startLog(mailboxId, modSeq).then()));
+    }
+
+    /**
+     * Keeps the expunges of the last {@link #EXPUNGE_LOG_LENGTH} mod-sequences, trimming the log once it holds twice
+     * that many. The start is moved before removing the expunges, so that clients knowing older mod-sequences are not
+     * answered with an incomplete log.
+     */
+    private Mono<Void> trimExpungeLogIfNeeded(CassandraId mailboxId, ModSeq logStart, ModSeq modSeq) {
+        if (modSeq.asLong() - logStart.asLong() <= 2 * EXPUNGE_LOG_LENGTH) {
+            return Mono.empty();
+        }
+        ModSeq newLogStart = ModSeq.of(modSeq.asLong() - EXPUNGE_LOG_LENGTH);
+        return expungedMessageDAO.moveLogStart(mailboxId, logStart, newLogStart)
+            .filter(movedByThisCall -> movedByThisCall)
+            .flatMap(movedByThisCall -> expungedMessageDAO.removeExpungedUpTo(mailboxId, newLogStart));
+    }
+
     public Mono<Void> updateIndexOnAdd(MailboxMessage message, CassandraId mailboxId) {
         Flags flags = message.createFlags();
 
@@ -74,10 +125,19 @@ public class CassandraIndexTableHandler {
                addRecentOnSave(mailboxId, message),
                incrementUnseenOnSave(mailboxId, flags),
                mailboxCounterDAO.incrementCount(mailboxId),
-               applicableFlagDAO.updateApplicableFlags(mailboxId, ImmutableSet.copyOf(flags.getUserFlags())))
+               applicableFlagDAO.updateApplicableFlags(mailboxId, ImmutableSet.copyOf(flags.getUserFlags())),
+               startExpungeLogOnFirstMessage(mailboxId, message.getUid()))
                 .then();
     }
 
+    private Mono<Void> startExpungeLogOnFirstMessage(CassandraId mailboxId, MessageUid uid) {
+        // Every expunge of a mailbox is logged when it receives its first message after the log was introduced
+        if (MessageUid.MIN_VALUE.equals(uid)) {
+            return expungedMessageDAO.startLog(mailboxId, ModSeq.first()).then();
+        }
+        return Mono.empty();
+    }
+
     public Mono<Void> updateIndexOnFlagsUpdate(CassandraId mailboxId, UpdatedFlags updatedFlags) {
         return Flux.merge(
                manageUnseenMessageCountsOnFlagsUpdate(mailboxId, updatedFlags),
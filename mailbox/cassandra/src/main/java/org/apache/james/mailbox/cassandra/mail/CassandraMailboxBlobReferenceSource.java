@@ -0,0 +1,43 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import javax.inject.Inject;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+
+import reactor.core.publisher.Flux;
+
+public class CassandraMailboxBlobReferenceSource implements BlobReferenceSource {
+    private final CassandraMessageDAO messageDAO;
+    private final CassandraAttachmentDAOV2 attachmentDAO;
+
+    @Inject
+    public CassandraMailboxBlobReferenceSource(CassandraMessageDAO messageDAO, CassandraAttachmentDAOV2 attachmentDAO) {
+        this.messageDAO = messageDAO;
+        this.attachmentDAO = attachmentDAO;
+    }
+
+    @Override
+    public Flux<BlobId> listReferencedBlobs() {
+        return Flux.concat(messageDAO.listBlobs(), attachmentDAO.listBlobs());
+    }
+}
@@ -41,6 +41,7 @@ import static org.apache.james.mailbox.cassandra.table.CassandraMessageV2Table.T
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -48,6 +49,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
+import javax.mail.internet.SharedInputStream;
 import javax.mail.util.SharedByteArrayInputStream;
 
 import org.apache.commons.io.IOUtils;
@@ -86,8 +88,8 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.primitives.Bytes;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -111,6 +113,7 @@ public class CassandraMessageDAO {
     private final PreparedStatement selectFields;
     private final PreparedStatement selectBody;
     private final PreparedStatement selectAllMessagesWithAttachment;
+    private final PreparedStatement selectAllBlobIds;
     private final Cid.CidParser cidParser;
 
     @Inject
@@ -131,6 +134,7 @@ public class CassandraMessageDAO {
         this.selectFields = prepareSelect(session, FIELDS);
         this.selectBody = prepareSelect(session, BODY);
         this.selectAllMessagesWithAttachment = prepareSelectAllMessagesWithAttachment(session);
+        this.selectAllBlobIds = prepareSelectAllBlobIds(session);
         this.cidParser = Cid.parser().relaxed();
     }
 
@@ -151,6 +155,11 @@ public class CassandraMessageDAO {
             .from(TABLE_NAME));
     }
 
+    private PreparedStatement prepareSelectAllBlobIds(Session session) {
+        return session.prepare(select(HEADER_CONTENT, BODY_CONTENT)
+            .from(TABLE_NAME));
+    }
+
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
             .value(MESSAGE_ID, bindMarker(MESSAGE_ID))
@@ -234,11 +243,20 @@ public class CassandraMessageDAO {
             .collect(Guavate.toImmutableList());
     }
 
+    /**
+     * Rows are retrieved one by one, then the headers of each chunk of messages are read with a single
+     * {@link BlobStore#readBatch(org.apache.james.blob.api.BucketName, java.util.Collection)} call.
+     *
+     * Bodies are not read here: they are streamed from the {@link BlobStore} each time the content of the returned
+     * message is accessed, see {@link LazyMessageContent}.
+     */
     public Flux<MessageResult> retrieveMessages(List<ComposedMessageIdWithMetaData> messageIds, FetchType fetchType, Limit limit) {
         return Flux.fromStream(limit.applyOnStream(messageIds.stream().distinct()))
             .publishOn(Schedulers.boundedElastic())
-            .flatMap(id -> retrieveRow(id, fetchType)
-                .flatMap(resultSet -> message(resultSet, id, fetchType)), configuration.getMessageReadChunkSize());
+            .flatMapSequential(id -> retrieveRow(id, fetchType)
+                .map(resultSet -> Pair.of(id, Optional.ofNullable(resultSet.one()))), configuration.getMessageReadChunkSize())
+            .buffer(configuration.getMessageReadChunkSize())
+            .concatMap(rows -> messages(rows, fetchType));
     }
 
     private Mono<ResultSet> retrieveRow(ComposedMessageIdWithMetaData messageId, FetchType fetchType) {
@@ -249,31 +267,45 @@ public class CassandraMessageDAO {
             .setUUID(MESSAGE_ID, cassandraMessageId.get()));
     }
 
-    private Mono<MessageResult>
-    message(ResultSet rows,ComposedMessageIdWithMetaData messageIdWithMetaData, FetchType fetchType) {
-        ComposedMessageId messageId = messageIdWithMetaData.getComposedMessageId();
+    private Flux<MessageResult> messages(List<Pair<ComposedMessageIdWithMetaData, Optional<Row>>> rows, FetchType fetchType) {
+        ImmutableSet<BlobId> blobIds = rows.stream()
+            .flatMap(pair -> pair.getRight()
+                .map(row -> contentBlobIds(fetchType, row))
+                .orElse(Stream.empty()))
+            .collect(Guavate.toImmutableSet());
 
-        if (rows.isExhausted()) {
-            return Mono.just(notFound(messageIdWithMetaData));
+        return readContents(blobIds)
+            .flatMapIterable(contents -> rows.stream()
+                .map(pair -> pair.getRight()
+                    .map(row -> message(row, pair.getLeft(), fetchType, contents))
+                    .orElseGet(() -> notFound(pair.getLeft())))
+                .collect(Guavate.toImmutableList()));
+    }
+
+    private Mono<Map<BlobId, byte[]>> readContents(Set<BlobId> blobIds) {
+        if (blobIds.isEmpty()) {
+            return Mono.just(ImmutableMap.of());
         }
+        return blobStore.readBatch(blobStore.getDefaultBucketName(), blobIds);
+    }
 
-        Row row = rows.one();
-        return buildContentRetriever(fetchType, row).map(content -> {
-            MessageWithoutAttachment messageWithoutAttachment =
-                new MessageWithoutAttachment(
-                    messageId.getMessageId(),
-                    row.getTimestamp(INTERNAL_DATE),
-                    row.getLong(FULL_CONTENT_OCTETS),
-                    row.getInt(BODY_START_OCTET),
-                    new SharedByteArrayInputStream(content),
-                    messageIdWithMetaData.getFlags(),
-                    getPropertyBuilder(row),
-                    messageId.getMailboxId(),
-                    messageId.getUid(),
-                    messageIdWithMetaData.getModSeq(),
-                    hasAttachment(row));
-            return found(Pair.of(messageWithoutAttachment, getAttachments(row)));
-        });
+    private MessageResult message(Row row, ComposedMessageIdWithMetaData messageIdWithMetaData, FetchType fetchType, Map<BlobId, byte[]> contents) {
+        ComposedMessageId messageId = messageIdWithMetaData.getComposedMessageId();
+
+        MessageWithoutAttachment messageWithoutAttachment =
+            new MessageWithoutAttachment(
+                messageId.getMessageId(),
+                row.getTimestamp(INTERNAL_DATE),
+                row.getLong(FULL_CONTENT_OCTETS),
+                row.getInt(BODY_START_OCTET),
+                buildContent(fetchType, row, contents),
+                messageIdWithMetaData.getFlags(),
+                getPropertyBuilder(row),
+                messageId.getMailboxId(),
+                messageId.getUid(),
+                messageIdWithMetaData.getModSeq(),
+                hasAttachment(row));
+        return found(Pair.of(messageWithoutAttachment, getAttachments(row)));
     }
 
     private PropertyBuilder getPropertyBuilder(Row row) {
@@ -333,37 +365,40 @@ public class CassandraMessageDAO {
             .setUUID(MESSAGE_ID, messageId.get()));
     }
 
-    private Mono<byte[]> buildContentRetriever(FetchType fetchType, Row row) {
+    private Stream<BlobId> contentBlobIds(FetchType fetchType, Row row) {
         switch (fetchType) {
             case Full:
-                return getFullContent(row);
             case Headers:
-                return getHeaderContent(row);
+                return Stream.of(headerBlobId(row));
             case Body:
-                return getBodyContent(row)
-                    .map(data -> Bytes.concat(new byte[row.getInt(BODY_START_OCTET)], data));
             case Metadata:
-                return Mono.just(EMPTY_BYTE_ARRAY);
+                return Stream.empty();
             default:
                 throw new RuntimeException("Unknown FetchType " + fetchType);
         }
     }
 
-    private Mono<byte[]> getFullContent(Row row) {
-        return getHeaderContent(row)
-            .zipWith(getBodyContent(row), Bytes::concat);
-    }
-
-    private Mono<byte[]> getBodyContent(Row row) {
-        return getFieldContent(BODY_CONTENT, row);
+    private SharedInputStream buildContent(FetchType fetchType, Row row, Map<BlobId, byte[]> contents) {
+        switch (fetchType) {
+            case Full:
+                return new LazyMessageContent(contents.get(headerBlobId(row)), blobStore, bodyBlobId(row));
+            case Headers:
+                return new SharedByteArrayInputStream(contents.get(headerBlobId(row)));
+            case Body:
+                return new LazyMessageContent(new byte[row.getInt(BODY_START_OCTET)], blobStore, bodyBlobId(row));
+            case Metadata:
+                return new SharedByteArrayInputStream(EMPTY_BYTE_ARRAY);
+            default:
+                throw new RuntimeException("Unknown FetchType " + fetchType);
+        }
     }
 
-    private Mono<byte[]> getHeaderContent(Row row) {
-        return getFieldContent(HEADER_CONTENT, row);
+    private BlobId headerBlobId(Row row) {
+        return blobIdFactory.from(row.getString(HEADER_CONTENT));
     }
 
-    private Mono<byte[]> getFieldContent(String field, Row row) {
-        return blobStore.readBytes(blobStore.getDefaultBucketName(), blobIdFactory.from(row.getString(field)));
+    private BlobId bodyBlobId(Row row) {
+        return blobIdFactory.from(row.getString(BODY_CONTENT));
     }
 
     public static MessageResult notFound(ComposedMessageIdWithMetaData id) {
@@ -404,6 +439,13 @@ public class CassandraMessageDAO {
             .filter(MessageIdAttachmentIds::hasAttachment);
     }
 
+    public Flux<BlobId> listBlobs() {
+        return cassandraAsyncExecutor.executeRows(selectAllBlobIds.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobIdFactory.from(row.getString(HEADER_CONTENT)),
+                blobIdFactory.from(row.getString(BODY_CONTENT))));
+    }
+
     private MessageIdAttachmentIds fromRow(Row row) {
         MessageId messageId = messageIdFactory.of(row.getUUID(MESSAGE_ID));
         Set<AttachmentId> attachmentIds = attachmentByIds(row.getList(ATTACHMENTS, UDTValue.class))
@@ -50,6 +50,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 
 import reactor.core.publisher.Flux;
@@ -199,7 +200,8 @@ public class CassandraMessageIdMapper implements MessageIdMapper {
         return Flux.merge(
                 imapUidDAO.delete(messageId, mailboxId),
                 messageIdDAO.delete(mailboxId, metaData.getComposedMessageId().getUid()))
-            .then(indexTableHandler.updateIndexOnDelete(metaData, mailboxId));
+            .then(indexTableHandler.updateIndexOnDelete(metaData, mailboxId))
+            .then(indexTableHandler.updateIndexOnExpunge(mailboxId, ImmutableList.of(metaData.getComposedMessageId().getUid())));
     }
 
     @Override
@@ -78,6 +78,7 @@ public class CassandraMessageMapper implements MessageMapper {
     private final CassandraFirstUnseenDAO firstUnseenDAO;
     private final AttachmentLoader attachmentLoader;
     private final CassandraDeletedMessageDAO deletedMessageDAO;
+    private final CassandraExpungedMessageDAO expungedMessageDAO;
     private final CassandraConfiguration cassandraConfiguration;
 
     public CassandraMessageMapper(CassandraUidProvider uidProvider, CassandraModSeqProvider modSeqProvider,
@@ -86,7 +87,8 @@ public class CassandraMessageMapper implements MessageMapper {
                                   CassandraMessageIdToImapUidDAO imapUidDAO, CassandraMailboxCounterDAO mailboxCounterDAO,
                                   CassandraMailboxRecentsDAO mailboxRecentDAO, CassandraApplicableFlagDAO applicableFlagDAO,
                                   CassandraIndexTableHandler indexTableHandler, CassandraFirstUnseenDAO firstUnseenDAO,
-                                  CassandraDeletedMessageDAO deletedMessageDAO, CassandraConfiguration cassandraConfiguration) {
+                                  CassandraDeletedMessageDAO deletedMessageDAO, CassandraExpungedMessageDAO expungedMessageDAO,
+                                  CassandraConfiguration cassandraConfiguration) {
         this.uidProvider = uidProvider;
         this.modSeqProvider = modSeqProvider;
         this.messageDAO = messageDAO;
@@ -99,6 +101,7 @@ public class CassandraMessageMapper implements MessageMapper {
         this.attachmentLoader = new AttachmentLoader(attachmentMapper);
         this.applicableFlagDAO = applicableFlagDAO;
         this.deletedMessageDAO = deletedMessageDAO;
+        this.expungedMessageDAO = expungedMessageDAO;
         this.cassandraConfiguration = cassandraConfiguration;
     }
 
@@ -147,7 +150,9 @@ public class CassandraMessageMapper implements MessageMapper {
 
     @Override
     public void delete(Mailbox mailbox, MailboxMessage message) {
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
         deleteAsFuture(message)
+            .then(indexTableHandler.updateIndexOnExpunge(mailboxId, ImmutableList.of(message.getUid())))
             .block();
     }
 
@@ -216,6 +221,20 @@ public class CassandraMessageMapper implements MessageMapper {
             .block();
     }
 
+    @Override
+    public Optional<List<MessageUid>> listExpungedUidsSince(Mailbox mailbox, ModSeq modSeq) {
+        CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
+
+        return expungedMessageDAO.retrieveExpungedSince(mailboxId, modSeq)
+            .sort()
+            .collect(Guavate.<MessageUid>toImmutableList())
+            // The log start is read last: trimming the log moves it forward before removing the expunges
+            .<List<MessageUid>>flatMap(expungedUids -> expungedMessageDAO.retrieveLogStart(mailboxId)
+                .filter(logStart -> logStart.compareTo(modSeq) <= 0)
+                .map(any -> expungedUids))
+            .blockOptional();
+    }
+
     @Override
     public Map<MessageUid, MessageMetaData> deleteMessages(Mailbox mailbox, List<MessageUid> uids) {
         CassandraId mailboxId = (CassandraId) mailbox.getMailboxId();
@@ -223,6 +242,8 @@ public class CassandraMessageMapper implements MessageMapper {
         return Flux.fromStream(uids.stream())
             .flatMap(messageUid -> expungeOne(mailboxId, messageUid), cassandraConfiguration.getExpungeChunkSize())
             .collect(Guavate.<SimpleMailboxMessage, MessageUid, MessageMetaData>toImmutableMap(MailboxMessage::getUid, MailboxMessage::metaData))
+            .flatMap(deletedMessages -> indexTableHandler.updateIndexOnExpunge(mailboxId, deletedMessages.keySet())
+                .thenReturn(deletedMessages))
             .block();
     }
 
@@ -248,7 +269,10 @@ public class CassandraMessageMapper implements MessageMapper {
         ComposedMessageIdWithMetaData composedMessageIdWithMetaData = original.getComposedMessageIdWithMetaData();
 
         MessageMetaData messageMetaData = copy(destinationMailbox, original);
-        deleteUsingMailboxId(composedMessageIdWithMetaData).block();
+        CassandraId originalMailboxId = (CassandraId) composedMessageIdWithMetaData.getComposedMessageId().getMailboxId();
+        deleteUsingMailboxId(composedMessageIdWithMetaData)
+            .then(indexTableHandler.updateIndexOnExpunge(originalMailboxId, ImmutableList.of(original.getUid())))
+            .block();
 
         return messageMetaData;
     }
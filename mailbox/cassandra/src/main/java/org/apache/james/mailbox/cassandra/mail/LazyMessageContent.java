@@ -0,0 +1,162 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+import javax.mail.internet.SharedInputStream;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.util.ReactorUtils;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Message content made of in memory headers and of a body that is only read when a stream covering it is requested.
+ *
+ * Streams ending before the body start never read it, hence fetching headers or metadata does not pay for body I/O,
+ * and streams covering only a range of the body only read that range from the {@link BlobStore}.
+ *
+ * Once a stream covering the whole body has been read to its end, the body is retained for the lifetime of this
+ * content and later streams, like those of the other parts of a FETCH or of MIME re-parsing, are served from memory.
+ */
+public class LazyMessageContent implements SharedInputStream {
+    private static final long UNBOUNDED = -1;
+    private static final int EOF = -1;
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    /**
+     * Retains the bytes read from the body stream, and memoizes them once its end is reached.
+     */
+    private class MemoizingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream readBytes;
+
+        MemoizingInputStream(InputStream in) {
+            super(in);
+            this.readBytes = new ByteArrayOutputStream();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read == EOF) {
+                memoize(readBytes);
+            } else {
+                readBytes.write(read);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == EOF) {
+                memoize(readBytes);
+            } else {
+                readBytes.write(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0) {
+                return 0;
+            }
+            byte[] skipped = new byte[(int) Math.min(n, SKIP_BUFFER_SIZE)];
+            return Math.max(read(skipped, 0, skipped.length), 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    private final byte[] headerContent;
+    private final BlobStore blobStore;
+    private final BlobId bodyBlobId;
+    private volatile byte[] body;
+
+    public LazyMessageContent(byte[] headerContent, BlobStore blobStore, BlobId bodyBlobId) {
+        Preconditions.checkNotNull(headerContent);
+        Preconditions.checkNotNull(blobStore);
+        Preconditions.checkNotNull(bodyBlobId);
+
+        this.headerContent = headerContent;
+        this.blobStore = blobStore;
+        this.bodyBlobId = bodyBlobId;
+    }
+
+    @Override
+    public long getPosition() {
+        return 0;
+    }
+
+    @Override
+    public InputStream newStream(long start, long end) {
+        Preconditions.checkArgument(start >= 0, "'start' can not be negative");
+        Preconditions.checkArgument(end == UNBOUNDED || end >= start, "'end' needs to be greater than 'start' or -1");
+
+        long headerLength = headerContent.length;
+        if (end != UNBOUNDED && end <= headerLength) {
+            return new ByteArrayInputStream(headerContent, (int) start, (int) (end - start));
+        }
+        if (start >= headerLength) {
+            return body(start - headerLength, bodyEnd(end, headerLength));
+        }
+        return new SequenceInputStream(
+            new ByteArrayInputStream(headerContent, (int) start, (int) (headerLength - start)),
+            body(0, bodyEnd(end, headerLength)));
+    }
+
+    private long bodyEnd(long end, long headerLength) {
+        if (end == UNBOUNDED) {
+            return UNBOUNDED;
+        }
+        return end - headerLength;
+    }
+
+    private InputStream body(long start, long end) {
+        byte[] memoizedBody = body;
+        if (memoizedBody != null) {
+            int from = (int) Math.min(start, memoizedBody.length);
+            int to = end == UNBOUNDED ? memoizedBody.length : (int) Math.min(end, memoizedBody.length);
+            return new ByteArrayInputStream(memoizedBody, from, to - from);
+        }
+        if (start == 0 && end == UNBOUNDED) {
+            return new MemoizingInputStream(blobStore.read(blobStore.getDefaultBucketName(), bodyBlobId));
+        }
+        long length = end == UNBOUNDED ? Long.MAX_VALUE - start : end - start;
+        return ReactorUtils.toInputStream(blobStore.readRange(blobStore.getDefaultBucketName(), bodyBlobId, start, length));
+    }
+
+    private void memoize(ByteArrayOutputStream fullBody) {
+        if (body == null) {
+            body = fullBody.toByteArray();
+        }
+    }
+}
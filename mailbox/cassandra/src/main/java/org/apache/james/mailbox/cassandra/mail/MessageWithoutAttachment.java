@@ -23,7 +23,7 @@ import java.util.Date;
 import java.util.List;
 
 import javax.mail.Flags;
-import javax.mail.util.SharedByteArrayInputStream;
+import javax.mail.internet.SharedInputStream;
 
 import org.apache.james.mailbox.MessageUid;
 import org.apache.james.mailbox.ModSeq;
@@ -40,7 +40,7 @@ public class MessageWithoutAttachment {
     private final Date internalDate;
     private final Long size;
     private final Integer bodySize;
-    private final SharedByteArrayInputStream content;
+    private final SharedInputStream content;
     private final Flags flags;
     private final PropertyBuilder propertyBuilder;
     private final MailboxId mailboxId;
@@ -48,7 +48,7 @@ public class MessageWithoutAttachment {
     private final ModSeq modSeq;
     private final boolean hasAttachment;
 
-    public MessageWithoutAttachment(MessageId messageId, Date internalDate, Long size, Integer bodySize, SharedByteArrayInputStream content,
+    public MessageWithoutAttachment(MessageId messageId, Date internalDate, Long size, Integer bodySize, SharedInputStream content,
                                     Flags flags, PropertyBuilder propertyBuilder, MailboxId mailboxId, MessageUid messageUid, ModSeq modSeq,
                                     boolean hasAttachment) {
         this.messageId = messageId;
@@ -93,7 +93,7 @@ public class MessageWithoutAttachment {
         return new ComposedMessageIdWithMetaData(new ComposedMessageId(mailboxId, messageId, messageUid), flags, modSeq);
     }
 
-    public SharedByteArrayInputStream getContent() {
+    public SharedInputStream getContent() {
         return content;
     }
 
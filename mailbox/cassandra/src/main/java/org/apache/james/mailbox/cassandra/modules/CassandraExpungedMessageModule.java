@@ -0,0 +1,57 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.modules;
+
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.MAILBOX_ID;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.MOD_SEQ;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.TABLE_NAME;
+import static org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.UID;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.utils.CassandraConstants;
+import org.apache.james.mailbox.cassandra.table.CassandraExpungedMessageTable.LogStart;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+
+public interface CassandraExpungedMessageModule {
+    CassandraModule MODULE = CassandraModule.builder()
+        .table(TABLE_NAME)
+        .comment("Denormalisation table. Allows to retrieve the UIDs expunged from specific mailboxes since a given " +
+            "mod-sequence. This is a QRESYNC optimisation.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.leveledStrategy())
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION)))
+        .statement(statement -> statement
+            .addPartitionKey(MAILBOX_ID, DataType.timeuuid())
+            .addClusteringColumn(MOD_SEQ, DataType.bigint())
+            .addClusteringColumn(UID, DataType.bigint()))
+        .table(LogStart.TABLE_NAME)
+        .comment("Holds the mod-sequence since which the expunges of specific mailboxes are all held in the " +
+            TABLE_NAME + " table.")
+        .options(options -> options
+            .caching(SchemaBuilder.KeyCaching.ALL,
+                SchemaBuilder.rows(CassandraConstants.DEFAULT_CACHED_ROW_PER_PARTITION)))
+        .statement(statement -> statement
+            .addPartitionKey(LogStart.MAILBOX_ID, DataType.timeuuid())
+            .addColumn(LogStart.MOD_SEQ, DataType.bigint()))
+        .build();
+}
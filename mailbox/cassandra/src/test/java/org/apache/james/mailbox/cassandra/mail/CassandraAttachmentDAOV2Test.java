@@ -72,4 +72,18 @@ class CassandraAttachmentDAOV2Test {
 
         assertThat(actual).contains(daoAttachment);
     }
+
+    @Test
+    void listBlobsShouldReturnStoredAttachmentBlobs() {
+        Attachment attachment = Attachment.builder()
+            .attachmentId(ATTACHMENT_ID)
+            .type("application/json")
+            .bytes("{\"property\":`\"value\"}".getBytes(StandardCharsets.UTF_8))
+            .build();
+        BlobId blobId = BLOB_ID_FACTORY.from("blobId");
+        testee.storeAttachment(CassandraAttachmentDAOV2.from(attachment, blobId)).block();
+
+        assertThat(testee.listBlobs().collectList().block())
+            .containsExactly(blobId);
+    }
 }
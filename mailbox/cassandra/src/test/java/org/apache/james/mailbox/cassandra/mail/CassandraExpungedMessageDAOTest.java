@@ -0,0 +1,184 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.cassandra.ids.CassandraId;
+import org.apache.james.mailbox.cassandra.modules.CassandraExpungedMessageModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CassandraExpungedMessageDAOTest {
+    private static final CassandraId MAILBOX_ID = CassandraId.of(UUID.fromString("110e8400-e29b-11d4-a716-446655440000"));
+    private static final CassandraId OTHER_MAILBOX_ID = CassandraId.of(UUID.fromString("110e8400-e29b-11d4-a716-446655440001"));
+    private static final MessageUid UID_1 = MessageUid.of(1);
+    private static final MessageUid UID_2 = MessageUid.of(2);
+    private static final MessageUid UID_3 = MessageUid.of(3);
+    private static final ModSeq MOD_SEQ_1 = ModSeq.of(1);
+    private static final ModSeq MOD_SEQ_2 = ModSeq.of(2);
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraExpungedMessageModule.MODULE);
+
+    private CassandraExpungedMessageDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraExpungedMessageDAO(cassandra.getConf());
+    }
+
+    @Test
+    void retrieveExpungedSinceShouldReturnEmptyByDefault() {
+        List<MessageUid> result = testee.retrieveExpungedSince(MAILBOX_ID, ModSeq.first())
+            .collectList()
+            .block();
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void retrieveExpungedSinceShouldReturnUidsExpungedAfterTheGivenModSeq() {
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_1, UID_1).block();
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_2, UID_2).block();
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_2, UID_3).block();
+
+        List<MessageUid> result = testee.retrieveExpungedSince(MAILBOX_ID, MOD_SEQ_1)
+            .collectList()
+            .block();
+
+        assertThat(result).containsOnly(UID_2, UID_3);
+    }
+
+    @Test
+    void retrieveExpungedSinceShouldNotReturnUidsOfOtherMailboxes() {
+        testee.addExpunged(OTHER_MAILBOX_ID, MOD_SEQ_2, UID_1).block();
+
+        List<MessageUid> result = testee.retrieveExpungedSince(MAILBOX_ID, ModSeq.first())
+            .collectList()
+            .block();
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void addExpungedShouldBeIdempotent() {
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_1, UID_1).block();
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_1, UID_1).block();
+
+        List<MessageUid> result = testee.retrieveExpungedSince(MAILBOX_ID, ModSeq.first())
+            .collectList()
+            .block();
+
+        assertThat(result).containsExactly(UID_1);
+    }
+
+    @Test
+    void retrieveLogStartShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieveLogStart(MAILBOX_ID).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void retrieveLogStartShouldReturnTheStartedModSeq() {
+        testee.startLog(MAILBOX_ID, MOD_SEQ_2).block();
+
+        assertThat(testee.retrieveLogStart(MAILBOX_ID).blockOptional()).contains(MOD_SEQ_2);
+    }
+
+    @Test
+    void moveLogStartShouldMoveTheStartWhenExpected() {
+        testee.startLog(MAILBOX_ID, MOD_SEQ_1).block();
+
+        assertThat(testee.moveLogStart(MAILBOX_ID, MOD_SEQ_1, MOD_SEQ_2).block()).isTrue();
+        assertThat(testee.retrieveLogStart(MAILBOX_ID).blockOptional()).contains(MOD_SEQ_2);
+    }
+
+    @Test
+    void moveLogStartShouldNotMoveTheStartWhenNotExpected() {
+        testee.startLog(MAILBOX_ID, MOD_SEQ_2).block();
+
+        assertThat(testee.moveLogStart(MAILBOX_ID, MOD_SEQ_1, ModSeq.of(3)).block()).isFalse();
+        assertThat(testee.retrieveLogStart(MAILBOX_ID).blockOptional()).contains(MOD_SEQ_2);
+    }
+
+    @Test
+    void removeExpungedUpToShouldRemoveUidsExpungedUpToTheGivenModSeq() {
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_1, UID_1).block();
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_2, UID_2).block();
+        testee.addExpunged(MAILBOX_ID, ModSeq.of(3), UID_3).block();
+
+        testee.removeExpungedUpTo(MAILBOX_ID, MOD_SEQ_2).block();
+
+        assertThat(testee.retrieveExpungedSince(MAILBOX_ID, ModSeq.first()).collectList().block())
+            .containsOnly(UID_3);
+    }
+
+    @Test
+    void removeAllShouldRemoveTheLogOfTheMailbox() {
+        testee.startLog(MAILBOX_ID, MOD_SEQ_1).block();
+        testee.addExpunged(MAILBOX_ID, MOD_SEQ_2, UID_1).block();
+
+        testee.removeAll(MAILBOX_ID).block();
+
+        assertThat(testee.retrieveLogStart(MAILBOX_ID).blockOptional()).isEmpty();
+        assertThat(testee.retrieveExpungedSince(MAILBOX_ID, ModSeq.first()).collectList().block()).isEmpty();
+    }
+
+    @Test
+    void removeAllShouldNotRemoveTheLogOfOtherMailboxes() {
+        testee.startLog(OTHER_MAILBOX_ID, MOD_SEQ_1).block();
+        testee.addExpunged(OTHER_MAILBOX_ID, MOD_SEQ_2, UID_1).block();
+
+        testee.removeAll(MAILBOX_ID).block();
+
+        assertThat(testee.retrieveLogStart(OTHER_MAILBOX_ID).blockOptional()).contains(MOD_SEQ_1);
+        assertThat(testee.retrieveExpungedSince(OTHER_MAILBOX_ID, ModSeq.first()).collectList().block())
+            .containsOnly(UID_1);
+    }
+
+    @Test
+    void startLogShouldReturnTrueWhenNotStarted() {
+        assertThat(testee.startLog(MAILBOX_ID, MOD_SEQ_2).block()).isTrue();
+    }
+
+    @Test
+    void startLogShouldReturnFalseWhenAlreadyStarted() {
+        testee.startLog(MAILBOX_ID, MOD_SEQ_1).block();
+
+        assertThat(testee.startLog(MAILBOX_ID, MOD_SEQ_2).block()).isFalse();
+    }
+
+    @Test
+    void startLogShouldNotOverrideAnExistingStart() {
+        testee.startLog(MAILBOX_ID, MOD_SEQ_1).block();
+
+        testee.startLog(MAILBOX_ID, MOD_SEQ_2).block();
+
+        assertThat(testee.retrieveLogStart(MAILBOX_ID).blockOptional()).contains(MOD_SEQ_1);
+    }
+}
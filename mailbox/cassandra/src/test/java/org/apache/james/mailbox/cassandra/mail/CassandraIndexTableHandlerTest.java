@@ -28,6 +28,7 @@ import javax.mail.Flags;
 import org.apache.james.backends.cassandra.CassandraCluster;
 import org.apache.james.backends.cassandra.CassandraClusterExtension;
 import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.init.configuration.CassandraConfiguration;
 import org.apache.james.core.Username;
 import org.apache.james.mailbox.FlagsBuilder;
 import org.apache.james.mailbox.MessageUid;
@@ -36,9 +37,11 @@ import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.ids.CassandraMessageId;
 import org.apache.james.mailbox.cassandra.modules.CassandraApplicableFlagsModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraDeletedMessageModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraExpungedMessageModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraFirstUnseenModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxCounterModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxRecentsModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraModSeqModule;
 import org.apache.james.mailbox.model.ComposedMessageId;
 import org.apache.james.mailbox.model.ComposedMessageIdWithMetaData;
 import org.apache.james.mailbox.model.Mailbox;
@@ -50,6 +53,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Mono;
+
 class CassandraIndexTableHandlerTest {
 
     private static final CassandraId MAILBOX_ID = CassandraId.timeBased();
@@ -65,7 +72,9 @@ class CassandraIndexTableHandlerTest {
             CassandraMailboxRecentsModule.MODULE,
             CassandraFirstUnseenModule.MODULE,
             CassandraApplicableFlagsModule.MODULE,
-            CassandraDeletedMessageModule.MODULE));
+            CassandraDeletedMessageModule.MODULE,
+            CassandraExpungedMessageModule.MODULE,
+            CassandraModSeqModule.MODULE));
 
     private CassandraMailboxCounterDAO mailboxCounterDAO;
     private CassandraMailboxRecentsDAO mailboxRecentsDAO;
@@ -73,6 +82,7 @@ class CassandraIndexTableHandlerTest {
     private CassandraFirstUnseenDAO firstUnseenDAO;
     private CassandraIndexTableHandler testee;
     private CassandraDeletedMessageDAO deletedMessageDAO;
+    private CassandraExpungedMessageDAO expungedMessageDAO;
     private Mailbox mailbox;
 
     @BeforeEach
@@ -82,18 +92,132 @@ class CassandraIndexTableHandlerTest {
         firstUnseenDAO = new CassandraFirstUnseenDAO(cassandra.getConf());
         applicableFlagDAO = new CassandraApplicableFlagDAO(cassandra.getConf());
         deletedMessageDAO = new CassandraDeletedMessageDAO(cassandra.getConf());
+        expungedMessageDAO = new CassandraExpungedMessageDAO(cassandra.getConf());
 
         testee = new CassandraIndexTableHandler(mailboxRecentsDAO,
                                                 mailboxCounterDAO,
                                                 firstUnseenDAO,
                                                 applicableFlagDAO,
-                                                deletedMessageDAO);
+                                                deletedMessageDAO,
+                                                expungedMessageDAO,
+                                                new CassandraModSeqProvider(cassandra.getConf(), CassandraConfiguration.DEFAULT_CONFIGURATION));
 
         mailbox = new Mailbox(MailboxPath.forUser(Username.of("user"), "name"),
             UID_VALIDITY,
             MAILBOX_ID);
     }
 
+    @Test
+    void updateIndexOnAddShouldStartTheExpungeLogOnTheFirstMessage() {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MessageUid.MIN_VALUE);
+
+        testee.updateIndexOnAdd(message, MAILBOX_ID).block();
+
+        assertThat(expungedMessageDAO.retrieveLogStart(MAILBOX_ID).blockOptional())
+            .contains(ModSeq.first());
+    }
+
+    @Test
+    void updateIndexOnAddShouldNotStartTheExpungeLogOnLaterMessages() {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MESSAGE_UID);
+
+        testee.updateIndexOnAdd(message, MAILBOX_ID).block();
+
+        assertThat(expungedMessageDAO.retrieveLogStart(MAILBOX_ID).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void updateIndexOnExpungeShouldLogTheExpungedUids() {
+        MessageUid otherUid = MessageUid.of(19L);
+
+        testee.updateIndexOnExpunge(MAILBOX_ID, ImmutableList.of(MESSAGE_UID, otherUid)).block();
+
+        assertThat(expungedMessageDAO.retrieveExpungedSince(MAILBOX_ID, ModSeq.first()).collectList().block())
+            .containsOnly(MESSAGE_UID, otherUid);
+    }
+
+    @Test
+    void updateIndexOnExpungeShouldStartTheExpungeLogWhenMissing() {
+        testee.updateIndexOnExpunge(MAILBOX_ID, ImmutableList.of(MESSAGE_UID)).block();
+
+        ModSeq logStart = expungedMessageDAO.retrieveLogStart(MAILBOX_ID).block();
+        assertThat(expungedMessageDAO.retrieveExpungedSince(MAILBOX_ID, logStart).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void updateIndexOnExpungeShouldNotMoveAStartedExpungeLog() {
+        MailboxMessage message = mock(MailboxMessage.class);
+        when(message.createFlags()).thenReturn(new Flags());
+        when(message.getUid()).thenReturn(MessageUid.MIN_VALUE);
+        testee.updateIndexOnAdd(message, MAILBOX_ID).block();
+
+        testee.updateIndexOnExpunge(MAILBOX_ID, ImmutableList.of(MessageUid.MIN_VALUE)).block();
+
+        assertThat(expungedMessageDAO.retrieveLogStart(MAILBOX_ID).blockOptional())
+            .contains(ModSeq.first());
+    }
+
+    @Test
+    void updateIndexOnExpungeShouldLogEachCallUnderAHigherModSeq() {
+        MessageUid otherUid = MessageUid.of(19L);
+        testee.updateIndexOnExpunge(MAILBOX_ID, ImmutableList.of(MESSAGE_UID)).block();
+        ModSeq firstExpunge = expungedMessageDAO.retrieveLogStart(MAILBOX_ID).block();
+
+        testee.updateIndexOnExpunge(MAILBOX_ID, ImmutableList.of(otherUid)).block();
+
+        assertThat(expungedMessageDAO.retrieveExpungedSince(MAILBOX_ID, firstExpunge).collectList().block())
+            .containsOnly(otherUid);
+    }
+
+    @Test
+    void updateIndexOnExpungeShouldTrimTheExpungeLogWhenTooLong() {
+        MessageUid otherUid = MessageUid.of(19L);
+        expungedMessageDAO.startLog(MAILBOX_ID, ModSeq.first()).block();
+        expungedMessageDAO.addExpunged(MAILBOX_ID, ModSeq.of(2), MESSAGE_UID).block();
+        ModSeq modSeq = ModSeq.of(2 * CassandraIndexTableHandler.EXPUNGE_LOG_LENGTH + 2);
+
+        handlerAllocating(modSeq).updateIndexOnExpunge(MAILBOX_ID, ImmutableList.of(otherUid)).block();
+
+        ModSeq expectedLogStart = ModSeq.of(modSeq.asLong() - CassandraIndexTableHandler.EXPUNGE_LOG_LENGTH);
+        assertThat(expungedMessageDAO.retrieveLogStart(MAILBOX_ID).blockOptional())
+            .contains(expectedLogStart);
+        assertThat(expungedMessageDAO.retrieveExpungedSince(MAILBOX_ID, ModSeq.first()).collectList().block())
+            .containsOnly(otherUid);
+    }
+
+    @Test
+    void updateIndexOnExpungeShouldNotTrimTheExpungeLogWhenShortEnough() {
+        MessageUid otherUid = MessageUid.of(19L);
+        expungedMessageDAO.startLog(MAILBOX_ID, ModSeq.first()).block();
+        expungedMessageDAO.addExpunged(MAILBOX_ID, ModSeq.of(2), MESSAGE_UID).block();
+        ModSeq modSeq = ModSeq.of(2 * CassandraIndexTableHandler.EXPUNGE_LOG_LENGTH + 1);
+
+        handlerAllocating(modSeq).updateIndexOnExpunge(MAILBOX_ID, ImmutableList.of(otherUid)).block();
+
+        assertThat(expungedMessageDAO.retrieveLogStart(MAILBOX_ID).blockOptional())
+            .contains(ModSeq.first());
+        assertThat(expungedMessageDAO.retrieveExpungedSince(MAILBOX_ID, ModSeq.first()).collectList().block())
+            .containsOnly(MESSAGE_UID, otherUid);
+    }
+
+    private CassandraIndexTableHandler handlerAllocating(ModSeq modSeq) {
+        CassandraModSeqProvider modSeqProvider = mock(CassandraModSeqProvider.class);
+        when(modSeqProvider.nextModSeq(MAILBOX_ID)).thenReturn(Mono.just(modSeq));
+        return new CassandraIndexTableHandler(mailboxRecentsDAO,
+            mailboxCounterDAO,
+            firstUnseenDAO,
+            applicableFlagDAO,
+            deletedMessageDAO,
+            expungedMessageDAO,
+            modSeqProvider);
+    }
+
     @Test
     void updateIndexOnAddShouldIncrementMessageCount() throws Exception {
         MailboxMessage message = mock(MailboxMessage.class);
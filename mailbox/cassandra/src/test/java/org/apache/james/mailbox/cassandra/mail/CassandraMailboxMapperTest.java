@@ -32,8 +32,11 @@ import org.apache.james.backends.cassandra.init.configuration.CassandraConfigura
 import org.apache.james.backends.cassandra.utils.CassandraUtils;
 import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
 import org.apache.james.core.Username;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
 import org.apache.james.mailbox.cassandra.ids.CassandraId;
 import org.apache.james.mailbox.cassandra.modules.CassandraAclModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraExpungedMessageModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxModule;
 import org.apache.james.mailbox.exception.MailboxNotFoundException;
 import org.apache.james.mailbox.exception.TooLongMailboxNameException;
@@ -60,7 +63,8 @@ class CassandraMailboxMapperTest {
     private static final CassandraModule MODULES = CassandraModule.aggregateModules(
         CassandraMailboxModule.MODULE,
         CassandraSchemaVersionModule.MODULE,
-        CassandraAclModule.MODULE);
+        CassandraAclModule.MODULE,
+        CassandraExpungedMessageModule.MODULE);
 
     @RegisterExtension
     static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(MODULES);
@@ -68,6 +72,7 @@ class CassandraMailboxMapperTest {
     private CassandraMailboxDAO mailboxDAO;
     private CassandraMailboxPathDAOImpl mailboxPathDAO;
     private CassandraMailboxPathV2DAO mailboxPathV2DAO;
+    private CassandraExpungedMessageDAO expungedMessageDAO;
     private CassandraMailboxMapper testee;
 
     @BeforeEach
@@ -77,6 +82,7 @@ class CassandraMailboxMapperTest {
         mailboxPathDAO = new CassandraMailboxPathDAOImpl(cassandra.getConf(), cassandra.getTypesProvider());
         mailboxPathV2DAO = new CassandraMailboxPathV2DAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
         CassandraUserMailboxRightsDAO userMailboxRightsDAO = new CassandraUserMailboxRightsDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION);
+        expungedMessageDAO = new CassandraExpungedMessageDAO(cassandra.getConf());
         testee = new CassandraMailboxMapper(
             mailboxDAO,
             mailboxPathDAO,
@@ -84,7 +90,8 @@ class CassandraMailboxMapperTest {
             userMailboxRightsDAO,
             new CassandraACLMapper(cassandra.getConf(),
                 new CassandraUserMailboxRightsDAO(cassandra.getConf(), CassandraUtils.WITH_DEFAULT_CONFIGURATION),
-                CassandraConfiguration.DEFAULT_CONFIGURATION));
+                CassandraConfiguration.DEFAULT_CONFIGURATION),
+            expungedMessageDAO);
     }
 
     @Disabled("JAMES-2514 Cassandra 3 supports long mailbox names. Hence we can not rely on this for failing")
@@ -119,6 +126,23 @@ class CassandraMailboxMapperTest {
             .isInstanceOf(MailboxNotFoundException.class);
     }
 
+    @Test
+    void deleteShouldDeleteTheExpungeLogOfTheMailbox() {
+        mailboxDAO.save(MAILBOX)
+            .block();
+        mailboxPathV2DAO.save(MAILBOX_PATH, MAILBOX_ID)
+            .block();
+        expungedMessageDAO.startLog(MAILBOX_ID, ModSeq.first()).block();
+        expungedMessageDAO.addExpunged(MAILBOX_ID, ModSeq.of(2), MessageUid.of(1)).block();
+
+        testee.delete(MAILBOX);
+
+        assertThat(expungedMessageDAO.retrieveLogStart(MAILBOX_ID).blockOptional())
+            .isEmpty();
+        assertThat(expungedMessageDAO.retrieveExpungedSince(MAILBOX_ID, ModSeq.first()).collectList().block())
+            .isEmpty();
+    }
+
     @Test
     void deleteShouldDeleteMailboxAndMailboxPathFromV2Table() {
         mailboxDAO.save(MAILBOX)
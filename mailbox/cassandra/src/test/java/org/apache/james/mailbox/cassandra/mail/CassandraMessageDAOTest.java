@@ -142,7 +142,7 @@ class CassandraMessageDAOTest {
         MessageWithoutAttachment attachmentRepresentation =
             toMessage(testee.retrieveMessages(messageIds, MessageMapper.FetchType.Full, Limit.unlimited()));
 
-        assertThat(IOUtils.toString(attachmentRepresentation.getContent(), StandardCharsets.UTF_8))
+        assertThat(IOUtils.toString(attachmentRepresentation.getContent().newStream(0, -1), StandardCharsets.UTF_8))
             .isEqualTo(CONTENT);
     }
 
@@ -158,7 +158,7 @@ class CassandraMessageDAOTest {
         byte[] expected = Bytes.concat(
             new byte[BODY_START],
             CONTENT.substring(BODY_START).getBytes(StandardCharsets.UTF_8));
-        assertThat(IOUtils.toString(attachmentRepresentation.getContent(), StandardCharsets.UTF_8))
+        assertThat(IOUtils.toString(attachmentRepresentation.getContent().newStream(0, -1), StandardCharsets.UTF_8))
             .isEqualTo(IOUtils.toString(new ByteArrayInputStream(expected), StandardCharsets.UTF_8));
     }
 
@@ -171,7 +171,7 @@ class CassandraMessageDAOTest {
         MessageWithoutAttachment attachmentRepresentation =
             toMessage(testee.retrieveMessages(messageIds, MessageMapper.FetchType.Headers, Limit.unlimited()));
 
-        assertThat(IOUtils.toString(attachmentRepresentation.getContent(), StandardCharsets.UTF_8))
+        assertThat(IOUtils.toString(attachmentRepresentation.getContent().newStream(0, -1), StandardCharsets.UTF_8))
             .isEqualTo(CONTENT.substring(0, BODY_START));
     }
 
@@ -198,6 +198,22 @@ class CassandraMessageDAOTest {
             .orElseThrow(() -> new IllegalStateException("Collection is not supposed to be empty"));
     }
 
+    @Test
+    void listBlobsShouldReturnEmptyWhenNone() {
+        assertThat(testee.listBlobs().collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    void listBlobsShouldReturnHeaderAndBodyBlobsOfStoredMessages() throws Exception {
+        message = createMessage(messageId, CONTENT, BODY_START, new PropertyBuilder(), NO_ATTACHMENT);
+
+        testee.save(message).block();
+
+        assertThat(testee.listBlobs().collectList().block())
+            .hasSize(2);
+    }
+
     @Test
     void retrieveAllMessageIdAttachmentIdsShouldReturnEmptyWhenNone() {
         Stream<MessageIdAttachmentIds> actual = testee.retrieveAllMessageIdAttachmentIds().toStream();
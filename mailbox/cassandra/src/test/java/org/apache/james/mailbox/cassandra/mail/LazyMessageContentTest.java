@@ -0,0 +1,148 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.cassandra.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LazyMessageContentTest {
+    private static final byte[] HEADERS = "Subject: test\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BODY = "Body content".getBytes(StandardCharsets.US_ASCII);
+    private static final String FULL_CONTENT = "Subject: test\r\n\r\nBody content";
+
+    private BlobStore blobStore;
+    private LazyMessageContent testee;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = spy(new MemoryBlobStore(new HashBlobId.Factory()));
+        BlobId bodyBlobId = blobStore.save(blobStore.getDefaultBucketName(), BODY).block();
+        testee = new LazyMessageContent(HEADERS, blobStore, bodyBlobId);
+    }
+
+    @Test
+    void newStreamShouldReturnFullContentWhenUnbounded() throws Exception {
+        assertThat(IOUtils.toString(testee.newStream(0, -1), StandardCharsets.US_ASCII))
+            .isEqualTo(FULL_CONTENT);
+    }
+
+    @Test
+    void newStreamShouldNotReadBodyWhenEndingBeforeBody() throws Exception {
+        assertThat(IOUtils.toString(testee.newStream(0, HEADERS.length), StandardCharsets.US_ASCII))
+            .isEqualTo("Subject: test\r\n\r\n");
+        verify(blobStore, never()).read(any(), any());
+        verify(blobStore, never()).readRange(any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void newStreamShouldReturnBodyWhenStartingAtBody() throws Exception {
+        assertThat(IOUtils.toString(testee.newStream(HEADERS.length, -1), StandardCharsets.US_ASCII))
+            .isEqualTo("Body content");
+    }
+
+    @Test
+    void newStreamShouldSupportRangesWithinBody() throws Exception {
+        assertThat(IOUtils.toString(testee.newStream(HEADERS.length + 5, HEADERS.length + 9), StandardCharsets.US_ASCII))
+            .isEqualTo("cont");
+    }
+
+    @Test
+    void newStreamShouldOnlyReadTheRequestedBodyRange() throws Exception {
+        IOUtils.toString(testee.newStream(HEADERS.length + 5, HEADERS.length + 9), StandardCharsets.US_ASCII);
+
+        verify(blobStore).readRange(any(), any(), eq(5L), eq(4L));
+        verify(blobStore, never()).read(any(), any());
+    }
+
+    @Test
+    void newStreamShouldSupportRangesSpanningHeadersAndBody() throws Exception {
+        assertThat(IOUtils.toString(testee.newStream(9, HEADERS.length + 4), StandardCharsets.US_ASCII))
+            .isEqualTo("test\r\n\r\nBody");
+    }
+
+    @Test
+    void newStreamShouldReturnEmptyWhenStartingAfterContent() throws Exception {
+        assertThat(IOUtils.toString(testee.newStream(FULL_CONTENT.length() + 10, -1), StandardCharsets.US_ASCII))
+            .isEmpty();
+    }
+
+    @Test
+    void bodyShouldNotBeReadBeforeAnyStreamIsRequested() {
+        verify(blobStore, never()).read(any(), any());
+    }
+
+    @Test
+    void bodyShouldBeReadOnceWhenReadInFull() throws Exception {
+        IOUtils.toString(testee.newStream(0, -1), StandardCharsets.US_ASCII);
+
+        assertThat(IOUtils.toString(testee.newStream(0, -1), StandardCharsets.US_ASCII))
+            .isEqualTo(FULL_CONTENT);
+        verify(blobStore, times(1)).read(any(), any());
+    }
+
+    @Test
+    void rangesShouldBeServedFromTheBodyReadInFull() throws Exception {
+        IOUtils.toString(testee.newStream(0, -1), StandardCharsets.US_ASCII);
+
+        assertThat(IOUtils.toString(testee.newStream(HEADERS.length + 5, HEADERS.length + 9), StandardCharsets.US_ASCII))
+            .isEqualTo("cont");
+        assertThat(IOUtils.toString(testee.newStream(FULL_CONTENT.length() + 10, -1), StandardCharsets.US_ASCII))
+            .isEmpty();
+        verify(blobStore, never()).readRange(any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void bodyShouldBeReadAgainWhenNotReadInFull() throws Exception {
+        testee.newStream(0, -1).read(new byte[HEADERS.length + 2]);
+
+        assertThat(IOUtils.toString(testee.newStream(0, -1), StandardCharsets.US_ASCII))
+            .isEqualTo(FULL_CONTENT);
+        verify(blobStore, times(2)).read(any(), any());
+    }
+
+    @Test
+    void newStreamShouldThrowOnNegativeStart() {
+        assertThatThrownBy(() -> testee.newStream(-1, -1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void newStreamShouldThrowWhenEndIsBeforeStart() {
+        assertThatThrownBy(() -> testee.newStream(5, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
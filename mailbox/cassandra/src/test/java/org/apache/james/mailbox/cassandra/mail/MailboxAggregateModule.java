@@ -27,6 +27,7 @@ import org.apache.james.mailbox.cassandra.modules.CassandraAnnotationModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraApplicableFlagsModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraAttachmentModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraDeletedMessageModule;
+import org.apache.james.mailbox.cassandra.modules.CassandraExpungedMessageModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraFirstUnseenModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxCounterModule;
 import org.apache.james.mailbox.cassandra.modules.CassandraMailboxModule;
@@ -52,6 +53,7 @@ public interface MailboxAggregateModule {
             CassandraModSeqModule.MODULE,
             CassandraSubscriptionModule.MODULE,
             CassandraDeletedMessageModule.MODULE,
+            CassandraExpungedMessageModule.MODULE,
             CassandraAnnotationModule.MODULE,
             CassandraApplicableFlagsModule.MODULE);
 
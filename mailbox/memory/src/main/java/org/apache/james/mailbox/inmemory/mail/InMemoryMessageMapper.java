@@ -25,7 +25,10 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.mail.Flags;
 import javax.mail.Flags.Flag;
@@ -48,15 +51,21 @@ import org.apache.james.mailbox.store.mail.model.impl.SimpleMailboxMessage;
 import org.apache.james.mailbox.store.mail.utils.ApplicableFlagCalculator;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 public class InMemoryMessageMapper extends AbstractMessageMapper {
     private final Map<InMemoryId, Map<MessageUid, MailboxMessage>> mailboxByUid;
+    private final Map<InMemoryId, NavigableMap<ModSeq, MessageUid>> expungedByModSeq;
+    private final ModSeqProvider modSeqProvider;
     private static final int INITIAL_SIZE = 256;
 
     public InMemoryMessageMapper(MailboxSession session, UidProvider uidProvider,
             ModSeqProvider modSeqProvider) {
         super(session, uidProvider, modSeqProvider);
         this.mailboxByUid = new ConcurrentHashMap<>(INITIAL_SIZE);
+        this.expungedByModSeq = new ConcurrentHashMap<>(INITIAL_SIZE);
+        this.modSeqProvider = modSeqProvider;
     }
 
     private Map<MessageUid, MailboxMessage> getMembershipByUidForMailbox(Mailbox mailbox) {
@@ -112,8 +121,8 @@ public class InMemoryMessageMapper extends AbstractMessageMapper {
     }
 
     @Override
-    public void delete(Mailbox mailbox, MailboxMessage message) {
-        getMembershipByUidForMailbox(mailbox).remove(message.getUid());
+    public void delete(Mailbox mailbox, MailboxMessage message) throws MailboxException {
+        remove((InMemoryId) mailbox.getMailboxId(), message.getUid());
     }
 
     @Override
@@ -121,10 +130,31 @@ public class InMemoryMessageMapper extends AbstractMessageMapper {
         InMemoryId originalMailboxId = (InMemoryId) original.getMailboxId();
         MessageUid uid = original.getUid();
         MessageMetaData messageMetaData = copy(mailbox, original);
-        getMembershipByUidForId(originalMailboxId).remove(uid);
+        remove(originalMailboxId, uid);
         return messageMetaData;
     }
 
+    private void remove(InMemoryId mailboxId, MessageUid uid) throws MailboxException {
+        if (getMembershipByUidForId(mailboxId).remove(uid) != null) {
+            ModSeq modSeq = modSeqProvider.nextModSeq(mailboxId);
+            expungedByModSeq.computeIfAbsent(mailboxId, any -> new ConcurrentSkipListMap<>())
+                .put(modSeq, uid);
+        }
+    }
+
+    @Override
+    public Optional<List<MessageUid>> listExpungedUidsSince(Mailbox mailbox, ModSeq modSeq) {
+        NavigableMap<ModSeq, MessageUid> expunged = expungedByModSeq.get((InMemoryId) mailbox.getMailboxId());
+        if (expunged == null) {
+            return Optional.of(ImmutableList.of());
+        }
+        return Optional.of(expunged.tailMap(modSeq, false)
+            .values()
+            .stream()
+            .sorted()
+            .collect(Guavate.toImmutableList()));
+    }
+
     @Override
     public Iterator<MailboxMessage> findInMailbox(Mailbox mailbox, MessageRange set, FetchType ftype, int max) {
         List<MailboxMessage> results = new ArrayList<>(getMembershipByUidForMailbox(mailbox).values());
@@ -179,12 +209,17 @@ public class InMemoryMessageMapper extends AbstractMessageMapper {
     }
 
     @Override
-    public Map<MessageUid, MessageMetaData> deleteMessages(Mailbox mailbox, List<MessageUid> uids) {
-        return getMembershipByUidForMailbox(mailbox).values()
+    public Map<MessageUid, MessageMetaData> deleteMessages(Mailbox mailbox, List<MessageUid> uids) throws MailboxException {
+        List<MailboxMessage> deletedMessages = getMembershipByUidForMailbox(mailbox).values()
             .stream()
             .filter(message -> uids.contains(message.getUid()))
-            .peek(message -> delete(mailbox, message))
-            .collect(Guavate.toImmutableMap(MailboxMessage::getUid, MailboxMessage::metaData));
+            .collect(Guavate.toImmutableList());
+        ImmutableMap.Builder<MessageUid, MessageMetaData> result = ImmutableMap.builder();
+        for (MailboxMessage message : deletedMessages) {
+            delete(mailbox, message);
+            result.put(message.getUid(), message.metaData());
+        }
+        return result.build();
     }
 
     @Override
@@ -195,6 +230,7 @@ public class InMemoryMessageMapper extends AbstractMessageMapper {
 
     public void deleteAll() {
         mailboxByUid.clear();
+        expungedByModSeq.clear();
     }
 
     @Override
@@ -109,7 +109,8 @@ public class InMemoryMapperProvider implements MapperProvider {
             Capabilities.ANNOTATION,
             Capabilities.MOVE,
             Capabilities.ACL_STORAGE,
-            Capabilities.UNIQUE_MESSAGE_ID);
+            Capabilities.UNIQUE_MESSAGE_ID,
+            Capabilities.EXPUNGED_UIDS);
     }
 
     @Override
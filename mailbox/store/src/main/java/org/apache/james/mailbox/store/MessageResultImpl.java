@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.mail.Flags;
 
@@ -48,6 +49,7 @@ import org.apache.james.mailbox.store.streaming.InputStreamContent.Type;
 import org.apache.james.mime4j.MimeException;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Bean based implementation.
@@ -276,8 +278,8 @@ public class MessageResultImpl implements MessageResult {
         // it can be relative expensive on big messages and slow mailbox implementations
         if (mimeDescriptor == null) {
             try {
-                if (isComposite(message.getMediaType())) {
-                    mimeDescriptor = MimeDescriptorImpl.build(getFullContent().getInputStream());
+                if (MimeStructure.isComposite(message.getMediaType())) {
+                    mimeDescriptor = compositeMimeDescriptor();
                 } else {
                     mimeDescriptor = new LazyMimeDescriptor(this, message);
                 }
@@ -288,18 +290,14 @@ public class MessageResultImpl implements MessageResult {
         return mimeDescriptor;
     }
 
-    /**
-     * Is this a composite media type (as per RFC2045)?
-     *
-     * TODO: Move to Mime4j
-     * @param mediaType possibly null
-     * @return true when the type is composite,
-     * false otherwise
-     */
-    private boolean isComposite(String mediaType) {
-        return "message".equalsIgnoreCase(mediaType) || "multipart".equalsIgnoreCase(mediaType);
+    private MimeDescriptor compositeMimeDescriptor() throws IOException, MimeException, MailboxException {
+        Optional<MimeStructure> mimeStructure = MimeStructure.fromProperties(message.getProperties());
+        if (mimeStructure.isPresent()) {
+            return mimeStructure.get().withHeaders(ImmutableList.copyOf(headers.headers()));
+        }
+        return MimeDescriptorImpl.build(getFullContent().getInputStream());
     }
-    
+
     @Override
     public Headers getHeaders() {
         return headers;
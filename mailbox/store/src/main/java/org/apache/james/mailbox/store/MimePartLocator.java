@@ -0,0 +1,271 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.mail.internet.SharedInputStream;
+
+import org.apache.james.mailbox.model.MimeDescriptor;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+
+/**
+ * Locates the body of the leaf parts of a multipart message within its content.
+ *
+ * The content is read once to list the lines starting with "--", which are the only possible boundary delimiters.
+ * Parts are then delimited using the boundaries of the already parsed {@link MimeDescriptor}, and only the header
+ * section of each part needs to be read again.
+ *
+ * Located bodies are checked against the octet count of the parsed parts. Any discrepancy, which would mean the
+ * parser delimited parts differently, discards all the locations so that the message keeps being parsed.
+ */
+class MimePartLocator {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_DASH_LINE_PREFIX = 256;
+    private static final byte DASH = '-';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte[] DOUBLE_DASH = {DASH, DASH};
+
+    private static class DashLine {
+        private final long start;
+        private final long end;
+        private final int precedingLineBreakLength;
+        private final byte[] prefix;
+
+        private DashLine(long start, long end, int precedingLineBreakLength, byte[] prefix) {
+            this.start = start;
+            this.end = end;
+            this.precedingLineBreakLength = precedingLineBreakLength;
+            this.prefix = prefix;
+        }
+
+        private boolean startsWith(byte[] value, int offset) {
+            if (prefix.length < offset + value.length) {
+                return false;
+            }
+            for (int i = 0; i < value.length; i++) {
+                if (prefix[offset + i] != value[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isDelimiter(byte[] delimiter) {
+            return startsWith(delimiter, 0);
+        }
+
+        private boolean isCloseDelimiter(byte[] delimiter) {
+            return isDelimiter(delimiter) && startsWith(DOUBLE_DASH, delimiter.length);
+        }
+
+        private long contentEnd() {
+            return start - precedingLineBreakLength;
+        }
+    }
+
+    private static class LocationFailedException extends Exception {
+        private LocationFailedException(String message) {
+            super(message);
+        }
+    }
+
+    static Map<List<Integer>, Range<Long>> locate(SharedInputStream content, long bodyStartOctet, MimeDescriptor root) throws IOException {
+        if (!"multipart".equalsIgnoreCase(root.getMimeType())) {
+            return ImmutableMap.of();
+        }
+        MimePartLocator locator = new MimePartLocator(content, listDashLines(content));
+        ImmutableMap.Builder<List<Integer>, Range<Long>> result = ImmutableMap.builder();
+        try {
+            locator.locateMultipart(root, ImmutableList.of(), bodyStartOctet, locator.contentEnd, result);
+            return result.build();
+        } catch (LocationFailedException e) {
+            return ImmutableMap.of();
+        }
+    }
+
+    private static DashLines listDashLines(SharedInputStream content) throws IOException {
+        ImmutableList.Builder<DashLine> dashLines = ImmutableList.builder();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] prefix = new byte[MAX_DASH_LINE_PREFIX];
+        long position = 0;
+        boolean lineStart = true;
+        byte previous = 0;
+        int lineBreakLength = 0;
+        long dashLineStart = -1;
+        int dashLinePrecedingLineBreakLength = 0;
+        int prefixLength = 0;
+
+        try (InputStream stream = content.newStream(0, -1)) {
+            for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (lineStart && b == DASH) {
+                        dashLineStart = position;
+                        dashLinePrecedingLineBreakLength = lineBreakLength;
+                        prefixLength = 0;
+                    }
+                    lineStart = false;
+                    if (dashLineStart >= 0 && prefixLength < MAX_DASH_LINE_PREFIX) {
+                        prefix[prefixLength++] = b;
+                    }
+                    position++;
+                    if (b == LF) {
+                        lineBreakLength = previous == CR ? 2 : 1;
+                        lineStart = true;
+                        if (dashLineStart >= 0) {
+                            dashLines.add(new DashLine(dashLineStart, position, dashLinePrecedingLineBreakLength,
+                                Arrays.copyOf(prefix, prefixLength)));
+                            dashLineStart = -1;
+                        }
+                    }
+                    previous = b;
+                }
+            }
+        }
+        if (dashLineStart >= 0) {
+            dashLines.add(new DashLine(dashLineStart, position, dashLinePrecedingLineBreakLength,
+                Arrays.copyOf(prefix, prefixLength)));
+        }
+        return new DashLines(dashLines.build(), position);
+    }
+
+    private static class DashLines {
+        private final List<DashLine> lines;
+        private final long contentEnd;
+
+        private DashLines(List<DashLine> lines, long contentEnd) {
+            this.lines = lines;
+            this.contentEnd = contentEnd;
+        }
+    }
+
+    private final SharedInputStream content;
+    private final List<DashLine> dashLines;
+    private final long contentEnd;
+
+    private MimePartLocator(SharedInputStream content, DashLines dashLines) {
+        this.content = content;
+        this.dashLines = dashLines.lines;
+        this.contentEnd = dashLines.contentEnd;
+    }
+
+    private void locateMultipart(MimeDescriptor multipart, List<Integer> path, long bodyStart, long bodyEnd,
+                                 ImmutableMap.Builder<List<Integer>, Range<Long>> result) throws IOException, LocationFailedException {
+        String boundary = multipart.contentTypeParameters().get("boundary");
+        if (boundary == null) {
+            throw new LocationFailedException("No boundary for multipart " + path);
+        }
+        byte[] delimiter = ("--" + boundary).getBytes(US_ASCII);
+        List<DashLine> delimiters = delimiters(delimiter, bodyStart, bodyEnd);
+        List<MimeDescriptor> parts = ImmutableList.copyOf(multipart.parts());
+        int partCount = delimiters.size() - (endsWithCloseDelimiter(delimiters, delimiter) ? 1 : 0);
+        if (partCount != parts.size()) {
+            throw new LocationFailedException("Found " + partCount + " parts instead of " + parts.size() + " for multipart " + path);
+        }
+
+        for (int i = 0; i < partCount; i++) {
+            long partStart = Math.min(delimiters.get(i).end, bodyEnd);
+            long partEnd = partEnd(delimiters, i, partStart, bodyEnd);
+            locatePart(parts.get(i), MimeStructure.childPath(path, i + 1), partStart, partEnd, result);
+        }
+    }
+
+    private List<DashLine> delimiters(byte[] delimiter, long bodyStart, long bodyEnd) {
+        ImmutableList.Builder<DashLine> result = ImmutableList.builder();
+        for (DashLine line : dashLines) {
+            if (line.start >= bodyEnd) {
+                break;
+            }
+            if (line.start >= bodyStart && line.isDelimiter(delimiter)) {
+                result.add(line);
+                if (line.isCloseDelimiter(delimiter)) {
+                    break;
+                }
+            }
+        }
+        return result.build();
+    }
+
+    private boolean endsWithCloseDelimiter(List<DashLine> delimiters, byte[] delimiter) {
+        return !delimiters.isEmpty() && delimiters.get(delimiters.size() - 1).isCloseDelimiter(delimiter);
+    }
+
+    private long partEnd(List<DashLine> delimiters, int index, long partStart, long bodyEnd) {
+        if (index + 1 < delimiters.size()) {
+            return Math.max(partStart, delimiters.get(index + 1).contentEnd());
+        }
+        return bodyEnd;
+    }
+
+    private void locatePart(MimeDescriptor part, List<Integer> path, long partStart, long partEnd,
+                            ImmutableMap.Builder<List<Integer>, Range<Long>> result) throws IOException, LocationFailedException {
+        long partBodyStart = bodyStart(partStart, partEnd);
+        if ("multipart".equalsIgnoreCase(part.getMimeType())) {
+            locateMultipart(part, path, partBodyStart, partEnd, result);
+            return;
+        }
+        if ("message".equalsIgnoreCase(part.getMimeType())) {
+            // Embedded messages are parsed from their decoded content, their parts can not be located
+            return;
+        }
+        if (partEnd - partBodyStart != part.getBodyOctets()) {
+            throw new LocationFailedException("Located " + (partEnd - partBodyStart) + " octets instead of "
+                + part.getBodyOctets() + " for part " + path);
+        }
+        result.put(path, Range.closedOpen(partBodyStart, partEnd));
+    }
+
+    /**
+     * The body starts after the first empty line, or at the end of the part when its header section is not
+     * terminated.
+     */
+    private long bodyStart(long partStart, long partEnd) throws IOException {
+        if (partStart >= partEnd) {
+            return partEnd;
+        }
+        try (InputStream stream = content.newStream(partStart, partEnd)) {
+            long position = partStart;
+            boolean emptyLine = true;
+            for (int b = stream.read(); b >= 0; b = stream.read()) {
+                position++;
+                if (b == LF) {
+                    if (emptyLine) {
+                        return position;
+                    }
+                    emptyLine = true;
+                } else if (b != CR) {
+                    emptyLine = false;
+                }
+            }
+            return partEnd;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.mail.internet.SharedInputStream;
+
+import org.apache.james.mailbox.exception.MailboxException;
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.model.MimePath;
+import org.apache.james.mailbox.store.mail.model.Property;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mime4j.MimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+
+/**
+ * Projection of the MIME structure of a composite message, computed once when the message is appended and stored
+ * among the message properties.
+ *
+ * It answers BODYSTRUCTURE without parsing the message. Leaf parts of multipart messages also carry the offsets of
+ * their body within the message content, so that their content can be read as a range of it.
+ *
+ * Headers of the top level entity are not stored, as they duplicate the message headers.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY,
+    getterVisibility = JsonAutoDetect.Visibility.NONE,
+    isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+public class MimeStructure implements MimeDescriptor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MimeStructure.class);
+    private static final List<Integer> ROOT_PATH = ImmutableList.of();
+    private static final boolean KEEP_HEADERS = true;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+        .configure(JsonGenerator.Feature.ESCAPE_NON_ASCII, true)
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Is this a composite media type (as per RFC2045)?
+     *
+     * @param mediaType possibly null
+     * @return true when the type is composite, false otherwise
+     */
+    public static boolean isComposite(String mediaType) {
+        return "message".equalsIgnoreCase(mediaType) || "multipart".equalsIgnoreCase(mediaType);
+    }
+
+    /**
+     * Parses the given message content, which body starts at bodyStartOctet.
+     */
+    public static MimeStructure compute(SharedInputStream content, int bodyStartOctet) throws IOException, MimeException, MailboxException {
+        MimeDescriptorImpl descriptor;
+        try (InputStream stream = content.newStream(0, -1)) {
+            descriptor = MimeDescriptorImpl.build(stream);
+        }
+        Map<List<Integer>, Range<Long>> bodyRanges = MimePartLocator.locate(content, bodyStartOctet, descriptor);
+
+        return from(descriptor, ROOT_PATH, bodyRanges, !KEEP_HEADERS);
+    }
+
+    public static Optional<MimeStructure> fromProperties(List<Property> properties) {
+        return new PropertyBuilder(properties).getMimeStructure()
+            .flatMap(MimeStructure::deserialize);
+    }
+
+    private static Optional<MimeStructure> deserialize(String json) {
+        try {
+            return Optional.of(OBJECT_MAPPER.readValue(json, MimeStructure.class));
+        } catch (IOException e) {
+            LOGGER.warn("Invalid MIME structure projection, message will be parsed instead", e);
+            return Optional.empty();
+        }
+    }
+
+    private static MimeStructure from(MimeDescriptor descriptor, List<Integer> path, Map<List<Integer>, Range<Long>> bodyRanges,
+                                      boolean keepHeaders) throws MailboxException {
+        Optional<Range<Long>> bodyRange = Optional.ofNullable(bodyRanges.get(path));
+        return new MimeStructure(
+            descriptor.getMimeType(),
+            descriptor.getMimeSubType(),
+            descriptor.getContentID(),
+            descriptor.getContentDescription(),
+            descriptor.getContentLocation(),
+            descriptor.getContentMD5(),
+            descriptor.getTransferContentEncoding(),
+            descriptor.getLanguages(),
+            descriptor.getDisposition(),
+            descriptor.getDispositionParams(),
+            descriptor.contentTypeParameters(),
+            descriptor.getLines(),
+            descriptor.getBodyOctets(),
+            bodyRange.map(Range::lowerEndpoint).orElse(null),
+            bodyRange.map(Range::upperEndpoint).orElse(null),
+            keepHeaders ? toFields(descriptor.headers()) : null,
+            toParts(descriptor, path, bodyRanges),
+            toEmbeddedMessage(descriptor));
+    }
+
+    private static List<List<String>> toFields(Iterator<Header> headers) {
+        return ImmutableList.copyOf(headers).stream()
+            .map(header -> ImmutableList.of(header.getName(), header.getValue()))
+            .collect(Guavate.toImmutableList());
+    }
+
+    private static List<MimeStructure> toParts(MimeDescriptor descriptor, List<Integer> path, Map<List<Integer>, Range<Long>> bodyRanges) throws MailboxException {
+        ImmutableList.Builder<MimeStructure> parts = ImmutableList.builder();
+        int position = 1;
+        for (Iterator<MimeDescriptor> it = descriptor.parts(); it.hasNext(); position++) {
+            parts.add(from(it.next(), childPath(path, position), bodyRanges, KEEP_HEADERS));
+        }
+        return parts.build();
+    }
+
+    private static MimeStructure toEmbeddedMessage(MimeDescriptor descriptor) throws MailboxException {
+        if (descriptor.embeddedMessage() == null) {
+            return null;
+        }
+        return from(descriptor.embeddedMessage(), ROOT_PATH, ImmutableMap.of(), KEEP_HEADERS);
+    }
+
+    static List<Integer> childPath(List<Integer> path, int position) {
+        return ImmutableList.<Integer>builder()
+            .addAll(path)
+            .add(position)
+            .build();
+    }
+
+    @JsonProperty("type")
+    private final String type;
+    @JsonProperty("subType")
+    private final String subType;
+    @JsonProperty("id")
+    private final String id;
+    @JsonProperty("description")
+    private final String description;
+    @JsonProperty("location")
+    private final String location;
+    @JsonProperty("md5")
+    private final String md5;
+    @JsonProperty("encoding")
+    private final String encoding;
+    @JsonProperty("languages")
+    private final List<String> languages;
+    @JsonProperty("disposition")
+    private final String disposition;
+    @JsonProperty("dispositionParameters")
+    private final Map<String, String> dispositionParameters;
+    @JsonProperty("parameters")
+    private final Map<String, String> parameters;
+    @JsonProperty("lines")
+    private final long lines;
+    @JsonProperty("octets")
+    private final long octets;
+    @JsonProperty("bodyStart")
+    private final Long bodyStart;
+    @JsonProperty("bodyEnd")
+    private final Long bodyEnd;
+    @JsonProperty("headers")
+    private final List<List<String>> headers;
+    @JsonProperty("parts")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private final List<MimeStructure> parts;
+    @JsonProperty("embedded")
+    private final MimeStructure embeddedMessage;
+
+    @JsonCreator
+    private MimeStructure(@JsonProperty("type") String type,
+                          @JsonProperty("subType") String subType,
+                          @JsonProperty("id") String id,
+                          @JsonProperty("description") String description,
+                          @JsonProperty("location") String location,
+                          @JsonProperty("md5") String md5,
+                          @JsonProperty("encoding") String encoding,
+                          @JsonProperty("languages") List<String> languages,
+                          @JsonProperty("disposition") String disposition,
+                          @JsonProperty("dispositionParameters") Map<String, String> dispositionParameters,
+                          @JsonProperty("parameters") Map<String, String> parameters,
+                          @JsonProperty("lines") long lines,
+                          @JsonProperty("octets") long octets,
+                          @JsonProperty("bodyStart") Long bodyStart,
+                          @JsonProperty("bodyEnd") Long bodyEnd,
+                          @JsonProperty("headers") List<List<String>> headers,
+                          @JsonProperty("parts") List<MimeStructure> parts,
+                          @JsonProperty("embedded") MimeStructure embeddedMessage) {
+        this.type = type;
+        this.subType = subType;
+        this.id = id;
+        this.description = description;
+        this.location = location;
+        this.md5 = md5;
+        this.encoding = encoding;
+        this.languages = languages;
+        this.disposition = disposition;
+        this.dispositionParameters = dispositionParameters;
+        this.parameters = parameters;
+        this.lines = lines;
+        this.octets = octets;
+        this.bodyStart = bodyStart;
+        this.bodyEnd = bodyEnd;
+        this.headers = headers;
+        this.parts = Optional.ofNullable(parts).orElse(ImmutableList.of());
+        this.embeddedMessage = embeddedMessage;
+    }
+
+    /**
+     * Returns a copy of this structure using the given headers, meant to provide the top level headers that are not
+     * part of the projection.
+     */
+    public MimeStructure withHeaders(List<Header> headers) {
+        return new MimeStructure(type, subType, id, description, location, md5, encoding, languages, disposition,
+            dispositionParameters, parameters, lines, octets, bodyStart, bodyEnd, toFields(headers.iterator()), parts,
+            embeddedMessage);
+    }
+
+    public String serialize() {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Can not serialize MIME structure", e);
+        }
+    }
+
+    /**
+     * Offsets, within the message content, of the body of the part designated by this path, when known.
+     */
+    public Optional<Range<Long>> bodyRange(MimePath path) {
+        Preconditions.checkNotNull(path);
+
+        MimeStructure part = this;
+        for (int position : path.getPositions()) {
+            if (position < 1 || position > part.parts.size()) {
+                return Optional.empty();
+            }
+            part = part.parts.get(position - 1);
+        }
+        if (part.bodyStart == null || part.bodyEnd == null) {
+            return Optional.empty();
+        }
+        return Optional.of(Range.closedOpen(part.bodyStart, part.bodyEnd));
+    }
+
+    @Override
+    public String getMimeType() {
+        return type;
+    }
+
+    @Override
+    public String getMimeSubType() {
+        return subType;
+    }
+
+    @Override
+    public String getContentID() {
+        return id;
+    }
+
+    @Override
+    public String getContentDescription() {
+        return description;
+    }
+
+    @Override
+    public String getContentLocation() {
+        return location;
+    }
+
+    @Override
+    public String getContentMD5() {
+        return md5;
+    }
+
+    @Override
+    public String getTransferContentEncoding() {
+        return encoding;
+    }
+
+    @Override
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    @Override
+    public String getDisposition() {
+        return disposition;
+    }
+
+    @Override
+    public Map<String, String> getDispositionParams() {
+        return dispositionParameters;
+    }
+
+    @Override
+    public long getLines() {
+        return lines;
+    }
+
+    @Override
+    public long getBodyOctets() {
+        return octets;
+    }
+
+    @Override
+    public Iterator<MimeDescriptor> parts() {
+        return ImmutableList.<MimeDescriptor>copyOf(parts).iterator();
+    }
+
+    @Override
+    public MimeDescriptor embeddedMessage() {
+        return embeddedMessage;
+    }
+
+    @Override
+    public Map<String, String> contentTypeParameters() {
+        return parameters;
+    }
+
+    @Override
+    public Iterator<Header> headers() {
+        return headerList().iterator();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        StringBuilder sb = new StringBuilder();
+        for (Header header : headerList()) {
+            sb.append(header.getName()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        sb.append("\r\n");
+        return new ByteArrayInputStream(sb.toString().getBytes(US_ASCII));
+    }
+
+    @Override
+    public long size() {
+        long result = 0;
+        for (Header header : headerList()) {
+            result += header.size();
+            result += 2;
+        }
+        // Add for CLRF
+        result += 2;
+        return result;
+    }
+
+    private List<Header> headerList() {
+        return Optional.ofNullable(headers)
+            .orElse(ImmutableList.of())
+            .stream()
+            .map(field -> new Header(field.get(0), field.get(1)))
+            .collect(Guavate.toImmutableList());
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof MimeStructure) {
+            MimeStructure that = (MimeStructure) o;
+
+            return Objects.equals(this.lines, that.lines)
+                && Objects.equals(this.octets, that.octets)
+                && Objects.equals(this.type, that.type)
+                && Objects.equals(this.subType, that.subType)
+                && Objects.equals(this.id, that.id)
+                && Objects.equals(this.description, that.description)
+                && Objects.equals(this.location, that.location)
+                && Objects.equals(this.md5, that.md5)
+                && Objects.equals(this.encoding, that.encoding)
+                && Objects.equals(this.languages, that.languages)
+                && Objects.equals(this.disposition, that.disposition)
+                && Objects.equals(this.dispositionParameters, that.dispositionParameters)
+                && Objects.equals(this.parameters, that.parameters)
+                && Objects.equals(this.bodyStart, that.bodyStart)
+                && Objects.equals(this.bodyEnd, that.bodyEnd)
+                && Objects.equals(this.headers, that.headers)
+                && Objects.equals(this.parts, that.parts)
+                && Objects.equals(this.embeddedMessage, that.embeddedMessage);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(type, subType, id, description, location, md5, encoding, languages, disposition,
+            dispositionParameters, parameters, lines, octets, bodyStart, bodyEnd, headers, parts, embeddedMessage);
+    }
+}
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.james.mailbox.exception.MailboxException;
 import org.apache.james.mailbox.model.Content;
@@ -34,6 +35,7 @@ import org.apache.james.mailbox.model.MessageResult;
 import org.apache.james.mailbox.model.MimePath;
 import org.apache.james.mailbox.model.PartContentDescriptor;
 import org.apache.james.mailbox.store.mail.model.MailboxMessage;
+import org.apache.james.mailbox.store.streaming.MessageRangeContent;
 import org.apache.james.mailbox.store.streaming.PartContentBuilder;
 import org.apache.james.mime4j.MimeException;
 import org.apache.james.mime4j.parser.AbstractContentHandler;
@@ -46,6 +48,7 @@ import org.apache.james.mime4j.util.ContentUtil;
 
 import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Range;
 
 public class ResultUtils {
 
@@ -215,12 +218,28 @@ public class ResultUtils {
 
     private static void addMimeBodyContent(MailboxMessage message, MessageResultImpl messageResult, MimePath mimePath)
             throws IOException, MimeException {
+        Optional<Range<Long>> bodyRange = bodyRange(message, mimePath);
+        if (bodyRange.isPresent()) {
+            messageResult.setMimeBodyContent(mimePath, new MessageRangeContent(message, bodyRange.get()));
+            return;
+        }
         int[] path = path(mimePath);
         PartContentBuilder builder = build(path, message);
         Content content = builder.getMimeBodyContent();
         messageResult.setMimeBodyContent(mimePath, content);
     }
 
+    /**
+     * Relies on the MIME structure projection, when available, to avoid parsing the message.
+     */
+    private static Optional<Range<Long>> bodyRange(MailboxMessage message, MimePath mimePath) {
+        if (mimePath == null) {
+            return Optional.empty();
+        }
+        return MimeStructure.fromProperties(message.getProperties())
+            .flatMap(mimeStructure -> mimeStructure.bodyRange(mimePath));
+    }
+
     private static void addFullContent(MailboxMessage message, MessageResultImpl messageResult, MimePath mimePath)
             throws MailboxException, IOException, MimeException {
         int[] path = path(mimePath);
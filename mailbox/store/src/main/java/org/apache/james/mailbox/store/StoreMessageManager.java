@@ -34,6 +34,7 @@ import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.stream.Stream;
@@ -260,6 +261,11 @@ public class StoreMessageManager implements MessageManager {
         return deletedMessages.keySet().iterator();
     }
 
+    @Override
+    public Optional<List<MessageUid>> listExpungedUidsSince(ModSeq modSeq, MailboxSession mailboxSession) throws MailboxException {
+        return mapperFactory.getMessageMapper(mailboxSession).listExpungedUidsSince(getMailboxEntity(), modSeq);
+    }
+
     private List<MessageUid> retrieveMessagesMarkedForDeletion(MessageRange messageRange, MailboxSession session) throws MailboxException {
         MessageMapper messageMapper = mapperFactory.getMessageMapper(session);
 
@@ -447,6 +453,7 @@ public class StoreMessageManager implements MessageManager {
 
             final List<MessageAttachment> attachments = extractAttachments(contentIn);
             propertyBuilder.setHasAttachment(hasNonInlinedAttachment(attachments));
+            computeMimeStructure(contentIn, bodyStartOctet, propertyBuilder);
 
             final MailboxMessage message = createMessage(internalDate, size, bodyStartOctet, contentIn, flags, propertyBuilder, attachments);
 
@@ -513,6 +520,17 @@ public class StoreMessageManager implements MessageManager {
         }
     }
 
+    private void computeMimeStructure(SharedFileInputStream contentIn, int bodyStartOctet, PropertyBuilder propertyBuilder) {
+        if (!MimeStructure.isComposite(propertyBuilder.getMediaType())) {
+            return;
+        }
+        try {
+            propertyBuilder.setMimeStructure(MimeStructure.compute(contentIn, bodyStartOctet).serialize());
+        } catch (Exception e) {
+            LOG.warn("Error while computing mail's MIME structure: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Create a new {@link MailboxMessage} for the given data
      */
@@ -145,6 +145,16 @@ public interface MessageMapper extends Mapper {
      */
     ModSeq getHighestModSeq(Mailbox mailbox) throws MailboxException;
 
+    /**
+     * Return the sorted uids of the messages removed from the {@link Mailbox} with a mod-sequence higher than the given
+     * one. Implementations keeping track of removed messages need to give a new mod-sequence to each removal.
+     *
+     * Keeping track of removed messages is optional: implementations not doing so return an empty {@link Optional}.
+     */
+    default Optional<List<MessageUid>> listExpungedUidsSince(Mailbox mailbox, ModSeq modSeq) throws MailboxException {
+        return Optional.empty();
+    }
+
     Flags getApplicableFlag(Mailbox mailbox) throws MailboxException;
 
     /**
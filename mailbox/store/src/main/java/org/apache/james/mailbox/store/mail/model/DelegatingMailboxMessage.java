@@ -76,6 +76,11 @@ public abstract class DelegatingMailboxMessage implements MailboxMessage {
         return message.getFullContent();
     }
 
+    @Override
+    public InputStream getFullContent(long start, long end) throws IOException {
+        return message.getFullContent(start, end);
+    }
+
     @Override
     public List<Property> getProperties() {
         return message.getProperties();
@@ -23,9 +23,13 @@ import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.james.mailbox.model.MessageAttachment;
 import org.apache.james.mailbox.model.MessageId;
 
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+
 public interface Message {
 
     MessageId getMessageId();
@@ -93,6 +97,22 @@ public interface Message {
      */
     InputStream getFullContent() throws IOException;
 
+    /**
+     * Returns the range of the full raw content starting at start (inclusive) and ending at end (exclusive).
+     *
+     * The default implementation skips the beginning of the full content, implementations able to read only a
+     * part of their content should override it. Be aware that this method need to return a new fresh
+     * {@link InputStream} on every call
+     */
+    default InputStream getFullContent(long start, long end) throws IOException {
+        Preconditions.checkArgument(start >= 0, "'start' can not be negative");
+        Preconditions.checkArgument(end >= start, "'end' needs to be greater than 'start'");
+
+        InputStream fullContent = getFullContent();
+        IOUtils.skip(fullContent, start);
+        return ByteStreams.limit(fullContent, end - start);
+    }
+
     /**
      * Gets a read-only list of meta-data properties.
      * For properties with multiple values, this list will contain
@@ -45,6 +45,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.function.Predicate;
@@ -52,6 +53,8 @@ import java.util.function.Predicate;
 import org.apache.james.mailbox.store.mail.model.Property;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Builds properties
@@ -61,6 +64,9 @@ public class PropertyBuilder {
     private static final int INITIAL_CAPACITY = 32;
     public static final String JAMES_INTERNALS = "JAMES_INTERNALS";
     public static final String HAS_ATTACHMENT = "HAS_ATTACHMENT";
+    public static final String MIME_STRUCTURE = "MIME_STRUCTURE";
+    // Some backends limit the length of property values, long values are split across several properties
+    private static final int MIME_STRUCTURE_CHUNK_LENGTH = 1000;
 
     public static Predicate<Property> isHasAttachmentProperty() {
         return property -> property.getNamespace().equals(PropertyBuilder.JAMES_INTERNALS)
@@ -227,6 +233,32 @@ public class PropertyBuilder {
         setProperty(JAMES_INTERNALS, HAS_ATTACHMENT, Boolean.toString(value));
     }
 
+    /**
+     * Gets the serialized MIME structure projection of the message.
+     *
+     * @return the projection, or empty when none was computed
+     */
+    public Optional<String> getMimeStructure() {
+        List<String> chunks = getValues(JAMES_INTERNALS, MIME_STRUCTURE);
+        if (chunks.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(String.join("", chunks));
+    }
+
+    /**
+     * Sets the serialized MIME structure projection of the message.
+     *
+     * @param value the projection, or null to remove
+     */
+    public void setMimeStructure(String value) {
+        List<String> chunks = Optional.ofNullable(value)
+            .map(Splitter.fixedLength(MIME_STRUCTURE_CHUNK_LENGTH)::split)
+            .map(ImmutableList::copyOf)
+            .orElse(null);
+        setProperty(JAMES_INTERNALS, MIME_STRUCTURE, chunks);
+    }
+
     /**
      * Gets the MIME content subtype.
      * 
@@ -117,6 +117,11 @@ public class SimpleMessage implements Message {
         return content.newStream(0, -1);
     }
 
+    @Override
+    public InputStream getFullContent(long start, long end) throws IOException {
+        return content.newStream(start, end);
+    }
+
     @Override
     public List<Property> getProperties() {
         return properties;
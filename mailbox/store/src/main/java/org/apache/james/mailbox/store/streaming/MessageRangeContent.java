@@ -0,0 +1,52 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store.streaming;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.james.mailbox.model.Content;
+import org.apache.james.mailbox.store.mail.model.Message;
+
+import com.google.common.collect.Range;
+
+/**
+ * {@link Content} which is a range of the full content of a {@link Message}
+ */
+public final class MessageRangeContent implements Content {
+
+    private final Message message;
+    private final Range<Long> range;
+
+    public MessageRangeContent(Message message, Range<Long> range) {
+        this.message = message;
+        this.range = range;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return message.getFullContent(range.lowerEndpoint(), range.upperEndpoint());
+    }
+
+    @Override
+    public long size() {
+        return range.upperEndpoint() - range.lowerEndpoint();
+    }
+}
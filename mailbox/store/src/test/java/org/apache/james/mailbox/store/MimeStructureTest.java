@@ -0,0 +1,199 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailbox.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.mail.util.SharedByteArrayInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.mailbox.model.Header;
+import org.apache.james.mailbox.model.MimeDescriptor;
+import org.apache.james.mailbox.model.MimePath;
+import org.apache.james.mailbox.store.mail.model.impl.PropertyBuilder;
+import org.apache.james.mailbox.store.streaming.PartContentBuilder;
+import org.apache.james.util.BodyOffsetInputStream;
+import org.apache.james.util.ClassLoaderUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Range;
+import com.google.common.primitives.Ints;
+
+class MimeStructureTest {
+    static Stream<String> messages() {
+        return Stream.of("calendar.eml", "emailWithNonIndexableAttachment.eml", "emailWithOnlyAttachment.eml",
+            "emailWithTextAttachment.eml", "embeddedAttachmentWithAttachment.eml", "embeddedAttachmentWithInline.eml",
+            "filenameAndName.eml", "filenameOnly.eml", "frnog.eml", "htmlMail.eml", "invitationEmailFromOP.eml",
+            "mail.eml", "mail1.eml", "mail2.eml", "mail3.eml", "mail4.eml", "mail5.eml",
+            "messageWithNonASCIIFilenameAttachment.eml", "multiAttachmentsWithOneWrongContentDisposition.eml",
+            "noContentDispositionWithCID.eml", "oneAttachmentAndSomeTextInlined.eml", "oneAttachmentWithEmptyContentType.eml",
+            "oneAttachmentWithSimpleContentType.eml", "oneAttachmentWithoutContentType.eml", "oneAttachmentWithoutName.eml",
+            "oneHtmlAttachmentAndSomeTextInlined.eml", "oneInlinedAttachment.eml", "pgpSignedMail.eml", "recursiveMail.eml",
+            "signedMessage.eml", "spamMail.eml", "twoAttachments.eml", "unknownDisposition.eml")
+            .map(name -> "eml/" + name);
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void computedStructureShouldMatchParsedStructure(String message) throws Exception {
+        SharedByteArrayInputStream content = ClassLoaderUtils.getSystemResourceAsSharedStream(message);
+
+        MimeStructure mimeStructure = MimeStructure.compute(content, bodyStartOctet(message));
+
+        assertSameStructure(mimeStructure, MimeDescriptorImpl.build(content.newStream(0, -1)), false);
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void structureShouldBeUnchangedWhenStoredInProperties(String message) throws Exception {
+        SharedByteArrayInputStream content = ClassLoaderUtils.getSystemResourceAsSharedStream(message);
+        MimeStructure mimeStructure = MimeStructure.compute(content, bodyStartOctet(message));
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+
+        propertyBuilder.setMimeStructure(mimeStructure.serialize());
+
+        assertThat(MimeStructure.fromProperties(propertyBuilder.toProperties())).contains(mimeStructure);
+    }
+
+    @ParameterizedTest
+    @MethodSource("messages")
+    void bodyRangesShouldMatchParsedPartContent(String message) throws Exception {
+        SharedByteArrayInputStream content = ClassLoaderUtils.getSystemResourceAsSharedStream(message);
+        MimeStructure mimeStructure = MimeStructure.compute(content, bodyStartOctet(message));
+
+        for (List<Integer> path : paths(mimeStructure, ImmutableList.of())) {
+            MimePath mimePath = new MimePath(Ints.toArray(path));
+            for (Range<Long> range : mimeStructure.bodyRange(mimePath).map(ImmutableList::of).orElse(ImmutableList.of())) {
+                assertThat(IOUtils.toByteArray(content.newStream(range.lowerEndpoint(), range.upperEndpoint())))
+                    .isEqualTo(parsedMimeBodyContent(content, mimePath));
+            }
+        }
+    }
+
+    @Test
+    void bodyRangesShouldBeComputedForMultipartMessages() throws Exception {
+        String message = "eml/twoAttachments.eml";
+        SharedByteArrayInputStream content = ClassLoaderUtils.getSystemResourceAsSharedStream(message);
+
+        MimeStructure mimeStructure = MimeStructure.compute(content, bodyStartOctet(message));
+
+        assertThat(mimeStructure.bodyRange(new MimePath(new int[] {2}))).isPresent();
+    }
+
+    @Test
+    void bodyRangeShouldBeEmptyForMissingParts() throws Exception {
+        String message = "eml/twoAttachments.eml";
+        SharedByteArrayInputStream content = ClassLoaderUtils.getSystemResourceAsSharedStream(message);
+
+        MimeStructure mimeStructure = MimeStructure.compute(content, bodyStartOctet(message));
+
+        assertThat(mimeStructure.bodyRange(new MimePath(new int[] {12}))).isEmpty();
+    }
+
+    @Test
+    void fromPropertiesShouldBeEmptyWhenNoStructure() {
+        assertThat(MimeStructure.fromProperties(ImmutableList.of())).isEmpty();
+    }
+
+    @Test
+    void fromPropertiesShouldBeEmptyWhenInvalidStructure() {
+        PropertyBuilder propertyBuilder = new PropertyBuilder();
+        propertyBuilder.setMimeStructure("{invalid");
+
+        assertThat(MimeStructure.fromProperties(propertyBuilder.toProperties())).isEmpty();
+    }
+
+    private int bodyStartOctet(String message) throws IOException {
+        try (BodyOffsetInputStream stream = new BodyOffsetInputStream(ClassLoader.getSystemResourceAsStream(message))) {
+            IOUtils.toByteArray(stream);
+            return Ints.checkedCast(stream.getBodyStartOffset());
+        }
+    }
+
+    private byte[] parsedMimeBodyContent(SharedByteArrayInputStream content, MimePath mimePath) throws Exception {
+        PartContentBuilder builder = new PartContentBuilder();
+        builder.parse(content.newStream(0, -1));
+        for (int position : mimePath.getPositions()) {
+            builder.to(position);
+        }
+        try (InputStream stream = builder.getMimeBodyContent().getInputStream()) {
+            return IOUtils.toByteArray(stream);
+        }
+    }
+
+    private List<List<Integer>> paths(MimeDescriptor descriptor, List<Integer> path) {
+        ImmutableList.Builder<List<Integer>> result = ImmutableList.builder();
+        int position = 1;
+        for (Iterator<MimeDescriptor> it = descriptor.parts(); it.hasNext(); position++) {
+            List<Integer> childPath = MimeStructure.childPath(path, position);
+            result.add(childPath);
+            result.addAll(paths(it.next(), childPath));
+        }
+        return result.build();
+    }
+
+    private void assertSameStructure(MimeDescriptor actual, MimeDescriptor expected, boolean compareHeaders) throws Exception {
+        assertThat(actual.getMimeType()).isEqualTo(expected.getMimeType());
+        assertThat(actual.getMimeSubType()).isEqualTo(expected.getMimeSubType());
+        assertThat(actual.getContentID()).isEqualTo(expected.getContentID());
+        assertThat(actual.getContentDescription()).isEqualTo(expected.getContentDescription());
+        assertThat(actual.getContentLocation()).isEqualTo(expected.getContentLocation());
+        assertThat(actual.getContentMD5()).isEqualTo(expected.getContentMD5());
+        assertThat(actual.getTransferContentEncoding()).isEqualTo(expected.getTransferContentEncoding());
+        assertThat(actual.getLanguages()).isEqualTo(expected.getLanguages());
+        assertThat(actual.getDisposition()).isEqualTo(expected.getDisposition());
+        assertThat(actual.getDispositionParams()).isEqualTo(expected.getDispositionParams());
+        assertThat(actual.contentTypeParameters()).isEqualTo(expected.contentTypeParameters());
+        assertThat(actual.getLines()).isEqualTo(expected.getLines());
+        assertThat(actual.getBodyOctets()).isEqualTo(expected.getBodyOctets());
+        if (compareHeaders) {
+            assertThat(ImmutableList.copyOf(actual.headers()))
+                .extracting(Header::getName, Header::getValue)
+                .containsExactlyElementsOf(ImmutableList.copyOf(expected.headers()).stream()
+                    .map(header -> tuple(header.getName(), header.getValue()))
+                    .collect(Guavate.toImmutableList()));
+            assertThat(actual.size()).isEqualTo(expected.size());
+        }
+
+        List<MimeDescriptor> actualParts = ImmutableList.copyOf(actual.parts());
+        List<MimeDescriptor> expectedParts = ImmutableList.copyOf(expected.parts());
+        assertThat(actualParts).hasSameSizeAs(expectedParts);
+        for (int i = 0; i < actualParts.size(); i++) {
+            assertSameStructure(actualParts.get(i), expectedParts.get(i), true);
+        }
+
+        if (expected.embeddedMessage() == null) {
+            assertThat(actual.embeddedMessage()).isNull();
+        } else {
+            assertSameStructure(actual.embeddedMessage(), expected.embeddedMessage(), true);
+        }
+    }
+}
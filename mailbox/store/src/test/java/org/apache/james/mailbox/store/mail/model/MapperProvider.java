@@ -42,7 +42,8 @@ public interface MapperProvider {
         UNIQUE_MESSAGE_ID,
         THREAD_SAFE_FLAGS_UPDATE,
         INCREMENTAL_APPLICABLE_FLAGS,
-        ACL_STORAGE
+        ACL_STORAGE,
+        EXPUNGED_UIDS
     }
 
     List<Capabilities> getSupportedCapabilities();
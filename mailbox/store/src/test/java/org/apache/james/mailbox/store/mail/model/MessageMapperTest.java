@@ -450,6 +450,53 @@ public abstract class MessageMapperTest {
         assertMessages(Lists.newArrayList(retrievedMessageIterator)).containOnly(message2, message3, message5);
     }
 
+    @Test
+    void listExpungedUidsSinceShouldReturnEmptyWhenNotSupported() throws MailboxException {
+        Assume.assumeFalse(mapperProvider.getSupportedCapabilities().contains(Capabilities.EXPUNGED_UIDS));
+        saveMessages();
+        messageMapper.deleteMessages(benwaInboxMailbox, ImmutableList.of(message1.getUid()));
+
+        assertThat(messageMapper.listExpungedUidsSince(benwaInboxMailbox, ModSeq.first())).isEmpty();
+    }
+
+    @Test
+    void listExpungedUidsSinceShouldReturnTheDeletedUids() throws MailboxException {
+        Assume.assumeTrue(mapperProvider.getSupportedCapabilities().contains(Capabilities.EXPUNGED_UIDS));
+        saveMessages();
+        ModSeq modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        messageMapper.deleteMessages(benwaInboxMailbox, ImmutableList.of(message3.getUid(), message1.getUid()));
+
+        assertThat(messageMapper.listExpungedUidsSince(benwaInboxMailbox, modSeq))
+            .contains(ImmutableList.of(message1.getUid(), message3.getUid()));
+    }
+
+    @Test
+    void listExpungedUidsSinceShouldNotReturnUidsDeletedBeforeTheGivenModSeq() throws MailboxException {
+        Assume.assumeTrue(mapperProvider.getSupportedCapabilities().contains(Capabilities.EXPUNGED_UIDS));
+        saveMessages();
+        messageMapper.deleteMessages(benwaInboxMailbox, ImmutableList.of(message1.getUid()));
+        ModSeq modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        messageMapper.deleteMessages(benwaInboxMailbox, ImmutableList.of(message3.getUid()));
+
+        assertThat(messageMapper.listExpungedUidsSince(benwaInboxMailbox, modSeq))
+            .contains(ImmutableList.of(message3.getUid()));
+    }
+
+    @Test
+    void listExpungedUidsSinceShouldReturnTheMovedUids() throws MailboxException {
+        Assume.assumeTrue(mapperProvider.getSupportedCapabilities().contains(Capabilities.EXPUNGED_UIDS));
+        Assume.assumeTrue(mapperProvider.getSupportedCapabilities().contains(Capabilities.MOVE));
+        saveMessages();
+        ModSeq modSeq = messageMapper.getHighestModSeq(benwaInboxMailbox);
+
+        messageMapper.move(benwaWorkMailbox, message2);
+
+        assertThat(messageMapper.listExpungedUidsSince(benwaInboxMailbox, modSeq))
+            .contains(ImmutableList.of(message2.getUid()));
+    }
+
     @Test
     void retrieveMessagesMarkedForDeletionShouldReturnCorrectMetadataWithRangeOne() throws MailboxException {
         saveMessages();
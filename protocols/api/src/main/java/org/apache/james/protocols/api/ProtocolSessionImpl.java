@@ -21,8 +21,8 @@ package org.apache.james.protocols.api;
 
 import java.net.InetSocketAddress;
 import java.nio.charset.Charset;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.james.core.Username;
 import org.apache.james.protocols.api.handler.LineHandler;
@@ -43,8 +43,9 @@ public class ProtocolSessionImpl implements ProtocolSession {
     
     public ProtocolSessionImpl(ProtocolTransport transport, ProtocolConfiguration config) {
         this.transport = transport;
-        this.connectionState = new HashMap<>();
-        this.sessionState = new HashMap<>();
+        // Hooks can be called concurrently, and access the attachments from several threads
+        this.connectionState = new ConcurrentHashMap<>();
+        this.sessionState = new ConcurrentHashMap<>();
         this.config = config;
     }
 
@@ -18,8 +18,8 @@
  ****************************************************************/
 package org.apache.james.imap.processor;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -69,6 +69,9 @@ import org.apache.james.metrics.api.TimeMetric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
 public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends AbstractChainedProcessor<R> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMailboxProcessor.class);
 
@@ -546,36 +549,82 @@ public abstract class AbstractMailboxProcessor<R extends ImapRequest> extends Ab
         //      as above.  In the case where there have been no expunges, the server
         //      can ignore this data.
         if (metaData.getHighestModSeq().asLong() > changedSince) {
+            // Mailboxes keeping track of expunged messages only need to look at the changes since the given mod-sequence,
+            // otherwise all the uids of the ranges are compared to the uids of the messages still in the mailbox
+            Optional<List<MessageUid>> expungedUids = mailbox.listExpungedUidsSince(ModSeq.of(changedSince), session);
+            List<MessageRange> vanishedRanges;
+            if (expungedUids.isPresent()) {
+                vanishedRanges = MessageRange.toRanges(expungedUids.get().stream()
+                    .filter(uid -> ranges.stream().anyMatch(range -> range.includes(uid)))
+                    .collect(Guavate.toImmutableList()));
+            } else {
+                vanishedRanges = missingUidRanges(session, mailbox, ranges, metaData);
+            }
+
+            if (!vanishedRanges.isEmpty()) {
+                responder.respond(new VanishedResponse(uidRanges(vanishedRanges), true));
+            }
+        }
+    }
+
+    private List<MessageRange> missingUidRanges(MailboxSession session, MessageManager mailbox, List<MessageRange> ranges, MetaData metaData) throws MailboxException {
+        MessageUid uidNext = metaData.getUidNext();
+        if (uidNext.isFirst()) {
+            return ImmutableList.of();
+        }
+        MessageUid lastUid = uidNext.previous();
+
+        List<MessageRange> missingRanges = new ArrayList<>();
+        for (MessageRange range : ranges) {
             SearchQuery searchQuery = new SearchQuery();
-            SearchQuery.UidRange[] nRanges = new SearchQuery.UidRange[ranges.size()];
-            Set<MessageUid> vanishedUids = new HashSet<>();
-            for (int i = 0; i < ranges.size(); i++) {
-                MessageRange r = ranges.get(i);
-                SearchQuery.UidRange nr;
-                if (r.getType() == Type.ONE) {
-                    nr = new SearchQuery.UidRange(r.getUidFrom());
-                } else {
-                    nr = new SearchQuery.UidRange(r.getUidFrom(), r.getUidTo());
-                }
-                MessageUid from = nr.getLowValue();
-                MessageUid to = nr.getHighValue();
-                while (from.compareTo(to) <= 0) {
-                    vanishedUids.add(from);
-                    from = from.next();
+            searchQuery.andCriteria(SearchQuery.uid(new SearchQuery.UidRange[] {searchUidRange(range)}));
+
+            MessageUid to = range.getUidTo().compareTo(lastUid) < 0 ? range.getUidTo() : lastUid;
+            MessageUid next = range.getUidFrom();
+            try (Stream<MessageUid> uids = mailbox.search(searchQuery, session)) {
+                Iterator<MessageUid> existingUids = uids.iterator();
+                while (existingUids.hasNext()) {
+                    MessageUid existingUid = existingUids.next();
+                    if (existingUid.compareTo(next) > 0) {
+                        missingRanges.add(MessageRange.range(next, existingUid.previous()));
+                    }
+                    next = existingUid.next();
                 }
-                nRanges[i] = nr;
-                
             }
-            searchQuery.andCriteria(SearchQuery.uid(nRanges));
+            if (next.compareTo(to) <= 0) {
+                missingRanges.add(MessageRange.range(next, to));
+            }
+        }
+        return missingRanges;
+    }
+
+    /**
+     * Send FETCH responses for the messages of the given ranges which changed since the given mod-sequence.
+     */
+    protected void respondChangedFlags(ImapSession session, SelectedMailbox selected, MessageManager mailbox, List<MessageRange> ranges, long changedSince, MetaData metaData, Responder responder) throws MailboxException {
+        if (metaData.getHighestModSeq().asLong() > changedSince && !ranges.isEmpty()) {
+            MailboxSession mailboxSession = session.getMailboxSession();
+            SearchQuery searchQuery = new SearchQuery();
+            searchQuery.andCriteria(SearchQuery.uid(ranges.stream()
+                .map(this::searchUidRange)
+                .toArray(SearchQuery.UidRange[]::new)));
             searchQuery.andCriteria(SearchQuery.modSeqGreaterThan(changedSince));
-            try (Stream<MessageUid> uids = mailbox.search(searchQuery, session)) {
-                uids.forEach(vanishedUids::remove);
+
+            List<MessageUid> changedUids;
+            try (Stream<MessageUid> uids = mailbox.search(searchQuery, mailboxSession)) {
+                changedUids = uids.collect(Guavate.toImmutableList());
+            }
+            for (MessageRange changedRange : MessageRange.toRanges(changedUids)) {
+                addFlagsResponses(session, selected, responder, true, changedRange, mailbox, metaData.isModSeqPermanent(), mailboxSession);
             }
-            UidRange[] vanishedIdRanges = uidRanges(MessageRange.toRanges(vanishedUids));
-            responder.respond(new VanishedResponse(vanishedIdRanges, true));
         }
-        
-        
+    }
+
+    private SearchQuery.UidRange searchUidRange(MessageRange range) {
+        if (range.getType() == Type.ONE) {
+            return new SearchQuery.UidRange(range.getUidFrom());
+        }
+        return new SearchQuery.UidRange(range.getUidFrom(), range.getUidTo());
     }
     
     
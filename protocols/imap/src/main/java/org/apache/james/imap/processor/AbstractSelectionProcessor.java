@@ -179,6 +179,9 @@ abstract class AbstractSelectionProcessor<R extends AbstractMailboxSelectionRequ
                 }
                 
                 if (uidSet != null) {
+                    // The message sequence match data only restricts the VANISHED response
+                    List<MessageRange> changedRanges = messageRanges(session, uidSet);
+
                     // RFC5162 3.1. QRESYNC Parameter to SELECT/EXAMINE
                     //
                     // Message sequence match data:
@@ -266,19 +269,10 @@ abstract class AbstractSelectionProcessor<R extends AbstractMailboxSelectionRequ
                         
                     }
                     
-                    List<MessageRange> ranges = new ArrayList<>();
-                    for (UidRange range : uidSet) {
-                        MessageRange messageSet = range.toMessageRange();
-                        if (messageSet != null) {
-                            MessageRange normalizedMessageSet = normalizeMessageRange(session.getSelected(), messageSet);
-                            ranges.add(normalizedMessageSet);
-                        }
-                    }
-                    
-                    // TODO: Reconsider if we can do something to make the handling better. Maybe at least cache the triplets for the expunged
-                    //       while have the server running. This could maybe allow us to not return every expunged message all the time
-                    //  
-                    //      As we don't store the <<MSN, UID>, <MODSEQ>> in a permanent way its the best to just ignore it here.
+                    List<MessageRange> ranges = messageRanges(session, uidSet);
+
+                    // Mailboxes keeping track of expunged messages only report the ones expunged since the given
+                    // mod-sequence. For the others we fall back to:
                     //
                     //      From RFC5162 4.1. Server Implementations That Don't Store Extra State
                     //
@@ -298,6 +292,7 @@ abstract class AbstractSelectionProcessor<R extends AbstractMailboxSelectionRequ
                     //          mailbox.
                     //
                     respondVanished(mailboxSession, mailbox, ranges, modSeq, metaData, responder);
+                    respondChangedFlags(session, selected, mailbox, changedRanges, modSeq, metaData, responder);
                 }
                 taggedOk(responder, request, metaData, HumanReadableText.SELECT);
             } else {
@@ -315,6 +310,18 @@ abstract class AbstractSelectionProcessor<R extends AbstractMailboxSelectionRequ
 
 
 
+    private List<MessageRange> messageRanges(ImapSession session, UidRange[] uidSet) throws MessageRangeException {
+        List<MessageRange> ranges = new ArrayList<>();
+        for (UidRange range : uidSet) {
+            MessageRange messageSet = range.toMessageRange();
+            if (messageSet != null) {
+                MessageRange normalizedMessageSet = normalizeMessageRange(session.getSelected(), messageSet);
+                ranges.add(normalizedMessageSet);
+            }
+        }
+        return ranges;
+    }
+
     private void highestModSeq(Responder responder, MetaData metaData, SelectedMailbox selected) {
         final StatusResponse untaggedOk;
         if (metaData.isModSeqPermanent()) {
@@ -19,96 +19,183 @@
 
 package org.apache.james.imap.processor.base;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.TreeSet;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
 
 import org.apache.james.mailbox.MessageUid;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
 
+/**
+ * Keeps the sorted UIDs of a selected mailbox to convert them from and to message sequence numbers.
+ *
+ * UIDs are stored as primitive longs, a 500k messages mailbox thus costs 4MB instead of the tens of MB of boxed
+ * {@link MessageUid}s. Lookups do not block: they are optimistic, and only retried under a read lock if a modification
+ * happened meanwhile.
+ */
 public class UidMsnConverter {
 
     public static final int FIRST_MSN = 1;
+    private static final int INITIAL_CAPACITY = 16;
 
-    @VisibleForTesting final ArrayList<MessageUid> uids;
+    private final StampedLock lock;
+    private long[] uids;
+    private int size;
 
     public UidMsnConverter() {
-        this.uids = Lists.newArrayList();
+        this.lock = new StampedLock();
+        this.uids = new long[INITIAL_CAPACITY];
+        this.size = 0;
     }
 
-    public synchronized void addAll(List<MessageUid> addedUids) {
-        TreeSet<MessageUid> tmp = new TreeSet<>();
-        tmp.addAll(uids);
-        tmp.addAll(addedUids);
-        uids.clear();
-        uids.addAll(tmp);
+    public void addAll(List<MessageUid> addedUids) {
+        long[] added = addedUids.stream()
+            .mapToLong(MessageUid::asLong)
+            .sorted()
+            .toArray();
+
+        long stamp = lock.writeLock();
+        try {
+            long[] merged = new long[Math.max(size + added.length, INITIAL_CAPACITY)];
+            int mergedSize = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < added.length) {
+                long next;
+                if (j == added.length || (i < size && uids[i] <= added[j])) {
+                    next = uids[i++];
+                } else {
+                    next = added[j++];
+                }
+                if (mergedSize == 0 || merged[mergedSize - 1] != next) {
+                    merged[mergedSize++] = next;
+                }
+            }
+            uids = merged;
+            size = mergedSize;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
-    public synchronized Optional<Integer> getMsn(MessageUid uid) {
-        int position = Collections.binarySearch(uids, uid);
-        if (position < 0) {
-            return Optional.empty();
-        }
-        return Optional.of(position + 1);
+    public Optional<Integer> getMsn(MessageUid uid) {
+        return read(() -> {
+            long[] currentUids = uids;
+            int position = Arrays.binarySearch(currentUids, 0, Math.min(size, currentUids.length), uid.asLong());
+            if (position < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(position + 1);
+        });
     }
 
-    public synchronized Optional<MessageUid> getUid(int msn) {
-        if (msn <= uids.size() && msn > 0) {
-            return Optional.of(uids.get(msn - 1));
-        }
-        return Optional.empty();
+    public Optional<MessageUid> getUid(int msn) {
+        return read(() -> uidAt(msn));
     }
 
-    public synchronized Optional<MessageUid> getLastUid() {
-        if (uids.isEmpty()) {
-            return Optional.empty();
-        }
-        return getUid(getLastMsn());
+    public Optional<MessageUid> getLastUid() {
+        return read(() -> uidAt(size));
     }
 
-    public synchronized Optional<MessageUid> getFirstUid() {
+    public Optional<MessageUid> getFirstUid() {
         return getUid(FIRST_MSN);
     }
 
-    public synchronized int getNumMessage() {
-        return uids.size();
+    public int getNumMessage() {
+        return read(() -> size);
     }
 
-    public synchronized void remove(MessageUid uid) {
-        uids.remove(uid);
+    public void remove(MessageUid uid) {
+        long stamp = lock.writeLock();
+        try {
+            int position = Arrays.binarySearch(uids, 0, size, uid.asLong());
+            if (position >= 0) {
+                System.arraycopy(uids, position + 1, uids, position, size - position - 1);
+                size--;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
-    public synchronized boolean isEmpty() {
-        return uids.isEmpty();
+    public boolean isEmpty() {
+        return getNumMessage() == 0;
     }
 
-    public synchronized void clear() {
-        uids.clear();
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            uids = new long[INITIAL_CAPACITY];
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
-    public synchronized void addUid(MessageUid uid) {
-        if (uids.contains(uid)) {
-            return;
+    public void addUid(MessageUid uid) {
+        long value = uid.asLong();
+        long stamp = lock.writeLock();
+        try {
+            if (size == 0 || uids[size - 1] < value) {
+                // Most common case: a new message was appended to the mailbox
+                insert(size, value);
+                return;
+            }
+            int position = Arrays.binarySearch(uids, 0, size, value);
+            if (position < 0) {
+                insert(-(position + 1), value);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
-        if (isLastUid(uid)) {
-            uids.add(uid);
-        } else {
-            uids.add(uid);
-            Collections.sort(uids);
+    }
+
+    @VisibleForTesting
+    long[] uids() {
+        return read(() -> Arrays.copyOf(uids, size));
+    }
+
+    private void insert(int position, long value) {
+        if (size == uids.length) {
+            uids = Arrays.copyOf(uids, size + (size >> 1) + 1);
         }
+        System.arraycopy(uids, position, uids, position + 1, size - position);
+        uids[position] = value;
+        size++;
     }
 
-    private boolean isLastUid(MessageUid uid) {
-        Optional<MessageUid> lastUid = getLastUid();
-        return !lastUid.isPresent() ||
-            lastUid.get().compareTo(uid) < 0;
+    private Optional<MessageUid> uidAt(int msn) {
+        long[] currentUids = uids;
+        if (msn <= size && msn > 0 && msn <= currentUids.length) {
+            return Optional.of(MessageUid.of(currentUids[msn - 1]));
+        }
+        return Optional.empty();
     }
 
-    private int getLastMsn() {
-        return getNumMessage();
+    /**
+     * The given read may see the fields being modified, it should not fail because of it: its result is then
+     * discarded and the read done again under a read lock.
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Inconsistent read, done again under the read lock
+            }
+        }
+        long readStamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(readStamp);
+        }
     }
 }
@@ -0,0 +1,137 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.imap.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.james.core.Username;
+import org.apache.james.imap.api.message.UidRange;
+import org.apache.james.imap.api.message.response.StatusResponseFactory;
+import org.apache.james.imap.api.process.ImapProcessor;
+import org.apache.james.imap.message.response.VanishedResponse;
+import org.apache.james.mailbox.MailboxManager;
+import org.apache.james.mailbox.MailboxSession;
+import org.apache.james.mailbox.MailboxSessionUtil;
+import org.apache.james.mailbox.MessageManager;
+import org.apache.james.mailbox.MessageUid;
+import org.apache.james.mailbox.ModSeq;
+import org.apache.james.mailbox.model.MessageRange;
+import org.apache.james.mailbox.model.SearchQuery;
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.common.collect.ImmutableList;
+
+public class AbstractMailboxProcessorTest {
+    private static final long CHANGED_SINCE = 10L;
+
+    private MoveProcessor testee;
+    private MailboxSession mailboxSession;
+    private MessageManager mailbox;
+    private MessageManager.MetaData metaData;
+    private ImapProcessor.Responder responder;
+
+    @Before
+    public void setUp() {
+        testee = new MoveProcessor(mock(ImapProcessor.class), mock(MailboxManager.class), mock(StatusResponseFactory.class), new NoopMetricFactory());
+        mailboxSession = MailboxSessionUtil.create(Username.of("username"));
+        mailbox = mock(MessageManager.class);
+        metaData = mock(MessageManager.MetaData.class);
+        responder = mock(ImapProcessor.Responder.class);
+
+        when(metaData.getHighestModSeq()).thenReturn(ModSeq.of(20));
+        when(metaData.getUidNext()).thenReturn(MessageUid.of(11));
+    }
+
+    @Test
+    public void respondVanishedShouldNotRespondWhenNoChangeSinceTheGivenModSeq() throws Exception {
+        when(metaData.getHighestModSeq()).thenReturn(ModSeq.of(CHANGED_SINCE));
+
+        testee.respondVanished(mailboxSession, mailbox, ImmutableList.of(MessageRange.range(MessageUid.of(1), MessageUid.of(10))), CHANGED_SINCE, metaData, responder);
+
+        verify(responder, never()).respond(any());
+    }
+
+    @Test
+    public void respondVanishedShouldReportTheExpungedUidsWithinTheRanges() throws Exception {
+        when(mailbox.listExpungedUidsSince(ModSeq.of(CHANGED_SINCE), mailboxSession))
+            .thenReturn(Optional.of(ImmutableList.of(MessageUid.of(2), MessageUid.of(3), MessageUid.of(7), MessageUid.of(12))));
+
+        testee.respondVanished(mailboxSession, mailbox, ImmutableList.of(MessageRange.range(MessageUid.of(1), MessageUid.of(10))), CHANGED_SINCE, metaData, responder);
+
+        VanishedResponse response = captureVanishedResponse();
+        assertThat(response.isEarlier()).isTrue();
+        assertThat(response.getUids()).containsExactly(
+            new UidRange(MessageUid.of(2), MessageUid.of(3)),
+            new UidRange(MessageUid.of(7)));
+    }
+
+    @Test
+    public void respondVanishedShouldNotRespondWhenNoExpungedUidWithinTheRanges() throws Exception {
+        when(mailbox.listExpungedUidsSince(ModSeq.of(CHANGED_SINCE), mailboxSession))
+            .thenReturn(Optional.of(ImmutableList.of(MessageUid.of(12))));
+
+        testee.respondVanished(mailboxSession, mailbox, ImmutableList.of(MessageRange.range(MessageUid.of(1), MessageUid.of(10))), CHANGED_SINCE, metaData, responder);
+
+        verify(responder, never()).respond(any());
+    }
+
+    @Test
+    public void respondVanishedShouldReportTheMissingUidsWhenNoExpungeTracking() throws Exception {
+        when(mailbox.listExpungedUidsSince(ModSeq.of(CHANGED_SINCE), mailboxSession)).thenReturn(Optional.empty());
+        when(mailbox.search(any(SearchQuery.class), any(MailboxSession.class)))
+            .thenReturn(Stream.of(MessageUid.of(1), MessageUid.of(4), MessageUid.of(5), MessageUid.of(8)));
+
+        testee.respondVanished(mailboxSession, mailbox, ImmutableList.of(MessageRange.range(MessageUid.of(1), MessageUid.of(20))), CHANGED_SINCE, metaData, responder);
+
+        VanishedResponse response = captureVanishedResponse();
+        assertThat(response.getUids()).containsExactly(
+            new UidRange(MessageUid.of(2), MessageUid.of(3)),
+            new UidRange(MessageUid.of(6), MessageUid.of(7)),
+            new UidRange(MessageUid.of(9), MessageUid.of(10)));
+    }
+
+    @Test
+    public void respondVanishedShouldNotRespondWhenNoMissingUidAndNoExpungeTracking() throws Exception {
+        when(mailbox.listExpungedUidsSince(ModSeq.of(CHANGED_SINCE), mailboxSession)).thenReturn(Optional.empty());
+        when(mailbox.search(any(SearchQuery.class), any(MailboxSession.class)))
+            .thenReturn(Stream.of(MessageUid.of(1), MessageUid.of(2), MessageUid.of(3)));
+
+        testee.respondVanished(mailboxSession, mailbox, ImmutableList.of(MessageRange.range(MessageUid.of(1), MessageUid.of(3))), CHANGED_SINCE, metaData, responder);
+
+        verify(responder, never()).respond(any());
+    }
+
+    private VanishedResponse captureVanishedResponse() {
+        ArgumentCaptor<VanishedResponse> captor = ArgumentCaptor.forClass(VanishedResponse.class);
+        verify(responder).respond(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -445,10 +445,54 @@ public class UidMsnConverterTest {
             .containsExactlyElementsOf(resultBuilder.build().entrySet());
     }
 
+    @Test
+    public void addUidShouldSupportMoreUidsThanTheInitialCapacity() {
+        for (int i = 1; i <= 1000; i++) {
+            testee.addUid(MessageUid.of(2 * i));
+        }
+
+        assertThat(testee.getNumMessage()).isEqualTo(1000);
+        assertThat(testee.getMsn(MessageUid.of(1000))).contains(500);
+        assertThat(testee.getMsn(MessageUid.of(1001))).isEmpty();
+        assertThat(testee.getUid(1000)).contains(MessageUid.of(2000));
+    }
+
+    @Test
+    public void removeShouldIgnoreUnknownUids() {
+        testee.addAll(ImmutableList.of(messageUid1, messageUid3));
+
+        testee.remove(messageUid2);
+
+        assertThat(mapTesteeInternalDataToMsnByUid())
+            .isEqualTo(ImmutableMap.of(1, messageUid1, 2, messageUid3));
+    }
+
+    @Test
+    public void readsShouldBeConsistentWhenConcurrentAdds() throws Exception {
+        int operationCount = 1000;
+
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                if (threadNumber == 0) {
+                    testee.addUid(MessageUid.of(step + 1));
+                } else {
+                    MessageUid uid = MessageUid.of(step + 1);
+                    testee.getMsn(uid)
+                        .ifPresent(msn -> assertThat(testee.getUid(msn)).contains(uid));
+                }
+            })
+            .threadCount(2)
+            .operationCount(operationCount)
+            .runSuccessfullyWithin(Duration.ofSeconds(10));
+
+        assertThat(testee.getNumMessage()).isEqualTo(operationCount);
+    }
+
     private Map<Integer, MessageUid> mapTesteeInternalDataToMsnByUid() {
         ImmutableMap.Builder<Integer, MessageUid> result = ImmutableMap.builder();
-        for (int i = 0; i < testee.uids.size(); i++) {
-            result.put(i + 1, testee.uids.get(i));
+        long[] uids = testee.uids();
+        for (int i = 0; i < uids.length; i++) {
+            result.put(i + 1, MessageUid.of(uids[i]));
         }
         return result.build();
     }
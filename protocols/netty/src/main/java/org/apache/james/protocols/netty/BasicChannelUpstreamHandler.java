@@ -38,6 +38,7 @@ import org.apache.james.protocols.api.handler.ProtocolHandlerChain;
 import org.apache.james.protocols.api.handler.ProtocolHandlerResultHandler;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelEvent;
 import org.jboss.netty.channel.ChannelHandler.Sharable;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelStateEvent;
@@ -129,6 +130,34 @@ public class BasicChannelUpstreamHandler extends SimpleChannelUpstreamHandler {
     }
 
 
+    @Override
+    public void handleUpstream(ChannelHandlerContext ctx, ChannelEvent e) throws Exception {
+        if (e instanceof MessageEvent && ((MessageEvent) e).getMessage() instanceof PipelinedBatch) {
+            onPipelinedBatch(ctx, (PipelinedBatch) ((MessageEvent) e).getMessage());
+        } else {
+            super.handleUpstream(ctx, e);
+        }
+    }
+
+    /**
+     * Hold the responses to the commands of a {@link PipelinedBatch} so that they get written at once
+     */
+    protected void onPipelinedBatch(ChannelHandlerContext ctx, PipelinedBatch batch) {
+        ProtocolSession session = (ProtocolSession) ctx.getAttachment();
+        if (session == null) {
+            return;
+        }
+        ProtocolTransport transport = ((ProtocolSessionImpl) session).getProtocolTransport();
+        if (transport instanceof NettyProtocolTransport) {
+            NettyProtocolTransport nettyTransport = (NettyProtocolTransport) transport;
+            if (batch == PipelinedBatch.START) {
+                nettyTransport.startBatch();
+            } else {
+                nettyTransport.flushBatch();
+            }
+        }
+    }
+
     /**
      * Call the {@link LineHandler} 
      */
@@ -45,6 +45,11 @@ public class LineHandlerUpstreamHandler<S extends ProtocolSession> extends Simpl
     
     @Override
     public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {        
+        if (!(e.getMessage() instanceof ChannelBuffer)) {
+            // Let events like PipelinedBatch reach the core handler
+            ctx.sendUpstream(e);
+            return;
+        }
         ChannelBuffer buf = (ChannelBuffer) e.getMessage();      
 
         Response response = handler.onLine(session, buf.toByteBuffer()); 
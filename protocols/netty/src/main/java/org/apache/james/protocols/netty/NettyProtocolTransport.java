@@ -24,6 +24,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.net.ssl.SSLEngine;
 
@@ -31,6 +33,7 @@ import org.apache.james.protocols.api.AbstractProtocolTransport;
 import org.apache.james.protocols.api.CombinedInputStream;
 import org.apache.james.protocols.api.ProtocolSession;
 import org.apache.james.protocols.api.handler.LineHandler;
+import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFutureListener;
@@ -45,7 +48,10 @@ public class NettyProtocolTransport extends AbstractProtocolTransport {
     
     private final Channel channel;
     private final SSLEngine engine;
-    private int lineHandlerCount = 0;
+    private volatile int lineHandlerCount = 0;
+    // Responses are written by the threads handling the commands, while batches are delimited by the decoding thread
+    private final Object writeLock = new Object();
+    private List<ChannelBuffer> batchedResponses;
     
     public NettyProtocolTransport(Channel channel, SSLEngine engine) {
         this.channel = channel;
@@ -86,6 +92,30 @@ public class NettyProtocolTransport extends AbstractProtocolTransport {
         return lineHandlerCount;
     }
 
+    /**
+     * Hold the responses written from now on, until {@link #flushBatch()} writes them at once
+     */
+    public void startBatch() {
+        synchronized (writeLock) {
+            if (batchedResponses == null) {
+                batchedResponses = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Write the responses held since {@link #startBatch()} and go back to writing each response as it comes
+     */
+    public void flushBatch() {
+        synchronized (writeLock) {
+            List<ChannelBuffer> responses = batchedResponses;
+            batchedResponses = null;
+            if (responses != null && !responses.isEmpty()) {
+                channel.write(ChannelBuffers.wrappedBuffer(responses.toArray(new ChannelBuffer[0])));
+            }
+        }
+    }
+
     /**
      * Add the {@link SslHandler} to the pipeline and start encrypting after the next written message
      */
@@ -97,21 +127,38 @@ public class NettyProtocolTransport extends AbstractProtocolTransport {
 
     @Override
     protected void writeToClient(byte[] bytes, ProtocolSession session, boolean startTLS) {
-        if (startTLS) {
-            prepareStartTLS();
+        synchronized (writeLock) {
+            if (startTLS) {
+                // responses held so far need to be sent in clear text
+                flushBatch();
+                prepareStartTLS();
+            }
+            if (batchedResponses != null) {
+                batchedResponses.add(ChannelBuffers.wrappedBuffer(bytes));
+            } else {
+                channel.write(ChannelBuffers.wrappedBuffer(bytes));
+            }
         }
-        channel.write(ChannelBuffers.wrappedBuffer(bytes));
-        
     }
 
     @Override
     protected void close() {
-        channel.write(ChannelBuffers.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+        synchronized (writeLock) {
+            flushBatch();
+            channel.write(ChannelBuffers.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+        }
     }
 
 
     @Override
     protected void writeToClient(InputStream in, ProtocolSession session, boolean startTLS) {
+        synchronized (writeLock) {
+            writeStreamToClient(in, startTLS);
+        }
+    }
+
+    private void writeStreamToClient(InputStream in, boolean startTLS) {
+        flushBatch();
         if (startTLS) {
             prepareStartTLS();
         }
@@ -0,0 +1,106 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.netty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.james.protocols.api.ProtocolSession;
+import org.apache.james.util.concurrency.ConcurrentTestRunner;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Splitter;
+
+public class NettyProtocolTransportTest {
+
+    private Queue<String> written;
+    private NettyProtocolTransport testee;
+    private ProtocolSession session;
+
+    @Before
+    public void setUp() {
+        written = new ConcurrentLinkedQueue<>();
+        Channel channel = mock(Channel.class, withSettings().stubOnly());
+        when(channel.write(any())).thenAnswer(invocation -> {
+            written.add(((ChannelBuffer) invocation.getArgument(0)).toString(StandardCharsets.US_ASCII));
+            return null;
+        });
+        session = mock(ProtocolSession.class);
+        testee = new NettyProtocolTransport(channel, null);
+    }
+
+    @Test
+    public void responsesShouldBeWrittenAsTheyComeWhenNoBatch() {
+        testee.writeToClient(bytes("250 OK\r\n"), session, false);
+        testee.writeToClient(bytes("354 Go on\r\n"), session, false);
+
+        assertThat(written).containsExactly("250 OK\r\n", "354 Go on\r\n");
+    }
+
+    @Test
+    public void batchedResponsesShouldBeWrittenAtOnce() {
+        testee.startBatch();
+        testee.writeToClient(bytes("250 OK\r\n"), session, false);
+        testee.writeToClient(bytes("354 Go on\r\n"), session, false);
+        testee.flushBatch();
+
+        assertThat(written).containsExactly("250 OK\r\n354 Go on\r\n");
+    }
+
+    @Test
+    public void responsesWrittenWhileBatchesAreDelimitedConcurrentlyShouldAllBeWritten() throws Exception {
+        int threadCount = 4;
+        int operationCount = 10000;
+
+        ConcurrentTestRunner.builder()
+            .operation((threadNumber, step) -> {
+                if (threadNumber == 0 && step % 2 == 0) {
+                    testee.startBatch();
+                } else if (threadNumber == 0) {
+                    testee.flushBatch();
+                } else {
+                    testee.writeToClient(bytes(threadNumber + "-" + step + "\r\n"), session, false);
+                }
+            })
+            .threadCount(threadCount)
+            .operationCount(operationCount)
+            .runSuccessfullyWithin(Duration.ofMinutes(1));
+        testee.flushBatch();
+
+        assertThat(Splitter.on("\r\n").omitEmptyStrings().splitToList(String.join("", written)))
+            .hasSize((threadCount - 1) * operationCount)
+            .doesNotHaveDuplicates();
+    }
+
+    private byte[] bytes(String response) {
+        return response.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -21,31 +21,82 @@ package org.apache.james.protocols.smtp;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
 
 import org.apache.james.protocols.netty.HandlerConstants;
+import org.apache.james.protocols.netty.PipelinedBatch;
+import org.apache.james.protocols.smtp.core.BdatCmdHandler;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.handler.codec.frame.LineBasedFrameDecoder;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
 
-
+/**
+ * Splits the SMTP input into lines, while rejecting commands injected after STARTTLS.
+ *
+ * The chunk following a BDAT command is not split into lines: its bytes are passed as they come, up to the announced
+ * chunk size, so that binary content and long lines can be transferred (RFC 3030). Whether a line is a BDAT command or
+ * part of a message sent with DATA is told from the previously decoded lines only, as the session is handled on another
+ * thread. A DATA line is thus expected to be followed by the message, up to the line holding a single dot.
+ *
+ * When a single read holds several frames, for instance pipelined MAIL and RCPT commands, they are surrounded by
+ * {@link PipelinedBatch} events so that the responses get written at once.
+ */
 public class AllButStartTlsLineBasedChannelHandler extends LineBasedFrameDecoder {
 
     private static final String STARTTLS = "starttls";
+    private static final String BDAT = "bdat ";
+    private static final String DATA = "data";
+    private static final String END_OF_MESSAGE = ".";
     private static final Boolean FAIL_FAST = true;
     private final ChannelPipeline pipeline;
+    private long chunkRemainingBytes = 0;
+    private boolean readingMessage = false;
+    private boolean inBatch = false;
 
     public AllButStartTlsLineBasedChannelHandler(ChannelPipeline pipeline, int maxFrameLength, boolean stripDelimiter) {
         super(maxFrameLength, stripDelimiter, !FAIL_FAST);
         this.pipeline = pipeline;
     }
 
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        try {
+            super.messageReceived(ctx, e);
+        } finally {
+            if (inBatch) {
+                inBatch = false;
+                Channels.fireMessageReceived(ctx, PipelinedBatch.END);
+            }
+        }
+    }
+
     @Override
     protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+        Object frame = decodeFrame(ctx, channel, buffer);
+        if (frame != null && !inBatch && hasNextFrame(buffer)) {
+            inBatch = true;
+            Channels.fireMessageReceived(ctx, PipelinedBatch.START);
+        }
+        return frame;
+    }
+
+    private Object decodeFrame(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
+        if (chunkRemainingBytes > 0) {
+            int length = (int) Math.min(buffer.readableBytes(), chunkRemainingBytes);
+            if (length == 0) {
+                return null;
+            }
+            chunkRemainingBytes -= length;
+            return buffer.readBytes(length);
+        }
+
         SMTPSession session = (SMTPSession) pipeline.getContext(HandlerConstants.CORE_HANDLER).getAttachment();
 
         if (session == null || session.needsCommandInjectionDetection()) {
@@ -54,7 +105,40 @@ public class AllButStartTlsLineBasedChannelHandler extends LineBasedFrameDecoder
                 throw new CommandInjectionDetectedException();
             }
         }
-        return super.decode(ctx, channel, buffer);
+        Object frame = super.decode(ctx, channel, buffer);
+        if (frame != null) {
+            String line = ((ChannelBuffer) frame).toString(StandardCharsets.US_ASCII);
+            if (readingMessage) {
+                readingMessage = !isEndOfMessage(line);
+            } else {
+                readingMessage = isDataCommand(line);
+                chunkRemainingBytes = bdatChunkSize(line).orElse(0L);
+            }
+        }
+        return frame;
+    }
+
+    private boolean isDataCommand(String line) {
+        return line.trim().equalsIgnoreCase(DATA);
+    }
+
+    private boolean isEndOfMessage(String line) {
+        return CharMatcher.anyOf("\r\n").trimTrailingFrom(line).equals(END_OF_MESSAGE);
+    }
+
+    private Optional<Long> bdatChunkSize(String line) {
+        String command = line.trim();
+        if (command.regionMatches(true, 0, BDAT, 0, BDAT.length())) {
+            return BdatCmdHandler.parseChunkSize(command.substring(BDAT.length()));
+        }
+        return Optional.empty();
+    }
+
+    private boolean hasNextFrame(ChannelBuffer buffer) {
+        if (chunkRemainingBytes > 0) {
+            return buffer.readable();
+        }
+        return buffer.indexOf(buffer.readerIndex(), buffer.writerIndex(), (byte) '\n') >= 0;
     }
 
     private String readAll(ChannelBuffer buffer) {
@@ -63,11 +147,35 @@ public class AllButStartTlsLineBasedChannelHandler extends LineBasedFrameDecoder
 
     private boolean hasCommandInjection(String trimedLowerCasedInput) {
         List<String> parts = Splitter.on(CharMatcher.anyOf("\r\n")).omitEmptyStrings()
-            .splitToList(trimedLowerCasedInput);
+            .splitToList(withoutChunks(trimedLowerCasedInput));
 
         return hasInvalidStartTlsPart(parts) || multiPartsAndOneStartTls(parts);
     }
 
+    /**
+     * Removes the chunks following the BDAT commands of the given input, as they are message content. The input is split
+     * into lines the way it is going to be decoded.
+     */
+    private String withoutChunks(String input) {
+        StringBuilder lines = new StringBuilder(input.length());
+        boolean inMessage = readingMessage;
+        int position = 0;
+        while (position < input.length()) {
+            int lineFeed = input.indexOf('\n', position);
+            int lineEnd = lineFeed < 0 ? input.length() : lineFeed + 1;
+            String line = input.substring(position, lineEnd);
+            lines.append(line);
+            position = lineEnd;
+            if (inMessage) {
+                inMessage = !isEndOfMessage(line);
+            } else {
+                inMessage = isDataCommand(line);
+                position = (int) Math.min(input.length(), position + bdatChunkSize(line).orElse(0L));
+            }
+        }
+        return lines.toString();
+    }
+
     private boolean multiPartsAndOneStartTls(List<String> parts) {
         return parts.stream()
             .anyMatch(line -> line.startsWith(STARTTLS)) && parts.size() > 1;
@@ -24,7 +24,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import javax.inject.Inject;
 
@@ -37,6 +40,7 @@ import org.apache.james.protocols.api.handler.ExtensibleHandler;
 import org.apache.james.protocols.smtp.SMTPResponse;
 import org.apache.james.protocols.smtp.SMTPRetCode;
 import org.apache.james.protocols.smtp.SMTPSession;
+import org.apache.james.protocols.smtp.hook.ConcurrentHook;
 import org.apache.james.protocols.smtp.hook.HookResult;
 import org.apache.james.protocols.smtp.hook.HookResultHook;
 import org.apache.james.protocols.smtp.hook.HookReturnCode;
@@ -44,6 +48,11 @@ import org.apache.james.util.MDCBuilder;
 import org.apache.james.util.OptionalUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
 
 /**
  * Abstract class which Handle hook-aware CommanHandler.
@@ -105,54 +114,131 @@ public abstract class AbstractHookableCmdHandler<HookT extends org.apache.james.
             String parameters) {
         List<HookT> hooks = getHooks();
         if (hooks != null) {
-            int count = hooks.size();
-            int i = 0;
-            while (i < count) {
-                HookT rawHook = hooks.get(i);
+            List<CompletableFuture<Tuple2<Long, HookResult>>> concurrentCalls = callConcurrentHooks(hooks, session, parameters);
+            try {
+                return processHooks(session, command, parameters, hooks, concurrentCalls);
+            } finally {
+                concurrentCalls.stream()
+                    .filter(call -> call != null && !call.isDone())
+                    .forEach(call -> call.cancel(true));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start calling the {@link ConcurrentHook}s, except the first hook which is called right away anyway.
+     * Their results are still handled in the hooks order.
+     *
+     * @return the pending results, indexed like the hooks, null for the hooks to be called sequentially
+     */
+    private List<CompletableFuture<Tuple2<Long, HookResult>>> callConcurrentHooks(List<HookT> hooks, SMTPSession session, String parameters) {
+        List<CompletableFuture<Tuple2<Long, HookResult>>> concurrentCalls = new ArrayList<>(hooks.size());
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        for (int i = 0; i < hooks.size(); i++) {
+            HookT rawHook = hooks.get(i);
+            if (i > 0 && rawHook instanceof ConcurrentHook) {
+                concurrentCalls.add(Mono.fromCallable(() -> callHookWithContext(rawHook, session, parameters, mdc))
+                    .elapsed()
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .toFuture());
+            } else {
+                concurrentCalls.add(null);
+            }
+        }
+        return concurrentCalls;
+    }
+
+    private HookResult callHookWithContext(HookT rawHook, SMTPSession session, String parameters, Map<String, String> mdc) {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try {
+            return callTimedHook(rawHook, session, parameters);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private HookResult callTimedHook(HookT rawHook, SMTPSession session, String parameters) {
+        TimeMetric timeMetric = metricFactory.timer("SMTP-hook-" + rawHook.getClass().getSimpleName());
+        try {
+            return callHook(rawHook, session, parameters);
+        } finally {
+            timeMetric.stopAndPublish();
+        }
+    }
+
+    private Tuple2<Long, HookResult> awaitHook(CompletableFuture<Tuple2<Long, HookResult>> concurrentCall) {
+        try {
+            return concurrentCall.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Response processHooks(SMTPSession session, String command, String parameters,
+            List<HookT> hooks, List<CompletableFuture<Tuple2<Long, HookResult>>> concurrentCalls) {
+        int count = hooks.size();
+        int i = 0;
+        while (i < count) {
+            HookT rawHook = hooks.get(i);
+            HookResult hRes;
+            long executionTime;
+            CompletableFuture<Tuple2<Long, HookResult>> concurrentCall = concurrentCalls.get(i);
+            if (concurrentCall != null) {
+                LOGGER.debug("waiting for hook {}", rawHook.getClass().getName());
+                Tuple2<Long, HookResult> timedResult = awaitHook(concurrentCall);
+                hRes = timedResult.getT2();
+                executionTime = timedResult.getT1();
+            } else {
                 LOGGER.debug("executing hook {}", rawHook.getClass().getName());
                 long start = System.currentTimeMillis();
 
-                HookResult hRes = callHook(rawHook, session, parameters);
-                long executionTime = System.currentTimeMillis() - start;
+                hRes = callTimedHook(rawHook, session, parameters);
+                executionTime = System.currentTimeMillis() - start;
+            }
 
-                if (rHooks != null) {
-                    for (HookResultHook rHook : rHooks) {
-                        LOGGER.debug("executing hook {}", rHook);
-                        hRes = rHook.onHookResult(session, hRes, executionTime, rawHook);
-                    }
+            if (rHooks != null) {
+                for (HookResultHook rHook : rHooks) {
+                    LOGGER.debug("executing hook {}", rHook);
+                    hRes = rHook.onHookResult(session, hRes, executionTime, rawHook);
                 }
+            }
 
-                // call the core cmd if we receive a ok return code of the hook so no other hooks are executed
-                if (hRes.getResult().getAction() == HookReturnCode.Action.OK) {
-                    final Response response = doCoreCmd(session, command, parameters);
-                    if (hRes.getResult().isDisconnected()) {
-                        return new Response() {
-
-                            @Override
-                            public boolean isEndSession() {
-                                return true;
-                            }
-
-                            @Override
-                            public String getRetCode() {
-                                return response.getRetCode();
-                            }
-
-                            @Override
-                            public List<CharSequence> getLines() {
-                                return response.getLines();
-                            }
-                        };
-                    }
-                    return response;
-                } else {
-                    SMTPResponse res = calcDefaultSMTPResponse(hRes);
-                    if (res != null) {
-                        return res;
-                    }
+            // call the core cmd if we receive a ok return code of the hook so no other hooks are executed
+            if (hRes.getResult().getAction() == HookReturnCode.Action.OK) {
+                final Response response = doCoreCmd(session, command, parameters);
+                if (hRes.getResult().isDisconnected()) {
+                    return new Response() {
+
+                        @Override
+                        public boolean isEndSession() {
+                            return true;
+                        }
+
+                        @Override
+                        public String getRetCode() {
+                            return response.getRetCode();
+                        }
+
+                        @Override
+                        public List<CharSequence> getLines() {
+                            return response.getLines();
+                        }
+                    };
+                }
+                return response;
+            } else {
+                SMTPResponse res = calcDefaultSMTPResponse(hRes);
+                if (res != null) {
+                    return res;
                 }
-                i++;
             }
+            i++;
         }
         return null;
     }
@@ -0,0 +1,403 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.smtp.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.james.protocols.api.ProtocolSession;
+import org.apache.james.protocols.api.Request;
+import org.apache.james.protocols.api.Response;
+import org.apache.james.protocols.api.handler.CommandHandler;
+import org.apache.james.protocols.api.handler.ExtensibleHandler;
+import org.apache.james.protocols.api.handler.LineHandler;
+import org.apache.james.protocols.api.handler.WiringException;
+import org.apache.james.protocols.smtp.SMTPResponse;
+import org.apache.james.protocols.smtp.SMTPRetCode;
+import org.apache.james.protocols.smtp.SMTPSession;
+import org.apache.james.protocols.smtp.core.esmtp.EhloExtension;
+import org.apache.james.protocols.smtp.dsn.DSNStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Handles BDAT command (RFC 3030 CHUNKING)
+ *
+ * The frame decoder passes the chunk following a BDAT command as it comes, without looking for lines nor dot
+ * stuffing. The header lines are handed to the line handler of the {@link DataCmdHandler}, so that the
+ * {@link DataLineFilter}s adding headers apply to messages sent with BDAT just like to messages sent with DATA. The
+ * body is then written as it comes to the message output stream, and the end of the message is signaled to the line
+ * handler so that message hooks apply. The maximum message size is checked once per chunk, against its announced size.
+ *
+ * This requires the chunks to be framed by {@link org.apache.james.protocols.smtp.AllButStartTlsLineBasedChannelHandler}.
+ */
+public class BdatCmdHandler implements CommandHandler<SMTPSession>, EhloExtension, ExtensibleHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BdatCmdHandler.class);
+
+    public static final String CHUNKED_MESSAGE = "CHUNKED_MESSAGE";
+
+    private static final String COMMAND_NAME = "BDAT";
+    private static final Collection<String> COMMANDS = ImmutableSet.of(COMMAND_NAME);
+    private static final List<String> FEATURES = ImmutableList.of("CHUNKING");
+    private static final Pattern ARGUMENT_PATTERN = Pattern.compile("^(\\d{1,18})( +LAST)?$", Pattern.CASE_INSENSITIVE);
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte DOT = '.';
+    private static final byte[] END_OF_DATA = {'.', '\r', '\n'};
+    private static final byte[] CRLF = {'\r', '\n'};
+    // Same limit as the one the frame decoder enforces on the lines of a message sent with DATA
+    private static final int MAX_HEADER_LINE_LENGTH = 8192;
+
+    private static final Response SYNTAX_ERROR = new SMTPResponse(SMTPRetCode.SYNTAX_ERROR_ARGUMENTS, DSNStatus.getStatus(DSNStatus.PERMANENT, DSNStatus.DELIVERY_INVALID_ARG) + " Syntax error in parameters or arguments of BDAT command").immutable();
+    private static final Response NOT_SUPPORTED = new SMTPResponse(SMTPRetCode.SYNTAX_ERROR_COMMAND_UNRECOGNIZED, DSNStatus.getStatus(DSNStatus.PERMANENT, DSNStatus.DELIVERY_INVALID_CMD) + " Command " + COMMAND_NAME + " unrecognized.").immutable();
+    private static final Response MESSAGE_TOO_BIG = new SMTPResponse(SMTPRetCode.QUOTA_EXCEEDED, DSNStatus.getStatus(DSNStatus.PERMANENT, DSNStatus.SYSTEM_MSG_TOO_BIG) + " Message size exceeds fixed maximum message size").immutable();
+    private static final Response ERROR_PROCESSING_MESSAGE = new SMTPResponse(SMTPRetCode.LOCAL_ERROR, DSNStatus.getStatus(DSNStatus.TRANSIENT, DSNStatus.UNDEFINED_STATUS) + " Error processing message").immutable();
+
+    /**
+     * Return the size of the chunk announced by the given BDAT argument, if valid
+     */
+    public static Optional<Long> parseChunkSize(String argument) {
+        if (argument == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = ARGUMENT_PATTERN.matcher(argument.trim());
+        if (matcher.matches()) {
+            return Optional.of(Long.parseLong(matcher.group(1)));
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isLast(String argument) {
+        Matcher matcher = ARGUMENT_PATTERN.matcher(argument.trim());
+        return matcher.matches() && matcher.group(2) != null;
+    }
+
+    private DataCmdHandler dataCmdHandler;
+
+    @Override
+    public Response onCommand(SMTPSession session, Request request) {
+        String argument = request.getArgument();
+        Optional<Long> chunkSize = parseChunkSize(argument);
+        if (!chunkSize.isPresent()) {
+            return SYNTAX_ERROR;
+        }
+        long size = chunkSize.get();
+        boolean last = isLast(argument);
+
+        Response rejection = startMessageIfNeeded(session);
+        if (rejection != null) {
+            // The chunk is sent anyway, and needs to be read before answering
+            return consumeChunk(session, new DiscardingChunkLineHandler(size, rejection));
+        }
+
+        ChunkedMessage message = (ChunkedMessage) session.getAttachment(CHUNKED_MESSAGE, ProtocolSession.State.Transaction);
+        if (!message.acceptChunk(session, size)) {
+            session.resetState();
+            return consumeChunk(session, new DiscardingChunkLineHandler(size, MESSAGE_TOO_BIG));
+        }
+        return consumeChunk(session, new ChunkLineHandler(message, size, last));
+    }
+
+    private Response consumeChunk(SMTPSession session, AbstractChunkLineHandler chunkHandler) {
+        if (chunkHandler.isComplete()) {
+            return chunkHandler.onChunkComplete(session);
+        }
+        session.pushLineHandler(chunkHandler);
+        return null;
+    }
+
+    private Response startMessageIfNeeded(SMTPSession session) {
+        if (dataCmdHandler == null) {
+            return NOT_SUPPORTED;
+        }
+        if (session.getAttachment(CHUNKED_MESSAGE, ProtocolSession.State.Transaction) != null) {
+            return null;
+        }
+        Response response = dataCmdHandler.doDATAFilter(session, null);
+        if (response == null) {
+            response = dataCmdHandler.prepareMessage(session);
+        }
+        if (response == null) {
+            session.setAttachment(CHUNKED_MESSAGE, new ChunkedMessage(dataCmdHandler), ProtocolSession.State.Transaction);
+        }
+        return response;
+    }
+
+    @Override
+    public Collection<String> getImplCommands() {
+        return COMMANDS;
+    }
+
+    @Override
+    public List<String> getImplementedEsmtpFeatures(SMTPSession session) {
+        if (dataCmdHandler == null) {
+            return Collections.emptyList();
+        }
+        return FEATURES;
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List getMarkerInterfaces() {
+        List classes = new LinkedList();
+        classes.add(DataCmdHandler.class);
+        return classes;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void wireExtensions(Class interfaceName, List extension) throws WiringException {
+        if (DataCmdHandler.class.equals(interfaceName) && !extension.isEmpty()) {
+            this.dataCmdHandler = (DataCmdHandler) extension.get(0);
+        }
+    }
+
+    /**
+     * Message being received through BDAT chunks. Its header lines are handed to the line handler of the
+     * {@link DataCmdHandler}, the last incomplete line being carried over to the next chunk. Once the line separating the
+     * headers from the body went through, the chunks are written as they come to the message output stream.
+     */
+    private static class ChunkedMessage {
+        private final DataCmdHandler dataCmdHandler;
+        private final ByteArrayOutputStream pendingLine;
+        private OutputStream body;
+        private byte lastBodyByte;
+        private long size;
+        private Response failure;
+
+        ChunkedMessage(DataCmdHandler dataCmdHandler) {
+            this.dataCmdHandler = dataCmdHandler;
+            this.pendingLine = new ByteArrayOutputStream();
+        }
+
+        boolean acceptChunk(SMTPSession session, long chunkSize) {
+            long maxMessageSize = session.getConfiguration().getMaxMessageSize();
+            if (maxMessageSize > 0 && size + chunkSize > maxMessageSize) {
+                return false;
+            }
+            size += chunkSize;
+            return true;
+        }
+
+        void append(SMTPSession session, ByteBuffer bytes) {
+            byte[] array;
+            int offset;
+            int length = bytes.remaining();
+            if (bytes.hasArray()) {
+                array = bytes.array();
+                offset = bytes.arrayOffset() + bytes.position();
+            } else {
+                array = new byte[length];
+                bytes.get(array);
+                offset = 0;
+            }
+
+            int end = offset + length;
+            while (offset < end && body == null && failure == null) {
+                offset = appendHeaders(session, array, offset, end);
+            }
+            if (offset < end && failure == null) {
+                writeBody(array, offset, end - offset);
+            }
+        }
+
+        private int appendHeaders(SMTPSession session, byte[] array, int offset, int end) {
+            for (int i = offset; i < end; i++) {
+                if (array[i] == LINE_FEED) {
+                    pendingLine.write(array, offset, i + 1 - offset);
+                    deliverHeaderLine(session);
+                    return i + 1;
+                }
+            }
+            pendingLine.write(array, offset, end - offset);
+            // The last byte might be the carriage return ending the line
+            if (pendingLine.size() > MAX_HEADER_LINE_LENGTH + 1) {
+                failure = session.newLineTooLongResponse();
+            }
+            return end;
+        }
+
+        private void deliverHeaderLine(SMTPSession session) {
+            byte[] line = pendingLine.toByteArray();
+            pendingLine.reset();
+            int contentLength = contentLength(line);
+            if (contentLength > MAX_HEADER_LINE_LENGTH) {
+                failure = session.newLineTooLongResponse();
+                return;
+            }
+            byte[] stuffedLine = line;
+            if (line[0] == DOT) {
+                stuffedLine = new byte[line.length + 1];
+                stuffedLine[0] = DOT;
+                System.arraycopy(line, 0, stuffedLine, 1, line.length);
+            }
+            failure = dataCmdHandler.getLineHandler().onLine(session, ByteBuffer.wrap(stuffedLine));
+            if (failure == null && contentLength == 0) {
+                try {
+                    body = dataCmdHandler.getMessageOutputStream(session);
+                    lastBodyByte = LINE_FEED;
+                } catch (IOException e) {
+                    LOGGER.error("Unable to write the message sent with BDAT", e);
+                    failure = ERROR_PROCESSING_MESSAGE;
+                }
+            }
+        }
+
+        private int contentLength(byte[] line) {
+            int length = line.length;
+            if (length > 0 && line[length - 1] == LINE_FEED) {
+                length--;
+                if (length > 0 && line[length - 1] == CARRIAGE_RETURN) {
+                    length--;
+                }
+            }
+            return length;
+        }
+
+        private void writeBody(byte[] array, int offset, int length) {
+            try {
+                body.write(array, offset, length);
+                lastBodyByte = array[offset + length - 1];
+            } catch (IOException e) {
+                LOGGER.error("Unable to write the message sent with BDAT", e);
+                failure = ERROR_PROCESSING_MESSAGE;
+            }
+        }
+
+        Response complete(SMTPSession session) {
+            if (failure == null && body != null && lastBodyByte != LINE_FEED) {
+                writeBody(CRLF, 0, CRLF.length);
+            } else if (failure == null && body == null && pendingLine.size() > 0) {
+                pendingLine.write(CRLF, 0, CRLF.length);
+                deliverHeaderLine(session);
+            }
+            if (failure != null) {
+                session.resetState();
+                return failure;
+            }
+            session.setAttachment(CHUNKED_MESSAGE, null, ProtocolSession.State.Transaction);
+            return dataCmdHandler.getLineHandler().onLine(session, ByteBuffer.wrap(END_OF_DATA.clone()));
+        }
+    }
+
+    /**
+     * Reads the given amount of bytes, then answers the BDAT command
+     */
+    private abstract static class AbstractChunkLineHandler implements LineHandler<SMTPSession> {
+        private long remainingBytes;
+
+        AbstractChunkLineHandler(long size) {
+            this.remainingBytes = size;
+        }
+
+        boolean isComplete() {
+            return remainingBytes <= 0;
+        }
+
+        @Override
+        public Response onLine(SMTPSession session, ByteBuffer chunkPart) {
+            remainingBytes -= chunkPart.remaining();
+            onChunkPart(session, chunkPart);
+            if (isComplete()) {
+                session.popLineHandler();
+                return onChunkComplete(session);
+            }
+            return null;
+        }
+
+        abstract void onChunkPart(SMTPSession session, ByteBuffer chunkPart);
+
+        abstract Response onChunkComplete(SMTPSession session);
+
+        @Override
+        public void init(Configuration config) throws ConfigurationException {
+
+        }
+
+        @Override
+        public void destroy() {
+
+        }
+    }
+
+    private static class ChunkLineHandler extends AbstractChunkLineHandler {
+        private final ChunkedMessage message;
+        private final long size;
+        private final boolean last;
+
+        ChunkLineHandler(ChunkedMessage message, long size, boolean last) {
+            super(size);
+            this.message = message;
+            this.size = size;
+            this.last = last;
+        }
+
+        @Override
+        void onChunkPart(SMTPSession session, ByteBuffer chunkPart) {
+            message.append(session, chunkPart);
+        }
+
+        @Override
+        Response onChunkComplete(SMTPSession session) {
+            if (last) {
+                return message.complete(session);
+            }
+            if (message.failure != null) {
+                Response failure = message.failure;
+                session.resetState();
+                return failure;
+            }
+            return new SMTPResponse(SMTPRetCode.MAIL_OK, DSNStatus.getStatus(DSNStatus.SUCCESS, DSNStatus.UNDEFINED_STATUS) + " " + size + " octets received");
+        }
+    }
+
+    private static class DiscardingChunkLineHandler extends AbstractChunkLineHandler {
+        private final Response response;
+
+        DiscardingChunkLineHandler(long size, Response response) {
+            super(size);
+            this.response = response;
+        }
+
+        @Override
+        void onChunkPart(SMTPSession session, ByteBuffer chunkPart) {
+
+        }
+
+        @Override
+        Response onChunkComplete(SMTPSession session) {
+            return response;
+        }
+    }
+}
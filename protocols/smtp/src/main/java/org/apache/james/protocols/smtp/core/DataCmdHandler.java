@@ -20,6 +20,7 @@ package org.apache.james.protocols.smtp.core;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -58,6 +59,7 @@ import com.google.common.collect.ImmutableSet;
 public class DataCmdHandler implements CommandHandler<SMTPSession>, ExtensibleHandler {
 
     private static final Response NO_RECIPIENT = new SMTPResponse(SMTPRetCode.BAD_SEQUENCE, DSNStatus.getStatus(DSNStatus.PERMANENT,DSNStatus.DELIVERY_OTHER) + " No recipients specified").immutable();
+    private static final Response CHUNKING_IN_PROGRESS = new SMTPResponse(SMTPRetCode.BAD_SEQUENCE, DSNStatus.getStatus(DSNStatus.PERMANENT,DSNStatus.DELIVERY_OTHER) + " Message content is being sent with BDAT").immutable();
     private static final Response NO_SENDER = new SMTPResponse(SMTPRetCode.BAD_SEQUENCE, DSNStatus.getStatus(DSNStatus.PERMANENT,DSNStatus.DELIVERY_OTHER) + " No sender specified").immutable();
     private static final Response UNEXPECTED_ARG = new SMTPResponse(SMTPRetCode.SYNTAX_ERROR_COMMAND_UNRECOGNIZED, DSNStatus.getStatus(DSNStatus.PERMANENT,DSNStatus.DELIVERY_INVALID_ARG) + " Unexpected argument provided with DATA command").immutable();
     private static final Response DATA_READY = new SMTPResponse(SMTPRetCode.DATA_READY, "Ok Send data ending with <CRLF>.<CRLF>").immutable();
@@ -159,15 +161,29 @@ public class DataCmdHandler implements CommandHandler<SMTPSession>, ExtensibleHa
      * @param session SMTP session object
      * @param argument the argument passed in with the command by the SMTP client
      */
-    @SuppressWarnings("unchecked")
     protected Response doDATA(SMTPSession session, String argument) {
-        MaybeSender sender = (MaybeSender) session.getAttachment(SMTPSession.SENDER, ProtocolSession.State.Transaction);
-        MailEnvelope env = createEnvelope(session, sender, new ArrayList<>((Collection<MailAddress>) session.getAttachment(SMTPSession.RCPT_LIST, ProtocolSession.State.Transaction)));
-        session.setAttachment(MAILENV, env,ProtocolSession.State.Transaction);
+        Response response = prepareMessage(session);
+        if (response != null) {
+            return response;
+        }
         session.pushLineHandler(lineHandler);
         
         return DATA_READY;
     }
+
+    /**
+     * Prepare the session for receiving the message content, be it sent with DATA or with BDAT.
+     *
+     * @param session SMTP session object
+     * @return the response rejecting the command, or null once the session is ready
+     */
+    @SuppressWarnings("unchecked")
+    protected Response prepareMessage(SMTPSession session) {
+        MaybeSender sender = (MaybeSender) session.getAttachment(SMTPSession.SENDER, ProtocolSession.State.Transaction);
+        MailEnvelope env = createEnvelope(session, sender, new ArrayList<>((Collection<MailAddress>) session.getAttachment(SMTPSession.RCPT_LIST, ProtocolSession.State.Transaction)));
+        session.setAttachment(MAILENV, env,ProtocolSession.State.Transaction);
+        return null;
+    }
     
     protected MailEnvelope createEnvelope(SMTPSession session, MaybeSender sender, List<MailAddress> recipients) {
         MailEnvelopeImpl env = new MailEnvelopeImpl();
@@ -208,6 +224,9 @@ public class DataCmdHandler implements CommandHandler<SMTPSession>, ExtensibleHa
         if ((argument != null) && (argument.length() > 0)) {
             return UNEXPECTED_ARG;
         }
+        if (session.getAttachment(BdatCmdHandler.CHUNKED_MESSAGE, ProtocolSession.State.Transaction) != null) {
+            return CHUNKING_IN_PROGRESS;
+        }
         if (session.getAttachment(SMTPSession.SENDER, ProtocolSession.State.Transaction) == null) {
             return NO_SENDER;
         } else if (session.getAttachment(SMTPSession.RCPT_LIST, ProtocolSession.State.Transaction) == null) {
@@ -220,4 +239,14 @@ public class DataCmdHandler implements CommandHandler<SMTPSession>, ExtensibleHa
         return lineHandler;
     }
 
+    /**
+     * Return the stream the content of the message being received gets written to.
+     *
+     * @param session SMTP session object
+     */
+    protected OutputStream getMessageOutputStream(SMTPSession session) throws IOException {
+        MailEnvelope env = (MailEnvelope) session.getAttachment(MAILENV, ProtocolSession.State.Transaction);
+        return env.getMessageOutputStream();
+    }
+
 }
@@ -19,9 +19,13 @@
 
 package org.apache.james.protocols.smtp.core.fastfail;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.james.core.Domain;
 import org.apache.james.core.MailAddress;
 import org.apache.james.core.MaybeSender;
+import org.apache.james.protocols.api.ProtocolSession.State;
 import org.apache.james.protocols.smtp.SMTPRetCode;
 import org.apache.james.protocols.smtp.SMTPSession;
 import org.apache.james.protocols.smtp.dsn.DSNStatus;
@@ -36,10 +40,11 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class AbstractValidRcptHandler implements RcptHook {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractValidRcptHandler.class);
+    private static final String LOCAL_DOMAINS = AbstractValidRcptHandler.class.getName() + ".localDomains";
 
     @Override
     public HookResult doRcpt(SMTPSession session, MaybeSender sender, MailAddress rcpt) {
-        if (!isLocalDomain(session, rcpt.getDomain())) {
+        if (!isLocalDomainMemoized(session, rcpt.getDomain())) {
             return HookResult.DECLINED;
         }
         if (!isValidRecipient(session, rcpt)) {
@@ -57,6 +62,19 @@ public abstract class AbstractValidRcptHandler implements RcptHook {
             .build();
     }
 
+    /**
+     * Recipients of a transaction often share their domain: the domain lookup is only done once per transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isLocalDomainMemoized(SMTPSession session, Domain domain) {
+        Map<Domain, Boolean> localDomains = (Map<Domain, Boolean>) session.getAttachment(LOCAL_DOMAINS, State.Transaction);
+        if (localDomains == null) {
+            localDomains = new ConcurrentHashMap<>();
+            session.setAttachment(LOCAL_DOMAINS, localDomains, State.Transaction);
+        }
+        return localDomains.computeIfAbsent(domain, any -> isLocalDomain(session, domain));
+    }
+
     /**
      * Return true if email for the given recipient should get accepted
      */
@@ -22,6 +22,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.StringTokenizer;
 
 import org.apache.james.core.MailAddress;
@@ -55,6 +56,8 @@ public class DNSRBLHandler implements RcptHook {
     
     public static final String RBL_DETAIL_MAIL_ATTRIBUTE_NAME = "org.apache.james.smtpserver.rbl.detail";
 
+    private static final String RBL_CHECKED_ATTRIBUTE_NAME = "org.apache.james.smtpserver.rbl.checked";
+
     /**
      * Set the whitelist array
      * 
@@ -124,51 +127,64 @@ public class DNSRBLHandler implements RcptHook {
             String reversedOctets = sb.toString();
 
             if (whitelist != null) {
-                String[] rblList = whitelist;
-                for (String rbl : rblList) {
-                    if (resolve(reversedOctets + rbl)) {
-                        LOGGER.info("Connection from {} whitelisted by {}", ipAddress, rbl);
-                        return;
-                    } else {
-                        LOGGER.debug("IpAddress {} not listed on {}", session.getRemoteAddress().getAddress(), rbl);
-                    }
+                Optional<String> whitelistingRbl = findListingRbl(reversedOctets, whitelist);
+                if (whitelistingRbl.isPresent()) {
+                    LOGGER.info("Connection from {} whitelisted by {}", ipAddress, whitelistingRbl.get());
+                    return;
                 }
             }
 
             if (blacklist != null) {
-                String[] rblList = blacklist;
-                for (String rbl : rblList) {
-                    if (resolve(reversedOctets + rbl)) {
-                        LOGGER.info("Connection from {} restricted by {} to SMTP AUTH/postmaster/abuse.", ipAddress, rbl);
-
-                        // we should try to retrieve details
-                        if (getDetail) {
-                            Collection<String> txt = resolveTXTRecords(reversedOctets + rbl);
-
-                            // Check if we found a txt record
-                            if (!txt.isEmpty()) {
-                                // Set the detail
-                                String blocklistedDetail = txt.iterator().next().toString();
-
-                                session.setAttachment(RBL_DETAIL_MAIL_ATTRIBUTE_NAME, blocklistedDetail, State.Connection);
-                            }
-                        }
+                Optional<String> blacklistingRbl = findListingRbl(reversedOctets, blacklist);
+                if (blacklistingRbl.isPresent()) {
+                    String rbl = blacklistingRbl.get();
+                    LOGGER.info("Connection from {} restricted by {} to SMTP AUTH/postmaster/abuse.", ipAddress, rbl);
+
+                    // we should try to retrieve details
+                    if (getDetail) {
+                        Collection<String> txt = resolveTXTRecords(reversedOctets + rbl);
 
-                        session.setAttachment(RBL_BLOCKLISTED_MAIL_ATTRIBUTE_NAME, "true", State.Connection);
-                        return;
-                    } else {
-                        // if it is unknown, it isn't blocked
-                        LOGGER.debug("unknown host exception thrown: {}", rbl);
+                        // Check if we found a txt record
+                        if (!txt.isEmpty()) {
+                            // Set the detail
+                            String blocklistedDetail = txt.iterator().next().toString();
+
+                            session.setAttachment(RBL_DETAIL_MAIL_ATTRIBUTE_NAME, blocklistedDetail, State.Connection);
+                        }
                     }
 
+                    session.setAttachment(RBL_BLOCKLISTED_MAIL_ATTRIBUTE_NAME, "true", State.Connection);
                 }
             }
         }
     }
+
+    /**
+     * Return the first of the given rbl servers listing the reversed ip address, in the order of the list.
+     *
+     * This implementation queries the rbl servers one after the other with {@link #resolve(String)}. Sub-classes may
+     * override this to query them concurrently.
+     *
+     * @return the listing rbl server, if any
+     */
+    protected Optional<String> findListingRbl(String reversedOctets, String[] rblList) {
+        for (String rbl : rblList) {
+            if (resolve(reversedOctets + rbl)) {
+                return Optional.of(rbl);
+            }
+            // if it is unknown, it isn't listed
+            LOGGER.debug("IpAddress {} not listed on {}", reversedOctets, rbl);
+        }
+        return Optional.empty();
+    }
     
     @Override
     public HookResult doRcpt(SMTPSession session, MaybeSender sender, MailAddress rcpt) {
-        checkDNSRBL(session, session.getRemoteAddress().getAddress().getHostAddress());
+        // The remote address does not change during the connection: only query the rbl servers for the first recipient
+        if (session.getAttachment(RBL_CHECKED_ATTRIBUTE_NAME, State.Connection) == null) {
+            checkDNSRBL(session, session.getRemoteAddress().getAddress().getHostAddress());
+            session.setAttachment(RBL_CHECKED_ATTRIBUTE_NAME, Boolean.TRUE, State.Connection);
+        }
     
         if (!session.isRelayingAllowed()) {
             String blocklisted = (String) session.getAttachment(RBL_BLOCKLISTED_MAIL_ATTRIBUTE_NAME, State.Connection);
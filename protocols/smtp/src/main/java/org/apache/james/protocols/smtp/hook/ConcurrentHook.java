@@ -0,0 +1,32 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.smtp.hook;
+
+/**
+ * Marker interface for the {@link Hook}s which result does not depend on the hooks called before them. Such hooks, like
+ * DNS or user lookups, are called concurrently with the other hooks of the command. Their results are still handled in
+ * the order of the hooks, hence an earlier hook can still deny the command.
+ *
+ * Implementations should have no side effect others than attaching data to the session, as they may be called even if
+ * an earlier hook ends the processing of the command.
+ */
+public interface ConcurrentHook extends Hook {
+
+}
@@ -0,0 +1,159 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.smtp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.james.protocols.netty.AbstractChannelPipelineFactory;
+import org.apache.james.protocols.netty.HandlerConstants;
+import org.apache.james.protocols.netty.PipelinedBatch;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AllButStartTlsLineBasedChannelHandlerTest {
+
+    private DecoderEmbedder<Object> embedder;
+
+    @Before
+    public void setUp() {
+        ChannelPipeline pipeline = Channels.pipeline();
+        pipeline.addLast(HandlerConstants.CORE_HANDLER, new SimpleChannelUpstreamHandler());
+        embedder = new DecoderEmbedder<>(new AllButStartTlsLineBasedChannelHandler(pipeline, AbstractChannelPipelineFactory.MAX_LINE_LENGTH, false));
+    }
+
+    @Test
+    public void linesReadOneByOneShouldNotBeBatched() {
+        embedder.offer(buffer("MAIL FROM:<a@b>\r\n"));
+        embedder.offer(buffer("RCPT TO:<c@d>\r\n"));
+
+        assertThat(decoded()).containsExactly("MAIL FROM:<a@b>\r\n", "RCPT TO:<c@d>\r\n");
+    }
+
+    @Test
+    public void pipelinedLinesShouldBeBatched() {
+        embedder.offer(buffer("MAIL FROM:<a@b>\r\nRCPT TO:<c@d>\r\nDATA\r\n"));
+
+        assertThat(decoded()).containsExactly(PipelinedBatch.START,
+            "MAIL FROM:<a@b>\r\n", "RCPT TO:<c@d>\r\n", "DATA\r\n",
+            PipelinedBatch.END);
+    }
+
+    @Test
+    public void bdatChunkShouldNotBeSplitIntoLines() {
+        embedder.offer(buffer("BDAT 13 LAST\r\nline\r\n.\r\nabcdRSET\r\n"));
+
+        assertThat(decoded()).containsExactly(PipelinedBatch.START,
+            "BDAT 13 LAST\r\n", "line\r\n.\r\nabcd", "RSET\r\n",
+            PipelinedBatch.END);
+    }
+
+    @Test
+    public void bdatChunkShouldBeReadAcrossSeveralReads() {
+        embedder.offer(buffer("bdat 10\r\n0123"));
+        embedder.offer(buffer("456789"));
+        embedder.offer(buffer("QUIT\r\n"));
+
+        assertThat(decoded()).containsExactly(PipelinedBatch.START,
+            "bdat 10\r\n", "0123",
+            PipelinedBatch.END,
+            "456789",
+            "QUIT\r\n");
+    }
+
+    @Test
+    public void invalidBdatCommandShouldNotBeFollowedByAChunk() {
+        embedder.offer(buffer("BDAT abc\r\n"));
+        embedder.offer(buffer("RSET\r\n"));
+
+        assertThat(decoded()).containsExactly("BDAT abc\r\n", "RSET\r\n");
+    }
+
+    @Test
+    public void startTlsInBdatChunkShouldNotBeSeenAsCommandInjection() {
+        embedder.offer(buffer("BDAT 10\r\nSTARTTLS\r\n"));
+
+        assertThat(decoded()).containsExactly(PipelinedBatch.START,
+            "BDAT 10\r\n", "STARTTLS\r\n",
+            PipelinedBatch.END);
+    }
+
+    @Test
+    public void bdatLineInMessageSentWithDataShouldNotBeFollowedByAChunk() {
+        embedder.offer(buffer("DATA\r\n"));
+        embedder.offer(buffer("BDAT 3\r\nline\r\n.\r\n"));
+
+        assertThat(decoded()).containsExactly("DATA\r\n",
+            PipelinedBatch.START,
+            "BDAT 3\r\n", "line\r\n", ".\r\n",
+            PipelinedBatch.END);
+    }
+
+    @Test
+    public void bdatPipelinedAfterTheEndOfAMessageSentWithDataShouldBeFollowedByAChunk() {
+        embedder.offer(buffer("DATA\r\n"));
+        embedder.offer(buffer("line\r\n.\r\nBDAT 3 LAST\r\nabcQUIT\r\n"));
+
+        assertThat(decoded()).containsExactly("DATA\r\n",
+            PipelinedBatch.START,
+            "line\r\n", ".\r\n", "BDAT 3 LAST\r\n", "abc", "QUIT\r\n",
+            PipelinedBatch.END);
+    }
+
+    @Test
+    public void startTlsPipelinedAfterABdatChunkShouldBeSeenAsCommandInjection() {
+        assertThatThrownBy(() -> embedder.offer(buffer("BDAT 10\r\n0123456789STARTTLS\r\nAUTH PLAIN\r\n")))
+            .hasCauseInstanceOf(CommandInjectionDetectedException.class);
+    }
+
+    @Test
+    public void startTlsPipelinedAfterABdatChunkEndingWithALineShouldBeSeenAsCommandInjection() {
+        assertThatThrownBy(() -> embedder.offer(buffer("BDAT 4\r\nab\r\nSTARTTLS\r\nAUTH PLAIN\r\n")))
+            .hasCauseInstanceOf(CommandInjectionDetectedException.class);
+    }
+
+    private ChannelBuffer buffer(String content) {
+        return ChannelBuffers.copiedBuffer(content, StandardCharsets.US_ASCII);
+    }
+
+    private List<Object> decoded() {
+        List<Object> result = new ArrayList<>();
+        Object frame = embedder.poll();
+        while (frame != null) {
+            if (frame instanceof ChannelBuffer) {
+                result.add(((ChannelBuffer) frame).toString(StandardCharsets.US_ASCII));
+            } else {
+                result.add(frame);
+            }
+            frame = embedder.poll();
+        }
+        return result;
+    }
+}
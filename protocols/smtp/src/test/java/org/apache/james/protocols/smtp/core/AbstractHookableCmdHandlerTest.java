@@ -0,0 +1,152 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.protocols.smtp.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.james.protocols.api.BaseRequest;
+import org.apache.james.protocols.api.Response;
+import org.apache.james.protocols.smtp.SMTPResponse;
+import org.apache.james.protocols.smtp.SMTPRetCode;
+import org.apache.james.protocols.smtp.SMTPSession;
+import org.apache.james.protocols.smtp.hook.ConcurrentHook;
+import org.apache.james.protocols.smtp.hook.Hook;
+import org.apache.james.protocols.smtp.hook.HookResult;
+import org.apache.james.protocols.smtp.utils.BaseFakeSMTPSession;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class AbstractHookableCmdHandlerTest {
+
+    interface TestHook extends Hook {
+        HookResult doTest();
+    }
+
+    interface ConcurrentTestHook extends TestHook, ConcurrentHook {
+
+    }
+
+    private static class TestCmdHandler extends AbstractHookableCmdHandler<TestHook> {
+        TestCmdHandler() {
+            super(new NoopMetricFactory());
+        }
+
+        @Override
+        protected HookResult callHook(TestHook rawHook, SMTPSession session, String parameters) {
+            return rawHook.doTest();
+        }
+
+        @Override
+        protected Response doFilterChecks(SMTPSession session, String command, String parameters) {
+            return null;
+        }
+
+        @Override
+        protected Response doCoreCmd(SMTPSession session, String command, String parameters) {
+            return new SMTPResponse(SMTPRetCode.MAIL_OK, "core");
+        }
+
+        @Override
+        protected Class<TestHook> getHookInterface() {
+            return TestHook.class;
+        }
+
+        @Override
+        public Collection<String> getImplCommands() {
+            return ImmutableList.of("TEST");
+        }
+    }
+
+    private TestCmdHandler testee;
+
+    @Before
+    public void setUp() {
+        testee = new TestCmdHandler();
+    }
+
+    private Response process(TestHook... hooks) {
+        testee.wireExtensions(TestHook.class, ImmutableList.copyOf(hooks));
+        return testee.onCommand(new BaseFakeSMTPSession(), new BaseRequest("TEST", ""));
+    }
+
+    @Test
+    public void concurrentHooksShouldBeCalledConcurrently() {
+        CountDownLatch latch = new CountDownLatch(2);
+        ConcurrentTestHook waitingForTheOtherHook = () -> {
+            latch.countDown();
+            try {
+                if (latch.await(10, TimeUnit.SECONDS)) {
+                    return HookResult.DECLINED;
+                }
+                return HookResult.DENY;
+            } catch (InterruptedException e) {
+                return HookResult.DENY;
+            }
+        };
+
+        Response response = process(() -> HookResult.DECLINED, waitingForTheOtherHook, waitingForTheOtherHook);
+
+        assertThat(response.getRetCode()).isEqualTo(SMTPRetCode.MAIL_OK);
+    }
+
+    @Test
+    public void concurrentHookResultsShouldBeHandledInTheHooksOrder() {
+        ConcurrentTestHook slowDenyingHook = () -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return HookResult.DENY;
+        };
+        ConcurrentTestHook fastAcceptingHook = () -> HookResult.OK;
+
+        Response response = process(() -> HookResult.DECLINED, slowDenyingHook, fastAcceptingHook);
+
+        assertThat(response.getRetCode()).isEqualTo(SMTPRetCode.TRANSACTION_FAILED);
+    }
+
+    @Test
+    public void earlierHookShouldDenyTheCommandBeforeConcurrentHooks() {
+        ConcurrentTestHook acceptingHook = () -> HookResult.OK;
+
+        Response response = process(() -> HookResult.DENYSOFT, acceptingHook);
+
+        assertThat(response.getRetCode()).isEqualTo(SMTPRetCode.LOCAL_ERROR);
+    }
+
+    @Test
+    public void concurrentHookFailureShouldBePropagated() {
+        ConcurrentTestHook failingHook = () -> {
+            throw new IllegalStateException("failure");
+        };
+
+        assertThatThrownBy(() -> process(() -> HookResult.DECLINED, failingHook))
+            .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,36 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.api;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Lists the blobs of the default bucket referenced by a component storing blob ids, like the mailbox or the
+ * mail queue.
+ *
+ * Blobs not referenced by any source are considered garbage and can be collected.
+ */
+public interface BlobReferenceSource {
+
+    /**
+     * Lists referenced blobs. The same blob might be listed several times.
+     */
+    Flux<BlobId> listReferencedBlobs();
+}
@@ -19,11 +19,21 @@
 package org.apache.james.blob.api;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
 
+import org.apache.commons.lang3.tuple.Pair;
+
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface BlobStore {
+    int DEFAULT_READ_BATCH_CONCURRENCY = 16;
 
     Mono<BlobId> save(BucketName bucketName, byte[] data);
 
@@ -33,6 +43,44 @@ public interface BlobStore {
 
     InputStream read(BucketName bucketName, BlobId blobId);
 
+    /**
+     * Reads the blob content as a sequence of buffers, which concatenation is the blob content.
+     *
+     * Implementations emit the buffers as they are retrieved from the underlying storage, without
+     * materializing the whole blob in memory. Emitted buffers should be considered read-only.
+     */
+    Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId);
+
+    /**
+     * Reads at most length bytes of the blob content, starting at offset.
+     *
+     * Implementations only retrieve the parts of the blob overlapping the requested range when the underlying
+     * storage allows it. A range exceeding the blob content is truncated, and is empty when offset is greater
+     * than the blob size.
+     */
+    Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length);
+
+    /**
+     * Reads the content of several blobs of a bucket, indexed by their ids.
+     *
+     * Implementations coalesce the reads when the underlying storage allows it. Reading fails with
+     * {@link ObjectNotFoundException} when one of the blobs does not exist.
+     */
+    default Mono<Map<BlobId, byte[]>> readBatch(BucketName bucketName, Collection<BlobId> blobIds) {
+        return Flux.fromIterable(ImmutableSet.copyOf(blobIds))
+            .flatMap(blobId -> readBytes(bucketName, blobId)
+                .map(bytes -> Pair.of(blobId, bytes)), DEFAULT_READ_BATCH_CONCURRENCY)
+            .collectMap(Pair::getKey, Pair::getValue);
+    }
+
+    /**
+     * Lists the blobs of a bucket which content was last written before the given instant.
+     *
+     * Saving again an existing blob counts as writing it. The listing is not a snapshot: blobs concurrently saved
+     * or deleted might or might not be part of it, and a blob might be listed more than once.
+     */
+    Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore);
+
     default Mono<BlobId> save(BucketName bucketName, String data) {
         return save(bucketName, data.getBytes(StandardCharsets.UTF_8));
     }
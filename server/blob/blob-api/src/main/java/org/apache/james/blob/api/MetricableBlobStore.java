@@ -19,12 +19,17 @@
 package org.apache.james.blob.api;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.apache.james.metrics.api.MetricFactory;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class MetricableBlobStore implements BlobStore {
@@ -36,6 +41,10 @@ public class MetricableBlobStore implements BlobStore {
     static final String SAVE_INPUT_STREAM_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "saveInputStream";
     static final String READ_BYTES_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "readBytes";
     static final String READ_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "read";
+    static final String READ_STREAM_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "readStream";
+    static final String READ_RANGE_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "readRange";
+    static final String READ_BATCH_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "readBatch";
+    static final String LIST_BLOBS_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "listBlobs";
     static final String DELETE_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "delete";
     static final String DELETE_BUCKET_TIMER_NAME = BLOB_STORE_METRIC_PREFIX + "deleteBucket";
 
@@ -73,6 +82,30 @@ public class MetricableBlobStore implements BlobStore {
             .runPublishingTimerMetric(READ_TIMER_NAME, () -> blobStoreImpl.read(bucketName, blobId));
     }
 
+    @Override
+    public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+        return metricFactory
+            .runPublishingTimerMetric(READ_STREAM_TIMER_NAME, blobStoreImpl.readStream(bucketName, blobId));
+    }
+
+    @Override
+    public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        return metricFactory
+            .runPublishingTimerMetric(READ_RANGE_TIMER_NAME, blobStoreImpl.readRange(bucketName, blobId, offset, length));
+    }
+
+    @Override
+    public Mono<Map<BlobId, byte[]>> readBatch(BucketName bucketName, Collection<BlobId> blobIds) {
+        return metricFactory
+            .runPublishingTimerMetric(READ_BATCH_TIMER_NAME, blobStoreImpl.readBatch(bucketName, blobIds));
+    }
+
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        return metricFactory
+            .runPublishingTimerMetric(LIST_BLOBS_TIMER_NAME, blobStoreImpl.listBlobs(bucketName, writtenBefore));
+    }
+
     @Override
     public Mono<Void> deleteBucket(BucketName bucketName) {
         return metricFactory
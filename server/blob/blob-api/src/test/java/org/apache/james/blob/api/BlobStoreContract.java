@@ -23,14 +23,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 
-public interface BlobStoreContract extends DeleteBlobStoreContract, BucketBlobStoreContract {
+import reactor.core.publisher.Flux;
+
+public interface BlobStoreContract extends DeleteBlobStoreContract, BucketBlobStoreContract, ListBlobStoreContract {
 
     String SHORT_STRING = "toto";
     byte[] EMPTY_BYTEARRAY = {};
@@ -225,4 +232,225 @@ public interface BlobStoreContract extends DeleteBlobStoreContract, BucketBlobSt
 
         assertThat(read).hasSameContentAs(new ByteArrayInputStream(TWELVE_MEGABYTES));
     }
+
+    @Test
+    default void readStreamShouldThrowWhenNoExisting() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        assertThatThrownBy(() -> store.readStream(defaultBucketName, blobIdFactory().from("unknown")).blockLast())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    default void readStreamShouldReturnSavedData() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        assertThat(concatenate(store.readStream(defaultBucketName, blobId))).isEqualTo(SHORT_BYTEARRAY);
+    }
+
+    @Test
+    default void readStreamShouldReturnEmptySavedData() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, EMPTY_BYTEARRAY).block();
+
+        assertThat(concatenate(store.readStream(defaultBucketName, blobId))).isEmpty();
+    }
+
+    @Test
+    default void readStreamShouldReturnBigSavedData() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, TWELVE_MEGABYTES).block();
+
+        assertThat(concatenate(store.readStream(defaultBucketName, blobId))).isEqualTo(TWELVE_MEGABYTES);
+    }
+
+    @Test
+    default void readStreamShouldReturnBigDataSavedAsInputStream() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, new ByteArrayInputStream(TWELVE_MEGABYTES)).block();
+
+        assertThat(concatenate(store.readStream(defaultBucketName, blobId))).isEqualTo(TWELVE_MEGABYTES);
+    }
+
+    @Test
+    default void saveInputStreamShouldReturnTheSameBlobIdThanSaveBytes() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobIdFromBytes = store.save(defaultBucketName, TWELVE_MEGABYTES).block();
+        BlobId blobIdFromStream = store.save(defaultBucketName, new ByteArrayInputStream(TWELVE_MEGABYTES)).block();
+
+        assertThat(blobIdFromStream).isEqualTo(blobIdFromBytes);
+    }
+
+    @Test
+    default void readRangeShouldThrowWhenNoExisting() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        assertThatThrownBy(() -> store.readRange(defaultBucketName, blobIdFactory().from("unknown"), 0, 10).blockLast())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    default void readRangeShouldThrowWhenNegativeOffset() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        assertThatThrownBy(() -> store.readRange(defaultBucketName, blobId, -1, 10).blockLast())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    default void readRangeShouldThrowWhenNegativeLength() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        assertThatThrownBy(() -> store.readRange(defaultBucketName, blobId, 0, -1).blockLast())
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    default void readRangeShouldReturnRequestedBytes() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, ELEVEN_KILOBYTES).block();
+
+        assertThat(concatenate(store.readRange(defaultBucketName, blobId, 5, 13)))
+            .isEqualTo(Arrays.copyOfRange(ELEVEN_KILOBYTES, 5, 18));
+    }
+
+    @Test
+    default void readRangeShouldReturnRequestedBytesOfBigBlobs() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, TWELVE_MEGABYTES).block();
+
+        assertThat(concatenate(store.readRange(defaultBucketName, blobId, 1_000_003, 3_000_007)))
+            .isEqualTo(Arrays.copyOfRange(TWELVE_MEGABYTES, 1_000_003, 4_000_010));
+    }
+
+    @Test
+    default void readRangeShouldBeTruncatedWhenExceedingContent() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        assertThat(concatenate(store.readRange(defaultBucketName, blobId, 1, 100)))
+            .isEqualTo(Arrays.copyOfRange(SHORT_BYTEARRAY, 1, SHORT_BYTEARRAY.length));
+    }
+
+    @Test
+    default void readRangeShouldBeEmptyWhenOffsetExceedsContent() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        assertThat(concatenate(store.readRange(defaultBucketName, blobId, 100, 10)))
+            .isEmpty();
+    }
+
+    @Test
+    default void readRangeShouldBeEmptyWhenZeroLength() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        assertThat(concatenate(store.readRange(defaultBucketName, blobId, 1, 0)))
+            .isEmpty();
+    }
+
+    @Test
+    default void readBatchShouldReturnTheContentOfEachBlob() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId emptyBlobId = store.save(defaultBucketName, EMPTY_BYTEARRAY).block();
+        BlobId shortBlobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+        BlobId bigBlobId = store.save(defaultBucketName, TWELVE_MEGABYTES).block();
+
+        Map<BlobId, byte[]> contents = store.readBatch(defaultBucketName, ImmutableList.of(emptyBlobId, shortBlobId, bigBlobId)).block();
+
+        assertThat(contents.keySet()).containsOnly(emptyBlobId, shortBlobId, bigBlobId);
+        assertThat(contents.get(emptyBlobId)).isEqualTo(EMPTY_BYTEARRAY);
+        assertThat(contents.get(shortBlobId)).isEqualTo(SHORT_BYTEARRAY);
+        assertThat(contents.get(bigBlobId)).isEqualTo(TWELVE_MEGABYTES);
+    }
+
+    @Test
+    default void readBatchShouldReturnTheContentOfBlobsOfCustomBuckets() {
+        BlobStore store = testee();
+        BucketName customBucketName = BucketName.of("custom");
+
+        BlobId shortBlobId = store.save(customBucketName, SHORT_BYTEARRAY).block();
+        BlobId elevenKilobytesBlobId = store.save(customBucketName, ELEVEN_KILOBYTES).block();
+
+        Map<BlobId, byte[]> contents = store.readBatch(customBucketName, ImmutableList.of(shortBlobId, elevenKilobytesBlobId)).block();
+
+        assertThat(contents.keySet()).containsOnly(shortBlobId, elevenKilobytesBlobId);
+        assertThat(contents.get(shortBlobId)).isEqualTo(SHORT_BYTEARRAY);
+        assertThat(contents.get(elevenKilobytesBlobId)).isEqualTo(ELEVEN_KILOBYTES);
+    }
+
+    @Test
+    default void readBatchShouldAcceptDuplicatedBlobIds() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        Map<BlobId, byte[]> contents = store.readBatch(defaultBucketName, ImmutableList.of(blobId, blobId)).block();
+
+        assertThat(contents.keySet()).containsOnly(blobId);
+        assertThat(contents.get(blobId)).isEqualTo(SHORT_BYTEARRAY);
+    }
+
+    @Test
+    default void readBatchShouldReturnEmptyWhenNoBlobIds() {
+        BlobStore store = testee();
+
+        assertThat(store.readBatch(store.getDefaultBucketName(), ImmutableList.of()).block())
+            .isEmpty();
+    }
+
+    @Test
+    default void readBatchShouldThrowWhenOneBlobDoesNotExist() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, SHORT_BYTEARRAY).block();
+
+        assertThatThrownBy(() -> store.readBatch(defaultBucketName, ImmutableList.of(blobId, blobIdFactory().from("unknown"))).block())
+            .isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    static byte[] concatenate(Flux<ByteBuffer> buffers) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        buffers.toStream()
+            .forEach(buffer -> {
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.duplicate().get(bytes);
+                outputStream.write(bytes, 0, bytes.length);
+            });
+        return outputStream.toByteArray();
+    }
 }
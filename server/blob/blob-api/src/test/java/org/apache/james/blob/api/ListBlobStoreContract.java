@@ -0,0 +1,131 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+
+public interface ListBlobStoreContract {
+
+    BlobStore testee();
+
+    @Test
+    default void listBlobsShouldThrowWhenNullBucketName() {
+        BlobStore store = testee();
+
+        assertThatThrownBy(() -> store.listBlobs(null, Instant.now().plus(1, ChronoUnit.HOURS)).collectList().block())
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    default void listBlobsShouldReturnEmptyWhenNoBlob() {
+        BlobStore store = testee();
+
+        assertThat(store.listBlobs(store.getDefaultBucketName(), Instant.now().plus(1, ChronoUnit.HOURS)).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    default void listBlobsShouldReturnSavedBlobs() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId1 = store.save(defaultBucketName, "first".getBytes(StandardCharsets.UTF_8)).block();
+        BlobId blobId2 = store.save(defaultBucketName, "second".getBytes(StandardCharsets.UTF_8)).block();
+
+        assertThat(store.listBlobs(defaultBucketName, Instant.now().plus(1, ChronoUnit.HOURS)).distinct().collectList().block())
+            .containsExactlyInAnyOrder(blobId1, blobId2);
+    }
+
+    @Test
+    default void listBlobsShouldReturnEmptyBlobs() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, new byte[0]).block();
+
+        assertThat(store.listBlobs(defaultBucketName, Instant.now().plus(1, ChronoUnit.HOURS)).distinct().collectList().block())
+            .containsExactly(blobId);
+    }
+
+    @Test
+    default void listBlobsShouldNotReturnBlobsWrittenAfterTheGivenInstant() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        store.save(defaultBucketName, "first".getBytes(StandardCharsets.UTF_8)).block();
+
+        assertThat(store.listBlobs(defaultBucketName, Instant.now().minus(1, ChronoUnit.HOURS)).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    default void listBlobsShouldNotReturnDeletedBlobs() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, "first".getBytes(StandardCharsets.UTF_8)).block();
+        store.delete(defaultBucketName, blobId).block();
+
+        assertThat(store.listBlobs(defaultBucketName, Instant.now().plus(1, ChronoUnit.HOURS)).collectList().block())
+            .isEmpty();
+    }
+
+    @Test
+    default void listBlobsShouldNotReturnBlobsOfOtherBuckets() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, "first".getBytes(StandardCharsets.UTF_8)).block();
+        store.save(BucketName.of("listing"), "second".getBytes(StandardCharsets.UTF_8)).block();
+
+        assertThat(store.listBlobs(defaultBucketName, Instant.now().plus(1, ChronoUnit.HOURS)).distinct().collectList().block())
+            .containsExactly(blobId);
+    }
+
+    @Test
+    default void listBlobsShouldReturnBlobsOfTheGivenBucket() {
+        BlobStore store = testee();
+        BucketName bucketName = BucketName.of("listing");
+
+        store.save(store.getDefaultBucketName(), "first".getBytes(StandardCharsets.UTF_8)).block();
+        BlobId blobId = store.save(bucketName, "second".getBytes(StandardCharsets.UTF_8)).block();
+
+        assertThat(store.listBlobs(bucketName, Instant.now().plus(1, ChronoUnit.HOURS)).distinct().collectList().block())
+            .containsExactly(blobId);
+    }
+
+    @Test
+    default void listBlobsShouldReturnBlobsSpanningSeveralParts() {
+        BlobStore store = testee();
+        BucketName defaultBucketName = store.getDefaultBucketName();
+
+        BlobId blobId = store.save(defaultBucketName, BlobStoreContract.TWELVE_MEGABYTES).block();
+
+        assertThat(store.listBlobs(defaultBucketName, Instant.now().plus(1, ChronoUnit.HOURS)).distinct().collectList().block())
+            .containsExactly(blobId);
+    }
+}
@@ -21,7 +21,11 @@ package org.apache.james.blob.api;
 
 import static org.apache.james.blob.api.MetricableBlobStore.DELETE_BUCKET_TIMER_NAME;
 import static org.apache.james.blob.api.MetricableBlobStore.DELETE_TIMER_NAME;
+import static org.apache.james.blob.api.MetricableBlobStore.LIST_BLOBS_TIMER_NAME;
+import static org.apache.james.blob.api.MetricableBlobStore.READ_BATCH_TIMER_NAME;
 import static org.apache.james.blob.api.MetricableBlobStore.READ_BYTES_TIMER_NAME;
+import static org.apache.james.blob.api.MetricableBlobStore.READ_RANGE_TIMER_NAME;
+import static org.apache.james.blob.api.MetricableBlobStore.READ_STREAM_TIMER_NAME;
 import static org.apache.james.blob.api.MetricableBlobStore.READ_TIMER_NAME;
 import static org.apache.james.blob.api.MetricableBlobStore.SAVE_BYTES_TIMER_NAME;
 import static org.apache.james.blob.api.MetricableBlobStore.SAVE_INPUT_STREAM_TIMER_NAME;
@@ -29,6 +33,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 import org.apache.james.metrics.tests.RecordingMetricFactory;
 import org.junit.jupiter.api.Test;
@@ -36,6 +42,7 @@ import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
+import com.google.common.collect.ImmutableList;
 
 public interface MetricableBlobStoreContract extends BlobStoreContract {
 
@@ -114,6 +121,54 @@ public interface MetricableBlobStoreContract extends BlobStoreContract {
             .hasSize(2);
     }
 
+    @Test
+    default void readStreamShouldPublishReadStreamTimerMetrics() {
+        BlobStore store = testee();
+
+        BlobId blobId = store.save(store.getDefaultBucketName(), BYTES_CONTENT).block();
+        store.readStream(store.getDefaultBucketName(), blobId).blockLast();
+        store.readStream(store.getDefaultBucketName(), blobId).blockLast();
+
+        assertThat(metricsTestExtension.getMetricFactory().executionTimesFor(READ_STREAM_TIMER_NAME))
+            .hasSize(2);
+    }
+
+    @Test
+    default void readRangeShouldPublishReadRangeTimerMetrics() {
+        BlobStore store = testee();
+
+        BlobId blobId = store.save(store.getDefaultBucketName(), BYTES_CONTENT).block();
+        store.readRange(store.getDefaultBucketName(), blobId, 2, 3).blockLast();
+        store.readRange(store.getDefaultBucketName(), blobId, 2, 3).blockLast();
+
+        assertThat(metricsTestExtension.getMetricFactory().executionTimesFor(READ_RANGE_TIMER_NAME))
+            .hasSize(2);
+    }
+
+    @Test
+    default void readBatchShouldPublishReadBatchTimerMetrics() {
+        BlobStore store = testee();
+
+        BlobId blobId = store.save(store.getDefaultBucketName(), BYTES_CONTENT).block();
+        store.readBatch(store.getDefaultBucketName(), ImmutableList.of(blobId)).block();
+        store.readBatch(store.getDefaultBucketName(), ImmutableList.of(blobId)).block();
+
+        assertThat(metricsTestExtension.getMetricFactory().executionTimesFor(READ_BATCH_TIMER_NAME))
+            .hasSize(2);
+    }
+
+    @Test
+    default void listBlobsShouldPublishListBlobsTimerMetrics() {
+        BlobStore store = testee();
+
+        store.save(store.getDefaultBucketName(), BYTES_CONTENT).block();
+        store.listBlobs(store.getDefaultBucketName(), Instant.now().plus(1, ChronoUnit.HOURS)).blockLast();
+        store.listBlobs(store.getDefaultBucketName(), Instant.now().plus(1, ChronoUnit.HOURS)).blockLast();
+
+        assertThat(metricsTestExtension.getMetricFactory().executionTimesFor(LIST_BLOBS_TIMER_NAME))
+            .hasSize(2);
+    }
+
     @Test
     default void deleteBucketShouldPublishDeleteBucketTimerMetrics() {
         BlobStore store = testee();
@@ -0,0 +1,134 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.james.blob.api.BucketName;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+public class BlobCacheConfiguration {
+    public static final long DEFAULT_SIZE_THRESHOLD_IN_BYTES = 16 * 1024;
+
+    public static class Builder {
+        private long sizeThresholdInBytes;
+        private boolean populateOnWrite;
+        private final ImmutableSet.Builder<BucketName> cachedBuckets;
+
+        private Builder() {
+            sizeThresholdInBytes = DEFAULT_SIZE_THRESHOLD_IN_BYTES;
+            populateOnWrite = false;
+            cachedBuckets = ImmutableSet.builder();
+        }
+
+        public Builder sizeThresholdInBytes(long sizeThresholdInBytes) {
+            Preconditions.checkArgument(sizeThresholdInBytes >= 0, "'sizeThresholdInBytes' can not be negative");
+            this.sizeThresholdInBytes = sizeThresholdInBytes;
+            return this;
+        }
+
+        public Builder populateOnWrite(boolean populateOnWrite) {
+            this.populateOnWrite = populateOnWrite;
+            return this;
+        }
+
+        public Builder cachedBucket(BucketName bucketName) {
+            Preconditions.checkNotNull(bucketName);
+            this.cachedBuckets.add(bucketName);
+            return this;
+        }
+
+        public Builder cachedBuckets(Set<BucketName> bucketNames) {
+            bucketNames.forEach(this::cachedBucket);
+            return this;
+        }
+
+        public BlobCacheConfiguration build() {
+            return new BlobCacheConfiguration(sizeThresholdInBytes, populateOnWrite, cachedBuckets.build());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final BlobCacheConfiguration DEFAULT = builder().build();
+
+    private final long sizeThresholdInBytes;
+    private final boolean populateOnWrite;
+    private final ImmutableSet<BucketName> cachedBuckets;
+
+    private BlobCacheConfiguration(long sizeThresholdInBytes, boolean populateOnWrite, ImmutableSet<BucketName> cachedBuckets) {
+        this.sizeThresholdInBytes = sizeThresholdInBytes;
+        this.populateOnWrite = populateOnWrite;
+        this.cachedBuckets = cachedBuckets;
+    }
+
+    /**
+     * Blobs bigger than this threshold are never cached.
+     */
+    public long getSizeThresholdInBytes() {
+        return sizeThresholdInBytes;
+    }
+
+    /**
+     * Whether small blobs are cached as they are saved, and not only upon their first read.
+     */
+    public boolean isPopulateOnWrite() {
+        return populateOnWrite;
+    }
+
+    /**
+     * Buckets which blobs are cached, in addition to the default bucket.
+     */
+    public ImmutableSet<BucketName> getCachedBuckets() {
+        return cachedBuckets;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof BlobCacheConfiguration) {
+            BlobCacheConfiguration that = (BlobCacheConfiguration) o;
+
+            return Objects.equals(this.sizeThresholdInBytes, that.sizeThresholdInBytes)
+                && Objects.equals(this.populateOnWrite, that.populateOnWrite)
+                && Objects.equals(this.cachedBuckets, that.cachedBuckets);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(sizeThresholdInBytes, populateOnWrite, cachedBuckets);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("sizeThresholdInBytes", sizeThresholdInBytes)
+            .add("populateOnWrite", populateOnWrite)
+            .add("cachedBuckets", cachedBuckets)
+            .toString();
+    }
+}
@@ -0,0 +1,45 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import java.nio.ByteBuffer;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A best-effort store of blob contents, consulted by {@link CachedBlobStore} before hitting its backend.
+ *
+ * Implementations are free to drop any entry at any time.
+ */
+public interface BlobStoreCache {
+    Mono<Void> cache(BucketName bucketName, BlobId blobId, byte[] data);
+
+    /**
+     * @return the cached content as a read-only buffer, or an empty Mono when the blob is not cached
+     */
+    Mono<ByteBuffer> read(BucketName bucketName, BlobId blobId);
+
+    Mono<Void> remove(BucketName bucketName, BlobId blobId);
+
+    Mono<Void> removeBucket(BucketName bucketName);
+}
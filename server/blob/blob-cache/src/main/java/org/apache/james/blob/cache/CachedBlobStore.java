@@ -0,0 +1,272 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ObjectStoreException;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A {@link BlobStore} decorator serving small blobs of the cached buckets from a {@link BlobStoreCache}.
+ *
+ * Blobs are admitted into the cache upon read, and optionally upon save, when their size is below the configured
+ * threshold. As blobs are immutable, cached entries never need to be invalidated but upon deletion. Failures of the
+ * cache are logged and fall back to the backend.
+ */
+public class CachedBlobStore implements BlobStore {
+    public static final String BACKEND = "blobStoreBackend";
+
+    static final String BLOB_STORE_CACHE_METRIC_PREFIX = "blobStoreCache:";
+    static final String HITS_METRIC_NAME = BLOB_STORE_CACHE_METRIC_PREFIX + "hits";
+    static final String MISSES_METRIC_NAME = BLOB_STORE_CACHE_METRIC_PREFIX + "misses";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachedBlobStore.class);
+
+    private final BlobStore backend;
+    private final BlobStoreCache cache;
+    private final BlobCacheConfiguration configuration;
+    private final Metric hits;
+    private final Metric misses;
+
+    @Inject
+    public CachedBlobStore(@Named(BACKEND) BlobStore backend, BlobStoreCache cache,
+                           BlobCacheConfiguration configuration, MetricFactory metricFactory) {
+        this.backend = backend;
+        this.cache = cache;
+        this.configuration = configuration;
+        this.hits = metricFactory.generate(HITS_METRIC_NAME);
+        this.misses = metricFactory.generate(MISSES_METRIC_NAME);
+    }
+
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, byte[] data) {
+        if (!shouldPopulateOnWrite(bucketName)) {
+            return backend.save(bucketName, data);
+        }
+        return backend.save(bucketName, data)
+            .flatMap(blobId -> admit(bucketName, blobId, data).thenReturn(blobId));
+    }
+
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, InputStream data) {
+        if (!shouldPopulateOnWrite(bucketName)) {
+            return backend.save(bucketName, data);
+        }
+        long readLimit = configuration.getSizeThresholdInBytes() + 1;
+        return Mono.fromCallable(() -> ByteStreams.toByteArray(ByteStreams.limit(data, readLimit)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(head -> {
+                if (head.length < readLimit) {
+                    return save(bucketName, head);
+                }
+                return backend.save(bucketName, new SequenceInputStream(new ByteArrayInputStream(head), data));
+            });
+    }
+
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
+        if (!isCachedBucket(bucketName)) {
+            return backend.readBytes(bucketName, blobId);
+        }
+        return readFromCache(bucketName, blobId)
+            .map(this::toByteArray)
+            .switchIfEmpty(Mono.defer(() -> backend.readBytes(bucketName, blobId)
+                .flatMap(bytes -> admit(bucketName, blobId, bytes).thenReturn(bytes))));
+    }
+
+    @Override
+    public InputStream read(BucketName bucketName, BlobId blobId) {
+        if (!isCachedBucket(bucketName)) {
+            return backend.read(bucketName, blobId);
+        }
+        return readFromCache(bucketName, blobId)
+            .map(this::toByteArray)
+            .<InputStream>map(ByteArrayInputStream::new)
+            .blockOptional()
+            .orElseGet(() -> readAndAdmitIfSmall(bucketName, blobId));
+    }
+
+    @Override
+    public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+        if (!isCachedBucket(bucketName)) {
+            return backend.readStream(bucketName, blobId);
+        }
+        return readFromCache(bucketName, blobId)
+            .flux()
+            .switchIfEmpty(Flux.defer(() -> backend.readStream(bucketName, blobId)));
+    }
+
+    @Override
+    public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        if (!isCachedBucket(bucketName) || offset < 0 || length < 0) {
+            return backend.readRange(bucketName, blobId, offset, length);
+        }
+        return readFromCache(bucketName, blobId)
+            .map(buffer -> Flux.just(slice(buffer, offset, length)).filter(ByteBuffer::hasRemaining))
+            .switchIfEmpty(Mono.fromSupplier(() -> backend.readRange(bucketName, blobId, offset, length)))
+            .flatMapMany(Function.identity());
+    }
+
+    /**
+     * Cache misses are read at once from the backend, then admitted.
+     */
+    @Override
+    public Mono<Map<BlobId, byte[]>> readBatch(BucketName bucketName, Collection<BlobId> blobIds) {
+        if (!isCachedBucket(bucketName)) {
+            return backend.readBatch(bucketName, blobIds);
+        }
+        ImmutableSet<BlobId> distinctBlobIds = ImmutableSet.copyOf(blobIds);
+        return Flux.fromIterable(distinctBlobIds)
+            .flatMap(blobId -> readFromCache(bucketName, blobId)
+                .map(buffer -> Pair.of(blobId, toByteArray(buffer))), DEFAULT_READ_BATCH_CONCURRENCY)
+            .collectMap(Pair::getKey, Pair::getValue)
+            .flatMap(hits -> readMissesAndAdmit(bucketName, distinctBlobIds, hits));
+    }
+
+    private Mono<Map<BlobId, byte[]>> readMissesAndAdmit(BucketName bucketName, ImmutableSet<BlobId> blobIds, Map<BlobId, byte[]> hits) {
+        ImmutableSet<BlobId> misses = blobIds.stream()
+            .filter(blobId -> !hits.containsKey(blobId))
+            .collect(ImmutableSet.toImmutableSet());
+        if (misses.isEmpty()) {
+            return Mono.just(hits);
+        }
+        return backend.readBatch(bucketName, misses)
+            .flatMap(fetched -> Flux.fromIterable(fetched.entrySet())
+                .concatMap(entry -> admit(bucketName, entry.getKey(), entry.getValue()))
+                .then(Mono.fromCallable(() -> ImmutableMap.<BlobId, byte[]>builder()
+                    .putAll(hits)
+                    .putAll(fetched)
+                    .build())));
+    }
+
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        return backend.listBlobs(bucketName, writtenBefore);
+    }
+
+    @Override
+    public BucketName getDefaultBucketName() {
+        return backend.getDefaultBucketName();
+    }
+
+    @Override
+    public Mono<Void> deleteBucket(BucketName bucketName) {
+        return backend.deleteBucket(bucketName)
+            .then(Mono.defer(() -> cache.removeBucket(bucketName))
+                .onErrorResume(e -> logCacheFailure("removing bucket " + bucketName.asString(), e)));
+    }
+
+    @Override
+    public Mono<Void> delete(BucketName bucketName, BlobId blobId) {
+        return backend.delete(bucketName, blobId)
+            .then(Mono.defer(() -> cache.remove(bucketName, blobId))
+                .onErrorResume(e -> logCacheFailure("removing blob " + blobId.asString(), e)));
+    }
+
+    private boolean shouldPopulateOnWrite(BucketName bucketName) {
+        return configuration.isPopulateOnWrite() && isCachedBucket(bucketName);
+    }
+
+    private boolean isCachedBucket(BucketName bucketName) {
+        return bucketName.equals(backend.getDefaultBucketName())
+            || configuration.getCachedBuckets().contains(bucketName);
+    }
+
+    private Mono<ByteBuffer> readFromCache(BucketName bucketName, BlobId blobId) {
+        return Mono.defer(() -> cache.read(bucketName, blobId))
+            .onErrorResume(e -> logCacheFailure("reading blob " + blobId.asString(), e))
+            .doOnNext(any -> hits.increment())
+            .switchIfEmpty(Mono.fromRunnable(misses::increment));
+    }
+
+    private Mono<Void> admit(BucketName bucketName, BlobId blobId, byte[] bytes) {
+        if (bytes.length > configuration.getSizeThresholdInBytes()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> cache.cache(bucketName, blobId, bytes))
+            .onErrorResume(e -> logCacheFailure("caching blob " + blobId.asString(), e));
+    }
+
+    /**
+     * Reads at most the size threshold plus one byte to tell whether the blob is small enough to be cached.
+     * Bigger blobs are streamed from the backend without being buffered further.
+     */
+    private InputStream readAndAdmitIfSmall(BucketName bucketName, BlobId blobId) {
+        InputStream stream = backend.read(bucketName, blobId);
+        try {
+            long readLimit = configuration.getSizeThresholdInBytes() + 1;
+            byte[] head = ByteStreams.toByteArray(ByteStreams.limit(stream, readLimit));
+            if (head.length < readLimit) {
+                stream.close();
+                admit(bucketName, blobId, head).block();
+                return new ByteArrayInputStream(head);
+            }
+            return new SequenceInputStream(new ByteArrayInputStream(head), stream);
+        } catch (IOException e) {
+            throw new ObjectStoreException("Failed to read blob " + blobId.asString(), e);
+        }
+    }
+
+    private byte[] toByteArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private ByteBuffer slice(ByteBuffer buffer, long offset, long length) {
+        ByteBuffer result = buffer.duplicate();
+        int start = (int) Math.min(offset, buffer.remaining());
+        result.position(buffer.position() + start);
+        result.limit(result.position() + (int) Math.min(length, buffer.remaining() - start));
+        return result.slice();
+    }
+
+    private <T> Mono<T> logCacheFailure(String operation, Throwable throwable) {
+        LOGGER.warn("Blob store cache failure while {}, falling back to the backend", operation, throwable);
+        return Mono.empty();
+    }
+}
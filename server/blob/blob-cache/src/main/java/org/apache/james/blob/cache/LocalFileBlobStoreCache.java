@@ -0,0 +1,350 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A {@link BlobStoreCache} keeping each cached blob in a file of a local directory, read through memory mapping.
+ *
+ * The total size of cached blobs is bounded. Eviction follows a segmented LRU policy: blobs enter a probation
+ * segment and are promoted to a protected segment, holding up to 80% of the capacity, when read again. Blobs read
+ * only once are thus evicted first, preventing scans of cold blobs from flushing frequently read ones.
+ *
+ * The cached files of a previous run are discarded upon startup. A marker file identifies the directory as owned by
+ * the cache: a non empty directory without it, or holding files the cache did not create, is refused.
+ */
+public class LocalFileBlobStoreCache implements BlobStoreCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalFileBlobStoreCache.class);
+    private static final int PROTECTED_SEGMENT_PERCENTAGE = 80;
+    private static final boolean ACCESS_ORDER = true;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    @VisibleForTesting
+    static final String MARKER_FILE_NAME = ".james-blob-cache";
+    private static final String CACHE_FILE_EXTENSION = ".blob";
+    private static final Pattern CACHE_FILE_PATTERN = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}\\.blob");
+
+    private static class CacheKey {
+        private final BucketName bucketName;
+        private final BlobId blobId;
+
+        CacheKey(BucketName bucketName, BlobId blobId) {
+            this.bucketName = bucketName;
+            this.blobId = blobId;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof CacheKey) {
+                CacheKey that = (CacheKey) o;
+
+                return Objects.equals(this.bucketName, that.bucketName)
+                    && Objects.equals(this.blobId, that.blobId);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(bucketName, blobId);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("bucketName", bucketName)
+                .add("blobId", blobId)
+                .toString();
+        }
+    }
+
+    private static class CacheEntry {
+        private final Path path;
+        private final long size;
+
+        CacheEntry(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+
+    private final Path directory;
+    private final long maxSizeInBytes;
+    private final long protectedMaxSizeInBytes;
+    private final LinkedHashMap<CacheKey, CacheEntry> probation;
+    private final LinkedHashMap<CacheKey, CacheEntry> protectedSegment;
+    private long probationSizeInBytes;
+    private long protectedSizeInBytes;
+
+    public LocalFileBlobStoreCache(File directory, long maxSizeInBytes) throws IOException {
+        Preconditions.checkArgument(maxSizeInBytes > 0, "'maxSizeInBytes' must be strictly positive");
+
+        FileUtils.forceMkdir(directory);
+        this.directory = directory.toPath();
+        discardPreviousContent();
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.protectedMaxSizeInBytes = maxSizeInBytes * PROTECTED_SEGMENT_PERCENTAGE / 100;
+        this.probation = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, ACCESS_ORDER);
+        this.protectedSegment = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, ACCESS_ORDER);
+    }
+
+    @Override
+    public Mono<Void> cache(BucketName bucketName, BlobId blobId, byte[] data) {
+        return Mono.fromRunnable(() -> store(new CacheKey(bucketName, blobId), data))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    @Override
+    public Mono<ByteBuffer> read(BucketName bucketName, BlobId blobId) {
+        CacheKey key = new CacheKey(bucketName, blobId);
+        return Mono.fromCallable(() -> lookup(key))
+            .flatMap(Mono::justOrEmpty)
+            .flatMap(entry -> Mono.justOrEmpty(map(key, entry)))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> remove(BucketName bucketName, BlobId blobId) {
+        return Mono.fromRunnable(() -> removeEntry(new CacheKey(bucketName, blobId))
+                .ifPresent(this::deleteFile))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    @Override
+    public Mono<Void> removeBucket(BucketName bucketName) {
+        return Mono.fromRunnable(() -> removeEntries(bucketName)
+                .forEach(this::deleteFile))
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    /**
+     * Deletes the files cached by a previous run, after checking that the directory only holds files of the cache.
+     */
+    private void discardPreviousContent() throws IOException {
+        Path marker = directory.resolve(MARKER_FILE_NAME);
+        List<Path> content;
+        try (Stream<Path> files = Files.list(directory)) {
+            content = files.filter(path -> !path.equals(marker))
+                .collect(Collectors.toList());
+        }
+        if (!content.isEmpty() && !Files.exists(marker)) {
+            throw new IllegalStateException("Refusing to use " + directory + " as blob store cache directory: "
+                + "it is not empty and was not created by the cache");
+        }
+        List<Path> foreignFiles = content.stream()
+            .filter(path -> !isCacheFile(path))
+            .collect(Collectors.toList());
+        if (!foreignFiles.isEmpty()) {
+            throw new IllegalStateException("Refusing to use " + directory + " as blob store cache directory: "
+                + "it holds files which were not created by the cache " + foreignFiles);
+        }
+
+        for (Path path : content) {
+            Files.delete(path);
+        }
+        if (!Files.exists(marker)) {
+            Files.createFile(marker);
+        }
+    }
+
+    private boolean isCacheFile(Path path) {
+        return Files.isRegularFile(path)
+            && CACHE_FILE_PATTERN.matcher(path.getFileName().toString()).matches();
+    }
+
+    @VisibleForTesting
+    synchronized long cachedSizeInBytes() {
+        return probationSizeInBytes + protectedSizeInBytes;
+    }
+
+    private void store(CacheKey key, byte[] data) {
+        if (data.length > maxSizeInBytes || isCached(key)) {
+            return;
+        }
+        Path path = directory.resolve(UUID.randomUUID().toString() + CACHE_FILE_EXTENSION);
+        try {
+            Files.write(path, data, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        insert(key, new CacheEntry(path, data.length))
+            .forEach(this::deleteFile);
+    }
+
+    private synchronized boolean isCached(CacheKey key) {
+        return probation.containsKey(key) || protectedSegment.containsKey(key);
+    }
+
+    private synchronized List<CacheEntry> insert(CacheKey key, CacheEntry entry) {
+        if (isCached(key)) {
+            List<CacheEntry> concurrentlyCachedEntry = new ArrayList<>();
+            concurrentlyCachedEntry.add(entry);
+            return concurrentlyCachedEntry;
+        }
+        probation.put(key, entry);
+        probationSizeInBytes += entry.size;
+        return rebalance();
+    }
+
+    /**
+     * Looks the entry up, promoting it to the protected segment upon a second access.
+     */
+    private synchronized Optional<CacheEntry> lookup(CacheKey key) {
+        CacheEntry protectedEntry = protectedSegment.get(key);
+        if (protectedEntry != null) {
+            return Optional.of(protectedEntry);
+        }
+        CacheEntry probationEntry = probation.remove(key);
+        if (probationEntry == null) {
+            return Optional.empty();
+        }
+        probationSizeInBytes -= probationEntry.size;
+        protectedSegment.put(key, probationEntry);
+        protectedSizeInBytes += probationEntry.size;
+        rebalance().forEach(this::deleteFile);
+        return Optional.of(probationEntry);
+    }
+
+    private synchronized Optional<CacheEntry> removeEntry(CacheKey key) {
+        CacheEntry probationEntry = probation.remove(key);
+        if (probationEntry != null) {
+            probationSizeInBytes -= probationEntry.size;
+            return Optional.of(probationEntry);
+        }
+        CacheEntry protectedEntry = protectedSegment.remove(key);
+        if (protectedEntry != null) {
+            protectedSizeInBytes -= protectedEntry.size;
+            return Optional.of(protectedEntry);
+        }
+        return Optional.empty();
+    }
+
+    private synchronized List<CacheEntry> removeEntries(BucketName bucketName) {
+        List<CacheEntry> removedEntries = new ArrayList<>();
+        probationSizeInBytes -= removeEntries(probation, bucketName, removedEntries);
+        protectedSizeInBytes -= removeEntries(protectedSegment, bucketName, removedEntries);
+        return removedEntries;
+    }
+
+    private long removeEntries(Map<CacheKey, CacheEntry> segment, BucketName bucketName, List<CacheEntry> removedEntries) {
+        long removedSize = 0;
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = segment.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (entry.getKey().bucketName.equals(bucketName)) {
+                iterator.remove();
+                removedSize += entry.getValue().size;
+                removedEntries.add(entry.getValue());
+            }
+        }
+        return removedSize;
+    }
+
+    /**
+     * Demotes least recently used protected entries exceeding the protected segment capacity, then evicts least
+     * recently used entries, probation ones first, until the cache fits its capacity.
+     *
+     * @return the evicted entries, which files should be deleted
+     */
+    private List<CacheEntry> rebalance() {
+        while (protectedSizeInBytes > protectedMaxSizeInBytes) {
+            Map.Entry<CacheKey, CacheEntry> eldest = eldest(protectedSegment);
+            protectedSegment.remove(eldest.getKey());
+            protectedSizeInBytes -= eldest.getValue().size;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationSizeInBytes += eldest.getValue().size;
+        }
+
+        List<CacheEntry> evictedEntries = new ArrayList<>();
+        while (probationSizeInBytes + protectedSizeInBytes > maxSizeInBytes) {
+            if (!probation.isEmpty()) {
+                Map.Entry<CacheKey, CacheEntry> eldest = eldest(probation);
+                probation.remove(eldest.getKey());
+                probationSizeInBytes -= eldest.getValue().size;
+                evictedEntries.add(eldest.getValue());
+            } else {
+                Map.Entry<CacheKey, CacheEntry> eldest = eldest(protectedSegment);
+                protectedSegment.remove(eldest.getKey());
+                protectedSizeInBytes -= eldest.getValue().size;
+                evictedEntries.add(eldest.getValue());
+            }
+        }
+        return evictedEntries;
+    }
+
+    private Map.Entry<CacheKey, CacheEntry> eldest(LinkedHashMap<CacheKey, CacheEntry> segment) {
+        return segment.entrySet().iterator().next();
+    }
+
+    private Optional<ByteBuffer> map(CacheKey key, CacheEntry entry) {
+        try (FileChannel channel = FileChannel.open(entry.path, StandardOpenOption.READ)) {
+            return Optional.of(channel.map(FileChannel.MapMode.READ_ONLY, 0, entry.size).asReadOnlyBuffer());
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Cached file for {} had been evicted while being read", key);
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteFile(CacheEntry entry) {
+        try {
+            Files.deleteIfExists(entry.path);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete cached file {}", entry.path, e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.junit.jupiter.api.Test;
+
+public interface BlobStoreCacheContract {
+    BucketName OTHER_BUCKET = BucketName.of("other");
+    byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+    byte[] OTHER_CONTENT = "abcdef".getBytes(StandardCharsets.UTF_8);
+
+    BlobStoreCache testee();
+
+    default BlobId blobId() {
+        return new HashBlobId.Factory().forPayload(CONTENT);
+    }
+
+    default BlobId otherBlobId() {
+        return new HashBlobId.Factory().forPayload(OTHER_CONTENT);
+    }
+
+    static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Test
+    default void readShouldReturnEmptyWhenNotCached() {
+        assertThat(testee().read(BucketName.DEFAULT, blobId()).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void readShouldReturnCachedContent() {
+        testee().cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+
+        assertThat(toBytes(testee().read(BucketName.DEFAULT, blobId()).block()))
+            .isEqualTo(CONTENT);
+    }
+
+    @Test
+    default void readShouldReturnEmptyCachedContent() {
+        BlobId blobId = new HashBlobId.Factory().forPayload(new byte[0]);
+        testee().cache(BucketName.DEFAULT, blobId, new byte[0]).block();
+
+        assertThat(toBytes(testee().read(BucketName.DEFAULT, blobId).block()))
+            .isEmpty();
+    }
+
+    @Test
+    default void readShouldReturnCachedContentSeveralTimes() {
+        testee().cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+
+        testee().read(BucketName.DEFAULT, blobId()).block();
+        testee().read(BucketName.DEFAULT, blobId()).block();
+
+        assertThat(toBytes(testee().read(BucketName.DEFAULT, blobId()).block()))
+            .isEqualTo(CONTENT);
+    }
+
+    @Test
+    default void readShouldNotReturnContentCachedInAnotherBucket() {
+        testee().cache(OTHER_BUCKET, blobId(), CONTENT).block();
+
+        assertThat(testee().read(BucketName.DEFAULT, blobId()).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void cacheShouldBeIdempotent() {
+        testee().cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+        testee().cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+
+        assertThat(toBytes(testee().read(BucketName.DEFAULT, blobId()).block()))
+            .isEqualTo(CONTENT);
+    }
+
+    @Test
+    default void removeShouldRemoveCachedContent() {
+        testee().cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+
+        testee().remove(BucketName.DEFAULT, blobId()).block();
+
+        assertThat(testee().read(BucketName.DEFAULT, blobId()).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void removeShouldNotRemoveOtherBlobs() {
+        testee().cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+        testee().cache(BucketName.DEFAULT, otherBlobId(), OTHER_CONTENT).block();
+
+        testee().remove(BucketName.DEFAULT, blobId()).block();
+
+        assertThat(toBytes(testee().read(BucketName.DEFAULT, otherBlobId()).block()))
+            .isEqualTo(OTHER_CONTENT);
+    }
+
+    @Test
+    default void removeShouldBeIdempotent() {
+        testee().remove(BucketName.DEFAULT, blobId()).block();
+
+        assertThat(testee().read(BucketName.DEFAULT, blobId()).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void removeBucketShouldRemoveContentOfThisBucket() {
+        testee().cache(OTHER_BUCKET, blobId(), CONTENT).block();
+        testee().cache(OTHER_BUCKET, otherBlobId(), OTHER_CONTENT).block();
+
+        testee().removeBucket(OTHER_BUCKET).block();
+
+        assertThat(testee().read(OTHER_BUCKET, blobId()).blockOptional())
+            .isEmpty();
+        assertThat(testee().read(OTHER_BUCKET, otherBlobId()).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    default void removeBucketShouldNotRemoveContentOfOtherBuckets() {
+        testee().cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+        testee().cache(OTHER_BUCKET, blobId(), CONTENT).block();
+
+        testee().removeBucket(OTHER_BUCKET).block();
+
+        assertThat(toBytes(testee().read(BucketName.DEFAULT, blobId()).block()))
+            .isEqualTo(CONTENT);
+    }
+}
@@ -0,0 +1,294 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import static org.apache.james.blob.cache.CachedBlobStore.HITS_METRIC_NAME;
+import static org.apache.james.blob.cache.CachedBlobStore.MISSES_METRIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BlobStoreContract;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.api.ObjectStoreException;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.io.ByteStreams;
+
+import reactor.core.publisher.Mono;
+
+class CachedBlobStoreTest implements BlobStoreContract {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final BucketName OTHER_BUCKET = BucketName.of("other");
+    private static final int SIZE_THRESHOLD_IN_BYTES = 16;
+    private static final long CACHE_SIZE_IN_BYTES = 1024;
+    private static final byte[] SMALL_CONTENT = "small".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BIG_CONTENT = "0123456789abcdef-bigger than the threshold".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    File directory;
+
+    private MemoryBlobStore backend;
+    private LocalFileBlobStoreCache cache;
+    private RecordingMetricFactory metricFactory;
+    private CachedBlobStore testee;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        backend = new MemoryBlobStore(BLOB_ID_FACTORY);
+        cache = new LocalFileBlobStoreCache(directory, CACHE_SIZE_IN_BYTES);
+        metricFactory = new RecordingMetricFactory();
+        testee = new CachedBlobStore(backend, cache,
+            BlobCacheConfiguration.builder()
+                .sizeThresholdInBytes(SIZE_THRESHOLD_IN_BYTES)
+                .build(),
+            metricFactory);
+    }
+
+    @Override
+    public BlobStore testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return BLOB_ID_FACTORY;
+    }
+
+    @Test
+    void readBytesShouldAdmitSmallBlobsOfTheDefaultBucket() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isPresent();
+    }
+
+    @Test
+    void readBytesShouldNotAdmitBlobsBiggerThanTheThreshold() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, BIG_CONTENT).block();
+
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void readBytesShouldNotAdmitBlobsOfNotCachedBuckets() {
+        BlobId blobId = testee.save(OTHER_BUCKET, SMALL_CONTENT).block();
+
+        testee.readBytes(OTHER_BUCKET, blobId).block();
+
+        assertThat(cache.read(OTHER_BUCKET, blobId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void readBytesShouldAdmitBlobsOfConfiguredBuckets() {
+        CachedBlobStore cachingCustomBucket = new CachedBlobStore(backend, cache,
+            BlobCacheConfiguration.builder()
+                .sizeThresholdInBytes(SIZE_THRESHOLD_IN_BYTES)
+                .cachedBucket(OTHER_BUCKET)
+                .build(),
+            metricFactory);
+        BlobId blobId = cachingCustomBucket.save(OTHER_BUCKET, SMALL_CONTENT).block();
+
+        cachingCustomBucket.readBytes(OTHER_BUCKET, blobId).block();
+
+        assertThat(cache.read(OTHER_BUCKET, blobId).blockOptional()).isPresent();
+    }
+
+    @Test
+    void readShouldAdmitSmallBlobs() throws IOException {
+        BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        assertThat(ByteStreams.toByteArray(testee.read(BucketName.DEFAULT, blobId))).isEqualTo(SMALL_CONTENT);
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isPresent();
+    }
+
+    @Test
+    void readShouldReturnBigBlobsWithoutAdmittingThem() throws IOException {
+        BlobId blobId = testee.save(BucketName.DEFAULT, BIG_CONTENT).block();
+
+        assertThat(ByteStreams.toByteArray(testee.read(BucketName.DEFAULT, blobId))).isEqualTo(BIG_CONTENT);
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void readShouldServeCachedBlobsWhenAbsentFromTheBackend() throws IOException {
+        BlobId blobId = BLOB_ID_FACTORY.forPayload(SMALL_CONTENT);
+        cache.cache(BucketName.DEFAULT, blobId, SMALL_CONTENT).block();
+
+        assertThat(ByteStreams.toByteArray(testee.read(BucketName.DEFAULT, blobId))).isEqualTo(SMALL_CONTENT);
+    }
+
+    @Test
+    void readRangeShouldServeCachedBlobs() {
+        BlobId blobId = BLOB_ID_FACTORY.forPayload(SMALL_CONTENT);
+        cache.cache(BucketName.DEFAULT, blobId, SMALL_CONTENT).block();
+
+        assertThat(BlobStoreContract.concatenate(testee.readRange(BucketName.DEFAULT, blobId, 1, 3)))
+            .isEqualTo("mal".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void deleteShouldRemoveTheBlobFromTheCache() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        testee.delete(BucketName.DEFAULT, blobId).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void readBytesShouldRecordMissesThenHits() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+        testee.readBytes(BucketName.DEFAULT, blobId).block();
+
+        assertThat(metricFactory.countFor(MISSES_METRIC_NAME)).isEqualTo(1);
+        assertThat(metricFactory.countFor(HITS_METRIC_NAME)).isEqualTo(2);
+    }
+
+    @Test
+    void readBytesShouldNotRecordMetricsForNotCachedBuckets() {
+        BlobId blobId = testee.save(OTHER_BUCKET, SMALL_CONTENT).block();
+
+        testee.readBytes(OTHER_BUCKET, blobId).block();
+
+        assertThat(metricFactory.countFor(MISSES_METRIC_NAME)).isZero();
+        assertThat(metricFactory.countFor(HITS_METRIC_NAME)).isZero();
+    }
+
+    @Test
+    void saveShouldNotPopulateTheCacheByDefault() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void saveBytesShouldPopulateTheCacheWhenPopulatingOnWrite() {
+        BlobId blobId = populatingOnWriteBlobStore().save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isPresent();
+    }
+
+    @Test
+    void saveBytesShouldNotPopulateTheCacheWithBigBlobs() {
+        BlobId blobId = populatingOnWriteBlobStore().save(BucketName.DEFAULT, BIG_CONTENT).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void saveBytesShouldNotPopulateTheCacheForNotCachedBuckets() {
+        BlobId blobId = populatingOnWriteBlobStore().save(OTHER_BUCKET, SMALL_CONTENT).block();
+
+        assertThat(cache.read(OTHER_BUCKET, blobId).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void saveInputStreamShouldPopulateTheCacheWhenPopulatingOnWrite() {
+        BlobId blobId = populatingOnWriteBlobStore().save(BucketName.DEFAULT, new ByteArrayInputStream(SMALL_CONTENT)).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isPresent();
+    }
+
+    @Test
+    void saveInputStreamShouldStoreBigBlobsWithoutPopulatingTheCache() {
+        CachedBlobStore populatingOnWrite = populatingOnWriteBlobStore();
+
+        BlobId blobId = populatingOnWrite.save(BucketName.DEFAULT, new ByteArrayInputStream(BIG_CONTENT)).block();
+
+        assertThat(cache.read(BucketName.DEFAULT, blobId).blockOptional()).isEmpty();
+        assertThat(backend.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(BIG_CONTENT);
+    }
+
+    @Test
+    void saveInputStreamShouldReturnTheSameBlobIdThanSaveBytesWhenPopulatingOnWrite() {
+        CachedBlobStore populatingOnWrite = populatingOnWriteBlobStore();
+
+        assertThat(populatingOnWrite.save(BucketName.DEFAULT, new ByteArrayInputStream(BIG_CONTENT)).block())
+            .isEqualTo(populatingOnWrite.save(BucketName.DEFAULT, BIG_CONTENT).block());
+    }
+
+    @Test
+    void readBytesShouldFallBackToTheBackendWhenTheCacheFails() {
+        CachedBlobStore testeeWithFailingCache = cachedBlobStoreWithFailingCache();
+        BlobId blobId = testeeWithFailingCache.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        assertThat(testeeWithFailingCache.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(SMALL_CONTENT);
+    }
+
+    @Test
+    void readStreamShouldFallBackToTheBackendWhenTheCacheFails() {
+        CachedBlobStore testeeWithFailingCache = cachedBlobStoreWithFailingCache();
+        BlobId blobId = testeeWithFailingCache.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        assertThat(BlobStoreContract.concatenate(testeeWithFailingCache.readStream(BucketName.DEFAULT, blobId)))
+            .isEqualTo(SMALL_CONTENT);
+    }
+
+    @Test
+    void deleteShouldDeleteFromTheBackendWhenTheCacheFails() {
+        CachedBlobStore testeeWithFailingCache = cachedBlobStoreWithFailingCache();
+        BlobId blobId = testeeWithFailingCache.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        testeeWithFailingCache.delete(BucketName.DEFAULT, blobId).block();
+
+        assertThatThrownBy(() -> backend.readBytes(BucketName.DEFAULT, blobId).block())
+            .isInstanceOf(ObjectStoreException.class);
+    }
+
+    private CachedBlobStore populatingOnWriteBlobStore() {
+        return new CachedBlobStore(backend, cache,
+            BlobCacheConfiguration.builder()
+                .sizeThresholdInBytes(SIZE_THRESHOLD_IN_BYTES)
+                .populateOnWrite(true)
+                .build(),
+            metricFactory);
+    }
+
+    private CachedBlobStore cachedBlobStoreWithFailingCache() {
+        BlobStoreCache failingCache = mock(BlobStoreCache.class);
+        when(failingCache.read(any(), any())).thenReturn(Mono.error(new RuntimeException()));
+        when(failingCache.cache(any(), any(), any())).thenReturn(Mono.error(new RuntimeException()));
+        when(failingCache.remove(any(), any())).thenReturn(Mono.error(new RuntimeException()));
+        return new CachedBlobStore(backend, failingCache, BlobCacheConfiguration.DEFAULT, metricFactory);
+    }
+}
@@ -0,0 +1,177 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cache;
+
+import static org.apache.james.blob.cache.BlobStoreCacheContract.toBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalFileBlobStoreCacheTest implements BlobStoreCacheContract {
+    private static final long MAX_SIZE_IN_BYTES = 100;
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+
+    @TempDir
+    File directory;
+
+    private LocalFileBlobStoreCache testee;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        testee = new LocalFileBlobStoreCache(directory, MAX_SIZE_IN_BYTES);
+    }
+
+    @Override
+    public BlobStoreCache testee() {
+        return testee;
+    }
+
+    @Test
+    void constructorShouldThrowWhenNonPositiveMaxSize() {
+        assertThatThrownBy(() -> new LocalFileBlobStoreCache(directory, 0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorShouldCleanUpPreviousContent() throws IOException {
+        testee.cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+
+        new LocalFileBlobStoreCache(directory, MAX_SIZE_IN_BYTES);
+
+        assertThat(cachedFiles()).isEmpty();
+    }
+
+    @Test
+    void constructorShouldCreateTheMarkerFile() {
+        assertThat(directory.toPath().resolve(LocalFileBlobStoreCache.MARKER_FILE_NAME)).exists();
+    }
+
+    @Test
+    void constructorShouldRefuseNonEmptyDirectoryWithoutMarker(@TempDir File otherDirectory) throws IOException {
+        Path foreignFile = otherDirectory.toPath().resolve("important");
+        Files.write(foreignFile, CONTENT);
+
+        assertThatThrownBy(() -> new LocalFileBlobStoreCache(otherDirectory, MAX_SIZE_IN_BYTES))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(foreignFile).hasBinaryContent(CONTENT);
+    }
+
+    @Test
+    void constructorShouldRefuseDirectoryHoldingForeignFiles() throws IOException {
+        testee.cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+        Path foreignFile = directory.toPath().resolve("important");
+        Files.write(foreignFile, CONTENT);
+
+        assertThatThrownBy(() -> new LocalFileBlobStoreCache(directory, MAX_SIZE_IN_BYTES))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(foreignFile).hasBinaryContent(CONTENT);
+        assertThat(cachedFiles()).hasSize(1);
+    }
+
+    @Test
+    void cacheShouldIgnoreContentBiggerThanTheCache() {
+        byte[] bigContent = new byte[(int) MAX_SIZE_IN_BYTES + 1];
+        BlobId blobId = BLOB_ID_FACTORY.forPayload(bigContent);
+
+        testee.cache(BucketName.DEFAULT, blobId, bigContent).block();
+
+        assertThat(testee.read(BucketName.DEFAULT, blobId).blockOptional()).isEmpty();
+        assertThat(testee.cachedSizeInBytes()).isZero();
+    }
+
+    @Test
+    void cacheShouldEvictLeastRecentlyUsedBlobsWhenFull() {
+        BlobId first = cacheTwentyBytes(1);
+        cacheTwentyBytes(2);
+        cacheTwentyBytes(3);
+        cacheTwentyBytes(4);
+        cacheTwentyBytes(5);
+
+        cacheTwentyBytes(6);
+
+        assertThat(testee.read(BucketName.DEFAULT, first).blockOptional()).isEmpty();
+        assertThat(testee.cachedSizeInBytes()).isEqualTo(MAX_SIZE_IN_BYTES);
+    }
+
+    @Test
+    void cacheShouldDeleteFilesOfEvictedBlobs() {
+        for (int i = 0; i < 10; i++) {
+            cacheTwentyBytes(i);
+        }
+
+        assertThat(cachedFiles()).hasSize(5);
+    }
+
+    @Test
+    void cacheShouldKeepBlobsReadSeveralTimesWhenScanningOtherBlobs() {
+        BlobId frequentlyRead = cacheTwentyBytes(0);
+        testee.read(BucketName.DEFAULT, frequentlyRead).block();
+
+        for (int i = 1; i < 20; i++) {
+            cacheTwentyBytes(i);
+        }
+
+        assertThat(testee.read(BucketName.DEFAULT, frequentlyRead).blockOptional()).isPresent();
+    }
+
+    @Test
+    void removeShouldDeleteTheFile() {
+        testee.cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+
+        testee.remove(BucketName.DEFAULT, blobId()).block();
+
+        assertThat(cachedFiles()).isEmpty();
+        assertThat(testee.cachedSizeInBytes()).isZero();
+    }
+
+    @Test
+    void readShouldReturnContentStillMappedAfterEviction() {
+        testee.cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+        ByteBuffer buffer = testee.read(BucketName.DEFAULT, blobId()).block();
+
+        testee.remove(BucketName.DEFAULT, blobId()).block();
+
+        assertThat(toBytes(buffer)).isEqualTo(CONTENT);
+    }
+
+    private File[] cachedFiles() {
+        return directory.listFiles(file -> file.getName().endsWith(".blob"));
+    }
+
+    private BlobId cacheTwentyBytes(int seed) {
+        byte[] content = new byte[20];
+        content[0] = (byte) seed;
+        BlobId blobId = BLOB_ID_FACTORY.forPayload(content);
+        testee.cache(BucketName.DEFAULT, blobId, content).block();
+        return blobId;
+    }
+}
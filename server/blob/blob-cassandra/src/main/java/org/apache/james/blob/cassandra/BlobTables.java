@@ -48,4 +48,11 @@ public interface BlobTables {
         String CHUNK_NUMBER = "chunkNumber";
         String DATA = "data";
     }
+
+    interface BlobCache {
+        String TABLE_NAME = "blobCache";
+        String BUCKET = "bucket";
+        String ID = "id";
+        String DATA = "data";
+    }
 }
@@ -19,11 +19,17 @@
 
 package org.apache.james.blob.cassandra;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -41,8 +47,16 @@ import org.apache.james.blob.cassandra.utils.DataChunker;
 import org.apache.james.util.ReactorUtils;
 
 import com.datastax.driver.core.Session;
+import com.github.fge.lambdas.Throwing;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
+import com.google.common.io.ByteSource;
+import com.google.common.io.FileBackedOutputStream;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -52,6 +66,11 @@ public class CassandraBlobStore implements BlobStore {
 
     private static final int PREFETCH = 16;
     private static final int MAX_CONCURRENCY = 1;
+    private static final int READ_BATCH_SIZE = 100;
+    private static final int READ_BATCH_CONCURRENCY = 4;
+    private static final int EMPTY_BLOB_ROW_COUNT = 0;
+    private static final int SINGLE_PART_ROW_COUNT = 1;
+    private static final int FILE_THRESHOLD = 100 * 1024;
     private final CassandraDefaultBucketDAO defaultBucketDAO;
     private final CassandraBucketDAO bucketDAO;
     private final DataChunker dataChunker;
@@ -102,6 +121,18 @@ public class CassandraBlobStore implements BlobStore {
     }
 
 
+    private Mono<Integer> saveBlobParts(BucketName bucketName, ByteSource data, BlobId blobId) {
+        return Mono.using(data::openBufferedStream,
+            stream -> dataChunker.chunkStream(stream, configuration.getBlobPartSize())
+                .subscribeOn(Schedulers.boundedElastic())
+                .index()
+                .flatMap(chunk -> writePart(bucketName, blobId, chunk.getT1().intValue(), chunk.getT2())
+                    .thenReturn(chunk.getT1()), PREFETCH)
+                .count()
+                .map(Math::toIntExact),
+            Throwing.consumer(InputStream::close));
+    }
+
     private int numToCount(int number) {
         return number + 1;
     }
@@ -146,8 +177,164 @@ public class CassandraBlobStore implements BlobStore {
     @Override
     public Mono<BlobId> save(BucketName bucketName, InputStream data) {
         Preconditions.checkNotNull(data);
-        return Mono.fromCallable(() -> IOUtils.toByteArray(data))
-            .flatMap(bytes -> saveAsMono(bucketName, bytes));
+        return Mono.using(() -> new FileBackedOutputStream(FILE_THRESHOLD),
+            fileBackedOutputStream -> Mono.fromCallable(() -> spoolAndComputeBlobId(data, fileBackedOutputStream))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(blobId -> saveBlobParts(bucketName, fileBackedOutputStream.asByteSource(), blobId)
+                    .flatMap(numberOfChunk -> saveBlobPartReference(bucketName, blobId, numberOfChunk))
+                    .thenReturn(blobId)),
+            Throwing.consumer(FileBackedOutputStream::reset));
+    }
+
+    /**
+     * The blob id being a hash of the content, it is only known once the whole stream is read. The content is thus
+     * spooled to a temporary file (or kept in memory below {@link #FILE_THRESHOLD}) while hashed, then chunked back
+     * from there so that at most a few blob parts are held in memory at once.
+     */
+    private BlobId spoolAndComputeBlobId(InputStream data, FileBackedOutputStream fileBackedOutputStream) throws IOException {
+        try (HashingOutputStream hashingOutputStream = new HashingOutputStream(Hashing.sha256(), fileBackedOutputStream)) {
+            IOUtils.copyLarge(data, hashingOutputStream);
+            return blobIdFactory.from(hashingOutputStream.hash().toString());
+        }
+    }
+
+    @Override
+    public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+        return Flux.defer(() -> readBlobParts(bucketName, blobId))
+            .map(ByteBuffer::asReadOnlyBuffer);
+    }
+
+    @Override
+    public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        Preconditions.checkArgument(offset >= 0, "'offset' can not be negative");
+        Preconditions.checkArgument(length >= 0, "'length' can not be negative");
+
+        return selectRowCount(bucketName, blobId)
+            .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(String.format("Could not retrieve blob metadata for %s", blobId))))
+            .flatMapMany(rowCount -> readFirstPart(bucketName, blobId)
+                .flatMapMany(firstPart -> readPartsInRange(bucketName, blobId, rowCount, firstPart, offset, length)))
+            .map(ByteBuffer::asReadOnlyBuffer);
+    }
+
+    /**
+     * Parts all have the same size but the last one. The size of the first part thus tells which parts overlap
+     * the requested range, even if the part size configuration changed since the blob had been written.
+     */
+    private Flux<ByteBuffer> readPartsInRange(BucketName bucketName, BlobId blobId, int rowCount, ByteBuffer firstPart, long offset, long length) {
+        long partSize = firstPart.remaining();
+        if (length == 0 || partSize == 0 || offset >= partSize * rowCount) {
+            return Flux.empty();
+        }
+        long end = length > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + length;
+        int firstPartIndex = Math.toIntExact(offset / partSize);
+        int lastPartIndex = Math.toIntExact(Math.min(rowCount - 1, (end - 1) / partSize));
+
+        return Flux.range(firstPartIndex, lastPartIndex - firstPartIndex + 1)
+            .flatMapSequential(partIndex -> readPartOrReuseFirst(bucketName, blobId, partIndex, firstPart)
+                .map(part -> slice(part, partIndex * partSize, offset, end)), PREFETCH)
+            .filter(ByteBuffer::hasRemaining);
+    }
+
+    private Mono<ByteBuffer> readFirstPart(BucketName bucketName, BlobId blobId) {
+        return readPartOrFail(bucketName, blobId, 0);
+    }
+
+    private Mono<ByteBuffer> readPartOrReuseFirst(BucketName bucketName, BlobId blobId, int partIndex, ByteBuffer firstPart) {
+        if (partIndex == 0) {
+            return Mono.just(firstPart.duplicate());
+        }
+        return readPartOrFail(bucketName, blobId, partIndex);
+    }
+
+    private Mono<ByteBuffer> readPartOrFail(BucketName bucketName, BlobId blobId, int partIndex) {
+        return readPart(bucketName, blobId, partIndex)
+            .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(
+                String.format("Missing blob part for blobId %s and position %d", blobId, partIndex))));
+    }
+
+    private ByteBuffer slice(ByteBuffer part, long partStart, long rangeStart, long rangeEnd) {
+        ByteBuffer result = part.duplicate();
+        int sliceStart = Math.toIntExact(Math.max(0, rangeStart - partStart));
+        int sliceEnd = Math.toIntExact(Math.min(part.remaining(), rangeEnd - partStart));
+        result.position(part.position() + sliceStart);
+        result.limit(part.position() + Math.max(sliceStart, sliceEnd));
+        return result.slice();
+    }
+
+    /**
+     * Blobs of the default bucket are read by batches of {@link #READ_BATCH_SIZE}, with one IN query for their part
+     * counts and one IN query for the content of single part blobs, which covers most headers and bodies. Blobs
+     * spanning several parts are read part by part, not to load many big parts in a single response.
+     */
+    @Override
+    public Mono<Map<BlobId, byte[]>> readBatch(BucketName bucketName, Collection<BlobId> blobIds) {
+        if (!isDefaultBucket(bucketName)) {
+            return BlobStore.super.readBatch(bucketName, blobIds);
+        }
+        return Flux.fromIterable(ImmutableSet.copyOf(blobIds))
+            .buffer(READ_BATCH_SIZE)
+            .flatMap(this::readBatchFromDefaultBucket, READ_BATCH_CONCURRENCY)
+            .collectMap(Pair::getKey, Pair::getValue);
+    }
+
+    private Flux<Pair<BlobId, byte[]>> readBatchFromDefaultBucket(List<BlobId> blobIds) {
+        return defaultBucketDAO.selectRowCounts(blobIds)
+            .collectMap(Pair::getKey, Pair::getValue)
+            .flatMapMany(rowCounts -> {
+                Optional<BlobId> missingBlobId = blobIds.stream()
+                    .filter(blobId -> !rowCounts.containsKey(blobId.asString()))
+                    .findFirst();
+                if (missingBlobId.isPresent()) {
+                    return Flux.error(new ObjectNotFoundException(String.format("Could not retrieve blob metadata for %s", missingBlobId.get())));
+                }
+                return Flux.merge(
+                    Flux.fromIterable(withRowCount(blobIds, rowCounts, EMPTY_BLOB_ROW_COUNT))
+                        .map(blobId -> Pair.of(blobId, new byte[0])),
+                    readSinglePartBlobs(withRowCount(blobIds, rowCounts, SINGLE_PART_ROW_COUNT)),
+                    Flux.fromIterable(blobIds)
+                        .filter(blobId -> rowCounts.get(blobId.asString()) > SINGLE_PART_ROW_COUNT)
+                        .flatMap(blobId -> readMultiPartBlob(blobId, rowCounts.get(blobId.asString())), PREFETCH));
+            });
+    }
+
+    private ImmutableList<BlobId> withRowCount(List<BlobId> blobIds, Map<String, Integer> rowCounts, int rowCount) {
+        return blobIds.stream()
+            .filter(blobId -> rowCounts.get(blobId.asString()) == rowCount)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    private Flux<Pair<BlobId, byte[]>> readSinglePartBlobs(List<BlobId> blobIds) {
+        if (blobIds.isEmpty()) {
+            return Flux.empty();
+        }
+        ImmutableMap<String, BlobId> blobIdsByString = blobIds.stream()
+            .collect(ImmutableMap.toImmutableMap(BlobId::asString, Function.identity()));
+        return defaultBucketDAO.readFirstParts(blobIds)
+            .collectMap(Pair::getKey, Pair::getValue)
+            .flatMapMany(parts -> Flux.fromIterable(blobIdsByString.entrySet())
+                .map(entry -> Optional.ofNullable(parts.get(entry.getKey()))
+                    .map(part -> Pair.of(entry.getValue(), byteBuffersToBytesArray(ImmutableList.of(part))))
+                    .orElseThrow(() -> new ObjectNotFoundException(
+                        String.format("Missing blob part for blobId %s and position %d", entry.getValue(), 0)))));
+    }
+
+    private Mono<Pair<BlobId, byte[]>> readMultiPartBlob(BlobId blobId, int rowCount) {
+        return Flux.range(0, rowCount)
+            .flatMapSequential(partIndex -> readPartOrFail(getDefaultBucketName(), blobId, partIndex), MAX_CONCURRENCY, PREFETCH)
+            .collectList()
+            .map(parts -> Pair.of(blobId, byteBuffersToBytesArray(parts)));
+    }
+
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkNotNull(writtenBefore);
+
+        if (isDefaultBucket(bucketName)) {
+            return defaultBucketDAO.listBlobIds(writtenBefore)
+                .map(blobIdFactory::from);
+        }
+        return bucketDAO.listBlobs(bucketName, writtenBefore);
     }
 
     @Override
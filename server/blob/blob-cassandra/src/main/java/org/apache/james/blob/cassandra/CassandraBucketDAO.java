@@ -29,6 +29,8 @@ import static org.apache.james.blob.cassandra.BlobTables.BucketBlobTable.ID;
 import static org.apache.james.blob.cassandra.BlobTables.BucketBlobTable.NUMBER_OF_CHUNK;
 
 import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
@@ -47,6 +49,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 class CassandraBucketDAO {
+    private static final String WRITE_TIME = "writeTime";
+    private static final int FIRST_CHUNK = 0;
+
     private final BlobId.Factory blobIdFactory;
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insert;
@@ -56,6 +61,7 @@ class CassandraBucketDAO {
     private final PreparedStatement delete;
     private final PreparedStatement deleteParts;
     private final PreparedStatement listAll;
+    private final PreparedStatement listParts;
 
     @Inject
     @VisibleForTesting
@@ -69,6 +75,16 @@ class CassandraBucketDAO {
         this.selectPart = prepareSelectPart(session);
         this.deleteParts = prepareDeleteParts(session);
         this.listAll = prepareListAll(session);
+        this.listParts = prepareListParts(session);
+    }
+
+    private PreparedStatement prepareListParts(Session session) {
+        return session.prepare(select()
+            .column(BucketBlobParts.BUCKET)
+            .column(BucketBlobParts.ID)
+            .column(BucketBlobParts.CHUNK_NUMBER)
+            .writeTime(BucketBlobParts.DATA).as(WRITE_TIME)
+            .from(BucketBlobParts.TABLE_NAME));
     }
 
     private PreparedStatement prepareDeleteParts(Session session) {
@@ -173,6 +189,19 @@ class CassandraBucketDAO {
             .map(row -> Pair.of(BucketName.of(row.getString(BUCKET)), blobIdFactory.from(row.getString(ID))));
     }
 
+    /**
+     * Lists the blobs of the bucket which first part was last written before the given instant, using a full scan
+     * of blob parts. Writing the first part is the first step of saving a blob.
+     */
+    Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        long writtenBeforeInMicroseconds = TimeUnit.MILLISECONDS.toMicros(writtenBefore.toEpochMilli());
+        return cassandraAsyncExecutor.executeRows(listParts.bind())
+            .filter(row -> row.getString(BucketBlobParts.BUCKET).equals(bucketName.asString()))
+            .filter(row -> row.getInt(BucketBlobParts.CHUNK_NUMBER) == FIRST_CHUNK)
+            .filter(row -> row.getLong(WRITE_TIME) < writtenBeforeInMicroseconds)
+            .map(row -> blobIdFactory.from(row.getString(BucketBlobParts.ID)));
+    }
+
     private ByteBuffer rowToData(Row row) {
         return row.getBytes(BucketBlobParts.DATA);
     }
@@ -22,15 +22,20 @@ package org.apache.james.blob.cassandra;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobTable.ID;
 import static org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobTable.NUMBER_OF_CHUNK;
 
 import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.cassandra.BlobTables.DefaultBucketBlobParts;
@@ -39,10 +44,16 @@ import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraDefaultBucketDAO {
+    private static final String WRITE_TIME = "writeTime";
+    private static final int FIRST_CHUNK = 0;
+    private static final String IDS = "ids";
+
     private final CassandraAsyncExecutor cassandraAsyncExecutor;
     private final PreparedStatement insert;
     private final PreparedStatement insertPart;
@@ -50,6 +61,9 @@ public class CassandraDefaultBucketDAO {
     private final PreparedStatement selectPart;
     private final PreparedStatement delete;
     private final PreparedStatement deleteParts;
+    private final PreparedStatement listParts;
+    private final PreparedStatement selectBatch;
+    private final PreparedStatement selectFirstPartBatch;
 
     @Inject
     @VisibleForTesting
@@ -61,6 +75,32 @@ public class CassandraDefaultBucketDAO {
         this.selectPart = prepareSelectPart(session);
         this.delete = prepareDelete(session);
         this.deleteParts = prepareDeleteParts(session);
+        this.listParts = prepareListParts(session);
+        this.selectBatch = prepareSelectBatch(session);
+        this.selectFirstPartBatch = prepareSelectFirstPartBatch(session);
+    }
+
+    private PreparedStatement prepareSelectBatch(Session session) {
+        return session.prepare(select()
+            .from(BlobTables.DefaultBucketBlobTable.TABLE_NAME)
+            .where(in(ID, bindMarker(IDS))));
+    }
+
+    private PreparedStatement prepareSelectFirstPartBatch(Session session) {
+        return session.prepare(select()
+            .column(DefaultBucketBlobParts.ID)
+            .column(DefaultBucketBlobParts.DATA)
+            .from(DefaultBucketBlobParts.TABLE_NAME)
+            .where(in(DefaultBucketBlobParts.ID, bindMarker(IDS)))
+            .and(eq(DefaultBucketBlobParts.CHUNK_NUMBER, FIRST_CHUNK)));
+    }
+
+    private PreparedStatement prepareListParts(Session session) {
+        return session.prepare(select()
+            .column(DefaultBucketBlobParts.ID)
+            .column(DefaultBucketBlobParts.CHUNK_NUMBER)
+            .writeTime(DefaultBucketBlobParts.DATA).as(WRITE_TIME)
+            .from(DefaultBucketBlobParts.TABLE_NAME));
     }
 
     private PreparedStatement prepareSelect(Session session) {
@@ -123,6 +163,32 @@ public class CassandraDefaultBucketDAO {
             .map(row -> row.getInt(NUMBER_OF_CHUNK));
     }
 
+    /**
+     * Selects the part count of several blobs with a single IN query. Missing blobs are absent from the result.
+     */
+    Flux<Pair<String, Integer>> selectRowCounts(Collection<BlobId> blobIds) {
+        return cassandraAsyncExecutor.executeRows(
+                selectBatch.bind()
+                    .setList(IDS, asStrings(blobIds)))
+            .map(row -> Pair.of(row.getString(ID), row.getInt(NUMBER_OF_CHUNK)));
+    }
+
+    /**
+     * Reads the first part of several blobs with a single IN query. Missing parts are absent from the result.
+     */
+    Flux<Pair<String, ByteBuffer>> readFirstParts(Collection<BlobId> blobIds) {
+        return cassandraAsyncExecutor.executeRows(
+                selectFirstPartBatch.bind()
+                    .setList(IDS, asStrings(blobIds)))
+            .map(row -> Pair.of(row.getString(DefaultBucketBlobParts.ID), rowToData(row)));
+    }
+
+    private ImmutableList<String> asStrings(Collection<BlobId> blobIds) {
+        return blobIds.stream()
+            .map(BlobId::asString)
+            .collect(ImmutableList.toImmutableList());
+    }
+
     Mono<ByteBuffer> readPart(BlobId blobId, int position) {
         return cassandraAsyncExecutor.executeSingleRow(
             selectPart.bind()
@@ -146,4 +212,16 @@ public class CassandraDefaultBucketDAO {
     private ByteBuffer rowToData(Row row) {
         return row.getBytes(DefaultBucketBlobParts.DATA);
     }
+
+    /**
+     * Lists the ids of blobs which first part was last written before the given instant, using a full scan of
+     * blob parts. Writing the first part is the first step of saving a blob.
+     */
+    Flux<String> listBlobIds(Instant writtenBefore) {
+        long writtenBeforeInMicroseconds = TimeUnit.MILLISECONDS.toMicros(writtenBefore.toEpochMilli());
+        return cassandraAsyncExecutor.executeRows(listParts.bind())
+            .filter(row -> row.getInt(DefaultBucketBlobParts.CHUNK_NUMBER) == FIRST_CHUNK)
+            .filter(row -> row.getLong(WRITE_TIME) < writtenBeforeInMicroseconds)
+            .map(row -> row.getString(DefaultBucketBlobParts.ID));
+    }
 }
@@ -0,0 +1,39 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.blob.cassandra.BlobTables.BlobCache;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+
+public interface CassandraBlobCacheModule {
+    CassandraModule MODULE = CassandraModule.table(BlobCache.TABLE_NAME)
+        .comment("Holds small blobs, like messages` headers, in front of the BlobStore. " +
+            "Entries expire according to the configured time to live.")
+        .options(options -> options
+            .compactionOptions(SchemaBuilder.timeWindowCompactionStrategy()))
+        .statement(statement -> statement
+            .addPartitionKey(BlobCache.BUCKET, DataType.text())
+            .addPartitionKey(BlobCache.ID, DataType.text())
+            .addColumn(BlobCache.DATA, DataType.blob()))
+        .build();
+}
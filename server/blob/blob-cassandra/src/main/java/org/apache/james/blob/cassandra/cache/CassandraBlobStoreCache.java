@@ -0,0 +1,125 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
+import static org.apache.james.blob.cassandra.BlobTables.BlobCache.BUCKET;
+import static org.apache.james.blob.cassandra.BlobTables.BlobCache.DATA;
+import static org.apache.james.blob.cassandra.BlobTables.BlobCache.ID;
+import static org.apache.james.blob.cassandra.BlobTables.BlobCache.TABLE_NAME;
+
+import java.nio.ByteBuffer;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.cache.BlobStoreCache;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.google.common.primitives.Ints;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link BlobStoreCache} storing each blob as a single Cassandra row expiring after the configured time to live.
+ *
+ * Sharing the cache between James servers, it spares object storage reads for small and frequently read blobs, like
+ * messages` headers.
+ */
+public class CassandraBlobStoreCache implements BlobStoreCache {
+    private static final String TTL = "ttl";
+
+    private final CassandraAsyncExecutor cassandraAsyncExecutor;
+    private final PreparedStatement insert;
+    private final PreparedStatement select;
+    private final PreparedStatement delete;
+    private final PreparedStatement listAll;
+    private final int ttlInSeconds;
+
+    @Inject
+    public CassandraBlobStoreCache(Session session, CassandraCacheConfiguration configuration) {
+        this.cassandraAsyncExecutor = new CassandraAsyncExecutor(session);
+        this.ttlInSeconds = Ints.checkedCast(configuration.getTtl().getSeconds());
+
+        this.insert = session.prepare(insertInto(TABLE_NAME)
+            .value(BUCKET, bindMarker(BUCKET))
+            .value(ID, bindMarker(ID))
+            .value(DATA, bindMarker(DATA))
+            .using(ttl(bindMarker(TTL))));
+
+        this.select = session.prepare(select(DATA)
+            .from(TABLE_NAME)
+            .where(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(ID, bindMarker(ID))));
+
+        this.delete = session.prepare(delete()
+            .from(TABLE_NAME)
+            .where(eq(BUCKET, bindMarker(BUCKET)))
+            .and(eq(ID, bindMarker(ID))));
+
+        this.listAll = session.prepare(select(BUCKET, ID)
+            .from(TABLE_NAME));
+    }
+
+    @Override
+    public Mono<Void> cache(BucketName bucketName, BlobId blobId, byte[] data) {
+        return cassandraAsyncExecutor.executeVoid(insert.bind()
+            .setString(BUCKET, bucketName.asString())
+            .setString(ID, blobId.asString())
+            .setBytes(DATA, ByteBuffer.wrap(data))
+            .setInt(TTL, ttlInSeconds));
+    }
+
+    @Override
+    public Mono<ByteBuffer> read(BucketName bucketName, BlobId blobId) {
+        return cassandraAsyncExecutor.executeSingleRow(select.bind()
+                .setString(BUCKET, bucketName.asString())
+                .setString(ID, blobId.asString()))
+            .map(row -> row.getBytes(DATA).asReadOnlyBuffer());
+    }
+
+    @Override
+    public Mono<Void> remove(BucketName bucketName, BlobId blobId) {
+        return cassandraAsyncExecutor.executeVoid(delete.bind()
+            .setString(BUCKET, bucketName.asString())
+            .setString(ID, blobId.asString()));
+    }
+
+    /**
+     * Relies on a full table scan. This is acceptable as cached buckets, like the default one, are seldom deleted.
+     */
+    @Override
+    public Mono<Void> removeBucket(BucketName bucketName) {
+        return cassandraAsyncExecutor.executeRows(listAll.bind())
+            .filter(row -> row.getString(BUCKET).equals(bucketName.asString()))
+            .flatMap(row -> cassandraAsyncExecutor.executeVoid(delete.bind()
+                .setString(BUCKET, row.getString(BUCKET))
+                .setString(ID, row.getString(ID))))
+            .then();
+    }
+}
@@ -0,0 +1,70 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+public class CassandraCacheConfiguration {
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+    public static final CassandraCacheConfiguration DEFAULT = new CassandraCacheConfiguration(DEFAULT_TTL);
+
+    private final Duration ttl;
+
+    public CassandraCacheConfiguration(Duration ttl) {
+        Preconditions.checkNotNull(ttl);
+        Preconditions.checkArgument(ttl.getSeconds() > 0, "'ttl' must be at least one second");
+        Preconditions.checkArgument(ttl.getSeconds() <= Integer.MAX_VALUE, "'ttl' must fit in an integer number of seconds");
+
+        this.ttl = ttl;
+    }
+
+    /**
+     * Duration after which a cached blob expires, regardless of how often it is read.
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof CassandraCacheConfiguration) {
+            CassandraCacheConfiguration that = (CassandraCacheConfiguration) o;
+
+            return Objects.equals(this.ttl, that.ttl);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(ttl);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("ttl", ttl)
+            .toString();
+    }
+}
@@ -19,19 +19,25 @@
 
 package org.apache.james.blob.cassandra.utils;
 
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.util.ReactorUtils;
 
 import com.google.common.base.Preconditions;
 
+import reactor.core.publisher.Flux;
+
 public class DataChunker {
 
+    private static final String CHUNK_SIZE_SHOULD_BE_POSITIVE = "ChunkSize can not be negative";
+
     public Stream<Pair<Integer, ByteBuffer>> chunk(byte[] data, int chunkSize) {
         Preconditions.checkNotNull(data);
-        Preconditions.checkArgument(chunkSize > 0, "ChunkSize can not be negative");
+        Preconditions.checkArgument(chunkSize > 0, CHUNK_SIZE_SHOULD_BE_POSITIVE);
 
         int size = data.length;
         int fullChunkCount = size / chunkSize;
@@ -49,4 +55,17 @@ public class DataChunker {
         return Stream.of(Pair.of(index, ByteBuffer.wrap(data, offset, data.length - offset)));
     }
 
+    /**
+     * Lazily splits the content of the stream into chunks of at most chunkSize bytes.
+     *
+     * The stream is only read upon downstream demand, so that memory usage is bounded by the number of requested chunks.
+     * Like {@link #chunk(byte[], int)}, an empty stream results in a single empty chunk.
+     */
+    public Flux<ByteBuffer> chunkStream(InputStream data, int chunkSize) {
+        Preconditions.checkNotNull(data);
+        Preconditions.checkArgument(chunkSize > 0, CHUNK_SIZE_SHOULD_BE_POSITIVE);
+
+        return ReactorUtils.toChunks(data, chunkSize)
+            .defaultIfEmpty(ByteBuffer.wrap(new byte[0]));
+    }
 }
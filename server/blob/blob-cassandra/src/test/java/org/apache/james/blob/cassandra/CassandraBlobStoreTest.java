@@ -24,6 +24,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -120,6 +121,16 @@ public class CassandraBlobStoreTest implements MetricableBlobStoreContract {
             .hasMessageContaining("Missing blob part for blobId");
     }
 
+    @Test
+    void readBytesShouldReturnSplitDataSavedAsInputStream() {
+        String longString = Strings.repeat("0123456789\n", MULTIPLE_CHUNK_SIZE * CHUNK_SIZE);
+        BlobId blobId = testee.save(testee.getDefaultBucketName(), new ByteArrayInputStream(longString.getBytes(StandardCharsets.UTF_8))).block();
+
+        byte[] bytes = testee.readBytes(testee.getDefaultBucketName(), blobId).block();
+
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(longString);
+    }
+
     @Test
     void deleteBucketShouldThrowWhenDeletingDefaultBucket() {
         assertThatThrownBy(() ->  testee.deleteBucket(testee.getDefaultBucketName()))
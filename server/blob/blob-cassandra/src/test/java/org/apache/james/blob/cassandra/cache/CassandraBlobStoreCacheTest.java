@@ -0,0 +1,68 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.cassandra.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.cache.BlobStoreCache;
+import org.apache.james.blob.cache.BlobStoreCacheContract;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class CassandraBlobStoreCacheTest implements BlobStoreCacheContract {
+    private static final Duration TTL = Duration.ofSeconds(1);
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraBlobCacheModule.MODULE);
+
+    private CassandraBlobStoreCache testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new CassandraBlobStoreCache(cassandra.getConf(), new CassandraCacheConfiguration(TTL));
+    }
+
+    @Override
+    public BlobStoreCache testee() {
+        return testee;
+    }
+
+    @Test
+    void readShouldReturnEmptyWhenExpired() throws Exception {
+        testee.cache(BucketName.DEFAULT, blobId(), CONTENT).block();
+
+        Thread.sleep(TTL.multipliedBy(2).toMillis());
+
+        assertThat(testee.read(BucketName.DEFAULT, blobId()).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void configurationShouldThrowWhenTtlIsShorterThanOneSecond() {
+        assertThatThrownBy(() -> new CassandraCacheConfiguration(Duration.ofMillis(500)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -22,11 +22,14 @@ package org.apache.james.blob.cassandra.utils;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.james.util.ZeroedInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -107,4 +110,61 @@ public class DataChunkerTest {
                 Pair.of(1, ByteBuffer.wrap(part2))));
     }
 
+    @Test
+    public void chunkStreamShouldThrowOnNullData() {
+        assertThatThrownBy(() -> testee.chunkStream(null, CHUNK_SIZE))
+            .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void chunkStreamShouldThrowOnZeroChunkSize() {
+        int chunkSize = 0;
+        assertThatThrownBy(() -> testee.chunkStream(new ByteArrayInputStream(new byte[0]), chunkSize))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void chunkStreamShouldReturnOneEmptyBufferWhenInputEmpty() {
+        List<ByteBuffer> chunks = testee.chunkStream(new ByteArrayInputStream(new byte[0]), CHUNK_SIZE)
+            .collectList()
+            .block();
+
+        assertThat(chunks).containsExactly(ByteBuffer.wrap(new byte[0]));
+    }
+
+    @Test
+    public void chunkStreamShouldReturnOneBufferWhenInputEqualsChunkSize() {
+        byte[] data = "1234567890".getBytes(StandardCharsets.UTF_8);
+
+        List<ByteBuffer> chunks = testee.chunkStream(new ByteArrayInputStream(data), CHUNK_SIZE)
+            .collectList()
+            .block();
+
+        assertThat(chunks).containsExactly(ByteBuffer.wrap(data));
+    }
+
+    @Test
+    public void chunkStreamShouldReturnSeveralBuffersWhenInputBiggerThanChunkSize() {
+        byte[] part1 = "1234567890".getBytes(StandardCharsets.UTF_8);
+        byte[] part2 = "12345".getBytes(StandardCharsets.UTF_8);
+        byte[] data = Bytes.concat(part1, part2);
+
+        List<ByteBuffer> chunks = testee.chunkStream(new ByteArrayInputStream(data), CHUNK_SIZE)
+            .collectList()
+            .block();
+
+        assertThat(chunks).containsExactly(ByteBuffer.wrap(part1), ByteBuffer.wrap(part2));
+    }
+
+    @Test
+    public void chunkStreamShouldNotMaterializeTheWholeStream() {
+        int oneGigabyte = 1024 * 1024 * 1024;
+        int chunkSize = 100 * 1024;
+
+        Long chunkCount = testee.chunkStream(new ZeroedInputStream(oneGigabyte), chunkSize)
+            .count()
+            .block();
+
+        assertThat(chunkCount).isEqualTo((oneGigabyte - 1) / chunkSize + 1);
+    }
 }
@@ -0,0 +1,68 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+public class BlobCompressionConfiguration {
+    public static final long DEFAULT_SIZE_THRESHOLD_IN_BYTES = 4096;
+    public static final BlobCompressionConfiguration DEFAULT = new BlobCompressionConfiguration(DEFAULT_SIZE_THRESHOLD_IN_BYTES);
+
+    private final long sizeThresholdInBytes;
+
+    public BlobCompressionConfiguration(long sizeThresholdInBytes) {
+        Preconditions.checkArgument(sizeThresholdInBytes >= 0, "'sizeThresholdInBytes' must be positive");
+        Preconditions.checkArgument(sizeThresholdInBytes < Integer.MAX_VALUE, "'sizeThresholdInBytes' must fit in an integer");
+
+        this.sizeThresholdInBytes = sizeThresholdInBytes;
+    }
+
+    /**
+     * Blobs smaller than this size are stored raw, as compressing them saves little while costing CPU upon each read.
+     */
+    public long getSizeThresholdInBytes() {
+        return sizeThresholdInBytes;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof BlobCompressionConfiguration) {
+            BlobCompressionConfiguration that = (BlobCompressionConfiguration) o;
+
+            return Objects.equals(this.sizeThresholdInBytes, that.sizeThresholdInBytes);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(sizeThresholdInBytes);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("sizeThresholdInBytes", sizeThresholdInBytes)
+            .toString();
+    }
+}
@@ -0,0 +1,408 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ObjectStoreException;
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.util.ReactorUtils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.common.io.FileBackedOutputStream;
+import com.google.common.primitives.Ints;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * A {@link BlobStore} decorator compressing blobs with LZ4 before handing them to the backend.
+ *
+ * Compressed blobs are prefixed with a header identifying their encoding. Blobs below the size threshold, as well as
+ * blobs LZ4 fails to shrink, are stored raw without header, so that blobs saved before enabling compression are
+ * read as is. The rare raw blobs starting like a header are stored with a raw header to stay unambiguous.
+ *
+ * Blob ids are computed by the backend on the stored bytes, hence deduplication keeps working as compression is
+ * deterministic, and both save overloads choose the stored form the same way. Compression ratio can be monitored by comparing the original and stored byte counters.
+ */
+public class CompressedBlobStore implements BlobStore {
+    public static final String BACKEND = "compressedBlobStoreBackend";
+
+    static final String BLOB_STORE_COMPRESSION_METRIC_PREFIX = "blobStoreCompression:";
+    static final String ORIGINAL_BYTES_METRIC_NAME = BLOB_STORE_COMPRESSION_METRIC_PREFIX + "originalBytes";
+    static final String STORED_BYTES_METRIC_NAME = BLOB_STORE_COMPRESSION_METRIC_PREFIX + "storedBytes";
+
+    private static final byte[] MAGIC = {(byte) 0xF5, 'J', 'A', 'M', 'E', 'S', 'Z'};
+    private static final int HEADER_LENGTH = MAGIC.length + 1;
+    private static final int BUFFERED_SIZE = 64 * 1024;
+    private static final int FILE_THRESHOLD = 100 * 1024;
+
+    enum Encoding {
+        RAW((byte) 0),
+        LZ4((byte) 1);
+
+        static Optional<Encoding> parse(byte[] header) {
+            if (header.length < HEADER_LENGTH || !Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length))) {
+                return Optional.empty();
+            }
+            byte id = header[MAGIC.length];
+            return Optional.of(Stream.of(values())
+                .filter(encoding -> encoding.id == id)
+                .findFirst()
+                .orElseThrow(() -> new ObjectStoreException("Unknown blob encoding " + id)));
+        }
+
+        private final byte id;
+
+        Encoding(byte id) {
+            this.id = id;
+        }
+
+        byte[] header() {
+            byte[] header = Arrays.copyOf(MAGIC, HEADER_LENGTH);
+            header[MAGIC.length] = id;
+            return header;
+        }
+    }
+
+    /**
+     * A blob spooled together with its compressed form, kept in memory below {@link #FILE_THRESHOLD}.
+     */
+    private static class SpooledBlob {
+        private final FileBackedOutputStream original = new FileBackedOutputStream(FILE_THRESHOLD);
+        private final FileBackedOutputStream compressed = new FileBackedOutputStream(FILE_THRESHOLD);
+        private long originalSize;
+        private long compressedSize;
+
+        void spool(InputStream data) throws IOException {
+            CountingInputStream counting = new CountingInputStream(data);
+            try (InputStream compressing = new CompressingInputStream(new TeeInputStream(counting, original))) {
+                compressedSize = ByteStreams.copy(compressing, compressed);
+            }
+            originalSize = counting.getCount();
+        }
+
+        void reset() {
+            try {
+                original.reset();
+                compressed.reset();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Copies the bytes read from the underlying stream to an {@link OutputStream}.
+     */
+    private static class TeeInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                copy.write(read);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                copy.write(b, off, read);
+            }
+            return read;
+        }
+    }
+
+    private final BlobStore backend;
+    private final BlobCompressionConfiguration configuration;
+    private final Metric originalBytes;
+    private final Metric storedBytes;
+
+    @Inject
+    public CompressedBlobStore(@Named(BACKEND) BlobStore backend, BlobCompressionConfiguration configuration,
+                               MetricFactory metricFactory) {
+        this.backend = backend;
+        this.configuration = configuration;
+        this.originalBytes = metricFactory.generate(ORIGINAL_BYTES_METRIC_NAME);
+        this.storedBytes = metricFactory.generate(STORED_BYTES_METRIC_NAME);
+    }
+
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, byte[] data) {
+        Preconditions.checkNotNull(data);
+
+        return Mono.fromCallable(() -> encode(data))
+            .flatMap(encoded -> backend.save(bucketName, encoded)
+                .doOnSuccess(any -> recordSizes(data.length, encoded.length)));
+    }
+
+    /**
+     * Reads at most the size threshold to tell whether the blob is big enough to be compressed. Bigger blobs are
+     * spooled together with their compressed form, so that the compression ratio is checked like for byte arrays
+     * before choosing the stored form.
+     */
+    @Override
+    public Mono<BlobId> save(BucketName bucketName, InputStream data) {
+        Preconditions.checkNotNull(data);
+
+        long threshold = configuration.getSizeThresholdInBytes();
+        return Mono.fromCallable(() -> ByteStreams.toByteArray(ByteStreams.limit(data, threshold)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(head -> {
+                if (head.length < threshold) {
+                    return save(bucketName, head);
+                }
+                return saveSpooled(bucketName, new SequenceInputStream(new ByteArrayInputStream(head), data));
+            });
+    }
+
+    @Override
+    public Mono<byte[]> readBytes(BucketName bucketName, BlobId blobId) {
+        return backend.readBytes(bucketName, blobId)
+            .map(this::decode);
+    }
+
+    @Override
+    public InputStream read(BucketName bucketName, BlobId blobId) {
+        return decode(backend.read(bucketName, blobId));
+    }
+
+    @Override
+    public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+        return Flux.using(() -> read(bucketName, blobId),
+                stream -> ReactorUtils.toChunks(stream, BUFFERED_SIZE),
+                this::closeQuietly)
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Ranges of raw blobs are read from the backend, while compressed blobs need to be decompressed from their start.
+     */
+    @Override
+    public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        if (offset < 0 || length < 0) {
+            return backend.readRange(bucketName, blobId, offset, length);
+        }
+        return backend.readRange(bucketName, blobId, 0, HEADER_LENGTH)
+            .collectList()
+            .map(this::toByteArray)
+            .flatMapMany(header -> Encoding.parse(header)
+                .map(encoding -> readRange(encoding, bucketName, blobId, offset, length))
+                .orElseGet(() -> backend.readRange(bucketName, blobId, offset, length)));
+    }
+
+    private Flux<ByteBuffer> readRange(Encoding encoding, BucketName bucketName, BlobId blobId, long offset, long length) {
+        switch (encoding) {
+            case RAW:
+                return backend.readRange(bucketName, blobId, Math.min(offset, Long.MAX_VALUE - HEADER_LENGTH) + HEADER_LENGTH, length);
+            case LZ4:
+                return Flux.using(() -> skipThenLimit(read(bucketName, blobId), offset, length),
+                        stream -> ReactorUtils.toChunks(stream, BUFFERED_SIZE),
+                        this::closeQuietly)
+                    .subscribeOn(Schedulers.boundedElastic());
+            default:
+                throw new ObjectStoreException("Unsupported blob encoding " + encoding);
+        }
+    }
+
+    @Override
+    public Mono<Map<BlobId, byte[]>> readBatch(BucketName bucketName, Collection<BlobId> blobIds) {
+        return backend.readBatch(bucketName, blobIds)
+            .map(contents -> contents.entrySet().stream()
+                .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, entry -> decode(entry.getValue()))));
+    }
+
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        return backend.listBlobs(bucketName, writtenBefore);
+    }
+
+    @Override
+    public BucketName getDefaultBucketName() {
+        return backend.getDefaultBucketName();
+    }
+
+    @Override
+    public Mono<Void> deleteBucket(BucketName bucketName) {
+        return backend.deleteBucket(bucketName);
+    }
+
+    @Override
+    public Mono<Void> delete(BucketName bucketName, BlobId blobId) {
+        return backend.delete(bucketName, blobId);
+    }
+
+    private Mono<BlobId> saveSpooled(BucketName bucketName, InputStream data) {
+        return Mono.using(SpooledBlob::new,
+            spooled -> Mono.fromCallable(() -> {
+                    spooled.spool(data);
+                    return encode(spooled);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(stored -> backend.save(bucketName, stored)
+                    .doOnSuccess(any -> recordSizes(spooled.originalSize, stored.getCount()))),
+            SpooledBlob::reset);
+    }
+
+    private CountingInputStream encode(SpooledBlob spooled) throws IOException {
+        if (compressionPays(spooled.originalSize, spooled.compressedSize)) {
+            return new CountingInputStream(new SequenceInputStream(
+                new ByteArrayInputStream(Encoding.LZ4.header()),
+                spooled.compressed.asByteSource().openStream()));
+        }
+        InputStream original = spooled.original.asByteSource().openStream();
+        if (Encoding.parse(spooled.original.asByteSource().slice(0, HEADER_LENGTH).read()).isPresent()) {
+            return new CountingInputStream(new SequenceInputStream(new ByteArrayInputStream(Encoding.RAW.header()), original));
+        }
+        return new CountingInputStream(original);
+    }
+
+    private byte[] encode(byte[] data) throws IOException {
+        if (data.length >= configuration.getSizeThresholdInBytes()) {
+            byte[] compressed = compress(data);
+            if (compressionPays(data.length, compressed.length)) {
+                return concat(Encoding.LZ4.header(), compressed);
+            }
+        }
+        if (Encoding.parse(data).isPresent()) {
+            return concat(Encoding.RAW.header(), data);
+        }
+        return data;
+    }
+
+    private boolean compressionPays(long originalSize, long compressedSize) {
+        return compressedSize + HEADER_LENGTH < originalSize;
+    }
+
+    private byte[] compress(byte[] data) throws IOException {
+        return ByteStreams.toByteArray(new CompressingInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private byte[] decode(byte[] stored) {
+        Optional<Encoding> encoding = Encoding.parse(stored);
+        if (!encoding.isPresent()) {
+            return stored;
+        }
+        try {
+            return ByteStreams.toByteArray(decode(encoding.get(),
+                new ByteArrayInputStream(stored, HEADER_LENGTH, stored.length - HEADER_LENGTH)));
+        } catch (IOException e) {
+            throw new ObjectStoreException("Failed to decode blob", e);
+        }
+    }
+
+    private InputStream decode(InputStream stored) {
+        try {
+            PushbackInputStream input = new PushbackInputStream(stored, HEADER_LENGTH);
+            byte[] header = new byte[HEADER_LENGTH];
+            int read = ByteStreams.read(input, header, 0, HEADER_LENGTH);
+            Optional<Encoding> encoding = Encoding.parse(Arrays.copyOf(header, read));
+            if (!encoding.isPresent()) {
+                input.unread(header, 0, read);
+                return input;
+            }
+            return decode(encoding.get(), input);
+        } catch (IOException e) {
+            throw new ObjectStoreException("Failed to decode blob", e);
+        }
+    }
+
+    private InputStream decode(Encoding encoding, InputStream payload) throws IOException {
+        switch (encoding) {
+            case RAW:
+                return payload;
+            case LZ4:
+                return new LZ4FrameInputStream(payload);
+            default:
+                throw new ObjectStoreException("Unsupported blob encoding " + encoding);
+        }
+    }
+
+    private InputStream skipThenLimit(InputStream input, long offset, long length) throws IOException {
+        ByteStreams.copy(ByteStreams.limit(input, offset), ByteStreams.nullOutputStream());
+        return ByteStreams.limit(input, length);
+    }
+
+    private void closeQuietly(InputStream input) {
+        try {
+            input.close();
+        } catch (IOException e) {
+            // nothing to do, the content was already read
+        }
+    }
+
+    private byte[] toByteArray(List<ByteBuffer> buffers) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        buffers.forEach(buffer -> {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            result.write(bytes, 0, bytes.length);
+        });
+        return result.toByteArray();
+    }
+
+    private byte[] concat(byte[] header, byte[] payload) {
+        byte[] result = Arrays.copyOf(header, header.length + payload.length);
+        System.arraycopy(payload, 0, result, header.length, payload.length);
+        return result;
+    }
+
+    private void recordSizes(long original, long stored) {
+        originalBytes.add(Ints.saturatedCast(original));
+        storedBytes.add(Ints.saturatedCast(stored));
+    }
+}
@@ -0,0 +1,94 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+/**
+ * Exposes the LZ4 frame of a source stream as an {@link InputStream}, compressing the source as it is consumed so
+ * that only about one LZ4 block is held in memory.
+ */
+class CompressingInputStream extends InputStream {
+    private static final LZ4FrameOutputStream.BLOCKSIZE BLOCK_SIZE = LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB;
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int EOF = -1;
+
+    private final InputStream source;
+    private final byte[] chunk;
+    private final ByteArrayOutputStream pending;
+    private final LZ4FrameOutputStream compressor;
+    private ByteArrayInputStream available;
+    private boolean sourceExhausted;
+
+    CompressingInputStream(InputStream source) throws IOException {
+        this.source = source;
+        this.chunk = new byte[CHUNK_SIZE];
+        this.pending = new ByteArrayOutputStream();
+        this.compressor = new LZ4FrameOutputStream(pending, BLOCK_SIZE);
+        this.available = new ByteArrayInputStream(new byte[0]);
+        this.sourceExhausted = false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] singleByte = new byte[1];
+        int read = read(singleByte, 0, 1);
+        if (read == EOF) {
+            return EOF;
+        }
+        return singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (available.available() == 0) {
+            if (sourceExhausted) {
+                return EOF;
+            }
+            compressNextChunk();
+        }
+        return available.read(b, off, len);
+    }
+
+    private void compressNextChunk() throws IOException {
+        int read = source.read(chunk);
+        if (read == EOF) {
+            compressor.close();
+            sourceExhausted = true;
+        } else {
+            compressor.write(chunk, 0, read);
+        }
+        available = new ByteArrayInputStream(pending.toByteArray());
+        pending.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
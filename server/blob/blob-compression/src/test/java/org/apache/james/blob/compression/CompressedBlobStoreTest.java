@@ -0,0 +1,225 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.compression;
+
+import static org.apache.james.blob.compression.CompressedBlobStore.ORIGINAL_BYTES_METRIC_NAME;
+import static org.apache.james.blob.compression.CompressedBlobStore.STORED_BYTES_METRIC_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BlobStoreContract;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+class CompressedBlobStoreTest implements BlobStoreContract {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final int SIZE_THRESHOLD_IN_BYTES = 64;
+    private static final byte[] SMALL_CONTENT = "small".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMPRESSIBLE_CONTENT = Strings.repeat("Received: from mx.domain.tld by james\r\n", 100)
+        .getBytes(StandardCharsets.UTF_8);
+
+    private MemoryBlobStore backend;
+    private RecordingMetricFactory metricFactory;
+    private CompressedBlobStore testee;
+
+    @BeforeEach
+    void setUp() {
+        backend = new MemoryBlobStore(BLOB_ID_FACTORY);
+        metricFactory = new RecordingMetricFactory();
+        testee = new CompressedBlobStore(backend, new BlobCompressionConfiguration(SIZE_THRESHOLD_IN_BYTES), metricFactory);
+    }
+
+    @Override
+    public BlobStore testee() {
+        return testee;
+    }
+
+    @Override
+    public BlobId.Factory blobIdFactory() {
+        return BLOB_ID_FACTORY;
+    }
+
+    @Test
+    void saveShouldStoreBlobsBelowTheThresholdRaw() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, SMALL_CONTENT).block();
+
+        assertThat(backend.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(SMALL_CONTENT);
+    }
+
+    @Test
+    void saveShouldCompressBlobsAboveTheThreshold() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, COMPRESSIBLE_CONTENT).block();
+
+        assertThat(backend.readBytes(BucketName.DEFAULT, blobId).block().length).isLessThan(COMPRESSIBLE_CONTENT.length / 4);
+        assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(COMPRESSIBLE_CONTENT);
+    }
+
+    @Test
+    void saveShouldStoreIncompressibleBlobsRaw() {
+        byte[] incompressible = new byte[1024];
+        new Random(42).nextBytes(incompressible);
+
+        BlobId blobId = testee.save(BucketName.DEFAULT, incompressible).block();
+
+        assertThat(backend.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(incompressible);
+    }
+
+    @Test
+    void rawBlobsStartingWithAHeaderShouldBeReadUnchanged() {
+        byte[] content = concat(CompressedBlobStore.Encoding.LZ4.header(), SMALL_CONTENT);
+
+        BlobId blobId = testee.save(BucketName.DEFAULT, content).block();
+
+        assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(content);
+        assertThat(testee.read(BucketName.DEFAULT, blobId)).hasSameContentAs(new ByteArrayInputStream(content));
+    }
+
+    @Test
+    void readShouldReturnBlobsSavedBeforeEnablingCompression() {
+        BlobId blobId = backend.save(BucketName.DEFAULT, COMPRESSIBLE_CONTENT).block();
+
+        assertThat(testee.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(COMPRESSIBLE_CONTENT);
+        assertThat(testee.read(BucketName.DEFAULT, blobId)).hasSameContentAs(new ByteArrayInputStream(COMPRESSIBLE_CONTENT));
+    }
+
+    @Test
+    void saveInputStreamShouldCompressBlobsAboveTheThreshold() throws IOException {
+        BlobId blobId = testee.save(BucketName.DEFAULT, new ByteArrayInputStream(COMPRESSIBLE_CONTENT)).block();
+
+        assertThat(backend.readBytes(BucketName.DEFAULT, blobId).block().length).isLessThan(COMPRESSIBLE_CONTENT.length / 4);
+        assertThat(ByteStreams.toByteArray(testee.read(BucketName.DEFAULT, blobId))).isEqualTo(COMPRESSIBLE_CONTENT);
+    }
+
+    @Test
+    void saveInputStreamShouldStoreBlobsBelowTheThresholdRaw() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, new ByteArrayInputStream(SMALL_CONTENT)).block();
+
+        assertThat(backend.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(SMALL_CONTENT);
+    }
+
+    @Test
+    void saveInputStreamShouldStoreIncompressibleBlobsRaw() {
+        byte[] incompressible = new byte[1024];
+        new Random(42).nextBytes(incompressible);
+
+        BlobId blobId = testee.save(BucketName.DEFAULT, new ByteArrayInputStream(incompressible)).block();
+
+        assertThat(backend.readBytes(BucketName.DEFAULT, blobId).block()).isEqualTo(incompressible);
+    }
+
+    @Test
+    void bothSaveOverloadsShouldReturnTheSameIdForIncompressibleBlobs() {
+        byte[] incompressible = new byte[1024];
+        new Random(42).nextBytes(incompressible);
+
+        BlobId fromBytes = testee.save(BucketName.DEFAULT, incompressible).block();
+        BlobId fromStream = testee.save(BucketName.DEFAULT, new ByteArrayInputStream(incompressible)).block();
+
+        assertThat(fromStream).isEqualTo(fromBytes);
+    }
+
+    @Test
+    void bothSaveOverloadsShouldReturnTheSameIdForCompressibleBlobs() {
+        BlobId fromBytes = testee.save(BucketName.DEFAULT, COMPRESSIBLE_CONTENT).block();
+        BlobId fromStream = testee.save(BucketName.DEFAULT, new ByteArrayInputStream(COMPRESSIBLE_CONTENT)).block();
+
+        assertThat(fromStream).isEqualTo(fromBytes);
+    }
+
+    @Test
+    void bothSaveOverloadsShouldReturnTheSameIdForIncompressibleBlobsStartingWithAHeader() {
+        byte[] incompressible = new byte[1024];
+        new Random(42).nextBytes(incompressible);
+        byte[] content = concat(CompressedBlobStore.Encoding.LZ4.header(), incompressible);
+
+        BlobId fromBytes = testee.save(BucketName.DEFAULT, content).block();
+        BlobId fromStream = testee.save(BucketName.DEFAULT, new ByteArrayInputStream(content)).block();
+
+        assertThat(fromStream).isEqualTo(fromBytes);
+        assertThat(testee.readBytes(BucketName.DEFAULT, fromStream).block()).isEqualTo(content);
+    }
+
+    @Test
+    void readRangeShouldDecompressCompressedBlobs() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, COMPRESSIBLE_CONTENT).block();
+
+        byte[] range = toByteArray(testee.readRange(BucketName.DEFAULT, blobId, 100, 50).collectList().block()
+            .toArray(new ByteBuffer[0]));
+
+        assertThat(range).isEqualTo(Arrays.copyOfRange(COMPRESSIBLE_CONTENT, 100, 150));
+    }
+
+    @Test
+    void readRangeShouldSkipTheHeaderOfRawBlobs() {
+        byte[] content = concat(CompressedBlobStore.Encoding.RAW.header(), SMALL_CONTENT);
+        BlobId blobId = testee.save(BucketName.DEFAULT, content).block();
+
+        byte[] range = toByteArray(testee.readRange(BucketName.DEFAULT, blobId, 2, 6).collectList().block()
+            .toArray(new ByteBuffer[0]));
+
+        assertThat(range).isEqualTo(Arrays.copyOfRange(content, 2, 8));
+    }
+
+    @Test
+    void saveShouldRecordOriginalAndStoredSizes() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, COMPRESSIBLE_CONTENT).block();
+
+        assertThat(metricFactory.countFor(ORIGINAL_BYTES_METRIC_NAME)).isEqualTo(COMPRESSIBLE_CONTENT.length);
+        assertThat(metricFactory.countFor(STORED_BYTES_METRIC_NAME))
+            .isEqualTo(backend.readBytes(BucketName.DEFAULT, blobId).block().length);
+    }
+
+    @Test
+    void saveInputStreamShouldRecordOriginalAndStoredSizes() {
+        BlobId blobId = testee.save(BucketName.DEFAULT, new ByteArrayInputStream(COMPRESSIBLE_CONTENT)).block();
+
+        assertThat(metricFactory.countFor(ORIGINAL_BYTES_METRIC_NAME)).isEqualTo(COMPRESSIBLE_CONTENT.length);
+        assertThat(metricFactory.countFor(STORED_BYTES_METRIC_NAME))
+            .isEqualTo(backend.readBytes(BucketName.DEFAULT, blobId).block().length);
+    }
+
+    private byte[] concat(byte[] header, byte[] payload) {
+        byte[] result = Arrays.copyOf(header, header.length + payload.length);
+        System.arraycopy(payload, 0, result, header.length, payload.length);
+        return result;
+    }
+
+    private byte[] toByteArray(ByteBuffer... buffers) {
+        int size = Arrays.stream(buffers).mapToInt(ByteBuffer::remaining).sum();
+        ByteBuffer result = ByteBuffer.allocate(size);
+        Arrays.stream(buffers).forEach(result::put);
+        return result.array();
+    }
+}
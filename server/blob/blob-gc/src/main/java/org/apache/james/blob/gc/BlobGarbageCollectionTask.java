@@ -0,0 +1,129 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.gc;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+
+import javax.inject.Inject;
+
+import org.apache.james.task.Task;
+import org.apache.james.task.TaskExecutionDetails;
+import org.apache.james.task.TaskType;
+
+import reactor.core.scheduler.Schedulers;
+
+public class BlobGarbageCollectionTask implements Task {
+    static final TaskType TYPE = TaskType.of("blob-garbage-collection");
+
+    public static class AdditionalInformation implements TaskExecutionDetails.AdditionalInformation {
+        private final BlobGarbageCollector.RunningOptions runningOptions;
+        private final long referenceCount;
+        private final long candidateCount;
+        private final long deletedCount;
+        private final long failedCount;
+        private final Instant timestamp;
+
+        AdditionalInformation(BlobGarbageCollector.RunningOptions runningOptions, long referenceCount, long candidateCount,
+                              long deletedCount, long failedCount, Instant timestamp) {
+            this.runningOptions = runningOptions;
+            this.referenceCount = referenceCount;
+            this.candidateCount = candidateCount;
+            this.deletedCount = deletedCount;
+            this.failedCount = failedCount;
+            this.timestamp = timestamp;
+        }
+
+        public long getReferenceCount() {
+            return referenceCount;
+        }
+
+        public long getCandidateCount() {
+            return candidateCount;
+        }
+
+        public long getDeletedCount() {
+            return deletedCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+
+        @Override
+        public Instant timestamp() {
+            return timestamp;
+        }
+
+        BlobGarbageCollector.RunningOptions getRunningOptions() {
+            return runningOptions;
+        }
+    }
+
+    public static class Factory {
+        private final BlobGarbageCollector garbageCollector;
+
+        @Inject
+        public Factory(BlobGarbageCollector garbageCollector) {
+            this.garbageCollector = garbageCollector;
+        }
+
+        public BlobGarbageCollectionTask create(BlobGarbageCollector.RunningOptions runningOptions) {
+            return new BlobGarbageCollectionTask(garbageCollector, runningOptions);
+        }
+    }
+
+    private final BlobGarbageCollector garbageCollector;
+    private final BlobGarbageCollector.RunningOptions runningOptions;
+    private final BlobGarbageCollector.Context context;
+
+    private BlobGarbageCollectionTask(BlobGarbageCollector garbageCollector, BlobGarbageCollector.RunningOptions runningOptions) {
+        this.garbageCollector = garbageCollector;
+        this.runningOptions = runningOptions;
+        this.context = new BlobGarbageCollector.Context();
+    }
+
+    @Override
+    public Result run() {
+        return garbageCollector.collect(runningOptions, context)
+            .subscribeOn(Schedulers.boundedElastic())
+            .block();
+    }
+
+    @Override
+    public TaskType type() {
+        return TYPE;
+    }
+
+    @Override
+    public Optional<TaskExecutionDetails.AdditionalInformation> details() {
+        return Optional.of(new AdditionalInformation(runningOptions,
+            context.getReferenceCount(),
+            context.getCandidateCount(),
+            context.getDeletedCount(),
+            context.getFailedCount(),
+            Clock.systemUTC().instant()));
+    }
+
+    BlobGarbageCollector.RunningOptions getRunningOptions() {
+        return runningOptions;
+    }
+}
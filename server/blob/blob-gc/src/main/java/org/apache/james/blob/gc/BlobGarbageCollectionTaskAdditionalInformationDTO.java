@@ -0,0 +1,141 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.gc;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTO;
+import org.apache.james.server.task.json.dto.AdditionalInformationDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BlobGarbageCollectionTaskAdditionalInformationDTO implements AdditionalInformationDTO {
+    private static BlobGarbageCollectionTaskAdditionalInformationDTO fromDomainObject(BlobGarbageCollectionTask.AdditionalInformation additionalInformation, String type) {
+        BlobGarbageCollector.RunningOptions runningOptions = additionalInformation.getRunningOptions();
+        return new BlobGarbageCollectionTaskAdditionalInformationDTO(
+            type,
+            runningOptions.getExpectedBlobCount(),
+            runningOptions.getAssociatedProbability(),
+            runningOptions.getDeletionsPerSecond(),
+            runningOptions.getGracePeriod().getSeconds(),
+            additionalInformation.getReferenceCount(),
+            additionalInformation.getCandidateCount(),
+            additionalInformation.getDeletedCount(),
+            additionalInformation.getFailedCount(),
+            additionalInformation.timestamp());
+    }
+
+    public static final AdditionalInformationDTOModule<BlobGarbageCollectionTask.AdditionalInformation, BlobGarbageCollectionTaskAdditionalInformationDTO> MODULE =
+        DTOModule
+            .forDomainObject(BlobGarbageCollectionTask.AdditionalInformation.class)
+            .convertToDTO(BlobGarbageCollectionTaskAdditionalInformationDTO.class)
+            .toDomainObjectConverter(BlobGarbageCollectionTaskAdditionalInformationDTO::toDomainObject)
+            .toDTOConverter(BlobGarbageCollectionTaskAdditionalInformationDTO::fromDomainObject)
+            .typeName(BlobGarbageCollectionTask.TYPE.asString())
+            .withFactory(AdditionalInformationDTOModule::new);
+
+    private final String type;
+    private final long expectedBlobCount;
+    private final double associatedProbability;
+    private final int deletionsPerSecond;
+    private final long gracePeriodInSeconds;
+    private final long referenceCount;
+    private final long candidateCount;
+    private final long deletedCount;
+    private final long failedCount;
+    private final Instant timestamp;
+
+    BlobGarbageCollectionTaskAdditionalInformationDTO(@JsonProperty("type") String type,
+                                                      @JsonProperty("expectedBlobCount") long expectedBlobCount,
+                                                      @JsonProperty("associatedProbability") double associatedProbability,
+                                                      @JsonProperty("deletionsPerSecond") int deletionsPerSecond,
+                                                      @JsonProperty("gracePeriodInSeconds") long gracePeriodInSeconds,
+                                                      @JsonProperty("referenceCount") long referenceCount,
+                                                      @JsonProperty("candidateCount") long candidateCount,
+                                                      @JsonProperty("deletedCount") long deletedCount,
+                                                      @JsonProperty("failedCount") long failedCount,
+                                                      @JsonProperty("timestamp") Instant timestamp) {
+        this.type = type;
+        this.expectedBlobCount = expectedBlobCount;
+        this.associatedProbability = associatedProbability;
+        this.deletionsPerSecond = deletionsPerSecond;
+        this.gracePeriodInSeconds = gracePeriodInSeconds;
+        this.referenceCount = referenceCount;
+        this.candidateCount = candidateCount;
+        this.deletedCount = deletedCount;
+        this.failedCount = failedCount;
+        this.timestamp = timestamp;
+    }
+
+    private BlobGarbageCollectionTask.AdditionalInformation toDomainObject() {
+        return new BlobGarbageCollectionTask.AdditionalInformation(
+            new BlobGarbageCollector.RunningOptions(expectedBlobCount, associatedProbability, deletionsPerSecond,
+                Duration.ofSeconds(gracePeriodInSeconds)),
+            referenceCount,
+            candidateCount,
+            deletedCount,
+            failedCount,
+            timestamp);
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    public long getExpectedBlobCount() {
+        return expectedBlobCount;
+    }
+
+    public double getAssociatedProbability() {
+        return associatedProbability;
+    }
+
+    public int getDeletionsPerSecond() {
+        return deletionsPerSecond;
+    }
+
+    public long getGracePeriodInSeconds() {
+        return gracePeriodInSeconds;
+    }
+
+    public long getReferenceCount() {
+        return referenceCount;
+    }
+
+    public long getCandidateCount() {
+        return candidateCount;
+    }
+
+    public long getDeletedCount() {
+        return deletedCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    @Override
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+}
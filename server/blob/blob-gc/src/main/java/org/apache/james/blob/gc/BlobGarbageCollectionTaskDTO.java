@@ -0,0 +1,93 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.gc;
+
+import java.time.Duration;
+
+import org.apache.james.json.DTOModule;
+import org.apache.james.server.task.json.dto.TaskDTO;
+import org.apache.james.server.task.json.dto.TaskDTOModule;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class BlobGarbageCollectionTaskDTO implements TaskDTO {
+    private static BlobGarbageCollectionTaskDTO fromDomainObject(BlobGarbageCollectionTask task, String type) {
+        BlobGarbageCollector.RunningOptions runningOptions = task.getRunningOptions();
+        return new BlobGarbageCollectionTaskDTO(type,
+            runningOptions.getExpectedBlobCount(),
+            runningOptions.getAssociatedProbability(),
+            runningOptions.getDeletionsPerSecond(),
+            runningOptions.getGracePeriod().getSeconds());
+    }
+
+    public static TaskDTOModule<BlobGarbageCollectionTask, BlobGarbageCollectionTaskDTO> module(BlobGarbageCollectionTask.Factory factory) {
+        return DTOModule
+            .forDomainObject(BlobGarbageCollectionTask.class)
+            .convertToDTO(BlobGarbageCollectionTaskDTO.class)
+            .toDomainObjectConverter(dto -> dto.toDomainObject(factory))
+            .toDTOConverter(BlobGarbageCollectionTaskDTO::fromDomainObject)
+            .typeName(BlobGarbageCollectionTask.TYPE.asString())
+            .withFactory(TaskDTOModule::new);
+    }
+
+    private final String type;
+    private final long expectedBlobCount;
+    private final double associatedProbability;
+    private final int deletionsPerSecond;
+    private final long gracePeriodInSeconds;
+
+    BlobGarbageCollectionTaskDTO(@JsonProperty("type") String type,
+                                 @JsonProperty("expectedBlobCount") long expectedBlobCount,
+                                 @JsonProperty("associatedProbability") double associatedProbability,
+                                 @JsonProperty("deletionsPerSecond") int deletionsPerSecond,
+                                 @JsonProperty("gracePeriodInSeconds") long gracePeriodInSeconds) {
+        this.type = type;
+        this.expectedBlobCount = expectedBlobCount;
+        this.associatedProbability = associatedProbability;
+        this.deletionsPerSecond = deletionsPerSecond;
+        this.gracePeriodInSeconds = gracePeriodInSeconds;
+    }
+
+    private BlobGarbageCollectionTask toDomainObject(BlobGarbageCollectionTask.Factory factory) {
+        return factory.create(new BlobGarbageCollector.RunningOptions(expectedBlobCount, associatedProbability,
+            deletionsPerSecond, Duration.ofSeconds(gracePeriodInSeconds)));
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    public long getExpectedBlobCount() {
+        return expectedBlobCount;
+    }
+
+    public double getAssociatedProbability() {
+        return associatedProbability;
+    }
+
+    public int getDeletionsPerSecond() {
+        return deletionsPerSecond;
+    }
+
+    public long getGracePeriodInSeconds() {
+        return gracePeriodInSeconds;
+    }
+}
@@ -0,0 +1,251 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.gc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.api.BlobStore;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.task.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Deletes the blobs of the default bucket that no {@link BlobReferenceSource} references.
+ *
+ * Blob ids are content addressed, hence a blob can be shared by several messages and the only safe way to know it
+ * is unused is to look at all references. This is done with a mark and sweep:
+ *
+ *  - Mark: all references are added to a bloom filter, which size does not depend on the size of the blobs.
+ *  - Sweep: blobs written before the grace period that the bloom filter does not contain are deleted.
+ *
+ * A bloom filter false positive only keeps a garbage blob, it never leads to deleting a referenced one. The grace
+ * period protects blobs being saved while references are listed, as well as blobs saved again by deduplication, as
+ * saving a blob refreshes its write time.
+ *
+ * Deletions are throttled so that the collection can run alongside regular traffic.
+ */
+public class BlobGarbageCollector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlobGarbageCollector.class);
+    private static final Duration THROTTLING_PERIOD = Duration.ofSeconds(1);
+
+    public static class RunningOptions {
+        public static final long DEFAULT_EXPECTED_BLOB_COUNT = 1_000_000L;
+        public static final double DEFAULT_ASSOCIATED_PROBABILITY = 0.01;
+        public static final int DEFAULT_DELETIONS_PER_SECOND = 100;
+        public static final Duration DEFAULT_GRACE_PERIOD = Duration.ofDays(1);
+        public static final RunningOptions DEFAULT = new RunningOptions(DEFAULT_EXPECTED_BLOB_COUNT,
+            DEFAULT_ASSOCIATED_PROBABILITY, DEFAULT_DELETIONS_PER_SECOND, DEFAULT_GRACE_PERIOD);
+
+        private final long expectedBlobCount;
+        private final double associatedProbability;
+        private final int deletionsPerSecond;
+        private final Duration gracePeriod;
+
+        public RunningOptions(long expectedBlobCount, double associatedProbability, int deletionsPerSecond, Duration gracePeriod) {
+            Preconditions.checkArgument(expectedBlobCount > 0, "'expectedBlobCount' needs to be strictly positive");
+            Preconditions.checkArgument(associatedProbability > 0 && associatedProbability < 1,
+                "'associatedProbability' needs to be between 0 and 1 (excluded)");
+            Preconditions.checkArgument(deletionsPerSecond > 0, "'deletionsPerSecond' needs to be strictly positive");
+            Preconditions.checkNotNull(gracePeriod);
+            Preconditions.checkArgument(!gracePeriod.isNegative(), "'gracePeriod' can not be negative");
+
+            this.expectedBlobCount = expectedBlobCount;
+            this.associatedProbability = associatedProbability;
+            this.deletionsPerSecond = deletionsPerSecond;
+            this.gracePeriod = gracePeriod;
+        }
+
+        public long getExpectedBlobCount() {
+            return expectedBlobCount;
+        }
+
+        public double getAssociatedProbability() {
+            return associatedProbability;
+        }
+
+        public int getDeletionsPerSecond() {
+            return deletionsPerSecond;
+        }
+
+        public Duration getGracePeriod() {
+            return gracePeriod;
+        }
+
+        @Override
+        public final boolean equals(Object o) {
+            if (o instanceof RunningOptions) {
+                RunningOptions that = (RunningOptions) o;
+
+                return Objects.equals(this.expectedBlobCount, that.expectedBlobCount)
+                    && Objects.equals(this.associatedProbability, that.associatedProbability)
+                    && Objects.equals(this.deletionsPerSecond, that.deletionsPerSecond)
+                    && Objects.equals(this.gracePeriod, that.gracePeriod);
+            }
+            return false;
+        }
+
+        @Override
+        public final int hashCode() {
+            return Objects.hash(expectedBlobCount, associatedProbability, deletionsPerSecond, gracePeriod);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                .add("expectedBlobCount", expectedBlobCount)
+                .add("associatedProbability", associatedProbability)
+                .add("deletionsPerSecond", deletionsPerSecond)
+                .add("gracePeriod", gracePeriod)
+                .toString();
+        }
+    }
+
+    public static class Context {
+        private final AtomicLong referenceCount;
+        private final AtomicLong candidateCount;
+        private final AtomicLong deletedCount;
+        private final AtomicLong failedCount;
+
+        public Context() {
+            this.referenceCount = new AtomicLong(0L);
+            this.candidateCount = new AtomicLong(0L);
+            this.deletedCount = new AtomicLong(0L);
+            this.failedCount = new AtomicLong(0L);
+        }
+
+        void incrementReferenceCount() {
+            referenceCount.incrementAndGet();
+        }
+
+        void incrementCandidateCount() {
+            candidateCount.incrementAndGet();
+        }
+
+        void incrementDeletedCount() {
+            deletedCount.incrementAndGet();
+        }
+
+        void incrementFailedCount() {
+            failedCount.incrementAndGet();
+        }
+
+        public long getReferenceCount() {
+            return referenceCount.get();
+        }
+
+        public long getCandidateCount() {
+            return candidateCount.get();
+        }
+
+        public long getDeletedCount() {
+            return deletedCount.get();
+        }
+
+        public long getFailedCount() {
+            return failedCount.get();
+        }
+    }
+
+    private final BlobStore blobStore;
+    private final Set<BlobReferenceSource> referenceSources;
+    private final Clock clock;
+
+    @Inject
+    public BlobGarbageCollector(BlobStore blobStore, Set<BlobReferenceSource> referenceSources, Clock clock) {
+        this.blobStore = blobStore;
+        this.referenceSources = referenceSources;
+        this.clock = clock;
+    }
+
+    public Mono<Task.Result> collect(RunningOptions options, Context context) {
+        if (referenceSources.isEmpty()) {
+            LOGGER.error("No blob reference source is registered, refusing to collect blobs as all of them would be deleted");
+            return Mono.just(Task.Result.PARTIAL);
+        }
+
+        Instant writtenBefore = clock.instant().minus(options.getGracePeriod());
+        BloomFilter<CharSequence> referencedBlobs = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8),
+            options.getExpectedBlobCount(),
+            options.getAssociatedProbability());
+
+        return mark(referencedBlobs, context)
+            .then(Mono.defer(() -> sweep(referencedBlobs, writtenBefore, options, context)))
+            .onErrorResume(e -> {
+                LOGGER.error("Error while collecting unreferenced blobs", e);
+                return Mono.just(Task.Result.PARTIAL);
+            });
+    }
+
+    private Mono<Void> mark(BloomFilter<CharSequence> referencedBlobs, Context context) {
+        return Flux.fromIterable(referenceSources)
+            .concatMap(BlobReferenceSource::listReferencedBlobs)
+            .doOnNext(blobId -> {
+                referencedBlobs.put(blobId.asString());
+                context.incrementReferenceCount();
+            })
+            .then();
+    }
+
+    private Mono<Task.Result> sweep(BloomFilter<CharSequence> referencedBlobs, Instant writtenBefore, RunningOptions options, Context context) {
+        BucketName defaultBucket = blobStore.getDefaultBucketName();
+
+        return blobStore.listBlobs(defaultBucket, writtenBefore)
+            .filter(blobId -> !referencedBlobs.mightContain(blobId.asString()))
+            .doOnNext(any -> context.incrementCandidateCount())
+            .buffer(options.getDeletionsPerSecond())
+            .delayElements(THROTTLING_PERIOD)
+            .concatMap(blobIds -> Flux.fromIterable(blobIds)
+                .flatMap(blobId -> delete(defaultBucket, blobId, context)))
+            .reduce(Task.Result.COMPLETED, Task::combine);
+    }
+
+    private Mono<Task.Result> delete(BucketName bucketName, BlobId blobId, Context context) {
+        return blobStore.delete(bucketName, blobId)
+            .then(Mono.fromCallable(() -> {
+                context.incrementDeletedCount();
+                return Task.Result.COMPLETED;
+            }))
+            .onErrorResume(e -> {
+                LOGGER.warn("Failed to delete unreferenced blob {}", blobId.asString(), e);
+                context.incrementFailedCount();
+                return Mono.just(Task.Result.PARTIAL);
+            });
+    }
+}
@@ -0,0 +1,81 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.gc;
+
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.server.task.json.JsonTaskAdditionalInformationSerializer;
+import org.apache.james.server.task.json.JsonTaskSerializer;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.common.collect.ImmutableSet;
+
+class BlobGarbageCollectionTaskSerializationTest {
+    private static final BlobGarbageCollector GARBAGE_COLLECTOR = new BlobGarbageCollector(
+        new MemoryBlobStore(new HashBlobId.Factory()), ImmutableSet.of(), Clock.systemUTC());
+    private static final BlobGarbageCollectionTask.Factory TASK_FACTORY = new BlobGarbageCollectionTask.Factory(GARBAGE_COLLECTOR);
+    private static final BlobGarbageCollector.RunningOptions RUNNING_OPTIONS = new BlobGarbageCollector.RunningOptions(
+        2000, 0.02, 50, Duration.ofHours(2));
+    private static final Instant TIMESTAMP = Instant.parse("2018-11-13T12:00:55Z");
+
+    private static final JsonTaskSerializer TASK_SERIALIZER = JsonTaskSerializer.of(BlobGarbageCollectionTaskDTO.module(TASK_FACTORY));
+    private static final JsonTaskAdditionalInformationSerializer JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER = JsonTaskAdditionalInformationSerializer.of(BlobGarbageCollectionTaskAdditionalInformationDTO.MODULE);
+
+    private static final BlobGarbageCollectionTask TASK = TASK_FACTORY.create(RUNNING_OPTIONS);
+    private static final BlobGarbageCollectionTask.AdditionalInformation DETAILS = new BlobGarbageCollectionTask.AdditionalInformation(
+        RUNNING_OPTIONS, 10, 4, 3, 1, TIMESTAMP);
+
+    private static final String SERIALIZED_TASK = "{\"type\":\"blob-garbage-collection\",\"expectedBlobCount\":2000,\"associatedProbability\":0.02,\"deletionsPerSecond\":50,\"gracePeriodInSeconds\":7200}";
+    private static final String SERIALIZED_ADDITIONAL_INFORMATION = "{\"type\":\"blob-garbage-collection\",\"expectedBlobCount\":2000,\"associatedProbability\":0.02,\"deletionsPerSecond\":50,\"gracePeriodInSeconds\":7200,\"referenceCount\":10,\"candidateCount\":4,\"deletedCount\":3,\"failedCount\":1,\"timestamp\":\"2018-11-13T12:00:55Z\"}";
+
+    @Test
+    void taskShouldBeSerializable() throws JsonProcessingException {
+        assertThatJson(TASK_SERIALIZER.serialize(TASK))
+            .isEqualTo(SERIALIZED_TASK);
+    }
+
+    @Test
+    void taskShouldBeDeserializable() throws IOException {
+        assertThat(TASK_SERIALIZER.deserialize(SERIALIZED_TASK))
+            .isInstanceOfSatisfying(BlobGarbageCollectionTask.class,
+                task -> assertThat(task.getRunningOptions()).isEqualTo(RUNNING_OPTIONS));
+    }
+
+    @Test
+    void additionalInformationShouldBeSerializable() throws JsonProcessingException {
+        assertThatJson(JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER.serialize(DETAILS))
+            .isEqualTo(SERIALIZED_ADDITIONAL_INFORMATION);
+    }
+
+    @Test
+    void additionalInformationShouldBeDeserializable() throws IOException {
+        assertThat(JSON_TASK_ADDITIONAL_INFORMATION_SERIALIZER.deserialize(SERIALIZED_ADDITIONAL_INFORMATION))
+            .isEqualToComparingFieldByField(DETAILS);
+    }
+}
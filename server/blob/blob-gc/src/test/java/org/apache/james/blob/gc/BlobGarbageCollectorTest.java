@@ -0,0 +1,209 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.blob.gc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.task.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import reactor.core.publisher.Flux;
+
+class BlobGarbageCollectorTest {
+    private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
+    private static final BucketName OTHER_BUCKET = BucketName.of("other");
+    private static final int DELETIONS_PER_SECOND = 1000;
+    private static final BlobGarbageCollector.RunningOptions NO_GRACE_PERIOD = new BlobGarbageCollector.RunningOptions(
+        1000, 0.01, DELETIONS_PER_SECOND, Duration.ZERO);
+
+    private MemoryBlobStore blobStore;
+    private Clock clock;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new MemoryBlobStore(BLOB_ID_FACTORY);
+        clock = Clock.fixed(Instant.now().plus(Duration.ofMinutes(1)), ZoneOffset.UTC);
+    }
+
+    private BlobGarbageCollector collector(BlobReferenceSource... sources) {
+        return new BlobGarbageCollector(blobStore, ImmutableSet.copyOf(sources), clock);
+    }
+
+    private BlobReferenceSource referencing(BlobId... blobIds) {
+        return () -> Flux.fromArray(blobIds);
+    }
+
+    private BlobId save(String content) {
+        return blobStore.save(blobStore.getDefaultBucketName(), content.getBytes(StandardCharsets.UTF_8)).block();
+    }
+
+    private ImmutableList<BlobId> remainingBlobs() {
+        return ImmutableList.copyOf(blobStore.listBlobs(blobStore.getDefaultBucketName(), Instant.MAX).toIterable());
+    }
+
+    @Test
+    void runningOptionsShouldRejectNonPositiveExpectedBlobCount() {
+        assertThatThrownBy(() -> new BlobGarbageCollector.RunningOptions(0, 0.01, DELETIONS_PER_SECOND, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void runningOptionsShouldRejectInvalidAssociatedProbability() {
+        assertThatThrownBy(() -> new BlobGarbageCollector.RunningOptions(1000, 1, DELETIONS_PER_SECOND, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void runningOptionsShouldRejectNonPositiveDeletionsPerSecond() {
+        assertThatThrownBy(() -> new BlobGarbageCollector.RunningOptions(1000, 0.01, 0, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void runningOptionsShouldRejectNegativeGracePeriod() {
+        assertThatThrownBy(() -> new BlobGarbageCollector.RunningOptions(1000, 0.01, DELETIONS_PER_SECOND, Duration.ofSeconds(-1)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void collectShouldDeleteUnreferencedBlobs() {
+        BlobId referenced = save("referenced");
+        save("unreferenced");
+
+        Task.Result result = collector(referencing(referenced))
+            .collect(NO_GRACE_PERIOD, new BlobGarbageCollector.Context())
+            .block();
+
+        assertThat(result).isEqualTo(Task.Result.COMPLETED);
+        assertThat(remainingBlobs()).containsExactly(referenced);
+    }
+
+    @Test
+    void collectShouldKeepBlobsReferencedByAnySource() {
+        BlobId referenced1 = save("referenced1");
+        BlobId referenced2 = save("referenced2");
+
+        collector(referencing(referenced1), referencing(referenced2))
+            .collect(NO_GRACE_PERIOD, new BlobGarbageCollector.Context())
+            .block();
+
+        assertThat(remainingBlobs()).containsOnly(referenced1, referenced2);
+    }
+
+    @Test
+    void collectShouldKeepBlobsWrittenDuringTheGracePeriod() {
+        save("unreferenced");
+        BlobGarbageCollector.RunningOptions oneHourGracePeriod = new BlobGarbageCollector.RunningOptions(
+            1000, 0.01, DELETIONS_PER_SECOND, Duration.ofHours(1));
+
+        collector(referencing())
+            .collect(oneHourGracePeriod, new BlobGarbageCollector.Context())
+            .block();
+
+        assertThat(remainingBlobs()).hasSize(1);
+    }
+
+    @Test
+    void collectShouldKeepBlobsOfOtherBuckets() {
+        BlobId blobId = blobStore.save(OTHER_BUCKET, "other".getBytes(StandardCharsets.UTF_8)).block();
+
+        collector(referencing())
+            .collect(NO_GRACE_PERIOD, new BlobGarbageCollector.Context())
+            .block();
+
+        assertThat(blobStore.readBytes(OTHER_BUCKET, blobId).block())
+            .isEqualTo("other".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void collectShouldNotDeleteAnythingWhenNoReferenceSource() {
+        save("unreferenced");
+
+        Task.Result result = collector()
+            .collect(NO_GRACE_PERIOD, new BlobGarbageCollector.Context())
+            .block();
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+        assertThat(remainingBlobs()).hasSize(1);
+    }
+
+    @Test
+    void collectShouldNotDeleteAnythingWhenAReferenceSourceFails() {
+        save("unreferenced");
+        BlobReferenceSource failingSource = () -> Flux.error(new RuntimeException());
+
+        Task.Result result = collector(referencing(), failingSource)
+            .collect(NO_GRACE_PERIOD, new BlobGarbageCollector.Context())
+            .block();
+
+        assertThat(result).isEqualTo(Task.Result.PARTIAL);
+        assertThat(remainingBlobs()).hasSize(1);
+    }
+
+    @Test
+    void collectShouldUpdateContext() {
+        BlobId referenced = save("referenced");
+        save("unreferenced1");
+        save("unreferenced2");
+        BlobGarbageCollector.Context context = new BlobGarbageCollector.Context();
+
+        collector(referencing(referenced, referenced))
+            .collect(NO_GRACE_PERIOD, context)
+            .block();
+
+        assertThat(context.getReferenceCount()).isEqualTo(2);
+        assertThat(context.getCandidateCount()).isEqualTo(2);
+        assertThat(context.getDeletedCount()).isEqualTo(2);
+        assertThat(context.getFailedCount()).isEqualTo(0);
+    }
+
+    @Test
+    void collectShouldThrottleDeletions() {
+        save("unreferenced1");
+        save("unreferenced2");
+        save("unreferenced3");
+        BlobGarbageCollector.RunningOptions oneDeletionPerSecond = new BlobGarbageCollector.RunningOptions(
+            1000, 0.01, 1, Duration.ZERO);
+
+        Instant start = Instant.now();
+        collector(referencing())
+            .collect(oneDeletionPerSecond, new BlobGarbageCollector.Context())
+            .block();
+
+        assertThat(Duration.between(start, Instant.now())).isGreaterThanOrEqualTo(Duration.ofSeconds(3));
+        assertThat(remainingBlobs()).isEmpty();
+    }
+}
@@ -22,6 +22,10 @@ package org.apache.james.blob.memory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -35,14 +39,18 @@ import org.apache.james.blob.api.ObjectNotFoundException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Table;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class MemoryBlobStore implements BlobStore {
     private final BlobId.Factory factory;
     private final BucketName defaultBucketName;
     private final Table<BucketName, BlobId, byte[]> blobs;
+    private final Table<BucketName, BlobId, Instant> writeInstants;
+    private final Clock clock;
 
     @Inject
     public MemoryBlobStore(BlobId.Factory factory) {
@@ -54,6 +62,8 @@ public class MemoryBlobStore implements BlobStore {
         this.factory = factory;
         this.defaultBucketName = defaultBucketName;
         blobs = HashBasedTable.create();
+        writeInstants = HashBasedTable.create();
+        clock = Clock.systemUTC();
     }
 
     @Override
@@ -66,6 +76,7 @@ public class MemoryBlobStore implements BlobStore {
         return Mono.fromCallable(() -> {
             synchronized (blobs) {
                 blobs.put(bucketName, blobId, data);
+                writeInstants.put(bucketName, blobId, clock.instant());
                 return blobId;
             }
         });
@@ -95,6 +106,40 @@ public class MemoryBlobStore implements BlobStore {
         return new ByteArrayInputStream(retrieveStoredValue(bucketName, blobId));
     }
 
+    @Override
+    public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+        Preconditions.checkNotNull(bucketName);
+        return Mono.fromCallable(() -> ByteBuffer.wrap(retrieveStoredValue(bucketName, blobId)).asReadOnlyBuffer())
+            .flux();
+    }
+
+    @Override
+    public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        Preconditions.checkNotNull(bucketName);
+        Preconditions.checkArgument(offset >= 0, "'offset' can not be negative");
+        Preconditions.checkArgument(length >= 0, "'length' can not be negative");
+
+        return Mono.fromCallable(() -> retrieveStoredValue(bucketName, blobId))
+            .filter(bytes -> offset < bytes.length && length > 0)
+            .map(bytes -> ByteBuffer.wrap(bytes, (int) offset, (int) Math.min(length, bytes.length - offset)).slice().asReadOnlyBuffer())
+            .flux();
+    }
+
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        Preconditions.checkNotNull(bucketName);
+
+        return Flux.defer(() -> {
+            synchronized (blobs) {
+                return Flux.fromIterable(writeInstants.row(bucketName).entrySet()
+                    .stream()
+                    .filter(entry -> entry.getValue().isBefore(writtenBefore))
+                    .map(Map.Entry::getKey)
+                    .collect(ImmutableList.toImmutableList()));
+            }
+        });
+    }
+
     @Override
     public Mono<Void> deleteBucket(BucketName bucketName) {
         Preconditions.checkNotNull(bucketName);
@@ -102,6 +147,7 @@ public class MemoryBlobStore implements BlobStore {
         return Mono.fromRunnable(() -> {
             synchronized (blobs) {
                 blobs.row(bucketName).clear();
+                writeInstants.row(bucketName).clear();
             }
         });
     }
@@ -126,6 +172,7 @@ public class MemoryBlobStore implements BlobStore {
         return Mono.fromRunnable(() -> {
             synchronized (blobs) {
                 blobs.remove(bucketName, blobId);
+                writeInstants.remove(bucketName, blobId);
             }
         });
     }
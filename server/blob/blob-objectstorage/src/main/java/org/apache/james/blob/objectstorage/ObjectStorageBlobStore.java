@@ -20,14 +20,21 @@
 package org.apache.james.blob.objectstorage;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
 import javax.annotation.PreDestroy;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BucketName;
@@ -38,14 +45,22 @@ import org.apache.james.blob.objectstorage.aws.AwsS3ObjectStorage;
 import org.apache.james.blob.objectstorage.swift.SwiftKeystone2ObjectStorage;
 import org.apache.james.blob.objectstorage.swift.SwiftKeystone3ObjectStorage;
 import org.apache.james.blob.objectstorage.swift.SwiftTempAuthObjectStorage;
+import org.apache.james.util.ReactorUtils;
 import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.http.HttpResponseException;
 
+import com.github.fge.lambdas.Throwing;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.hash.Hashing;
 import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -53,6 +68,7 @@ import reactor.core.scheduler.Schedulers;
 
 public class ObjectStorageBlobStore implements BlobStore {
     private static final int BUFFERED_SIZE = 256 * 1024;
+    private static final int RANGE_NOT_SATISFIABLE = 416;
 
     private final BlobId.Factory blobIdFactory;
 
@@ -159,6 +175,18 @@ public class ObjectStorageBlobStore implements BlobStore {
         return Mono.fromCallable(() -> IOUtils.toByteArray(read(bucketName, blobId)));
     }
 
+    /**
+     * Object storages offer no multi object GET: blobs are retrieved with parallel GETs, as reads are blocking.
+     */
+    @Override
+    public Mono<Map<BlobId, byte[]>> readBatch(BucketName bucketName, Collection<BlobId> blobIds) {
+        return Flux.fromIterable(ImmutableSet.copyOf(blobIds))
+            .flatMap(blobId -> readBytes(bucketName, blobId)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(bytes -> Pair.of(blobId, bytes)), DEFAULT_READ_BATCH_CONCURRENCY)
+            .collectMap(Pair::getKey, Pair::getValue);
+    }
+
     @Override
     public InputStream read(BucketName bucketName, BlobId blobId) throws ObjectStoreException {
         ObjectStorageBucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
@@ -177,11 +205,81 @@ public class ObjectStorageBlobStore implements BlobStore {
         }
     }
 
+    @Override
+    public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+        return Flux.using(() -> read(bucketName, blobId),
+            stream -> ReactorUtils.toChunks(stream, BUFFERED_SIZE)
+                .subscribeOn(Schedulers.boundedElastic()),
+            Throwing.consumer(InputStream::close));
+    }
+
+    @Override
+    public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        Preconditions.checkArgument(offset >= 0, "'offset' can not be negative");
+        Preconditions.checkArgument(length >= 0, "'length' can not be negative");
+
+        return Flux.using(() -> readRangeAsStream(bucketName, blobId, offset, length),
+            stream -> ReactorUtils.toChunks(stream, BUFFERED_SIZE)
+                .subscribeOn(Schedulers.boundedElastic()),
+            Throwing.consumer(InputStream::close));
+    }
+
+    private InputStream readRangeAsStream(BucketName bucketName, BlobId blobId, long offset, long length) throws IOException {
+        ObjectStorageBucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+        if (length == 0) {
+            if (!blobStore.blobExists(resolvedBucketName.asString(), blobId.asString())) {
+                throw new ObjectNotFoundException("fail to load blob with id " + blobId);
+            }
+            return new ByteArrayInputStream(new byte[0]);
+        }
+        if (!payloadCodec.supportsRangeRead()) {
+            InputStream stream = read(bucketName, blobId);
+            IOUtils.skip(stream, offset);
+            return ByteStreams.limit(stream, length);
+        }
+        long lastByte = length > Long.MAX_VALUE - offset ? Long.MAX_VALUE - 1 : offset + length - 1;
+        try {
+            Blob blob = blobStore.getBlob(resolvedBucketName.asString(), blobId.asString(), GetOptions.Builder.range(offset, lastByte));
+            if (blob == null) {
+                throw new ObjectNotFoundException("fail to load blob with id " + blobId);
+            }
+            return blob.getPayload().openStream();
+        } catch (HttpResponseException e) {
+            if (e.getResponse() != null && e.getResponse().getStatusCode() == RANGE_NOT_SATISFIABLE) {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+            throw e;
+        }
+    }
+
     @Override
     public BucketName getDefaultBucketName() {
         return defaultBucketName;
     }
 
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        Preconditions.checkNotNull(writtenBefore);
+        ObjectStorageBucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
+        Date writtenBeforeDate = Date.from(writtenBefore);
+
+        return Mono.fromCallable(() -> blobStore.containerExists(resolvedBucketName.asString()))
+            .filter(Boolean::booleanValue)
+            .flatMapMany(any -> listPage(resolvedBucketName, ListContainerOptions.NONE)
+                .expand(page -> Mono.justOrEmpty(page.getNextMarker())
+                    .flatMap(marker -> listPage(resolvedBucketName, ListContainerOptions.Builder.afterMarker(marker)))))
+            .flatMapIterable(page -> page)
+            .filter(storageMetadata -> storageMetadata.getType().equals(StorageType.BLOB))
+            .filter(storageMetadata -> storageMetadata.getLastModified() == null
+                || storageMetadata.getLastModified().before(writtenBeforeDate))
+            .map(storageMetadata -> blobIdFactory.from(storageMetadata.getName()))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<PageSet<? extends StorageMetadata>> listPage(ObjectStorageBucketName bucketName, ListContainerOptions options) {
+        return Mono.fromCallable(() -> blobStore.list(bucketName.asString(), options));
+    }
+
     @Override
     public Mono<Void> deleteBucket(BucketName bucketName) {
         ObjectStorageBucketName resolvedBucketName = bucketNameResolver.resolve(bucketName);
@@ -29,5 +29,13 @@ public interface PayloadCodec {
 
     InputStream read(Payload payload) throws IOException;
 
+    /**
+     * Whether a byte range of the stored payload is the same byte range of the decoded content, allowing ranged reads
+     * against the object storage.
+     */
+    default boolean supportsRangeRead() {
+        return false;
+    }
+
     PayloadCodec DEFAULT_CODEC = new DefaultPayloadCodec();
 }
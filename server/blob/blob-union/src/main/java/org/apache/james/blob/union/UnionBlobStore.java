@@ -22,6 +22,10 @@ package org.apache.james.blob.union;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -29,6 +33,7 @@ import java.util.function.Function;
 import org.apache.james.blob.api.BlobId;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.api.ObjectNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +42,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class UnionBlobStore implements BlobStore {
@@ -149,6 +155,48 @@ public class UnionBlobStore implements BlobStore {
         }
     }
 
+    @Override
+    public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+        try {
+            return readStreamFallBackIfFailsOrEmptyResult(bucketName, blobId);
+        } catch (Exception e) {
+            LOGGER.error("exception directly happens while readStream, fall back to legacy blob store", e);
+            return Flux.defer(() -> legacyBlobStore.readStream(bucketName, blobId));
+        }
+    }
+
+    @Override
+    public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+        try {
+            return readRangeFallBackIfFails(bucketName, blobId, offset, length);
+        } catch (Exception e) {
+            LOGGER.error("exception directly happens while readRange, fall back to legacy blob store", e);
+            return Flux.defer(() -> legacyBlobStore.readRange(bucketName, blobId, offset, length));
+        }
+    }
+
+    /**
+     * Blobs are read at once from the current blob store. Should some of them be missing there, each blob is read
+     * on its own, falling back to the legacy blob store.
+     */
+    @Override
+    public Mono<Map<BlobId, byte[]>> readBatch(BucketName bucketName, Collection<BlobId> blobIds) {
+        return Mono.defer(() -> currentBlobStore.readBatch(bucketName, blobIds))
+            .onErrorResume(e -> {
+                if (!(e instanceof ObjectNotFoundException)) {
+                    LOGGER.error("error happens from current blob store, fall back to reading blobs one by one", e);
+                }
+                return BlobStore.super.readBatch(bucketName, blobIds);
+            });
+    }
+
+    @Override
+    public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+        return Flux.concat(
+            Flux.defer(() -> currentBlobStore.listBlobs(bucketName, writtenBefore)),
+            Flux.defer(() -> legacyBlobStore.listBlobs(bucketName, writtenBefore)));
+    }
+
     @Override
     public Mono<Void> deleteBucket(BucketName bucketName) {
         return Mono.defer(() -> currentBlobStore.deleteBucket(bucketName))
@@ -187,6 +235,20 @@ public class UnionBlobStore implements BlobStore {
             .switchIfEmpty(legacyBlobStore.readBytes(bucketName, blobId));
     }
 
+    private Flux<ByteBuffer> readStreamFallBackIfFailsOrEmptyResult(BucketName bucketName, BlobId blobId) {
+        return Flux.defer(() -> currentBlobStore.readStream(bucketName, blobId))
+            .onErrorResume(this::logAndReturnEmpty)
+            .switchIfEmpty(Flux.defer(() -> legacyBlobStore.readStream(bucketName, blobId)));
+    }
+
+    private Flux<ByteBuffer> readRangeFallBackIfFails(BucketName bucketName, BlobId blobId, long offset, long length) {
+        return Flux.defer(() -> currentBlobStore.readRange(bucketName, blobId, offset, length))
+            .onErrorResume(e -> {
+                LOGGER.error("error happens from current blob store, fall back to legacy blob store", e);
+                return legacyBlobStore.readRange(bucketName, blobId, offset, length);
+            });
+    }
+
     private <T> Mono<BlobId> saveToCurrentFallbackIfFails(
         BucketName bucketName,
         T data,
@@ -26,7 +26,10 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -50,6 +53,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 class UnionBlobStoreTest implements BlobStoreContract {
@@ -86,6 +90,21 @@ class UnionBlobStoreTest implements BlobStoreContract {
             throw new RuntimeException("broken everywhere");
         }
 
+        @Override
+        public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+            return Flux.error(new RuntimeException("broken everywhere"));
+        }
+
+        @Override
+        public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+            return Flux.error(new RuntimeException("broken everywhere"));
+        }
+
+        @Override
+        public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+            return Flux.error(new RuntimeException("broken everywhere"));
+        }
+
         @Override
         public Mono<Void> deleteBucket(BucketName bucketName) {
             return Mono.error(new RuntimeException("broken everywhere"));
@@ -135,6 +154,21 @@ class UnionBlobStoreTest implements BlobStoreContract {
             throw new RuntimeException("broken everywhere");
         }
 
+        @Override
+        public Flux<ByteBuffer> readStream(BucketName bucketName, BlobId blobId) {
+            throw new RuntimeException("broken everywhere");
+        }
+
+        @Override
+        public Flux<ByteBuffer> readRange(BucketName bucketName, BlobId blobId, long offset, long length) {
+            throw new RuntimeException("broken everywhere");
+        }
+
+        @Override
+        public Flux<BlobId> listBlobs(BucketName bucketName, Instant writtenBefore) {
+            throw new RuntimeException("broken everywhere");
+        }
+
         @Override
         public Mono<Void> deleteBucket(BucketName bucketName) {
             return Mono.error(new RuntimeException("broken everywhere"));
@@ -155,6 +189,7 @@ class UnionBlobStoreTest implements BlobStoreContract {
     private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
     private static final String STRING_CONTENT = "blob content";
     private static final byte [] BLOB_CONTENT = STRING_CONTENT.getBytes();
+    private static final byte [] ANOTHER_BLOB_CONTENT = "another blob content".getBytes();
 
     private MemoryBlobStore currentBlobStore;
     private MemoryBlobStore legacyBlobStore;
@@ -420,6 +455,18 @@ class UnionBlobStoreTest implements BlobStoreContract {
             .isEqualTo(BLOB_CONTENT);
     }
 
+    @Test
+    void readBatchShouldReturnFromBothCurrentAndLegacy() {
+        BlobId legacyBlobId = legacyBlobStore.save(unionBlobStore.getDefaultBucketName(), BLOB_CONTENT).block();
+        BlobId currentBlobId = currentBlobStore.save(unionBlobStore.getDefaultBucketName(), ANOTHER_BLOB_CONTENT).block();
+
+        Map<BlobId, byte[]> contents = unionBlobStore.readBatch(unionBlobStore.getDefaultBucketName(),
+            ImmutableList.of(legacyBlobId, currentBlobId)).block();
+
+        assertThat(contents.get(legacyBlobId)).isEqualTo(BLOB_CONTENT);
+        assertThat(contents.get(currentBlobId)).isEqualTo(ANOTHER_BLOB_CONTENT);
+    }
+
     @Test
     void saveShouldWriteToCurrent() {
         BlobId blobId = unionBlobStore.save(unionBlobStore.getDefaultBucketName(), BLOB_CONTENT).block();
@@ -0,0 +1,414 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.mail.internet.AddressException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.mailet.Attribute;
+import org.apache.mailet.AttributeName;
+import org.apache.mailet.AttributeValue;
+import org.apache.mailet.Mail;
+import org.apache.mailet.PerRecipientHeaders;
+import org.apache.mailet.PerRecipientHeaders.Header;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Compact binary codec for the envelope, state and attributes of a {@link Mail}. The message itself is not encoded.
+ *
+ * This is an alternative to the Java serialization of {@link MailImpl} that avoids the class descriptors and the Json
+ * representation of each attribute. Attribute values of the mailet-api built in types (booleans, strings, numbers,
+ * URLs, collections, maps and optionals) get a binary representation, other values fallback to their Json
+ * representation.
+ *
+ * The encoding starts with a magic number followed by a version, so that:
+ *
+ *  - entries written by older versions of James using Java serialization can still be decoded by {@link #decode(InputStream)}
+ *  - the format can evolve, each version being decoded on its own.
+ */
+public class MailImplCodec {
+    public static final byte VERSION = 1;
+
+    private static final byte[] MAGIC = {'J', 'M'};
+    private static final short JAVA_SERIALIZATION_MAGIC = (short) 0xACED;
+    private static final int NULL_LENGTH = -1;
+
+    private static final byte BOOLEAN = 1;
+    private static final byte STRING = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte FLOAT = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte URL = 7;
+    private static final byte COLLECTION = 8;
+    private static final byte MAP = 9;
+    private static final byte OPTIONAL = 10;
+    private static final byte JSON = 11;
+
+    public static byte[] encode(Mail mail) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        encode(mail, bytes);
+        return bytes.toByteArray();
+    }
+
+    public static void encode(Mail mail, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+
+        writeString(out, mail.getName());
+        writeString(out, mail.getMaybeSender().asOptional().map(MailAddress::asString).orElse(null));
+        writeAddresses(out, mail.getRecipients());
+        writeString(out, mail.getState());
+        writeString(out, mail.getErrorMessage());
+        writeString(out, mail.getRemoteHost());
+        writeString(out, mail.getRemoteAddr());
+        writeDate(out, mail.getLastUpdated());
+        writeAttributes(out, mail.attributes().collect(ImmutableList.toImmutableList()));
+        writePerRecipientHeaders(out, mail.getPerRecipientSpecificHeaders());
+        out.flush();
+    }
+
+    public static MailImpl decode(byte[] bytes) throws IOException {
+        return decode(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Decodes a {@link MailImpl} written by {@link #encode(Mail, OutputStream)}, or by Java serialization.
+     */
+    public static MailImpl decode(InputStream inputStream) throws IOException {
+        InputStream in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        in.mark(Short.BYTES);
+        DataInputStream data = new DataInputStream(in);
+        short magic = data.readShort();
+        if (magic == JAVA_SERIALIZATION_MAGIC) {
+            in.reset();
+            return decodeJavaSerialized(in);
+        }
+        if (magic != (short) ((MAGIC[0] << 8) | MAGIC[1])) {
+            throw new StreamCorruptedException("Unknown mail encoding " + Integer.toHexString(magic & 0xFFFF));
+        }
+
+        byte version = data.readByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported mail encoding version " + version);
+        }
+        return decodeVersion1(data);
+    }
+
+    private static MailImpl decodeJavaSerialized(InputStream in) throws IOException {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(in)) {
+            return asMailImpl((Mail) objectInputStream.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unable to read Java serialized mail", e);
+        }
+    }
+
+    private static MailImpl asMailImpl(Mail mail) {
+        if (mail instanceof MailImpl) {
+            return (MailImpl) mail;
+        }
+        return MailImpl.builder()
+            .name(mail.getName())
+            .sender(mail.getMaybeSender())
+            .addRecipients(mail.getRecipients())
+            .state(mail.getState())
+            .errorMessage(mail.getErrorMessage())
+            .remoteHost(mail.getRemoteHost())
+            .remoteAddr(mail.getRemoteAddr())
+            .lastUpdated(mail.getLastUpdated())
+            .addAttributes(mail.attributes().collect(ImmutableList.toImmutableList()))
+            .addAllHeadersForRecipients(mail.getPerRecipientSpecificHeaders())
+            .build();
+    }
+
+    private static MailImpl decodeVersion1(DataInputStream in) throws IOException {
+        return MailImpl.builder()
+            .name(readString(in))
+            .sender(Optional.ofNullable(readString(in)).map(MailImplCodec::asMailAddress))
+            .addRecipients(readAddresses(in))
+            .state(readString(in))
+            .errorMessage(readString(in))
+            .remoteHost(readString(in))
+            .remoteAddr(readString(in))
+            .lastUpdated(readDate(in))
+            .addAttributes(readAttributes(in))
+            .addAllHeadersForRecipients(readPerRecipientHeaders(in))
+            .build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeAddresses(DataOutputStream out, Collection<MailAddress> addresses) throws IOException {
+        out.writeInt(addresses.size());
+        for (MailAddress address : addresses) {
+            writeString(out, address.asString());
+        }
+    }
+
+    private static List<MailAddress> readAddresses(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ImmutableList.Builder<MailAddress> addresses = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            addresses.add(asMailAddress(readString(in)));
+        }
+        return addresses.build();
+    }
+
+    private static MailAddress asMailAddress(String address) {
+        try {
+            return new MailAddress(address);
+        } catch (AddressException e) {
+            throw new IllegalArgumentException("Invalid mail address " + address, e);
+        }
+    }
+
+    private static void writeDate(DataOutputStream out, Date date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.getTime());
+        }
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        if (in.readBoolean()) {
+            return new Date(in.readLong());
+        }
+        return null;
+    }
+
+    private static void writeAttributes(DataOutputStream out, List<Attribute> attributes) throws IOException {
+        out.writeInt(attributes.size());
+        for (Attribute attribute : attributes) {
+            writeString(out, attribute.getName().asString());
+            writeAttributeValue(out, attribute.getValue());
+        }
+    }
+
+    private static List<Attribute> readAttributes(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ImmutableList.Builder<Attribute> attributes = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            attributes.add(new Attribute(AttributeName.of(readString(in)), readAttributeValue(in)));
+        }
+        return attributes.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeAttributeValue(DataOutputStream out, AttributeValue<?> attributeValue) throws IOException {
+        Object value = attributeValue.value();
+        if (!hasBinaryRepresentation(attributeValue)) {
+            out.writeByte(JSON);
+            writeString(out, attributeValue.toJson().toString());
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof URL) {
+            out.writeByte(URL);
+            writeString(out, value.toString());
+        } else if (value instanceof Collection) {
+            Collection<AttributeValue<?>> values = (Collection<AttributeValue<?>>) value;
+            out.writeByte(COLLECTION);
+            out.writeInt(values.size());
+            for (AttributeValue<?> element : values) {
+                writeAttributeValue(out, element);
+            }
+        } else if (value instanceof Map) {
+            Map<String, AttributeValue<?>> values = (Map<String, AttributeValue<?>>) value;
+            out.writeByte(MAP);
+            out.writeInt(values.size());
+            for (Map.Entry<String, AttributeValue<?>> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeAttributeValue(out, entry.getValue());
+            }
+        } else {
+            Optional<AttributeValue<?>> optional = (Optional<AttributeValue<?>>) value;
+            out.writeByte(OPTIONAL);
+            out.writeBoolean(optional.isPresent());
+            if (optional.isPresent()) {
+                writeAttributeValue(out, optional.get());
+            }
+        }
+    }
+
+    /**
+     * Values of other types, as well as collections, maps and optionals holding anything else than
+     * {@link AttributeValue}'s, are Json encoded.
+     */
+    private static boolean hasBinaryRepresentation(AttributeValue<?> attributeValue) {
+        Object value = attributeValue.value();
+        boolean builtInType = value instanceof Boolean || value instanceof String || value instanceof Integer
+            || value instanceof Long || value instanceof Float || value instanceof Double || value instanceof URL
+            || value instanceof Collection || value instanceof Map || value instanceof Optional;
+
+        return builtInType && containsOnlyAttributeValues(value);
+    }
+
+    private static boolean containsOnlyAttributeValues(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).stream().allMatch(AttributeValue.class::isInstance);
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).entrySet().stream()
+                .allMatch(entry -> entry.getKey() instanceof String && entry.getValue() instanceof AttributeValue);
+        }
+        if (value instanceof Optional) {
+            return ((Optional<?>) value).map(AttributeValue.class::isInstance).orElse(true);
+        }
+        return true;
+    }
+
+    private static AttributeValue<?> readAttributeValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case BOOLEAN:
+                return AttributeValue.of(in.readBoolean());
+            case STRING:
+                return AttributeValue.of(readString(in));
+            case INT:
+                return AttributeValue.of(in.readInt());
+            case LONG:
+                return AttributeValue.of(in.readLong());
+            case FLOAT:
+                return AttributeValue.of(in.readFloat());
+            case DOUBLE:
+                return AttributeValue.of(in.readDouble());
+            case URL:
+                return AttributeValue.of(new URL(readString(in)));
+            case COLLECTION:
+                return AttributeValue.of(readCollection(in));
+            case MAP:
+                return AttributeValue.of(readMap(in));
+            case OPTIONAL:
+                return AttributeValue.of(readOptional(in));
+            case JSON:
+                return AttributeValue.fromJsonString(readString(in));
+            default:
+                throw new StreamCorruptedException("Unknown attribute value type " + type);
+        }
+    }
+
+    private static Collection<AttributeValue<?>> readCollection(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ImmutableList.Builder<AttributeValue<?>> values = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            values.add(readAttributeValue(in));
+        }
+        return values.build();
+    }
+
+    private static Map<String, AttributeValue<?>> readMap(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ImmutableMap.Builder<String, AttributeValue<?>> values = ImmutableMap.builder();
+        for (int i = 0; i < count; i++) {
+            values.put(readString(in), readAttributeValue(in));
+        }
+        return values.build();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Optional<AttributeValue<Object>> readOptional(DataInputStream in) throws IOException {
+        if (in.readBoolean()) {
+            return Optional.of((AttributeValue) readAttributeValue(in));
+        }
+        return Optional.empty();
+    }
+
+    private static void writePerRecipientHeaders(DataOutputStream out, PerRecipientHeaders perRecipientHeaders) throws IOException {
+        Map<MailAddress, Collection<Header>> headersByRecipient = perRecipientHeaders.getHeadersByRecipient().asMap();
+        out.writeInt(headersByRecipient.size());
+        for (Map.Entry<MailAddress, Collection<Header>> entry : headersByRecipient.entrySet()) {
+            writeString(out, entry.getKey().asString());
+            out.writeInt(entry.getValue().size());
+            for (Header header : entry.getValue()) {
+                writeString(out, header.getName());
+                writeString(out, header.getValue());
+            }
+        }
+    }
+
+    private static PerRecipientHeaders readPerRecipientHeaders(DataInputStream in) throws IOException {
+        PerRecipientHeaders perRecipientHeaders = new PerRecipientHeaders();
+        int recipientCount = in.readInt();
+        for (int i = 0; i < recipientCount; i++) {
+            MailAddress recipient = asMailAddress(readString(in));
+            int headerCount = in.readInt();
+            for (int j = 0; j < headerCount; j++) {
+                perRecipientHeaders.addHeaderForRecipient(Header.builder()
+                    .name(readString(in))
+                    .value(readString(in)), recipient);
+            }
+        }
+        return perRecipientHeaders;
+    }
+}
@@ -39,6 +39,7 @@ import org.apache.james.lifecycle.api.Disposable;
  * Takes an input stream and creates a repeatable input stream source for a
  * MimeMessageWrapper. It does this by completely reading the input stream and
  * saving that to data to an {@link DeferredFileOutputStream} with its threshold set to 100kb
+ * unless specified otherwise
  */
 public class MimeMessageInputStreamSource extends MimeMessageSource implements Disposable {
 
@@ -57,7 +58,12 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
     /**
      * 100kb threshold for the stream.
      */
-    private static final int THRESHOLD = 1024 * 100;
+    public static final int DEFAULT_THRESHOLD = 1024 * 100;
+
+    /**
+     * Content held in memory, shared by the input streams as long as nothing is written
+     */
+    private byte[] data;
 
     /**
      * Temporary directory to use
@@ -77,7 +83,7 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
         // We want to immediately read this into a temporary file
         // Create a temp file and channel the input stream into it
         try {
-            out = new DeferredFileOutputStream(THRESHOLD, "mimemessage-" + key, ".m64", TMPDIR);
+            out = new DeferredFileOutputStream(DEFAULT_THRESHOLD, "mimemessage-" + key, ".m64", TMPDIR);
             IOUtils.copy(in, out);
             sourceId = key;
         } catch (IOException ioe) {
@@ -107,8 +113,19 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
     }
 
     public MimeMessageInputStreamSource(String key) {
+        this(key, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Construct a new empty MimeMessageInputStreamSource, to be filled through
+     * {@link #getWritableOutputStream()}.
+     *
+     * @param key       the prefix for the name of the temp file
+     * @param threshold the number of bytes above which the data is written to a temp file
+     */
+    public MimeMessageInputStreamSource(String key, int threshold) {
         super();
-        out = new DeferredFileOutputStream(THRESHOLD, key, ".m64", TMPDIR);
+        out = new DeferredFileOutputStream(threshold, key, ".m64", TMPDIR);
         sourceId = key;
     }
 
@@ -131,7 +148,7 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
     public synchronized InputStream getInputStream() throws IOException {
         InputStream in;
         if (out.isInMemory()) {
-            in = new SharedByteArrayInputStream(out.getData());
+            in = new SharedByteArrayInputStream(getData());
         } else {
             in = new SharedFileInputStream(out.getFile());
         }
@@ -139,6 +156,16 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
         return in;
     }
 
+    /**
+     * Copying the data is avoided as long as its size is unchanged, as the output stream only supports appending.
+     */
+    private byte[] getData() {
+        if (data == null || data.length != out.getByteCount()) {
+            data = out.getData();
+        }
+        return data;
+    }
+
     /**
      * Get the size of the temp file
      *
@@ -179,6 +206,7 @@ public class MimeMessageInputStreamSource extends MimeMessageSource implements D
             }
             out = null;
         }
+        data = null;
     }
 
 }
@@ -0,0 +1,203 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.server.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.net.URL;
+import java.util.Date;
+import java.util.Optional;
+
+import org.apache.james.core.MailAddress;
+import org.apache.mailet.Attribute;
+import org.apache.mailet.AttributeName;
+import org.apache.mailet.AttributeValue;
+import org.apache.mailet.Mail;
+import org.apache.mailet.PerRecipientHeaders;
+import org.apache.mailet.base.MailAddressFixture;
+import org.apache.mailet.base.test.FakeMail;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+class MailImplCodecTest {
+    private static final Date LAST_UPDATED = new Date(1573826400000L);
+
+    @Test
+    void decodeShouldReturnEncodedEnvelope() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .sender(MailAddressFixture.SENDER)
+            .addRecipients(MailAddressFixture.RECIPIENT1, MailAddressFixture.RECIPIENT2)
+            .state(Mail.TRANSPORT)
+            .errorMessage("error")
+            .remoteHost("remote.host")
+            .remoteAddr("10.0.0.1")
+            .lastUpdated(LAST_UPDATED)
+            .build();
+
+        MailImpl decoded = MailImplCodec.decode(MailImplCodec.encode(mail));
+
+        assertThat(decoded.getName()).isEqualTo("mail-id");
+        assertThat(decoded.getMaybeSender()).isEqualTo(mail.getMaybeSender());
+        assertThat(decoded.getRecipients()).containsExactly(MailAddressFixture.RECIPIENT1, MailAddressFixture.RECIPIENT2);
+        assertThat(decoded.getState()).isEqualTo(Mail.TRANSPORT);
+        assertThat(decoded.getErrorMessage()).isEqualTo("error");
+        assertThat(decoded.getRemoteHost()).isEqualTo("remote.host");
+        assertThat(decoded.getRemoteAddr()).isEqualTo("10.0.0.1");
+        assertThat(decoded.getLastUpdated()).isEqualTo(LAST_UPDATED);
+    }
+
+    @Test
+    void decodeShouldHandleNullSender() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .sender(MailAddress.nullSender())
+            .build();
+
+        assertThat(MailImplCodec.decode(MailImplCodec.encode(mail)).getMaybeSender().isNullSender())
+            .isTrue();
+    }
+
+    @Test
+    void decodeShouldReturnEncodedAttributes() throws Exception {
+        ImmutableList<Attribute> attributes = ImmutableList.of(
+            new Attribute(AttributeName.of("boolean"), AttributeValue.of(true)),
+            new Attribute(AttributeName.of("string"), AttributeValue.of("value")),
+            new Attribute(AttributeName.of("int"), AttributeValue.of(42)),
+            new Attribute(AttributeName.of("long"), AttributeValue.of(42L)),
+            new Attribute(AttributeName.of("float"), AttributeValue.of(4.2f)),
+            new Attribute(AttributeName.of("double"), AttributeValue.of(4.2d)),
+            new Attribute(AttributeName.of("url"), AttributeValue.of(new URL("http://james.apache.org"))),
+            new Attribute(AttributeName.of("collection"), AttributeValue.of(ImmutableList.of(AttributeValue.of("a"), AttributeValue.of(1)))),
+            new Attribute(AttributeName.of("map"), AttributeValue.of(ImmutableMap.of("key", AttributeValue.of("value")))),
+            new Attribute(AttributeName.of("optional"), AttributeValue.of(Optional.of(AttributeValue.of("value")))),
+            new Attribute(AttributeName.of("emptyOptional"), AttributeValue.of(Optional.empty())));
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .addAttributes(attributes)
+            .build();
+
+        assertThat(MailImplCodec.decode(MailImplCodec.encode(mail)).attributes())
+            .containsExactlyInAnyOrderElementsOf(attributes);
+    }
+
+    @Test
+    void decodeShouldReturnAttributesFallingBackToJson() throws Exception {
+        Attribute serializable = new Attribute(AttributeName.of("serializable"), AttributeValue.ofSerializable(new Date(42)));
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .addAttribute(serializable)
+            .build();
+
+        assertThat(MailImplCodec.decode(MailImplCodec.encode(mail)).attributes())
+            .containsExactly(serializable);
+    }
+
+    @Test
+    void decodeShouldReturnEncodedPerRecipientHeaders() throws Exception {
+        PerRecipientHeaders.Header header = PerRecipientHeaders.Header.builder()
+            .name("X-Header")
+            .value("value")
+            .build();
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .addHeaderForRecipient(header, MailAddressFixture.RECIPIENT1)
+            .build();
+
+        assertThat(MailImplCodec.decode(MailImplCodec.encode(mail)).getPerRecipientSpecificHeaders())
+            .isEqualTo(mail.getPerRecipientSpecificHeaders());
+    }
+
+    @Test
+    void encodeShouldAcceptOtherMailImplementations() throws Exception {
+        FakeMail mail = FakeMail.builder()
+            .name("mail-id")
+            .sender(MailAddressFixture.SENDER)
+            .recipient(MailAddressFixture.RECIPIENT1)
+            .attribute(new Attribute(AttributeName.of("name"), AttributeValue.of("value")))
+            .build();
+
+        MailImpl decoded = MailImplCodec.decode(MailImplCodec.encode(mail));
+
+        assertThat(decoded.getName()).isEqualTo("mail-id");
+        assertThat(decoded.getRecipients()).containsExactly(MailAddressFixture.RECIPIENT1);
+        assertThat(decoded.getAttribute(AttributeName.of("name"))).contains(new Attribute(AttributeName.of("name"), AttributeValue.of("value")));
+    }
+
+    @Test
+    void decodeShouldReadJavaSerializedMails() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .sender(MailAddressFixture.SENDER)
+            .addRecipient(MailAddressFixture.RECIPIENT1)
+            .addAttribute(new Attribute(AttributeName.of("name"), AttributeValue.of("value")))
+            .lastUpdated(LAST_UPDATED)
+            .build();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(mail);
+        }
+
+        MailImpl decoded = MailImplCodec.decode(bytes.toByteArray());
+
+        assertThat(decoded.getName()).isEqualTo("mail-id");
+        assertThat(decoded.getMaybeSender()).isEqualTo(mail.getMaybeSender());
+        assertThat(decoded.getRecipients()).containsExactly(MailAddressFixture.RECIPIENT1);
+        assertThat(decoded.getLastUpdated()).isEqualTo(LAST_UPDATED);
+        assertThat(decoded.attributes()).containsExactly(new Attribute(AttributeName.of("name"), AttributeValue.of("value")));
+    }
+
+    @Test
+    void decodeShouldThrowOnUnknownEncoding() {
+        assertThatThrownBy(() -> MailImplCodec.decode(new byte[] {'X', 'X', 1}))
+            .isInstanceOf(StreamCorruptedException.class);
+    }
+
+    @Test
+    void decodeShouldThrowOnUnknownVersion() throws Exception {
+        byte[] encoded = MailImplCodec.encode(MailImpl.builder().name("mail-id").build());
+        encoded[2] = 42;
+
+        assertThatThrownBy(() -> MailImplCodec.decode(encoded))
+            .isInstanceOf(StreamCorruptedException.class);
+    }
+
+    @Test
+    void encodeShouldBeMoreCompactThanJavaSerialization() throws Exception {
+        MailImpl mail = MailImpl.builder()
+            .name("mail-id")
+            .sender(MailAddressFixture.SENDER)
+            .addRecipients(MailAddressFixture.RECIPIENT1, MailAddressFixture.RECIPIENT2)
+            .addAttribute(new Attribute(AttributeName.of("name"), AttributeValue.of("value")))
+            .build();
+        ByteArrayOutputStream javaSerialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(javaSerialized)) {
+            out.writeObject(mail);
+        }
+
+        assertThat(MailImplCodec.encode(mail).length).isLessThan(javaSerialized.size());
+    }
+}
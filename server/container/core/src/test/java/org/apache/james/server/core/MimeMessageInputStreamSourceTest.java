@@ -18,9 +18,12 @@
  ****************************************************************/
 package org.apache.james.server.core;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import javax.mail.MessagingException;
 
@@ -57,4 +60,25 @@ public class MimeMessageInputStreamSourceTest {
         testee = new MimeMessageInputStreamSource(veryShortName, new ZeroedInputStream(_1M));
         assertThat(testee.getInputStream()).isNotNull();
     }
+
+    @Test
+    public void streamAboveThresholdShouldBeReadable() throws IOException {
+        testee = new MimeMessageInputStreamSource("myKey", _10KB);
+        OutputStream out = testee.getWritableOutputStream();
+        out.write(new byte[_1M]);
+        out.close();
+
+        assertThat(testee.getInputStream()).hasSameContentAs(new ZeroedInputStream(_1M));
+    }
+
+    @Test
+    public void inputStreamShouldReflectDataWrittenAfterAPreviousRead() throws IOException {
+        testee = new MimeMessageInputStreamSource("myKey");
+        OutputStream out = testee.getWritableOutputStream();
+        out.write("first".getBytes(UTF_8));
+        testee.getInputStream();
+        out.write(" second".getBytes(UTF_8));
+
+        assertThat(testee.getInputStream()).hasSameContentAs(new ByteArrayInputStream("first second".getBytes(UTF_8)));
+    }
 }
@@ -0,0 +1,47 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.blobstore;
+
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.gc.BlobGarbageCollectionTask;
+import org.apache.james.blob.gc.BlobGarbageCollector;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.routes.BlobGarbageCollectionRoutes;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Scopes;
+import com.google.inject.multibindings.Multibinder;
+
+/**
+ * Exposes the collection of unreferenced blobs. The mailbox, the mail queue and the mail repositories register
+ * their {@link BlobReferenceSource} in their own modules.
+ */
+public class BlobGarbageCollectionModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        Multibinder.newSetBinder(binder(), BlobReferenceSource.class);
+
+        bind(BlobGarbageCollector.class).in(Scopes.SINGLETON);
+        bind(BlobGarbageCollectionTask.Factory.class).in(Scopes.SINGLETON);
+        bind(BlobGarbageCollectionRoutes.class).in(Scopes.SINGLETON);
+
+        Multibinder.newSetBinder(binder(), Routes.class).addBinding().to(BlobGarbageCollectionRoutes.class);
+    }
+}
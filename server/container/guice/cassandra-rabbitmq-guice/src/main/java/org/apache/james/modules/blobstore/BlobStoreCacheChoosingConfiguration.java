@@ -0,0 +1,182 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.blobstore;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.cache.BlobCacheConfiguration;
+import org.apache.james.blob.cassandra.cache.CassandraCacheConfiguration;
+import org.apache.james.util.DurationParser;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+public class BlobStoreCacheChoosingConfiguration {
+
+    public enum CacheImplName {
+        LOCAL("local"),
+        CASSANDRA("cassandra");
+
+        static String supportedImplNames() {
+            return Stream.of(CacheImplName.values())
+                .map(CacheImplName::getName)
+                .collect(Collectors.joining(", "));
+        }
+
+        static CacheImplName from(String name) {
+            return Stream.of(values())
+                .filter(cacheName -> cacheName.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("%s is not a valid name of BlobStore caches, " +
+                    "please use one of supported values in: %s", name, supportedImplNames())));
+        }
+
+        private final String name;
+
+        CacheImplName(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    static final String ENABLED_PROPERTY = "cache.enable";
+    static final String IMPLEMENTATION_PROPERTY = "cache.implementation";
+    static final String SIZE_THRESHOLD_PROPERTY = "cache.sizeThresholdInBytes";
+    static final String POPULATE_ON_WRITE_PROPERTY = "cache.populateOnWrite";
+    static final String BUCKETS_PROPERTY = "cache.buckets";
+    static final String LOCAL_DIRECTORY_PROPERTY = "cache.local.directory";
+    static final String LOCAL_SIZE_PROPERTY = "cache.local.sizeInBytes";
+    static final String CASSANDRA_TTL_PROPERTY = "cache.cassandra.ttl";
+    static final String DEFAULT_LOCAL_DIRECTORY = "file://var/blobCache";
+    static final long DEFAULT_LOCAL_SIZE_IN_BYTES = 1024L * 1024 * 1024;
+
+    static Optional<BlobStoreCacheChoosingConfiguration> from(Configuration configuration) {
+        if (!configuration.getBoolean(ENABLED_PROPERTY, false)) {
+            return Optional.empty();
+        }
+        CacheImplName implementation = Optional.ofNullable(configuration.getString(IMPLEMENTATION_PROPERTY))
+            .filter(StringUtils::isNotBlank)
+            .map(StringUtils::trim)
+            .map(CacheImplName::from)
+            .orElse(CacheImplName.LOCAL);
+        ImmutableSet<BucketName> cachedBuckets = Arrays.stream(configuration.getStringArray(BUCKETS_PROPERTY))
+            .map(StringUtils::trim)
+            .filter(StringUtils::isNotEmpty)
+            .map(BucketName::of)
+            .collect(ImmutableSet.toImmutableSet());
+        BlobCacheConfiguration cacheConfiguration = BlobCacheConfiguration.builder()
+            .sizeThresholdInBytes(configuration.getLong(SIZE_THRESHOLD_PROPERTY, BlobCacheConfiguration.DEFAULT_SIZE_THRESHOLD_IN_BYTES))
+            .populateOnWrite(configuration.getBoolean(POPULATE_ON_WRITE_PROPERTY, implementation == CacheImplName.CASSANDRA))
+            .cachedBuckets(cachedBuckets)
+            .build();
+        CassandraCacheConfiguration cassandraConfiguration = Optional.ofNullable(configuration.getString(CASSANDRA_TTL_PROPERTY))
+            .map(ttl -> DurationParser.parse(ttl, ChronoUnit.SECONDS))
+            .map(CassandraCacheConfiguration::new)
+            .orElse(CassandraCacheConfiguration.DEFAULT);
+
+        return Optional.of(new BlobStoreCacheChoosingConfiguration(implementation, cacheConfiguration,
+            configuration.getString(LOCAL_DIRECTORY_PROPERTY, DEFAULT_LOCAL_DIRECTORY),
+            configuration.getLong(LOCAL_SIZE_PROPERTY, DEFAULT_LOCAL_SIZE_IN_BYTES),
+            cassandraConfiguration));
+    }
+
+    private final CacheImplName implementation;
+    private final BlobCacheConfiguration cacheConfiguration;
+    private final String localDirectory;
+    private final long localSizeInBytes;
+    private final CassandraCacheConfiguration cassandraConfiguration;
+
+    BlobStoreCacheChoosingConfiguration(CacheImplName implementation, BlobCacheConfiguration cacheConfiguration,
+                                        String localDirectory, long localSizeInBytes,
+                                        CassandraCacheConfiguration cassandraConfiguration) {
+        Preconditions.checkArgument(localSizeInBytes > 0, "'%s' must be strictly positive", LOCAL_SIZE_PROPERTY);
+
+        this.implementation = implementation;
+        this.cacheConfiguration = cacheConfiguration;
+        this.localDirectory = localDirectory;
+        this.localSizeInBytes = localSizeInBytes;
+        this.cassandraConfiguration = cassandraConfiguration;
+    }
+
+    public CacheImplName getImplementation() {
+        return implementation;
+    }
+
+    public BlobCacheConfiguration getCacheConfiguration() {
+        return cacheConfiguration;
+    }
+
+    /**
+     * Directory holding the blobs cached locally, following the James file system format.
+     */
+    public String getLocalDirectory() {
+        return localDirectory;
+    }
+
+    public long getLocalSizeInBytes() {
+        return localSizeInBytes;
+    }
+
+    public CassandraCacheConfiguration getCassandraConfiguration() {
+        return cassandraConfiguration;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (o instanceof BlobStoreCacheChoosingConfiguration) {
+            BlobStoreCacheChoosingConfiguration that = (BlobStoreCacheChoosingConfiguration) o;
+
+            return Objects.equals(this.localSizeInBytes, that.localSizeInBytes)
+                && Objects.equals(this.implementation, that.implementation)
+                && Objects.equals(this.cacheConfiguration, that.cacheConfiguration)
+                && Objects.equals(this.localDirectory, that.localDirectory)
+                && Objects.equals(this.cassandraConfiguration, that.cassandraConfiguration);
+        }
+        return false;
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(implementation, cacheConfiguration, localDirectory, localSizeInBytes, cassandraConfiguration);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+            .add("implementation", implementation)
+            .add("cacheConfiguration", cacheConfiguration)
+            .add("localDirectory", localDirectory)
+            .add("localSizeInBytes", localSizeInBytes)
+            .add("cassandraConfiguration", cassandraConfiguration)
+            .toString();
+    }
+}
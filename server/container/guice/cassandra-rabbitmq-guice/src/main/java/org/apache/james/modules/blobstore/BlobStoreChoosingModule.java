@@ -20,6 +20,8 @@
 package org.apache.james.modules.blobstore;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Optional;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -30,16 +32,26 @@ import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.james.backends.cassandra.components.CassandraModule;
 import org.apache.james.blob.api.BlobStore;
 import org.apache.james.blob.api.MetricableBlobStore;
+import org.apache.james.blob.cache.BlobStoreCache;
+import org.apache.james.blob.cache.CachedBlobStore;
+import org.apache.james.blob.cache.LocalFileBlobStoreCache;
 import org.apache.james.blob.cassandra.CassandraBlobModule;
 import org.apache.james.blob.cassandra.CassandraBlobStore;
+import org.apache.james.blob.cassandra.cache.CassandraBlobCacheModule;
+import org.apache.james.blob.cassandra.cache.CassandraBlobStoreCache;
+import org.apache.james.blob.compression.BlobCompressionConfiguration;
+import org.apache.james.blob.compression.CompressedBlobStore;
 import org.apache.james.blob.objectstorage.ObjectStorageBlobStore;
 import org.apache.james.blob.union.UnionBlobStore;
+import org.apache.james.filesystem.api.FileSystem;
+import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.modules.mailbox.ConfigurationComponent;
 import org.apache.james.modules.objectstorage.ObjectStorageDependenciesModule;
 import org.apache.james.utils.PropertiesProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.Session;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
@@ -48,12 +60,16 @@ import com.google.inject.multibindings.Multibinder;
 public class BlobStoreChoosingModule extends AbstractModule {
     private static final Logger LOGGER = LoggerFactory.getLogger(BlobStoreChoosingModule.class);
 
+    static final String COMPRESSION_ENABLED_PROPERTY = "compression.enable";
+    static final String COMPRESSION_SIZE_THRESHOLD_PROPERTY = "compression.sizeThresholdInBytes";
+
     @Override
     protected void configure() {
         install(new ObjectStorageDependenciesModule());
 
         Multibinder<CassandraModule> cassandraDataDefinitions = Multibinder.newSetBinder(binder(), CassandraModule.class);
         cassandraDataDefinitions.addBinding().toInstance(CassandraBlobModule.MODULE);
+        cassandraDataDefinitions.addBinding().toInstance(CassandraBlobCacheModule.MODULE);
     }
 
     @VisibleForTesting
@@ -70,9 +86,78 @@ public class BlobStoreChoosingModule extends AbstractModule {
     }
 
     @VisibleForTesting
+    @Provides
+    @Singleton
+    Optional<BlobStoreCacheChoosingConfiguration> provideCacheConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            Configuration configuration = propertiesProvider.getConfigurations(ConfigurationComponent.NAMES);
+            return BlobStoreCacheChoosingConfiguration.from(configuration);
+        } catch (FileNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    @VisibleForTesting
+    @Provides
+    @Singleton
+    Optional<BlobCompressionConfiguration> provideCompressionConfiguration(PropertiesProvider propertiesProvider) throws ConfigurationException {
+        try {
+            Configuration configuration = propertiesProvider.getConfigurations(ConfigurationComponent.NAMES);
+            if (!configuration.getBoolean(COMPRESSION_ENABLED_PROPERTY, false)) {
+                return Optional.empty();
+            }
+            return Optional.of(new BlobCompressionConfiguration(configuration.getLong(COMPRESSION_SIZE_THRESHOLD_PROPERTY,
+                BlobCompressionConfiguration.DEFAULT_SIZE_THRESHOLD_IN_BYTES)));
+        } catch (FileNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
     @Provides
     @Named(MetricableBlobStore.BLOB_STORE_IMPLEMENTATION)
     @Singleton
+    BlobStore provideCachedBlobStore(@Named(CachedBlobStore.BACKEND) BlobStore backend,
+                                     Optional<BlobStoreCacheChoosingConfiguration> cacheConfiguration,
+                                     Provider<Session> sessionProvider,
+                                     FileSystem fileSystem, MetricFactory metricFactory) throws IOException {
+        if (!cacheConfiguration.isPresent()) {
+            return backend;
+        }
+        BlobStoreCacheChoosingConfiguration configuration = cacheConfiguration.get();
+        return new CachedBlobStore(backend, provideCache(configuration, sessionProvider, fileSystem),
+            configuration.getCacheConfiguration(), metricFactory);
+    }
+
+    private BlobStoreCache provideCache(BlobStoreCacheChoosingConfiguration configuration, Provider<Session> sessionProvider,
+                                        FileSystem fileSystem) throws IOException {
+        switch (configuration.getImplementation()) {
+            case LOCAL:
+                return new LocalFileBlobStoreCache(
+                    fileSystem.getFile(configuration.getLocalDirectory()),
+                    configuration.getLocalSizeInBytes());
+            case CASSANDRA:
+                return new CassandraBlobStoreCache(sessionProvider.get(), configuration.getCassandraConfiguration());
+            default:
+                throw new RuntimeException(String.format("can not get the right blobstore cache with configuration %s",
+                    configuration.toString()));
+        }
+    }
+
+    @Provides
+    @Named(CachedBlobStore.BACKEND)
+    @Singleton
+    BlobStore provideCompressedBlobStore(@Named(CompressedBlobStore.BACKEND) BlobStore backend,
+                                         Optional<BlobCompressionConfiguration> compressionConfiguration,
+                                         MetricFactory metricFactory) {
+        return compressionConfiguration
+            .<BlobStore>map(configuration -> new CompressedBlobStore(backend, configuration, metricFactory))
+            .orElse(backend);
+    }
+
+    @VisibleForTesting
+    @Provides
+    @Named(CompressedBlobStore.BACKEND)
+    @Singleton
     BlobStore provideBlobStore(BlobStoreChoosingConfiguration choosingConfiguration,
                                Provider<CassandraBlobStore> cassandraBlobStoreProvider,
                                Provider<ObjectStorageBlobStore> swiftBlobStoreProvider) {
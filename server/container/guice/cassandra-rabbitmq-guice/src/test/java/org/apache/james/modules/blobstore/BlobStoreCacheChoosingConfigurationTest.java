@@ -0,0 +1,157 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.modules.blobstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.apache.james.blob.api.BucketName;
+import org.apache.james.blob.cache.BlobCacheConfiguration;
+import org.apache.james.blob.cassandra.cache.CassandraCacheConfiguration;
+import org.apache.james.modules.blobstore.BlobStoreCacheChoosingConfiguration.CacheImplName;
+import org.junit.jupiter.api.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+
+class BlobStoreCacheChoosingConfigurationTest {
+
+    @Test
+    void shouldMatchBeanContract() {
+        EqualsVerifier.forClass(BlobStoreCacheChoosingConfiguration.class)
+            .verify();
+    }
+
+    @Test
+    void fromShouldReturnEmptyWhenCacheIsNotConfigured() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+
+        assertThat(BlobStoreCacheChoosingConfiguration.from(configuration)).isEmpty();
+    }
+
+    @Test
+    void fromShouldReturnEmptyWhenCacheIsDisabled() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", false);
+
+        assertThat(BlobStoreCacheChoosingConfiguration.from(configuration)).isEmpty();
+    }
+
+    @Test
+    void fromShouldReturnLocalCacheWithDefaultValuesWhenOnlyEnabled() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+
+        assertThat(BlobStoreCacheChoosingConfiguration.from(configuration))
+            .contains(new BlobStoreCacheChoosingConfiguration(CacheImplName.LOCAL,
+                BlobCacheConfiguration.DEFAULT,
+                BlobStoreCacheChoosingConfiguration.DEFAULT_LOCAL_DIRECTORY,
+                BlobStoreCacheChoosingConfiguration.DEFAULT_LOCAL_SIZE_IN_BYTES,
+                CassandraCacheConfiguration.DEFAULT));
+    }
+
+    @Test
+    void fromShouldReadConfiguredLocalCacheValues() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+        configuration.addProperty("cache.implementation", "local");
+        configuration.addProperty("cache.sizeThresholdInBytes", 1024);
+        configuration.addProperty("cache.buckets", "first");
+        configuration.addProperty("cache.buckets", "second");
+        configuration.addProperty("cache.local.directory", "file://var/cache");
+        configuration.addProperty("cache.local.sizeInBytes", 2048);
+
+        assertThat(BlobStoreCacheChoosingConfiguration.from(configuration))
+            .contains(new BlobStoreCacheChoosingConfiguration(CacheImplName.LOCAL,
+                BlobCacheConfiguration.builder()
+                    .sizeThresholdInBytes(1024)
+                    .cachedBucket(BucketName.of("first"))
+                    .cachedBucket(BucketName.of("second"))
+                    .build(),
+                "file://var/cache",
+                2048,
+                CassandraCacheConfiguration.DEFAULT));
+    }
+
+    @Test
+    void fromShouldPopulateOnWriteByDefaultWhenCassandraCache() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+        configuration.addProperty("cache.implementation", "cassandra");
+
+        assertThat(BlobStoreCacheChoosingConfiguration.from(configuration).get().getCacheConfiguration().isPopulateOnWrite())
+            .isTrue();
+    }
+
+    @Test
+    void fromShouldAllowDisablingPopulateOnWriteWhenCassandraCache() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+        configuration.addProperty("cache.implementation", "cassandra");
+        configuration.addProperty("cache.populateOnWrite", false);
+
+        assertThat(BlobStoreCacheChoosingConfiguration.from(configuration).get().getCacheConfiguration().isPopulateOnWrite())
+            .isFalse();
+    }
+
+    @Test
+    void fromShouldReadCassandraTtl() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+        configuration.addProperty("cache.implementation", "cassandra");
+        configuration.addProperty("cache.cassandra.ttl", "1 hour");
+
+        assertThat(BlobStoreCacheChoosingConfiguration.from(configuration).get().getCassandraConfiguration())
+            .isEqualTo(new CassandraCacheConfiguration(Duration.ofHours(1)));
+    }
+
+    @Test
+    void fromShouldThrowWhenUnknownImplementation() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+        configuration.addProperty("cache.implementation", "gabouzomeuh");
+
+        assertThatThrownBy(() -> BlobStoreCacheChoosingConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("gabouzomeuh is not a valid name of BlobStore caches, please use one of supported values in: local, cassandra");
+    }
+
+    @Test
+    void fromShouldThrowWhenNegativeSizeThreshold() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+        configuration.addProperty("cache.sizeThresholdInBytes", -1);
+
+        assertThatThrownBy(() -> BlobStoreCacheChoosingConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromShouldThrowWhenZeroLocalCacheSize() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("cache.enable", true);
+        configuration.addProperty("cache.local.sizeInBytes", 0);
+
+        assertThatThrownBy(() -> BlobStoreCacheChoosingConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
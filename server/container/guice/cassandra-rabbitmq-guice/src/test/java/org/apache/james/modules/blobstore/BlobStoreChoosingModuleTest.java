@@ -26,6 +26,7 @@ import static org.mockito.Mockito.mock;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.james.FakePropertiesProvider;
 import org.apache.james.blob.cassandra.CassandraBlobStore;
+import org.apache.james.blob.compression.BlobCompressionConfiguration;
 import org.apache.james.blob.objectstorage.ObjectStorageBlobStore;
 import org.apache.james.blob.union.UnionBlobStore;
 import org.apache.james.modules.blobstore.BlobStoreChoosingConfiguration.BlobStoreImplName;
@@ -156,4 +157,53 @@ class BlobStoreChoosingModuleTest {
             CASSANDRA_BLOBSTORE_PROVIDER, OBJECT_STORAGE_BLOBSTORE_PROVIDER))
             .isInstanceOf(UnionBlobStore.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void provideCompressionConfigurationShouldReturnEmptyWhenNoFile() throws Exception {
+        BlobStoreChoosingModule module = new BlobStoreChoosingModule();
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register("other_configuration_file", new PropertiesConfiguration())
+            .build();
+
+        assertThat(module.provideCompressionConfiguration(propertyProvider)).isEmpty();
+    }
+
+    @Test
+    void provideCompressionConfigurationShouldReturnEmptyWhenNotEnabled() throws Exception {
+        BlobStoreChoosingModule module = new BlobStoreChoosingModule();
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty("implementation", BlobStoreImplName.CASSANDRA.getName());
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThat(module.provideCompressionConfiguration(propertyProvider)).isEmpty();
+    }
+
+    @Test
+    void provideCompressionConfigurationShouldReturnDefaultThresholdWhenEnabled() throws Exception {
+        BlobStoreChoosingModule module = new BlobStoreChoosingModule();
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(BlobStoreChoosingModule.COMPRESSION_ENABLED_PROPERTY, true);
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThat(module.provideCompressionConfiguration(propertyProvider))
+            .contains(BlobCompressionConfiguration.DEFAULT);
+    }
+
+    @Test
+    void provideCompressionConfigurationShouldReturnConfiguredThreshold() throws Exception {
+        BlobStoreChoosingModule module = new BlobStoreChoosingModule();
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(BlobStoreChoosingModule.COMPRESSION_ENABLED_PROPERTY, true);
+        configuration.addProperty(BlobStoreChoosingModule.COMPRESSION_SIZE_THRESHOLD_PROPERTY, 1024);
+        FakePropertiesProvider propertyProvider = FakePropertiesProvider.builder()
+            .register(ConfigurationComponent.NAME, configuration)
+            .build();
+
+        assertThat(module.provideCompressionConfiguration(propertyProvider))
+            .contains(new BlobCompressionConfiguration(1024));
+    }
+}
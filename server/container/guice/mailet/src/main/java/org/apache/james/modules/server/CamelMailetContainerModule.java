@@ -39,7 +39,7 @@ import org.apache.james.mailetcontainer.impl.JamesMailSpooler;
 import org.apache.james.mailetcontainer.impl.JamesMailetContext;
 import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
 import org.apache.james.mailetcontainer.impl.camel.CamelCompositeProcessor;
-import org.apache.james.mailetcontainer.impl.camel.CamelMailetProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.server.core.configuration.ConfigurationProvider;
 import org.apache.james.transport.mailets.RemoveMimeHeader;
 import org.apache.james.transport.matchers.All;
@@ -189,13 +189,13 @@ public class CamelMailetContainerModule extends AbstractModule {
         private void checkProcessors() throws ConfigurationException {
             MailProcessor mailProcessor = Optional.ofNullable(camelCompositeProcessor.getProcessor("transport"))
                 .orElseThrow(() -> new RuntimeException("JMAP needs a transport processor"));
-            if (mailProcessor instanceof CamelMailetProcessor) {
-                List<MatcherMailetPair> matcherMailetPairs = ((CamelMailetProcessor) mailProcessor).getPairs();
+            if (mailProcessor instanceof AbstractStateMailetProcessor) {
+                List<MatcherMailetPair> matcherMailetPairs = ((AbstractStateMailetProcessor) mailProcessor).getPairs();
                 for (TransportProcessorCheck check : transportProcessorCheckSet) {
                     check.check(matcherMailetPairs);
                 }
             } else {
-                throw new RuntimeException("Can not perform checks as transport processor is not an instance of " + MailProcessor.class);
+                throw new RuntimeException("Can not perform checks as transport processor is not an instance of " + AbstractStateMailetProcessor.class);
             }
         }
 
@@ -25,6 +25,9 @@ import java.util.Optional;
 import java.util.Spliterator;
 import java.util.stream.Stream;
 
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -37,6 +40,29 @@ public class ReactorUtils {
         return new StreamInputStream(byteArrays.toStream(1));
     }
 
+    /**
+     * Lazily reads the stream as a sequence of buffers of at most bufferSize bytes, reading only upon
+     * downstream demand. An empty stream leads to an empty Flux. The stream is not closed.
+     */
+    public static Flux<ByteBuffer> toChunks(InputStream inputStream, int bufferSize) {
+        Preconditions.checkArgument(bufferSize > 0, "'bufferSize' must be strictly positive");
+
+        return Flux.generate(sink -> {
+            try {
+                byte[] buffer = new byte[bufferSize];
+                int readBytes = ByteStreams.read(inputStream, buffer, 0, bufferSize);
+                if (readBytes > 0) {
+                    sink.next(ByteBuffer.wrap(buffer, 0, readBytes));
+                }
+                if (readBytes < bufferSize) {
+                    sink.complete();
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        });
+    }
+
     private static  class StreamInputStream extends InputStream {
         private static final int NO_MORE_DATA = -1;
 
@@ -19,6 +19,7 @@
 package org.apache.james.util;
 
 import java.io.InputStream;
+import java.util.Arrays;
 
 public class ZeroedInputStream extends InputStream {
     public static final int RETURNED_VALUE = 0;
@@ -39,4 +40,20 @@ public class ZeroedInputStream extends InputStream {
         }
         return -1;
     }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (pos >= max) {
+            return -1;
+        }
+        int readBytes = Math.min(len, max - pos);
+        Arrays.fill(b, off, off + readBytes, (byte) RETURNED_VALUE);
+        pos += readBytes;
+        return readBytes;
+    }
+
+    @Override
+    public int available() {
+        return max - pos;
+    }
 }
\ No newline at end of file
@@ -19,10 +19,13 @@
 package org.apache.james.util;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -154,4 +157,54 @@ class ReactorUtilsTest {
             assertThat(generateElements.get()).isEqualTo(1);
         }
     }
+
+    @Nested
+    class ToChunks {
+        @Test
+        void givenAnEmptyStreamShouldReturnAnEmptyFlux() {
+            InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+
+            assertThat(ReactorUtils.toChunks(inputStream, 4).collectList().block())
+                .isEmpty();
+        }
+
+        @Test
+        void givenAStreamShouldSplitItInBuffersOfTheGivenSize() {
+            InputStream inputStream = new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.UTF_8));
+
+            assertThat(ReactorUtils.toChunks(inputStream, 4)
+                    .map(buffer -> StandardCharsets.UTF_8.decode(buffer).toString())
+                    .collectList()
+                    .block())
+                .containsExactly("0123", "4567", "89");
+        }
+
+        @Test
+        void givenAStreamWhichSizeIsAMultipleOfTheBufferSizeShouldNotEmitAnEmptyBuffer() {
+            InputStream inputStream = new ByteArrayInputStream("01234567".getBytes(StandardCharsets.UTF_8));
+
+            assertThat(ReactorUtils.toChunks(inputStream, 4)
+                    .map(buffer -> StandardCharsets.UTF_8.decode(buffer).toString())
+                    .collectList()
+                    .block())
+                .containsExactly("0123", "4567");
+        }
+
+        @Test
+        void shouldOnlyReadTheStreamUponRequest() {
+            ZeroedInputStream inputStream = new ZeroedInputStream(1000);
+
+            ReactorUtils.toChunks(inputStream, 10)
+                .take(3)
+                .blockLast();
+
+            assertThat(inputStream.available()).isEqualTo(970);
+        }
+
+        @Test
+        void shouldThrowOnNonPositiveBufferSize() {
+            assertThatThrownBy(() -> ReactorUtils.toChunks(new ByteArrayInputStream(new byte[0]), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
 }
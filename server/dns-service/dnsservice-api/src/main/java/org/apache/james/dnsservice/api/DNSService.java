@@ -22,6 +22,9 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Provides abstraction for DNS resolutions. The interface is Mail specific. It
  * may be a good idea to make the interface more generic or expose commonly
@@ -94,4 +97,52 @@ public interface DNSService {
      */
     String getHostName(InetAddress addr);
 
+    /**
+     * Reactive version of {@link #findMXRecords(String)}.
+     *
+     * The default implementation runs the blocking lookup on an elastic scheduler. Implementations should override it
+     * when they can resolve without blocking a thread, for instance from a cache.
+     *
+     * @return the handling servers, or a {@link TemporaryResolutionException} error on temporary problems
+     */
+    default Mono<Collection<String>> findMXRecordsReactive(String hostname) {
+        return Mono.fromCallable(() -> findMXRecords(hostname))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Reactive version of {@link #findTXTRecords(String)}.
+     */
+    default Mono<Collection<String>> findTXTRecordsReactive(String hostname) {
+        return Mono.fromCallable(() -> findTXTRecords(hostname))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Reactive version of {@link #getAllByName(String)}.
+     *
+     * @return the resolved addresses, or an {@link UnknownHostException} error if the host can not be resolved
+     */
+    default Mono<Collection<InetAddress>> getAllByNameReactive(String host) {
+        return Mono.fromCallable(() -> getAllByName(host))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Reactive version of {@link #getByName(String)}.
+     *
+     * @return the resolved address, or an {@link UnknownHostException} error if the host can not be resolved
+     */
+    default Mono<InetAddress> getByNameReactive(String host) {
+        return Mono.fromCallable(() -> getByName(host))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Reactive version of {@link #getHostName(InetAddress)}.
+     */
+    default Mono<String> getHostNameReactive(InetAddress addr) {
+        return Mono.fromCallable(() -> getHostName(addr))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
 }
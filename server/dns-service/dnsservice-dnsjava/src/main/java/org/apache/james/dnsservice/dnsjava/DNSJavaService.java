@@ -25,7 +25,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -37,6 +42,7 @@ import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.dnsservice.api.DNSServiceMBean;
 import org.apache.james.dnsservice.api.TemporaryResolutionException;
 import org.apache.james.lifecycle.api.Configurable;
+import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
 import org.slf4j.Logger;
@@ -49,24 +55,35 @@ import org.xbill.DNS.ExtendedResolver;
 import org.xbill.DNS.Lookup;
 import org.xbill.DNS.MXRecord;
 import org.xbill.DNS.Name;
+import org.xbill.DNS.NameTooLongException;
 import org.xbill.DNS.PTRRecord;
+import org.xbill.DNS.RRset;
 import org.xbill.DNS.Record;
 import org.xbill.DNS.Resolver;
 import org.xbill.DNS.ResolverConfig;
 import org.xbill.DNS.ReverseMap;
+import org.xbill.DNS.SetResponse;
 import org.xbill.DNS.TXTRecord;
 import org.xbill.DNS.TextParseException;
 import org.xbill.DNS.Type;
 
 import com.google.common.collect.ImmutableList;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * Provides DNS client functionality to services running inside James
+ *
+ * The reactive methods answer from the dnsjava {@link Cache} without switching thread when it holds a positive or
+ * negative answer, which expires according to the record TTL. Other lookups run on an elastic scheduler, and identical
+ * lookups already in flight are shared instead of being sent again to the DNS servers.
  */
 public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DNSJavaService.class);
 
     private static final int CACHE_TTL_DISABLE = -1;
+    private static final int DEFAULT_NDOTS = 1;
 
     /**
      * A resolver instance used to retrieve DNS records. This is a reference to
@@ -124,9 +141,21 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
 
     private String localAddress;
 
+    /**
+     * Lookups being performed, keyed by record type and lower cased name, shared between reactive callers
+     */
+    private final ConcurrentMap<String, Mono<Record[]>> inFlightLookups = new ConcurrentHashMap<>();
+
+    private final Metric cacheHitMetric;
+    private final Metric cacheMissMetric;
+    private final Metric coalescedLookupMetric;
+
     @Inject
     public DNSJavaService(MetricFactory metricFactory) {
         this.metricFactory = metricFactory;
+        this.cacheHitMetric = metricFactory.generate("dnsCacheHit");
+        this.cacheMissMetric = metricFactory.generate("dnsCacheMiss");
+        this.coalescedLookupMetric = metricFactory.generate("dnsCoalescedLookup");
     }
 
     @Override
@@ -274,11 +303,14 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
      */
     private List<String> findMXRecordsRaw(String hostname) throws TemporaryResolutionException {
         Record[] answers = lookup(hostname, Type.MX, "MX");
-        List<String> servers = new ArrayList<>();
         if (answers == null) {
-            return servers;
+            return new ArrayList<>();
         }
+        return sortMXRecords(answers);
+    }
 
+    private List<String> sortMXRecords(Record[] answers) {
+        List<String> servers = new ArrayList<>();
         MXRecord[] mxAnswers = new MXRecord[answers.length];
 
         for (int i = 0; i < answers.length; i++) {
@@ -353,6 +385,26 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         }
     }
 
+    @Override
+    public Mono<Collection<String>> findMXRecordsReactive(String hostname) {
+        return metricFactory.runPublishingTimerMetric("findMXRecords",
+            lookupReactive(hostname, Type.MX, "MX")
+                .map(this::sortMXRecords)
+                .filter(servers -> !servers.isEmpty())
+                .switchIfEmpty(Mono.defer(() -> fallbackToHost(hostname)))
+                .map(Collections::unmodifiableCollection));
+    }
+
+    private Mono<List<String>> fallbackToHost(String hostname) {
+        LOGGER.info("Couldn't resolve MX records for domain {}.", hostname);
+        return getByNameReactive(hostname)
+            .map(any -> (List<String>) ImmutableList.of(hostname))
+            .onErrorResume(UnknownHostException.class, e -> {
+                LOGGER.error("Couldn't resolve IP address for host {}.", hostname, e);
+                return Mono.just(ImmutableList.of());
+            });
+    }
+
     /**
      * Looks up DNS records of the specified type for the specified name.
      * <p/>
@@ -403,6 +455,86 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         }
     }
 
+    /**
+     * Reactive version of {@link #lookup(String, int, String)}, completing empty when no record is found.
+     *
+     * Answers held by the cache are returned right away. Otherwise the lookup is performed on an elastic scheduler,
+     * and concurrent callers looking up the same records share its result.
+     */
+    protected Mono<Record[]> lookupReactive(String namestr, int type, String typeDesc) {
+        return Mono.defer(() -> lookupInCache(namestr, type)
+            .orElseGet(() -> coalescedLookup(namestr, type, typeDesc)));
+    }
+
+    private Mono<Record[]> lookupNoExceptionReactive(String namestr, int type, String typeDesc) {
+        return lookupReactive(namestr, type, typeDesc)
+            .onErrorResume(TemporaryResolutionException.class, e -> Mono.empty());
+    }
+
+    /**
+     * Mimics the first step of {@link Lookup#run()}, which queries the cache for the absolute name before the search
+     * paths. A negative answer is hence only conclusive when no search path applies.
+     */
+    private Optional<Mono<Record[]>> lookupInCache(String namestr, int type) {
+        Name name;
+        try {
+            name = Name.fromString(namestr);
+        } catch (TextParseException e) {
+            return Optional.empty();
+        }
+        if (name.isAbsolute() || name.labels() > DEFAULT_NDOTS) {
+            SetResponse response = cache.lookupRecords(absolute(name), type, dnsCredibility);
+            if (response.isSuccessful()) {
+                cacheHitMetric.increment();
+                return Optional.of(Mono.just(answers(response)));
+            }
+            boolean searchPathsApply = !name.isAbsolute() && searchPaths != null && searchPaths.length > 0;
+            if ((response.isNXDOMAIN() || response.isNXRRSET()) && !searchPathsApply) {
+                cacheHitMetric.increment();
+                return Optional.of(Mono.empty());
+            }
+        }
+        cacheMissMetric.increment();
+        return Optional.empty();
+    }
+
+    private Name absolute(Name name) {
+        if (name.isAbsolute()) {
+            return name;
+        }
+        try {
+            return Name.concatenate(name, Name.root);
+        } catch (NameTooLongException e) {
+            return name;
+        }
+    }
+
+    private Record[] answers(SetResponse response) {
+        List<Record> records = new ArrayList<>();
+        for (RRset rrset : response.answers()) {
+            Iterator<?> rrs = rrset.rrs();
+            while (rrs.hasNext()) {
+                records.add((Record) rrs.next());
+            }
+        }
+        return records.toArray(new Record[records.size()]);
+    }
+
+    private Mono<Record[]> coalescedLookup(String namestr, int type, String typeDesc) {
+        String key = type + ":" + namestr.toLowerCase(Locale.US);
+        Mono<Record[]> lookup = Mono.fromCallable(() -> lookup(namestr, type, typeDesc))
+            .subscribeOn(Schedulers.boundedElastic())
+            .doFinally(any -> inFlightLookups.remove(key))
+            .cache();
+
+        Mono<Record[]> inFlightLookup = inFlightLookups.putIfAbsent(key, lookup);
+        if (inFlightLookup != null) {
+            coalescedLookupMetric.increment();
+            return inFlightLookup;
+        }
+        return lookup;
+    }
+
 
 
     /*
@@ -438,7 +570,7 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
 
         try {
             // Check if its local
-            if (name.equalsIgnoreCase(localHostName) || name.equalsIgnoreCase(localCanonicalHostName) || name.equals(localAddress)) {
+            if (isLocalHost(name)) {
                 return getLocalHost();
             }
 
@@ -463,7 +595,7 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         String name = allowIPLiteral(host);
         try {
             // Check if its local
-            if (name.equalsIgnoreCase(localHostName) || name.equalsIgnoreCase(localCanonicalHostName) || name.equals(localAddress)) {
+            if (isLocalHost(name)) {
                 return ImmutableList.of(getLocalHost());
             }
 
@@ -487,6 +619,57 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         }
     }
 
+    @Override
+    public Mono<InetAddress> getByNameReactive(String host) {
+        String name = allowIPLiteral(host);
+        return metricFactory.runPublishingTimerMetric("getByName", Mono.defer(() -> {
+            if (isLocalHost(name)) {
+                return Mono.fromCallable(this::getLocalHost);
+            }
+            try {
+                return Mono.just(org.xbill.DNS.Address.getByAddress(name));
+            } catch (UnknownHostException e) {
+                return lookupNoExceptionReactive(name, Type.A, "A")
+                    .filter(records -> records.length >= 1)
+                    .flatMap(records -> Mono.fromCallable(() -> toInetAddress(name, records[0])))
+                    .switchIfEmpty(Mono.error(e));
+            }
+        }));
+    }
+
+    @Override
+    public Mono<Collection<InetAddress>> getAllByNameReactive(String host) {
+        String name = allowIPLiteral(host);
+        return metricFactory.runPublishingTimerMetric("getAllByName", Mono.defer(() -> {
+            if (isLocalHost(name)) {
+                return Mono.fromCallable(() -> ImmutableList.of(getLocalHost()));
+            }
+            try {
+                return Mono.just(ImmutableList.of(org.xbill.DNS.Address.getByAddress(name)));
+            } catch (UnknownHostException e) {
+                return lookupNoExceptionReactive(name, Type.A, "A")
+                    .filter(records -> records.length >= 1)
+                    .flatMap(records -> Mono.fromCallable(() -> {
+                        ImmutableList.Builder<InetAddress> addresses = ImmutableList.builder();
+                        for (Record record : records) {
+                            addresses.add(toInetAddress(name, record));
+                        }
+                        return addresses.build();
+                    }))
+                    .switchIfEmpty(Mono.error(e));
+            }
+        }));
+    }
+
+    private InetAddress toInetAddress(String name, Record record) throws UnknownHostException {
+        ARecord a = (ARecord) record;
+        return InetAddress.getByAddress(name, a.getAddress().getAddress());
+    }
+
+    private boolean isLocalHost(String name) {
+        return name.equalsIgnoreCase(localHostName) || name.equalsIgnoreCase(localCanonicalHostName) || name.equals(localAddress);
+    }
+
     @Override
     public Collection<String> findTXTRecords(String hostname) {
         TimeMetric timeMetric = metricFactory.timer("findTXTRecords");
@@ -507,6 +690,16 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         }
     }
 
+    @Override
+    public Mono<Collection<String>> findTXTRecordsReactive(String hostname) {
+        return metricFactory.runPublishingTimerMetric("findTXTRecords",
+            lookupNoExceptionReactive(hostname, Type.TXT, "TXT")
+                .<Collection<String>>map(records -> Arrays.stream(records)
+                    .map(record -> ((TXTRecord) record).rdataToString())
+                    .collect(ImmutableList.toImmutableList()))
+                .defaultIfEmpty(ImmutableList.of()));
+    }
+
     @Override
     public String getHostName(InetAddress addr) {
         TimeMetric timeMetric = metricFactory.timer("getHostName");
@@ -527,6 +720,15 @@ public class DNSJavaService implements DNSService, DNSServiceMBean, Configurable
         }
     }
 
+    @Override
+    public Mono<String> getHostNameReactive(InetAddress addr) {
+        Name name = ReverseMap.fromAddress(addr);
+        return metricFactory.runPublishingTimerMetric("getHostName",
+            lookupNoExceptionReactive(name.toString(), Type.PTR, "PTR")
+                .map(records -> ((PTRRecord) records[0]).getTarget().toString())
+                .defaultIfEmpty(addr.getHostAddress()));
+    }
+
     @Override
     public InetAddress getLocalHost() throws UnknownHostException {
         return InetAddress.getLocalHost();
@@ -19,6 +19,7 @@
 package org.apache.james.dnsservice.dnsjava;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Fail.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -28,10 +29,16 @@ import static org.mockito.Mockito.mock;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.james.metrics.api.NoopMetricFactory;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.tests.RecordingMetricFactory;
 import org.apache.james.server.core.configuration.FileConfigurationProvider;
 import org.junit.After;
 import org.junit.Before;
@@ -42,15 +49,19 @@ import org.xbill.DNS.Cache;
 import org.xbill.DNS.DClass;
 import org.xbill.DNS.Lookup;
 import org.xbill.DNS.Name;
+import org.xbill.DNS.Record;
 import org.xbill.DNS.Resolver;
 import org.xbill.DNS.Zone;
 
 import com.google.common.io.Resources;
 
+import reactor.core.publisher.Mono;
+
 public class DNSJavaServiceTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(DNSJavaServiceTest.class);
 
     private TestableDNSServer dnsServer;
+    private RecordingMetricFactory metricFactory;
     private static final byte[] DNS_SERVER_CONFIG = ("<dnsserver>" +
             "<autodiscover>true</autodiscover>" +
             "<authoritative>false</authoritative>" +
@@ -64,7 +75,8 @@ public class DNSJavaServiceTest {
 
     @Before
     public void setUp() throws Exception {
-        dnsServer = new TestableDNSServer();
+        metricFactory = new RecordingMetricFactory();
+        dnsServer = new TestableDNSServer(metricFactory);
 
         dnsServer.configure(FileConfigurationProvider.getConfig(new ByteArrayInputStream(DNS_SERVER_CONFIG)));
         dnsServer.init();
@@ -207,6 +219,93 @@ public class DNSJavaServiceTest {
         assertThat(records.size()).isEqualTo(1);
         assertThat(records.contains("mx1.one-mx.bar.")).isTrue();
     }
+    @Test
+    public void findMXRecordsReactiveShouldSortRecordsByPriority() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("three-mx.bar.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        ArrayList<String> records = new ArrayList<>(dnsServer.findMXRecordsReactive("three-mx.bar.").block());
+        assertThat(records).containsOnly("mx1.three-mx.bar.", "mx2.three-mx.bar.", "mx3.three-mx.bar.");
+        assertThat(records.get(2)).isEqualTo("mx3.three-mx.bar.");
+    }
+
+    @Test
+    public void findMXRecordsReactiveShouldFallbackToTheHostWhenNoMX() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("dnstest.com.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        assertThat(dnsServer.findMXRecordsReactive("nomx.dnstest.com.").block())
+            .containsExactly("nomx.dnstest.com.");
+    }
+
+    @Test
+    public void getByNameReactiveShouldResolveARecords() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("dnstest.com.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        assertThat(dnsServer.getByNameReactive("mail.dnstest.com.").block().getHostAddress())
+            .isEqualTo("216.183.119.114");
+    }
+
+    @Test
+    public void getByNameReactiveShouldFailWhenUnknownHost() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("dnstest.com.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        assertThatThrownBy(() -> dnsServer.getByNameReactive("unknown.dnstest.com.").block())
+            .hasCauseInstanceOf(UnknownHostException.class);
+    }
+
+    @Test
+    public void reactiveLookupsShouldRecordCacheHits() throws Exception {
+        doAnswer(new ZoneCacheLookupRecordsAnswer(loadZone("dnstest.com.")))
+                .when(mockedCache).lookupRecords(any(Name.class), anyInt(), anyInt());
+        dnsServer.setCache(mockedCache);
+
+        dnsServer.getByNameReactive("mail.dnstest.com.").block();
+        dnsServer.getByNameReactive("unknown.dnstest.com.").onErrorResume(e -> Mono.empty()).block();
+
+        assertThat(metricFactory.countFor("dnsCacheHit")).isEqualTo(2);
+        assertThat(metricFactory.countFor("dnsCacheMiss")).isEqualTo(0);
+    }
+
+    @Test
+    public void identicalReactiveLookupsShouldBeCoalesced() throws Exception {
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+        AtomicInteger lookupCount = new AtomicInteger();
+        TestableDNSServer slowDnsServer = new TestableDNSServer(metricFactory) {
+            @Override
+            protected Record[] lookup(String namestr, int type, String typeDesc) {
+                lookupCount.incrementAndGet();
+                lookupStarted.countDown();
+                try {
+                    releaseLookup.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        };
+        slowDnsServer.configure(FileConfigurationProvider.getConfig(new ByteArrayInputStream(DNS_SERVER_CONFIG)));
+        slowDnsServer.init();
+        slowDnsServer.setCache(new Cache(DClass.IN));
+
+        CompletableFuture<Collection<String>> first = slowDnsServer.findTXTRecordsReactive("slow.dnstest.com.").toFuture();
+        lookupStarted.await(10, TimeUnit.SECONDS);
+        CompletableFuture<Collection<String>> second = slowDnsServer.findTXTRecordsReactive("SLOW.dnstest.com.").toFuture();
+        releaseLookup.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEmpty();
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEmpty();
+        assertThat(lookupCount.get()).isEqualTo(1);
+        assertThat(metricFactory.countFor("dnsCoalescedLookup")).isEqualTo(1);
+    }
+
     /*
      * public void testCNAMEasMXrecords() throws Exception { // Zone z =
      * loadZone("brandilyncollins.com."); dnsServer.setResolver(null);
@@ -223,10 +322,10 @@ public class DNSJavaServiceTest {
         return new Zone(Name.fromString(zoneName), zoneResource.getFile());
     }
 
-    private final class TestableDNSServer extends DNSJavaService {
+    private class TestableDNSServer extends DNSJavaService {
 
-        public TestableDNSServer() {
-            super(new NoopMetricFactory());
+        public TestableDNSServer(MetricFactory metricFactory) {
+            super(metricFactory);
         }
 
         public void setResolver(Resolver r) {
@@ -19,6 +19,7 @@
 
 package org.apache.james.mailetcontainer.impl;
 
+import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -43,10 +44,14 @@ import org.apache.mailet.Mail;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 /**
  * Manages the mail spool. This class is responsible for retrieving messages
@@ -57,6 +62,8 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
     private static final Logger LOGGER = LoggerFactory.getLogger(JamesMailSpooler.class);
 
     public static final String SPOOL_PROCESSING = "spoolProcessing";
+    public static final String SPOOL_WAITING = "spoolWaiting";
+    public static final int DEFAULT_THREADS = 100;
     private MailQueue queue;
 
     /**
@@ -64,6 +71,12 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
      */
     private int numThreads;
 
+    /**
+     * The number of mails requested at once to the spool. Mails dequeued ahead are kept in memory until a thread
+     * is available to process them. When not configured, mails are requested as processing threads free up.
+     */
+    private Optional<Integer> batchSize;
+
     private final AtomicInteger processingActive = new AtomicInteger(0);
 
     private final MetricFactory metricFactory;
@@ -87,7 +100,10 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
 
     @Override
     public void configure(HierarchicalConfiguration<ImmutableNode> config) {
-        numThreads = config.getInt("threads", 100);
+        numThreads = config.getInt("threads", DEFAULT_THREADS);
+        batchSize = Optional.ofNullable(config.getInteger("batchSize", null));
+        Preconditions.checkArgument(numThreads > 0, "'threads' needs to be strictly positive");
+        Preconditions.checkArgument(batchSize.map(size -> size > 0).orElse(true), "'batchSize' needs to be strictly positive");
         //Reactor helps us run things in parallel but we have to ensure there are always threads available
         //in the threadpool to avoid starvation.
         parallelismLevel = Math.max(1, numThreads - 2);
@@ -102,25 +118,32 @@ public class JamesMailSpooler implements Disposable, Configurable, MailSpoolerMB
         queue = queueFactory.createQueue(MailQueueFactory.SPOOL);
         spooler = Schedulers.fromExecutor(Executors.newFixedThreadPool(numThreads, NamedThreadFactory.withName("spooler")));
         LOGGER.info("uses {} Thread(s)", numThreads);
+        batchSize.ifPresent(size -> LOGGER.info("dequeues {} mail(s) at once", size));
         run();
     }
 
     private void run() {
         LOGGER.info("Queue={}", queue);
-        disposable = Flux.from(queue.deQueue())
-            .flatMap(item -> handleOnQueueItem(item).subscribeOn(spooler), parallelismLevel)
+        Flux<Tuple2<MailQueueItem, TimeMetric>> items = Flux.from(queue.deQueue())
+            .map(item -> Tuples.of(item, metricFactory.timer(SPOOL_WAITING)));
+        disposable = batchSize.map(items::limitRate)
+            .orElse(items)
+            .flatMap(itemAndTimer -> handleOnQueueItem(itemAndTimer.getT1(), itemAndTimer.getT2()).subscribeOn(spooler), parallelismLevel)
             .onErrorContinue((throwable, item) -> LOGGER.error("Exception processing mail while spooling {}", item, throwable))
             .subscribeOn(spooler)
             .subscribe();
     }
 
-    private Mono<Void> handleOnQueueItem(MailQueueItem queueItem) {
-        TimeMetric timeMetric = metricFactory.timer(SPOOL_PROCESSING);
+    private Mono<Void> handleOnQueueItem(MailQueueItem queueItem, TimeMetric waitingTimeMetric) {
         try {
-            return Mono.fromCallable(processingActive::incrementAndGet)
-                .flatMap(ignore -> processMail(queueItem).subscribeOn(spooler))
-                .doOnSuccess(any -> timeMetric.stopAndPublish())
-                .doOnSuccess(any -> processingActive.decrementAndGet());
+            return Mono.fromCallable(() -> {
+                    waitingTimeMetric.stopAndPublish();
+                    return metricFactory.timer(SPOOL_PROCESSING);
+                })
+                .flatMap(timeMetric -> Mono.fromCallable(processingActive::incrementAndGet)
+                    .flatMap(ignore -> processMail(queueItem).subscribeOn(spooler))
+                    .doOnSuccess(any -> timeMetric.stopAndPublish())
+                    .doOnSuccess(any -> processingActive.decrementAndGet()));
         } catch (Throwable e) {
             return Mono.error(e);
         }
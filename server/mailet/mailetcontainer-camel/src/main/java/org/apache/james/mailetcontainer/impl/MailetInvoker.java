@@ -16,14 +16,15 @@
  * specific language governing permissions and limitations      *
  * under the License.                                           *
  ****************************************************************/
-package org.apache.james.mailetcontainer.impl.camel;
+package org.apache.james.mailetcontainer.impl;
 
 import java.io.Closeable;
 import java.util.List;
 import java.util.Locale;
 
-import org.apache.james.mailetcontainer.impl.MailetConfigImpl;
-import org.apache.james.mailetcontainer.impl.ProcessorUtil;
+import javax.mail.MessagingException;
+
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.james.metrics.api.TimeMetric;
@@ -40,23 +41,23 @@ import com.google.common.collect.ImmutableList;
 /**
  * Mailet wrapper which execute a Mailet in a Processor
  */
-public class CamelProcessor {
-    private static final Logger LOGGER = LoggerFactory.getLogger(CamelProcessor.class);
+public class MailetInvoker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailetInvoker.class);
 
     private final MetricFactory metricFactory;
     private final Mailet mailet;
-    private final CamelMailetProcessor processor;
+    private final AbstractStateMailetProcessor processor;
 
-    public CamelProcessor(MetricFactory metricFactory, CamelMailetProcessor processor, Mailet mailet) {
+    public MailetInvoker(MetricFactory metricFactory, AbstractStateMailetProcessor processor, Mailet mailet) {
         this.metricFactory = metricFactory;
         this.processor = processor;
         this.mailet = mailet;
     }
 
     /**
-     * Call the wrapped mailet for the exchange
+     * Call the wrapped mailet for the given mail
      */
-    public void process(Mail mail) throws Exception {
+    public void process(Mail mail) throws MessagingException {
         long start = System.currentTimeMillis();
         TimeMetric timeMetric = metricFactory.timer(mailet.getClass().getSimpleName());
         Exception ex = null;
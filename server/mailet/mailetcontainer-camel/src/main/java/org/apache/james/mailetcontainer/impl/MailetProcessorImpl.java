@@ -0,0 +1,164 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.server.core.MailImpl;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Mailet;
+import org.apache.mailet.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * {@link AbstractStateMailetProcessor} implementation which calls the {@link Matcher} / {@link Mailet} pairs
+ * directly, without relying on a routing engine.
+ *
+ * The pairs are compiled once into an immutable list of steps. When a {@link Matcher} only matches some of the
+ * recipients, the mail is split: a copy carrying the matched recipients goes through the remaining steps first, then
+ * the original mail carries on with the other recipients. The copy shares the original message until one of them
+ * modifies it.
+ */
+public class MailetProcessorImpl extends AbstractStateMailetProcessor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailetProcessorImpl.class);
+
+    private static class Step {
+        private final MatcherInvoker matcherInvoker;
+        private final MailetInvoker mailetInvoker;
+
+        private Step(MatcherInvoker matcherInvoker, MailetInvoker mailetInvoker) {
+            this.matcherInvoker = matcherInvoker;
+            this.mailetInvoker = mailetInvoker;
+        }
+    }
+
+    private final MetricFactory metricFactory;
+    private ImmutableList<Step> steps;
+    private MailetInvoker terminatingMailetInvoker;
+
+    public MailetProcessorImpl(MetricFactory metricFactory) {
+        this.metricFactory = metricFactory;
+    }
+
+    @Override
+    public void service(Mail mail) throws MessagingException {
+        try {
+            process(mail, 0);
+        } catch (RuntimeException e) {
+            throw new MessagingException("Unable to process mail " + mail.getName(), e);
+        }
+    }
+
+    @Override
+    protected void setupRouting(List<MatcherMailetPair> pairs) {
+        this.steps = pairs.stream()
+            .map(pair -> new Step(
+                new MatcherInvoker(metricFactory, this, pair),
+                new MailetInvoker(metricFactory, this, pair.getMailet())))
+            .collect(Guavate.toImmutableList());
+        this.terminatingMailetInvoker = new MailetInvoker(metricFactory, this, new TerminatingMailet());
+    }
+
+    private void process(Mail mail, int firstStep) throws MessagingException {
+        for (int position = firstStep; position < steps.size(); position++) {
+            Step step = steps.get(position);
+            Collection<MailAddress> matchedRecipients = step.matcherInvoker.match(mail);
+
+            if (matchedRecipients.isEmpty()) {
+                if (!handleMailet(step, mail, false)) {
+                    return;
+                }
+                continue;
+            }
+
+            List<MailAddress> otherRecipients = new ArrayList<>(mail.getRecipients());
+            for (MailAddress matchedRecipient : matchedRecipients) {
+                otherRecipients.remove(matchedRecipient);
+            }
+            if (otherRecipients.isEmpty()) {
+                if (!handleMailet(step, mail, true)) {
+                    return;
+                }
+                continue;
+            }
+
+            mail.setRecipients(otherRecipients);
+            Mail matchedMail = MailImpl.duplicate(mail);
+            matchedMail.setRecipients(matchedRecipients);
+            if (handleMailet(step, matchedMail, true)) {
+                process(matchedMail, position + 1);
+            }
+            if (!handleMailet(step, mail, false)) {
+                return;
+            }
+        }
+        terminate(mail);
+    }
+
+    /**
+     * @return true if the mail should go on through this processor
+     */
+    private boolean handleMailet(Step step, Mail mail, boolean matched) throws MessagingException {
+        if (matched) {
+            step.mailetInvoker.process(mail);
+        }
+        if (mail.getState().equals(Mail.GHOST)) {
+            dispose(mail);
+            return false;
+        }
+        if (!mail.getState().equals(getState())) {
+            toProcessor(mail);
+            complete();
+            return false;
+        }
+        return true;
+    }
+
+    private void terminate(Mail mail) throws MessagingException {
+        if (mail.getState().equals(getState())) {
+            terminatingMailetInvoker.process(mail);
+        }
+        if (mail.getState().equals(Mail.GHOST)) {
+            dispose(mail);
+        }
+        complete();
+    }
+
+    private void complete() {
+        LOGGER.debug("End of mailetprocessor for state {} reached", getState());
+    }
+
+    private void dispose(Mail mail) throws MessagingException {
+        LifecycleUtil.dispose(mail.getMessage());
+        LifecycleUtil.dispose(mail);
+    }
+}
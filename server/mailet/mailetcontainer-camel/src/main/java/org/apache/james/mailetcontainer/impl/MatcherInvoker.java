@@ -0,0 +1,131 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.mailetcontainer.impl;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.core.MailAddress;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.TimeMetric;
+import org.apache.james.util.MDCBuilder;
+import org.apache.mailet.Mail;
+import org.apache.mailet.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Matcher wrapper which execute a Matcher in a Processor
+ */
+public class MatcherInvoker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatcherInvoker.class);
+
+    private final MetricFactory metricFactory;
+    private final AbstractStateMailetProcessor container;
+    private final Matcher matcher;
+    private final String onMatchException;
+
+    public MatcherInvoker(MetricFactory metricFactory, AbstractStateMailetProcessor container, MatcherMailetPair pair) {
+        this.metricFactory = metricFactory;
+        this.container = container;
+        this.matcher = pair.getMatcher();
+        this.onMatchException = Optional.ofNullable(pair.getOnMatchException())
+            .map(s -> s.trim().toLowerCase(Locale.US))
+            .orElse(Mail.ERROR);
+    }
+
+    /**
+     * Call the wrapped matcher for the given mail
+     *
+     * @return the matched recipients, empty if none matched
+     */
+    public Collection<MailAddress> match(Mail mail) throws MessagingException {
+        Collection<MailAddress> matchedRcpts = null;
+        Collection<MailAddress> origRcpts = new ArrayList<>(mail.getRecipients());
+        long start = System.currentTimeMillis();
+        Exception ex = null;
+        TimeMetric timeMetric = metricFactory.timer(matcher.getClass().getSimpleName());
+
+        try (Closeable closeable =
+                 MDCBuilder.create()
+                     .addContext(MDCBuilder.PROTOCOL, "MAILET")
+                     .addContext(MDCBuilder.ACTION, "MATCHER")
+                     .addContext(MDCBuilder.IP, mail.getRemoteAddr())
+                     .addContext(MDCBuilder.HOST, mail.getRemoteHost())
+                     .addContext("matcher", matcher.getMatcherInfo())
+                     .addContext("state", mail.getState())
+                     .addContext("mail", mail.getName())
+                     .addContext("recipients", ImmutableList.copyOf(mail.getRecipients()))
+                     .addContext("sender", mail.getMaybeSender())
+                     .build()) {
+            // call the matcher
+            matchedRcpts = matcher.match(mail);
+
+            if (matchedRcpts == null) {
+                // In case the matcher returned null, create an empty
+                // Collection
+                matchedRcpts = new ArrayList<>(0);
+            } else if (matchedRcpts != mail.getRecipients()) {
+                // Make sure all the objects are MailAddress objects
+                ProcessorUtil.verifyMailAddresses(matchedRcpts);
+            }
+
+        } catch (Exception me) {
+            ex = me;
+            if (onMatchException.equalsIgnoreCase("nomatch")) {
+                // In case the matcher returned null, create an empty
+                // Collection
+                LOGGER.warn("Encountered error while executing matcher {}. Matching none.", matcher, ex);
+                matchedRcpts = new ArrayList<>(0);
+            } else if (onMatchException.equalsIgnoreCase("matchall")) {
+                LOGGER.warn("Encountered error while executing matcher {}. matching all.", matcher, ex);
+                matchedRcpts = mail.getRecipients();
+                // no need to verify addresses
+            } else {
+                ProcessorUtil.handleException(me, mail, matcher.getMatcherConfig().getMatcherName(), onMatchException, LOGGER);
+            }
+        } finally {
+            timeMetric.stopAndPublish();
+            long complete = System.currentTimeMillis() - start;
+            List<MailetProcessorListener> listeners = container.getListeners();
+            for (MailetProcessorListener listener : listeners) {
+                // need to check if its null or empty!
+                if (matchedRcpts == null || matchedRcpts.isEmpty()) {
+                    listener.afterMatcher(matcher, mail.getName(), origRcpts, null, complete, ex);
+                } else {
+                    listener.afterMatcher(matcher, mail.getName(), origRcpts, matchedRcpts, complete, ex);
+                }
+            }
+        }
+
+        return Optional.ofNullable(matchedRcpts)
+            .orElse(ImmutableList.of());
+    }
+}
@@ -19,6 +19,8 @@
 
 package org.apache.james.mailetcontainer.impl.camel;
 
+import java.util.Arrays;
+
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
@@ -26,11 +28,14 @@ import javax.inject.Inject;
 import org.apache.camel.CamelContext;
 import org.apache.camel.CamelContextAware;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.configuration2.tree.ImmutableNode;
 import org.apache.james.mailetcontainer.api.MailProcessor;
 import org.apache.james.mailetcontainer.api.MailetLoader;
 import org.apache.james.mailetcontainer.api.MatcherLoader;
+import org.apache.james.mailetcontainer.impl.MailetProcessorImpl;
 import org.apache.james.mailetcontainer.lib.AbstractStateCompositeProcessor;
+import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.metrics.api.MetricFactory;
 import org.apache.mailet.Mail;
 import org.apache.mailet.MailetContext;
@@ -41,8 +46,25 @@ import org.apache.mailet.MailetContext;
  * 
  * It also offer the {@link AbstractStateCompositeProcessor} implementation
  * which allow to inject {@link Mail} into the routes.
+ *
+ * The <code>engine</code> attribute of the processors, which child processors inherit unless they override it,
+ * allows to process mails with {@link MailetProcessorImpl} instead of Camel routes.
  */
 public class CamelCompositeProcessor extends AbstractStateCompositeProcessor implements CamelContextAware {
+    public enum Engine {
+        CAMEL,
+        DIRECT;
+
+        public static Engine parse(String value) throws ConfigurationException {
+            return Arrays.stream(values())
+                .filter(engine -> engine.name().equalsIgnoreCase(value.trim()))
+                .findAny()
+                .orElseThrow(() -> new ConfigurationException("Unknown processing engine '" + value + "', expecting one of "
+                    + Arrays.toString(values())));
+        }
+    }
+
+    private static final String ENGINE_ATTRIBUTE = "[@engine]";
 
     private final MetricFactory metricFactory;
     private final MailetContext mailetContext;
@@ -88,9 +110,8 @@ public class CamelCompositeProcessor extends AbstractStateCompositeProcessor imp
 
     @Override
     protected MailProcessor createMailProcessor(String name, HierarchicalConfiguration<ImmutableNode> config) throws Exception {
-        CamelMailetProcessor processor = new CamelMailetProcessor(metricFactory);
+        AbstractStateMailetProcessor processor = createMailetProcessor(config);
         try {
-            processor.setCamelContext(camelContext);
             processor.setMailetContext(mailetContext);
             processor.setMailetLoader(mailetLoader);
             processor.setMatcherLoader(matcherLoader);
@@ -105,4 +126,18 @@ public class CamelCompositeProcessor extends AbstractStateCompositeProcessor imp
         }
     }
 
+    private AbstractStateMailetProcessor createMailetProcessor(HierarchicalConfiguration<ImmutableNode> config) throws ConfigurationException {
+        String engine = config.getString(ENGINE_ATTRIBUTE, this.config.getString(ENGINE_ATTRIBUTE, Engine.CAMEL.name()));
+        switch (Engine.parse(engine)) {
+            case DIRECT:
+                return new MailetProcessorImpl(metricFactory);
+            case CAMEL:
+                CamelMailetProcessor processor = new CamelMailetProcessor(metricFactory);
+                processor.setCamelContext(camelContext);
+                return processor;
+            default:
+                throw new ConfigurationException("Unsupported processing engine " + engine);
+        }
+    }
+
 }
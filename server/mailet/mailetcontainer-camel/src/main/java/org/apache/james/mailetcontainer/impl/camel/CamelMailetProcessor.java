@@ -33,6 +33,7 @@ import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.RouteDefinition;
 import org.apache.camel.processor.aggregate.UseLatestAggregationStrategy;
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.mailetcontainer.impl.MailetInvoker;
 import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor;
 import org.apache.james.metrics.api.MetricFactory;
@@ -42,8 +43,6 @@ import org.apache.mailet.Matcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ImmutableList;
-
 /**
  * {@link org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor} implementation which use Camel DSL for
  * the {@link Matcher} / {@link Mailet} routing
@@ -56,7 +55,6 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
     private ProducerTemplate producerTemplate;
 
     private final MetricFactory metricFactory;
-    private List<MatcherMailetPair> pairs;
 
     public CamelMailetProcessor(MetricFactory metricFactory) {
         this.metricFactory = metricFactory;
@@ -82,10 +80,6 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
         this.context = context;
     }
 
-    public List<MatcherMailetPair> getPairs() {
-        return ImmutableList.copyOf(pairs);
-    }
-
     /**
      * Return the endpoint for the processorname.
      * 
@@ -109,7 +103,6 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
     @Override
     protected void setupRouting(List<MatcherMailetPair> pairs) throws MessagingException {
         try {
-            this.pairs = pairs;
             context.addRoutes(new MailetContainerRouteBuilder(this, metricFactory, pairs));
         } catch (Exception e) {
             throw new MessagingException("Unable to setup routing for MailetMatcherPairs", e);
@@ -136,14 +129,14 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
         @Override
         public void configure() {
             String state = container.getState();
-            CamelProcessor terminatingMailetProcessor = new CamelProcessor(metricFactory, container, new TerminatingMailet());
+            MailetInvoker terminatingMailetProcessor = new MailetInvoker(metricFactory, container, new TerminatingMailet());
 
             RouteDefinition processorDef = from(container.getEndpoint())
                 .routeId(state)
                 .setExchangePattern(ExchangePattern.InOnly);
 
             for (MatcherMailetPair pair : pairs) {
-                CamelProcessor mailetProccessor = new CamelProcessor(metricFactory, container, pair.getMailet());
+                MailetInvoker mailetProccessor = new MailetInvoker(metricFactory, container, pair.getMailet());
                 MatcherSplitter matcherSplitter = new MatcherSplitter(metricFactory, container, pair);
 
                 processorDef
@@ -158,7 +151,7 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
 
         }
 
-        private void terminateSmoothly(Exchange exchange, CamelMailetProcessor container, CamelProcessor terminatingMailetProcessor) throws Exception {
+        private void terminateSmoothly(Exchange exchange, CamelMailetProcessor container, MailetInvoker terminatingMailetProcessor) throws Exception {
             Mail mail = exchange.getIn().getBody(Mail.class);
             if (mail.getState().equals(container.getState())) {
                 terminatingMailetProcessor.process(mail);
@@ -169,7 +162,7 @@ public class CamelMailetProcessor extends AbstractStateMailetProcessor implement
             complete(exchange, container);
         }
 
-        private void handleMailet(Exchange exchange, CamelMailetProcessor container, CamelProcessor mailetProccessor) throws Exception {
+        private void handleMailet(Exchange exchange, CamelMailetProcessor container, MailetInvoker mailetProccessor) throws Exception {
             Mail mail = exchange.getIn().getBody(Mail.class);
             boolean isMatched = mail.removeAttribute(MatcherSplitter.MATCHER_MATCHED_ATTRIBUTE).isPresent();
             if (isMatched) {
@@ -29,7 +29,7 @@ import org.apache.james.mailetcontainer.api.jmx.MailProcessorManagementMBean;
 
 /**
  * Wrapper which helps to expose JMX statistics for {@link MailProcessor} and
- * {@link org.apache.james.mailetcontainer.impl.camel.CamelProcessor} implementations
+ * {@link org.apache.james.mailetcontainer.impl.MailetInvoker} implementations
  */
 public class MailProcessorManagement extends StandardMBean implements MailProcessorManagementMBean {
     private final String processorName;
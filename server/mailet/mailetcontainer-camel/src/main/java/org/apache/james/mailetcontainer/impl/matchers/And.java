@@ -20,6 +20,7 @@ package org.apache.james.mailetcontainer.impl.matchers;
  ****************************************************************/
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import javax.mail.MessagingException;
@@ -28,6 +29,7 @@ import org.apache.james.core.MailAddress;
 import org.apache.mailet.Mail;
 import org.apache.mailet.Matcher;
 
+import com.github.steveash.guavate.Guavate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
@@ -40,7 +42,7 @@ public class And extends GenericCompositeMatcher {
     /**
      * This is the And CompositeMatcher - consider it to be an intersection of
      * the results. If any match returns an empty recipient result the matching
-     * is short-circuited.
+     * is short-circuited, unless child matchers are evaluated in parallel.
      * 
      * @return Collection of Recipient from the And composition results of the
      *         child Matchers.
@@ -63,6 +65,15 @@ public class And extends GenericCompositeMatcher {
     }
 
     private ImmutableList<Set<MailAddress>> performMatchOnMatchers(Mail mail) throws MessagingException {
+        if (isParallel()) {
+            List<Collection<MailAddress>> matchedMailAddresses = matchChildren(mail);
+            if (matchedMailAddresses.stream().anyMatch(Collection::isEmpty)) {
+                return ImmutableList.of();
+            }
+            return matchedMailAddresses.stream()
+                .map(ImmutableSet::copyOf)
+                .collect(Guavate.toImmutableList());
+        }
         ImmutableList.Builder<Set<MailAddress>> builder = ImmutableList.builder();
         for (Matcher matcher : getMatchers()) {
             Collection<MailAddress> matchedMailAddress = matcher.match(mail);
@@ -27,7 +27,6 @@ import javax.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
 import org.apache.mailet.Mail;
-import org.apache.mailet.Matcher;
 
 import com.google.common.collect.Lists;
 
@@ -44,11 +43,8 @@ public class Not extends GenericCompositeMatcher {
     @Override
     public Collection<MailAddress> match(Mail mail) throws MessagingException {
         Collection<MailAddress> finalResult = Optional.ofNullable(Lists.newArrayList(mail.getRecipients())).orElse(new ArrayList<>());
-        for (Matcher matcher : getMatchers()) {
-            Collection<MailAddress> matcherResult = matcher.match(mail);
-            if (matcherResult != null) {
-                finalResult.removeAll(matcherResult);
-            }
+        for (Collection<MailAddress> matcherResult : matchChildren(mail)) {
+            finalResult.removeAll(matcherResult);
         }
         return finalResult;
     }
@@ -20,17 +20,12 @@
 package org.apache.james.mailetcontainer.impl.matchers;
 
 import java.util.Collection;
-import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javax.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
 import org.apache.mailet.Mail;
-import org.apache.mailet.Matcher;
-
-import com.github.fge.lambdas.Throwing;
 
 /**
  * This is the Or CompositeMatcher - consider it to be a union of the
@@ -41,17 +36,10 @@ import com.github.fge.lambdas.Throwing;
 public class Or extends GenericCompositeMatcher {
 
     @Override
-    public Collection<MailAddress> match(Mail mail) {
-        return getMatchers().stream()
-            .flatMap(Throwing.<Matcher, Stream<MailAddress>>function(matcher -> applyMatcher(matcher, mail))
-                .sneakyThrow())
+    public Collection<MailAddress> match(Mail mail) throws MessagingException {
+        return matchChildren(mail).stream()
+            .flatMap(Collection::stream)
             .collect(Collectors.toSet());
     }
 
-    private Stream<MailAddress> applyMatcher(Matcher matcher, Mail mail) throws MessagingException {
-        return Optional.ofNullable(matcher.match(mail))
-            .map(Collection::stream)
-            .orElse(Stream.of());
-    }
-
 }
@@ -20,16 +20,13 @@
 package org.apache.james.mailetcontainer.impl.matchers;
 
 import java.util.Collection;
-import java.util.Optional;
 import java.util.Set;
 
 import javax.mail.MessagingException;
 
 import org.apache.james.core.MailAddress;
 import org.apache.mailet.Mail;
-import org.apache.mailet.Matcher;
 
-import com.github.fge.lambdas.Throwing;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
@@ -43,9 +40,9 @@ import com.google.common.collect.Sets;
 public class Xor extends GenericCompositeMatcher {
 
     @Override
-    public Collection<MailAddress> match(Mail mail) {
-        Set<MailAddress> recipients = getMatchers().stream()
-            .map(Throwing.<Matcher, Set<MailAddress>>function(matcher -> applyMatcher(mail, matcher)).sneakyThrow())
+    public Collection<MailAddress> match(Mail mail) throws MessagingException {
+        Set<MailAddress> recipients = matchChildren(mail).stream()
+            .<Set<MailAddress>>map(ImmutableSet::copyOf)
             .reduce(ImmutableSet.of(), this::performXor);
 
         if (recipients.isEmpty()) {
@@ -54,12 +51,6 @@ public class Xor extends GenericCompositeMatcher {
         return recipients;
     }
 
-    private Set<MailAddress> applyMatcher(Mail mail, Matcher matcher) throws MessagingException {
-        return Optional.ofNullable(matcher.match(mail))
-            .map(ImmutableSet::copyOf)
-            .orElse(ImmutableSet.of());
-    }
-
     private Set<MailAddress> performXor(Set<MailAddress> set1, Set<MailAddress> set2) {
         return Sets.difference(
             Sets.union(set1, set2),
@@ -42,7 +42,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Abstract base class for {@link org.apache.james.mailetcontainer.impl.camel.CamelCompositeProcessor} which service the
- * {@link Mail} with a {@link org.apache.james.mailetcontainer.impl.camel.CamelProcessor} instances
+ * {@link Mail} with a {@link org.apache.james.mailetcontainer.impl.MailetInvoker} instances
  */
 public abstract class AbstractStateCompositeProcessor implements MailProcessor, Configurable {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractStateCompositeProcessor.class);
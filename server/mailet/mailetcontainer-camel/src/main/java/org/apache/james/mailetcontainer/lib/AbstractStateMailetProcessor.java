@@ -43,6 +43,7 @@ import org.apache.james.mailetcontainer.impl.MatcherConfigImpl;
 import org.apache.james.mailetcontainer.impl.MatcherMailetPair;
 import org.apache.james.mailetcontainer.impl.jmx.JMXStateMailetProcessorListener;
 import org.apache.james.mailetcontainer.impl.matchers.CompositeMatcher;
+import org.apache.james.mailetcontainer.impl.matchers.GenericCompositeMatcher;
 import org.apache.mailet.Mail;
 import org.apache.mailet.Mailet;
 import org.apache.mailet.MailetConfig;
@@ -55,6 +56,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Abstract base class for {@link MailProcessor} implementations which want to
@@ -155,6 +157,13 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
         return state;
     }
 
+    /**
+     * Return a unmodifiable {@link List} of the configured {@link MatcherMailetPair}'s
+     */
+    public List<MatcherMailetPair> getPairs() {
+        return ImmutableList.copyOf(pairs);
+    }
+
     /**
      * Return a unmodifiable {@link List} of the configured {@link Mailet}'s
      */
@@ -241,6 +250,7 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
                         compMatcher.add(aChildMatcher);
                     }
                 }
+                configureParallelism(c, matcherName, matcher);
             } else if (invertedMatcherName != null) {
                 Matcher m = matcherLoader.getMatcher(createMatcherConfig(invertedMatcherName));
                 if (m instanceof CompositeMatcher) {
@@ -251,6 +261,7 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
                         compMatcher.add(aChildMatcher);
                     }
                 }
+                configureParallelism(c, invertedMatcherName, m);
                 matcher = new MatcherInverter(m);
             }
             if (matcher == null) {
@@ -269,6 +280,16 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
         return matchers;
     }
 
+    private void configureParallelism(HierarchicalConfiguration<ImmutableNode> compMatcherConf, String matcherName, Matcher matcher) throws ConfigurationException {
+        if (!compMatcherConf.getBoolean("[@parallel]", false)) {
+            return;
+        }
+        if (!(matcher instanceof GenericCompositeMatcher)) {
+            throw new ConfigurationException("'parallel' is only supported by composite matchers, which " + matcherName + " is not");
+        }
+        ((GenericCompositeMatcher) matcher).setParallel(true);
+    }
+
     private void parseConfiguration() throws MessagingException, ConfigurationException {
 
         // load composite matchers if there are any
@@ -351,7 +372,7 @@ public abstract class AbstractStateMailetProcessor implements MailProcessor, Con
 
     /**
      * Setup the routing for the configured {@link MatcherMailetPair}'s for this
-     * {@link org.apache.james.mailetcontainer.impl.camel.CamelProcessor}
+     * processor
      */
     protected abstract void setupRouting(List<MatcherMailetPair> pairs) throws MessagingException;
 
@@ -20,6 +20,7 @@
 package org.apache.james.mailetcontainer.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
 import static org.awaitility.Duration.TEN_SECONDS;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +31,8 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 import javax.mail.MessagingException;
@@ -58,7 +61,7 @@ class JamesMailSpoolerTest {
     @Test
     void thrownExceptionShouldAckTheItem() throws MessagingException {
         MetricFactory metricFactory = mock(MetricFactory.class);
-        when(metricFactory.timer(JamesMailSpooler.SPOOL_PROCESSING)).thenAnswer(ignored -> mock(TimeMetric.class));
+        when(metricFactory.timer(any())).thenAnswer(ignored -> mock(TimeMetric.class));
         MailQueueFactory<?> queueFactory = mock(MailQueueFactory.class);
         MailProcessor mailProcessor = mock(MailProcessor.class);
         JamesMailSpooler spooler = new JamesMailSpooler(metricFactory, mailProcessor, queueFactory);
@@ -92,7 +95,7 @@ class JamesMailSpoolerTest {
     @Test
     void threadSuicideShouldAckTheItem() throws MessagingException {
         MetricFactory metricFactory = mock(MetricFactory.class);
-        when(metricFactory.timer(JamesMailSpooler.SPOOL_PROCESSING)).thenAnswer(ignored -> mock(TimeMetric.class));
+        when(metricFactory.timer(any())).thenAnswer(ignored -> mock(TimeMetric.class));
         MailQueueFactory<?> queueFactory = mock(MailQueueFactory.class);
         MailProcessor mailProcessor = mock(MailProcessor.class);
         JamesMailSpooler spooler = new JamesMailSpooler(metricFactory, mailProcessor, queueFactory);
@@ -124,6 +127,66 @@ class JamesMailSpoolerTest {
         assertThat(item.getDones()).containsExactly(false, true);
     }
 
+    @Test
+    void spoolerShouldDequeueMailsByBatch() throws MessagingException {
+        MetricFactory metricFactory = mock(MetricFactory.class);
+        when(metricFactory.timer(any())).thenAnswer(ignored -> mock(TimeMetric.class));
+        MailQueueFactory<?> queueFactory = mock(MailQueueFactory.class);
+        MailProcessor mailProcessor = mock(MailProcessor.class);
+        JamesMailSpooler spooler = new JamesMailSpooler(metricFactory, mailProcessor, queueFactory);
+
+        UnicastProcessor<MockedMailQueueItem> workQueue = UnicastProcessor.create();
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        MailQueue queue = mock(MailQueue.class);
+        when(queue.deQueue()).thenAnswer(any -> workQueue.doOnRequest(requests::add));
+        when(queueFactory.createQueue(MailQueueFactory.SPOOL)).thenAnswer(any -> queue);
+
+        PropertyListConfiguration configuration = new PropertyListConfiguration();
+        configuration.addProperty("threads", 2);
+        configuration.addProperty("batchSize", 10);
+        spooler.configure(configuration);
+        spooler.init();
+
+        CALMLY_AWAIT.until(() -> !requests.isEmpty());
+
+        assertThat(requests).containsExactly(10L);
+    }
+
+    @Test
+    void spoolerShouldRequestAsManyMailsAsItCanProcessConcurrentlyByDefault() throws MessagingException {
+        MetricFactory metricFactory = mock(MetricFactory.class);
+        when(metricFactory.timer(any())).thenAnswer(ignored -> mock(TimeMetric.class));
+        MailQueueFactory<?> queueFactory = mock(MailQueueFactory.class);
+        MailProcessor mailProcessor = mock(MailProcessor.class);
+        JamesMailSpooler spooler = new JamesMailSpooler(metricFactory, mailProcessor, queueFactory);
+
+        UnicastProcessor<MockedMailQueueItem> workQueue = UnicastProcessor.create();
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        MailQueue queue = mock(MailQueue.class);
+        when(queue.deQueue()).thenAnswer(any -> workQueue.doOnRequest(requests::add));
+        when(queueFactory.createQueue(MailQueueFactory.SPOOL)).thenAnswer(any -> queue);
+
+        PropertyListConfiguration configuration = new PropertyListConfiguration();
+        configuration.addProperty("threads", 12);
+        spooler.configure(configuration);
+        spooler.init();
+
+        CALMLY_AWAIT.until(() -> !requests.isEmpty());
+
+        assertThat(requests).containsExactly(10L);
+    }
+
+    @Test
+    void configureShouldRejectNonPositiveBatchSize() {
+        JamesMailSpooler spooler = new JamesMailSpooler(mock(MetricFactory.class), mock(MailProcessor.class), mock(MailQueueFactory.class));
+
+        PropertyListConfiguration configuration = new PropertyListConfiguration();
+        configuration.addProperty("batchSize", 0);
+
+        assertThatThrownBy(() -> spooler.configure(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     private class MockedMailQueueItem implements MailQueue.MailQueueItem {
         private final Collection<Boolean> dones;
         private Consumer<Boolean> doneCallback;
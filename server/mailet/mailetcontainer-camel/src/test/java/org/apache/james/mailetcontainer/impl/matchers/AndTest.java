@@ -97,4 +97,28 @@ public class AndTest {
 
         assertThat(testee.match(mail)).isEmpty();
     }
+
+    @Test
+    public void parallelEvaluationShouldReturnTheIntersectionOfTheResults() throws Exception {
+        when(matcher1.match(mail)).thenReturn(ImmutableList.of(ANY_AT_JAMES, OTHER_AT_JAMES));
+        when(matcher2.match(mail)).thenReturn(ImmutableList.of(ANY_AT_JAMES, ANY_AT_JAMES2));
+
+        testee.add(matcher1);
+        testee.add(matcher2);
+        testee.setParallel(true);
+
+        assertThat(testee.match(mail)).containsOnly(ANY_AT_JAMES);
+    }
+
+    @Test
+    public void parallelEvaluationShouldNotMatchWhenOneChildDoesNotMatch() throws Exception {
+        when(matcher1.match(mail)).thenReturn(ImmutableList.of(ANY_AT_JAMES));
+        when(matcher2.match(mail)).thenReturn(null);
+
+        testee.add(matcher1);
+        testee.add(matcher2);
+        testee.setParallel(true);
+
+        assertThat(testee.match(mail)).isEmpty();
+    }
 }
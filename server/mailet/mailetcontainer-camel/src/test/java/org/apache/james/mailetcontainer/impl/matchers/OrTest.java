@@ -24,15 +24,23 @@ import static org.apache.mailet.base.MailAddressFixture.ANY_AT_JAMES2;
 import static org.apache.mailet.base.MailAddressFixture.OTHER_AT_JAMES;
 import static org.apache.mailet.base.MailAddressFixture.OTHER_AT_JAMES2;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+
 import org.apache.james.core.MailAddress;
 import org.apache.james.server.core.MailImpl;
 import org.apache.mailet.Mail;
 import org.apache.mailet.Matcher;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.stubbing.Answer;
 
 import com.google.common.collect.ImmutableList;
 
@@ -99,4 +107,49 @@ public class OrTest {
 
         assertThat(testee.match(mail)).containsOnly(ANY_AT_JAMES, ANY_AT_JAMES2);
     }
+
+    @Test
+    public void parallelEvaluationShouldReturnTheUnionOfTheResults() throws Exception {
+        when(matcher1.match(mail)).thenReturn(ImmutableList.of(ANY_AT_JAMES));
+        when(matcher2.match(mail)).thenReturn(ImmutableList.of(OTHER_AT_JAMES));
+
+        testee.add(matcher1);
+        testee.add(matcher2);
+        testee.setParallel(true);
+
+        assertThat(testee.match(mail)).containsOnly(ANY_AT_JAMES, OTHER_AT_JAMES);
+    }
+
+    @Test
+    public void parallelEvaluationShouldRunChildMatchersConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Answer<Collection<MailAddress>> awaitOtherMatcher = invocation -> {
+            bothStarted.countDown();
+            if (!bothStarted.await(10, TimeUnit.SECONDS)) {
+                throw new MessagingException("Child matchers were not evaluated concurrently");
+            }
+            return ImmutableList.of(ANY_AT_JAMES);
+        };
+        when(matcher1.match(mail)).thenAnswer(awaitOtherMatcher);
+        when(matcher2.match(mail)).thenAnswer(awaitOtherMatcher);
+
+        testee.add(matcher1);
+        testee.add(matcher2);
+        testee.setParallel(true);
+
+        assertThat(testee.match(mail)).containsOnly(ANY_AT_JAMES);
+    }
+
+    @Test
+    public void parallelEvaluationShouldPropagateMatcherFailures() throws Exception {
+        when(matcher1.match(mail)).thenReturn(ImmutableList.of(ANY_AT_JAMES));
+        when(matcher2.match(mail)).thenThrow(new MessagingException("boom"));
+
+        testee.add(matcher1);
+        testee.add(matcher2);
+        testee.setParallel(true);
+
+        assertThatThrownBy(() -> testee.match(mail))
+            .isInstanceOf(MessagingException.class);
+    }
 }
@@ -19,8 +19,10 @@
 package org.apache.james.mailetcontainer.lib;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
 
@@ -35,6 +37,7 @@ import org.apache.james.mailetcontainer.api.mock.ExceptionThrowingMailet;
 import org.apache.james.mailetcontainer.api.mock.ExceptionThrowingMatcher;
 import org.apache.james.mailetcontainer.api.mock.MockMailet;
 import org.apache.james.mailetcontainer.api.mock.MockMatcher;
+import org.apache.james.mailetcontainer.impl.matchers.Or;
 import org.apache.james.mailetcontainer.lib.AbstractStateMailetProcessor.MailetProcessorListener;
 import org.apache.james.server.core.MailImpl;
 import org.apache.james.server.core.configuration.FileConfigurationProvider;
@@ -269,6 +272,45 @@ public abstract class AbstractStateMailetProcessorTest {
 
     }
 
+    @Test
+    public void compositeMatchersShouldBeEvaluatedInParallelWhenSpecified() throws Exception {
+        AbstractStateMailetProcessor processor = createProcessor(createCompositeMatcherConfig(Or.class, "parallel=\"true\""));
+
+        assertThat(processor.getMatchers())
+            .hasSize(1)
+            .first()
+            .isInstanceOfSatisfying(Or.class, or -> assertThat(or.isParallel()).isTrue());
+    }
+
+    @Test
+    public void compositeMatchersShouldBeEvaluatedSequentiallyByDefault() throws Exception {
+        AbstractStateMailetProcessor processor = createProcessor(createCompositeMatcherConfig(Or.class, ""));
+
+        assertThat(processor.getMatchers())
+            .hasSize(1)
+            .first()
+            .isInstanceOfSatisfying(Or.class, or -> assertThat(or.isParallel()).isFalse());
+    }
+
+    @Test
+    public void parallelShouldBeRejectedForNonCompositeMatchers() {
+        assertThatThrownBy(() -> createProcessor(createCompositeMatcherConfig(MockMatcher.class, "parallel=\"true\"")))
+            .isInstanceOf(ConfigurationException.class);
+    }
+
+    private HierarchicalConfiguration<ImmutableNode> createCompositeMatcherConfig(Class<?> matcherClass, String attributes) throws ConfigurationException {
+        String configuration = "<processor state=\"" + Mail.DEFAULT + "\">" +
+            "<matcher name=\"composite\" match=\"" + matcherClass.getName() + "=1\" " + attributes + ">" +
+                "<matcher match=\"" + MockMatcher.class.getName() + "=1\"/>" +
+            "</matcher>" +
+            "<mailet match=\"composite\" class=\"" + MockMailet.class.getName() + "\">" +
+                "<state>test</state>" +
+            "</mailet>" +
+            "</processor>";
+
+        return FileConfigurationProvider.getConfig(new ByteArrayInputStream(configuration.getBytes(StandardCharsets.UTF_8)));
+    }
+
     private MailImpl newMail() throws AddressException {
         return MailImpl.builder()
             .name(MailImpl.getId())
@@ -40,10 +40,16 @@ import org.apache.mailet.base.GenericMailet;
  * This mailet is a composition of RecipientRewriteTable, SieveMailet 
  * and MailboxManager configured to mimic the old "LocalDelivery"
  * James 2.3 behavior.
+ *
+ * The optional 'concurrency' parameter (defaults to 1) sets how many recipients
+ * the mail is stored for concurrently, which lowers the delivery latency of
+ * mails having many local recipients. Each concurrent delivery then works on its
+ * own copy of the mail.
  */
 public class LocalDelivery extends GenericMailet {
 
     public static final String LOCAL_DELIVERED_MAILS_METRIC_NAME = "localDeliveredMails";
+    public static final String CONCURRENCY_PARAMETER = "concurrency";
     private final UsersRepository usersRepository;
     private final MailboxManager mailboxManager;
     private final MetricFactory metricFactory;
@@ -69,7 +75,12 @@ public class LocalDelivery extends GenericMailet {
 
     @Override
     public void init() throws MessagingException {
-        mailDispatcher = MailDispatcher.builder()
+        MailDispatcher.Builder mailDispatcherBuilder = MailDispatcher.builder();
+        getInitParameterAsOptional(CONCURRENCY_PARAMETER)
+            .map(Integer::parseInt)
+            .ifPresent(mailDispatcherBuilder::concurrency);
+
+        mailDispatcher = mailDispatcherBuilder
             .mailStore(SimpleMailStore.builder()
                 .mailboxAppender(new MailboxAppender(mailboxManager))
                 .usersRepository(usersRepository)
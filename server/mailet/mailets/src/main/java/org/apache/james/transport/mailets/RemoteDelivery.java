@@ -80,6 +80,20 @@ import com.google.common.collect.HashMultimap;
  * Default is 0.
  * <li><b>timeout</b> (optional) - an Integer for the Socket I/O timeout in milliseconds. Default is 180000</li>
  * <li><b>connectionTimeout</b> (optional) - an Integer for the Socket connection timeout in milliseconds. Default is 60000</li>
+ * <li><b>maxMessagesPerConnection</b> (optional) - an Integer for the number of mails sent over an SMTP connection before
+ * closing it. Connections are otherwise kept open and reused for the next mails sent to the same server, sparing the
+ * connection, EHLO and STARTTLS round trips. Default is 1, which closes connections after each mail.</li>
+ * <li><b>connectionIdleTimeout</b> (optional) - a Duration after which an unused SMTP connection is closed. Unit defaults
+ * to seconds. Default is 30 seconds.</li>
+ * <li><b>maxConnectionsPerHost</b> (optional) - an Integer limiting the number of SMTP connections concurrently opened to
+ * a given server. Deliveries to this server wait for a connection to be available. Default is no limit.</li>
+ * <li><b>deliveryEngine</b> (optional) - a String selecting how mails are sent. <code>javamail</code> sends each mail from a
+ * dedicated thread, blocked while waiting for the remote server. <code>netty</code> relies on a non blocking SMTP client, so
+ * that thousands of deliveries can be in flight with a few threads. Retries and bounces are the same for both engines.
+ * The netty engine relies on the JVM default trust store for TLS, ignores the <code>mail.*</code> parameters and does
+ * not reuse connections. Default is javamail.</li>
+ * <li><b>maxConcurrentDeliveries</b> (optional) - an Integer for the number of deliveries the netty engine performs
+ * concurrently. Default is 1000.</li>
  * <li><b>bounceProcessor</b> (optional) - a String containing the name of the mailet processor to pass messages that cannot
  * be delivered to for DSN bounce processing. Default is to send a traditional message containing the bounce details.</li>
  * <li><b>startTLS</b> (optional) - a Boolean (true/false) indicating whether the STARTTLS command (if supported by the server)
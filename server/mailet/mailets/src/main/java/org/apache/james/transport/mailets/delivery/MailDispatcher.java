@@ -24,11 +24,13 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.james.core.MailAddress;
+import org.apache.james.lifecycle.api.LifecycleUtil;
 import org.apache.james.server.core.MailImpl;
 import org.apache.mailet.Mail;
 import org.apache.mailet.MailetContext;
@@ -41,6 +43,8 @@ import com.github.fge.lambdas.runnable.ThrowingRunnable;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
@@ -58,8 +62,10 @@ public class MailDispatcher {
 
     public static class Builder {
         static final boolean CONSUME = true;
+        static final int CONCURRENCY = 1;
         private MailStore mailStore;
         private Optional<Boolean> consume = Optional.empty();
+        private Optional<Integer> concurrency = Optional.empty();
         private MailetContext mailetContext;
 
         public Builder consume(boolean consume) {
@@ -67,6 +73,19 @@ public class MailDispatcher {
             return this;
         }
 
+        /**
+         * Number of recipients the mail is stored for concurrently. Recipients having specific headers are always
+         * handled one at a time, as these headers are temporarily added to the shared message.
+         *
+         * Concurrent stores are each given their own duplicate of the mail, as a {@link MailStore} may modify it
+         * (Sieve sets attributes or recipients). These modifications are thus not visible on the dispatched mail.
+         */
+        public Builder concurrency(int concurrency) {
+            Preconditions.checkArgument(concurrency > 0, "'concurrency' needs to be strictly positive");
+            this.concurrency = Optional.of(concurrency);
+            return this;
+        }
+
         public Builder mailStore(MailStore mailStore) {
             this.mailStore = mailStore;
             return this;
@@ -80,19 +99,21 @@ public class MailDispatcher {
         public MailDispatcher build() {
             Preconditions.checkNotNull(mailStore);
             Preconditions.checkNotNull(mailetContext);
-            return new MailDispatcher(mailStore, consume.orElse(CONSUME), mailetContext);
+            return new MailDispatcher(mailStore, consume.orElse(CONSUME), concurrency.orElse(CONCURRENCY), mailetContext);
         }
 
     }
 
     private final MailStore mailStore;
     private final boolean consume;
+    private final int concurrency;
     private final MailetContext mailetContext;
     private final Scheduler scheduler;
 
-    private MailDispatcher(MailStore mailStore, boolean consume, MailetContext mailetContext) {
+    private MailDispatcher(MailStore mailStore, boolean consume, int concurrency, MailetContext mailetContext) {
         this.mailStore = mailStore;
         this.consume = consume;
+        this.concurrency = concurrency;
         this.mailetContext = mailetContext;
         this.scheduler = Schedulers.boundedElastic();
     }
@@ -134,8 +155,37 @@ public class MailDispatcher {
     }
 
     private List<MailAddress> deliver(Mail mail, MimeMessage message) {
+        if (concurrency == 1) {
+            return deliverOneByOne(mail, message, mail.getRecipients());
+        }
+        Map<Boolean, List<MailAddress>> recipientsBySpecificHeaders = mail.getRecipients().stream()
+            .collect(Collectors.partitioningBy(recipient -> hasSpecificHeaders(mail, recipient)));
+
+        return ImmutableList.<MailAddress>builder()
+            .addAll(deliverOneByOne(mail, message, recipientsBySpecificHeaders.get(true)))
+            .addAll(deliverConcurrently(mail, recipientsBySpecificHeaders.get(false)))
+            .build();
+    }
+
+    private boolean hasSpecificHeaders(Mail mail, MailAddress recipient) {
+        return !mail.getPerRecipientSpecificHeaders().getHeaderNamesForRecipient(recipient).isEmpty();
+    }
+
+    private List<MailAddress> deliverConcurrently(Mail mail, Collection<MailAddress> recipients) {
+        return Flux.fromIterable(recipients)
+            .flatMap(recipient -> storeDuplicateWithRetry(mail, recipient)
+                .then(Mono.<MailAddress>empty())
+                .onErrorResume(ex -> {
+                    LOGGER.error("Error while storing mail.", ex);
+                    return Mono.just(recipient);
+                }), concurrency)
+            .collectList()
+            .block();
+    }
+
+    private List<MailAddress> deliverOneByOne(Mail mail, MimeMessage message, Collection<MailAddress> recipients) {
         List<MailAddress> errors = new ArrayList<>();
-        for (MailAddress recipient : mail.getRecipients()) {
+        for (MailAddress recipient : recipients) {
             try {
                 Map<String, List<String>> savedHeaders = saveHeaders(mail, recipient);
 
@@ -151,6 +201,18 @@ public class MailDispatcher {
         return errors;
     }
 
+    private Mono<Void> storeDuplicateWithRetry(Mail mail, MailAddress recipient) {
+        return Mono.using(() -> duplicate(mail),
+            duplicate -> storeMailWithRetry(duplicate, recipient),
+            LifecycleUtil::dispose);
+    }
+
+    private Mail duplicate(Mail mail) throws MessagingException {
+        MailImpl duplicate = MailImpl.duplicate(mail);
+        duplicate.setName(mail.getName());
+        return duplicate;
+    }
+
     private Mono<Void> storeMailWithRetry(Mail mail, MailAddress recipient) {
        return Mono.fromRunnable((ThrowingRunnable)() -> mailStore.storeMail(recipient, mail))
            .doOnError(error -> LOGGER.error("Error While storing mail.", error))
@@ -43,6 +43,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
 
 public class DeliveryRunnable implements Disposable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeliveryRunnable.class);
@@ -65,10 +66,18 @@ public class DeliveryRunnable implements Disposable {
     public DeliveryRunnable(MailQueue queue, RemoteDeliveryConfiguration configuration, DNSService dnsServer, MetricFactory metricFactory,
                             MailetContext mailetContext, Bouncer bouncer) {
         this(queue, configuration, metricFactory, bouncer,
-            new MailDelivrer(configuration, new MailDelivrerToHost(configuration, mailetContext), dnsServer, bouncer),
+            createMailDelivrer(configuration, dnsServer, metricFactory, mailetContext, bouncer),
             CURRENT_DATE_SUPPLIER);
     }
 
+    private static MailDelivrer createMailDelivrer(RemoteDeliveryConfiguration configuration, DNSService dnsServer, MetricFactory metricFactory,
+                                                   MailetContext mailetContext, Bouncer bouncer) {
+        if (configuration.getDeliveryEngine() == RemoteDeliveryConfiguration.DeliveryEngine.NETTY) {
+            return new MailDelivrer(configuration, new NettyMailDelivrerToHost(configuration, mailetContext), dnsServer, bouncer);
+        }
+        return new MailDelivrer(configuration, new MailDelivrerToHost(configuration, mailetContext, metricFactory), dnsServer, bouncer);
+    }
+
     @VisibleForTesting
     DeliveryRunnable(MailQueue queue, RemoteDeliveryConfiguration configuration, MetricFactory metricFactory, Bouncer bouncer,
                      MailDelivrer mailDelivrer, Supplier<Date> dateSupplier) {
@@ -84,12 +93,24 @@ public class DeliveryRunnable implements Disposable {
     public void start() {
         remoteDeliveryScheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "RemoteDelivery");
         disposable = Flux.from(queue.deQueue())
-            .flatMap(queueItem -> runStep(queueItem).subscribeOn(remoteDeliveryScheduler))
+            .flatMap(queueItem -> runStep(queueItem).subscribeOn(remoteDeliveryScheduler), concurrency())
             .onErrorContinue(((throwable, nothing) -> LOGGER.error("Exception caught in RemoteDelivery", throwable)))
             .subscribeOn(remoteDeliveryScheduler)
             .subscribe();
     }
 
+    private int concurrency() {
+        if (isReactive()) {
+            // Deliveries in flight do not hold a thread
+            return configuration.getMaxConcurrentDeliveries();
+        }
+        return Queues.SMALL_BUFFER_SIZE;
+    }
+
+    private boolean isReactive() {
+        return configuration.getDeliveryEngine() == RemoteDeliveryConfiguration.DeliveryEngine.NETTY;
+    }
+
     private Mono<Void> runStep(MailQueue.MailQueueItem queueItem) {
         TimeMetric timeMetric = metricFactory.timer(REMOTE_DELIVERY_TRIAL);
         try {
@@ -101,6 +122,9 @@ public class DeliveryRunnable implements Disposable {
     }
 
     private Mono<Void> processMail(MailQueue.MailQueueItem queueItem) throws MailQueue.MailQueueException {
+        if (isReactive()) {
+            return processMailReactive(queueItem);
+        }
         Mail mail = queueItem.getMail();
 
         try {
@@ -120,9 +144,32 @@ public class DeliveryRunnable implements Disposable {
         }
     }
 
+    private Mono<Void> processMailReactive(MailQueue.MailQueueItem queueItem) {
+        Mail mail = queueItem.getMail();
+        LOGGER.debug("will process mail {}", mail.getName());
+
+        return mailDelivrer.deliverReactive(mail)
+            .publishOn(remoteDeliveryScheduler)
+            .flatMap(executionResult -> Mono.fromCallable(() -> {
+                handleExecutionResult(mail, executionResult);
+                queueItem.done(true);
+                return executionResult;
+            }))
+            .onErrorResume(e -> Mono.fromCallable(() -> {
+                // Prevent unexpected exceptions from causing looping by removing message from outgoing.
+                queueItem.done(false);
+                return e;
+            }).then(Mono.error(e)))
+            .doFinally(any -> LifecycleUtil.dispose(mail))
+            .then();
+    }
+
     @VisibleForTesting
     void attemptDelivery(Mail mail) throws MailQueue.MailQueueException {
-        ExecutionResult executionResult = mailDelivrer.deliver(mail);
+        handleExecutionResult(mail, mailDelivrer.deliver(mail));
+    }
+
+    private void handleExecutionResult(Mail mail, ExecutionResult executionResult) throws MailQueue.MailQueueException {
         switch (executionResult.getExecutionState()) {
             case SUCCESS:
                 outgoingMailsMetric.increment();
@@ -177,5 +224,6 @@ public class DeliveryRunnable implements Disposable {
     public void dispose() {
         disposable.dispose();
         remoteDeliveryScheduler.dispose();
+        mailDelivrer.dispose();
     }
 }
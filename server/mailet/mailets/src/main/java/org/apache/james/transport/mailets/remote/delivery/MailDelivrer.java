@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.mail.Address;
 import javax.mail.MessagingException;
@@ -48,12 +49,14 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 
+import reactor.core.publisher.Mono;
+
 @SuppressWarnings("deprecation")
 public class MailDelivrer {
     private static final Logger LOGGER = LoggerFactory.getLogger(MailDelivrer.class);
 
     private final RemoteDeliveryConfiguration configuration;
-    private final MailDelivrerToHost mailDelivrerToHost;
+    private final AsyncMailDelivrerToHost mailDelivrerToHost;
     private final DnsHelper dnsHelper;
     private final MessageComposer messageComposer;
     private final Bouncer bouncer;
@@ -62,8 +65,16 @@ public class MailDelivrer {
         this(configuration, mailDelivrerToHost, new DnsHelper(dnsServer, configuration), bouncer);
     }
 
+    public MailDelivrer(RemoteDeliveryConfiguration configuration, AsyncMailDelivrerToHost mailDelivrerToHost, DNSService dnsServer, Bouncer bouncer) {
+        this(configuration, mailDelivrerToHost, new DnsHelper(dnsServer, configuration), bouncer);
+    }
+
     @VisibleForTesting
     MailDelivrer(RemoteDeliveryConfiguration configuration, MailDelivrerToHost mailDelivrerToHost, DnsHelper dnsHelper, Bouncer bouncer) {
+        this(configuration, asAsync(mailDelivrerToHost), dnsHelper, bouncer);
+    }
+
+    private MailDelivrer(RemoteDeliveryConfiguration configuration, AsyncMailDelivrerToHost mailDelivrerToHost, DnsHelper dnsHelper, Bouncer bouncer) {
         this.configuration = configuration;
         this.mailDelivrerToHost = mailDelivrerToHost;
         this.dnsHelper = dnsHelper;
@@ -71,6 +82,20 @@ public class MailDelivrer {
         this.bouncer = bouncer;
     }
 
+    private static AsyncMailDelivrerToHost asAsync(MailDelivrerToHost mailDelivrerToHost) {
+        return new AsyncMailDelivrerToHost() {
+            @Override
+            public Mono<ExecutionResult> tryDeliveryToHost(Mail mail, Collection<InternetAddress> addresses, HostAddress outgoingMailServer) {
+                return Mono.fromCallable(() -> mailDelivrerToHost.tryDeliveryToHost(mail, addresses, outgoingMailServer));
+            }
+
+            @Override
+            public void dispose() {
+                mailDelivrerToHost.dispose();
+            }
+        };
+    }
+
     /**
      * We can assume that the recipients of this message are all going to the same mail server. We will now rely on the
      * DNS server to do DNS MX record lookup and try to deliver to the multiple mail servers. If it fails, it should
@@ -80,43 +105,58 @@ public class MailDelivrer {
      * @return boolean Whether the delivery was successful and the message can be deleted
      */
     public ExecutionResult deliver(Mail mail) {
-        try {
-            return tryDeliver(mail);
-        } catch (SendFailedException sfe) {
-            return handleSenderFailedException(mail, sfe);
-        } catch (MessagingException ex) {
+        return deliverReactive(mail).block();
+    }
+
+    /**
+     * Same as {@link #deliver(Mail)}, without blocking the calling thread when the {@link AsyncMailDelivrerToHost} does
+     * not block.
+     */
+    public Mono<ExecutionResult> deliverReactive(Mail mail) {
+        return Mono.defer(() -> tryDeliver(mail))
+            .onErrorResume(Exception.class, e -> Mono.fromCallable(() -> handleFailure(mail, e)));
+    }
+
+    private ExecutionResult handleFailure(Mail mail, Exception e) {
+        if (e instanceof SendFailedException) {
+            return handleSenderFailedException(mail, (SendFailedException) e);
+        }
+        if (e instanceof MessagingException) {
             // We check whether this is a 5xx error message, which indicates a permanent failure (like account doesn't exist
             // or mailbox is full or domain is setup wrong). We fail permanently if this was a 5xx error
-            boolean isPermanent = new EnhancedMessagingException(ex).isServerError();
-            return logAndReturn(mail, ExecutionResult.onFailure(isPermanent, ex));
-        } catch (Exception ex) {
-            LOGGER.error("Generic exception = permanent failure: {}", ex.getMessage(), ex);
-            return logAndReturn(mail, ExecutionResult.permanentFailure(ex));
+            boolean isPermanent = new EnhancedMessagingException((MessagingException) e).isServerError();
+            return logAndReturn(mail, ExecutionResult.onFailure(isPermanent, e));
         }
+        LOGGER.error("Generic exception = permanent failure: {}", e.getMessage(), e);
+        return logAndReturn(mail, ExecutionResult.permanentFailure(e));
+    }
+
+    public void dispose() {
+        mailDelivrerToHost.dispose();
     }
 
-    private ExecutionResult tryDeliver(Mail mail) throws MessagingException {
+    private Mono<ExecutionResult> tryDeliver(Mail mail) {
         if (mail.getRecipients().isEmpty()) {
             LOGGER.info("No recipients specified... not sure how this could have happened.");
-            return ExecutionResult.permanentFailure(new Exception("No recipients specified for " + mail.getName() + " sent by " + mail.getMaybeSender().asString()));
+            return Mono.just(ExecutionResult.permanentFailure(new Exception("No recipients specified for " + mail.getName() + " sent by " + mail.getMaybeSender().asString())));
         }
         if (configuration.isDebug()) {
             LOGGER.debug("Attempting to deliver {}", mail.getName());
         }
 
         Domain host = retrieveTargetHostname(mail);
-        try {
-            // Figure out which servers to try to send to. This collection
-            // will hold all the possible target servers
-            Iterator<HostAddress> targetServers = dnsHelper.retrieveHostAddressIterator(host.asString());
-            if (!targetServers.hasNext()) {
-                return handleNoTargetServer(mail, host);
-            }
-            return doDeliver(mail, InternetAddressConverter.convert(mail.getRecipients()), targetServers);
-        } catch (TemporaryResolutionException e) {
-            return logAndReturn(mail, ExecutionResult.temporaryFailure(new MessagingException("Temporary problem looking " +
-                "up mail server for host: " + host + ".  I cannot determine where to send this message.")));
-        }
+        // Figure out which servers to try to send to. This collection
+        // will hold all the possible target servers
+        return Mono.fromCallable(() -> dnsHelper.retrieveHostAddressIterator(host.asString()))
+            .flatMap(targetServers -> {
+                if (!targetServers.hasNext()) {
+                    return Mono.just(handleNoTargetServer(mail, host));
+                }
+                return doDeliver(mail, new HashSet<>(InternetAddressConverter.convert(mail.getRecipients())), targetServers, new AtomicReference<>());
+            })
+            .onErrorResume(TemporaryResolutionException.class, e ->
+                Mono.just(logAndReturn(mail, ExecutionResult.temporaryFailure(new MessagingException("Temporary problem looking " +
+                    "up mail server for host: " + host + ".  I cannot determine where to send this message.")))));
     }
 
     private Domain retrieveTargetHostname(Mail mail) {
@@ -125,37 +165,44 @@ public class MailDelivrer {
         return rcpt.getDomain();
     }
 
-    private ExecutionResult doDeliver(Mail mail, Set<InternetAddress> addr, Iterator<HostAddress> targetServers) throws MessagingException {
-        MessagingException lastError = null;
-
-        Set<InternetAddress> targetAddresses = new HashSet<>(addr);
-
-        while (targetServers.hasNext()) {
-            try {
-                return mailDelivrerToHost.tryDeliveryToHost(mail, targetAddresses, targetServers.next());
-            } catch (SendFailedException sfe) {
-                lastError = handleSendFailExceptionOnMxIteration(mail, sfe);
+    private Mono<ExecutionResult> doDeliver(Mail mail, Set<InternetAddress> targetAddresses, Iterator<HostAddress> targetServers,
+                                            AtomicReference<MessagingException> lastError) {
+        if (!targetServers.hasNext()) {
+            // If we encountered an exception while looping through,
+            // throw the last MessagingException we caught. We only
+            // do this if we were unable to send the message to any
+            // server. If sending eventually succeeded, we exit
+            // deliver() though the return at the end of the try
+            // block.
+            return Optional.ofNullable(lastError.get())
+                .map(Mono::<ExecutionResult>error)
+                .orElseGet(() -> Mono.just(ExecutionResult.temporaryFailure()));
+        }
+        return mailDelivrerToHost.tryDeliveryToHost(mail, targetAddresses, targetServers.next())
+            .map(Optional::of)
+            .onErrorResume(MessagingException.class, e -> Mono.fromCallable(() -> {
+                lastError.set(handleDeliveryToHostFailure(mail, targetAddresses, e));
+                return Optional.<ExecutionResult>empty();
+            }))
+            .flatMap(result -> result
+                .map(Mono::just)
+                .orElseGet(() -> doDeliver(mail, targetAddresses, targetServers, lastError)));
+    }
 
-                targetAddresses.removeAll(listDeliveredAddresses(sfe));
-            } catch (MessagingException me) {
-                lastError = handleMessagingException(mail, me);
-                if (configuration.isDebug()) {
-                    LOGGER.debug(me.getMessage(), me.getCause());
-                } else {
-                    LOGGER.info(me.getMessage());
-                }
-            }
+    private MessagingException handleDeliveryToHostFailure(Mail mail, Set<InternetAddress> targetAddresses, MessagingException e) throws MessagingException {
+        if (e instanceof SendFailedException) {
+            SendFailedException sfe = (SendFailedException) e;
+            MessagingException error = handleSendFailExceptionOnMxIteration(mail, sfe);
+            targetAddresses.removeAll(listDeliveredAddresses(sfe));
+            return error;
         }
-        // If we encountered an exception while looping through,
-        // throw the last MessagingException we caught. We only
-        // do this if we were unable to send the message to any
-        // server. If sending eventually succeeded, we exit
-        // deliver() though the return at the end of the try
-        // block.
-        if (lastError != null) {
-            throw lastError;
+        MessagingException error = handleMessagingException(mail, e);
+        if (configuration.isDebug()) {
+            LOGGER.debug(e.getMessage(), e.getCause());
+        } else {
+            LOGGER.info(e.getMessage());
         }
-        return ExecutionResult.temporaryFailure();
+        return error;
     }
 
     private Collection<InternetAddress> listDeliveredAddresses(SendFailedException sfe) {
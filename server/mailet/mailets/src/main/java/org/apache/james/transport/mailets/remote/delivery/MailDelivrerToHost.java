@@ -28,6 +28,8 @@ import javax.mail.Session;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.metrics.api.NoopMetricFactory;
 import org.apache.mailet.HostAddress;
 import org.apache.mailet.Mail;
 import org.apache.mailet.MailetContext;
@@ -44,11 +46,17 @@ public class MailDelivrerToHost {
     private final RemoteDeliveryConfiguration configuration;
     private final Converter7Bit converter7Bit;
     private final Session session;
+    private final SMTPConnectionPool connectionPool;
 
     public MailDelivrerToHost(RemoteDeliveryConfiguration remoteDeliveryConfiguration, MailetContext mailetContext) {
+        this(remoteDeliveryConfiguration, mailetContext, new NoopMetricFactory());
+    }
+
+    public MailDelivrerToHost(RemoteDeliveryConfiguration remoteDeliveryConfiguration, MailetContext mailetContext, MetricFactory metricFactory) {
         this.configuration = remoteDeliveryConfiguration;
         this.converter7Bit = new Converter7Bit(mailetContext);
         this.session = Session.getInstance(configuration.createFinalJavaxProperties());
+        this.connectionPool = new SMTPConnectionPool(this::connect, configuration, metricFactory);
     }
 
     public ExecutionResult tryDeliveryToHost(Mail mail, Collection<InternetAddress> addr, HostAddress outgoingMailServer) throws MessagingException {
@@ -62,20 +70,27 @@ public class MailDelivrerToHost {
         // "mail.smtp.dsn.ret"        //default to nothing... appended as RET= after MAIL FROM line.
         // "mail.smtp.dsn.notify"     //default to nothing... appended as NOTIFY= after RCPT TO line.
 
-        SMTPTransport transport = null;
+        SMTPConnectionPool.PooledConnection connection = connectionPool.borrow(outgoingMailServer);
+        boolean succeeded = false;
         try {
-            transport = (SMTPTransport) session.getTransport(outgoingMailServer);
-            transport.setLocalHost(props.getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
-            connect(outgoingMailServer, transport);
+            SMTPTransport transport = connection.getTransport();
             transport.sendMessage(adaptToTransport(mail.getMessage(), transport), toArray(addr));
+            succeeded = true;
             LOGGER.debug("Mail ({})  sent successfully to {} at {} from {} for {}", mail.getName(), outgoingMailServer.getHostName(),
                 outgoingMailServer.getHost(), props.get("mail.smtp.from"), mail.getRecipients());
         } finally {
-            closeTransport(mail, outgoingMailServer, transport);
+            connectionPool.release(connection, succeeded);
         }
         return ExecutionResult.success();
     }
 
+    /**
+     * Closes the SMTP connections kept for reuse.
+     */
+    public void dispose() {
+        connectionPool.close();
+    }
+
     private InternetAddress[] toArray(Collection<InternetAddress> addr) {
         InternetAddress[] addresses = new InternetAddress[addr.size()];
         addr.toArray(addresses);
@@ -88,11 +103,19 @@ public class MailDelivrerToHost {
         return props;
     }
 
-    private void connect(HostAddress outgoingMailServer, SMTPTransport transport) throws MessagingException {
-        if (configuration.getAuthUser() != null) {
-            transport.connect(outgoingMailServer.getHostName(), configuration.getAuthUser(), configuration.getAuthPass());
-        } else {
-            transport.connect();
+    private SMTPTransport connect(HostAddress outgoingMailServer) throws MessagingException {
+        SMTPTransport transport = (SMTPTransport) session.getTransport(outgoingMailServer);
+        transport.setLocalHost(session.getProperties().getProperty("mail.smtp.localhost", configuration.getHeloNameProvider().getHeloName()));
+        try {
+            if (configuration.getAuthUser() != null) {
+                transport.connect(outgoingMailServer.getHostName(), configuration.getAuthUser(), configuration.getAuthPass());
+            } else {
+                transport.connect();
+            }
+            return transport;
+        } catch (MessagingException e) {
+            closeTransport(outgoingMailServer, transport);
+            throw e;
         }
     }
 
@@ -117,22 +140,12 @@ public class MailDelivrerToHost {
         // to 7bit. Javamail api doesn't perform that conversion, but it is required to be a rfc-compliant smtp server.
     }
 
-    private void closeTransport(Mail mail, HostAddress outgoingMailServer, SMTPTransport transport) {
-        if (transport != null) {
-            try {
-                // James-899: transport.close() sends QUIT to the server; if that fails
-                // (e.g. because the server has already closed the connection) the message
-                // should be considered to be delivered because the error happened outside
-                // of the mail transaction (MAIL, RCPT, DATA).
-                transport.close();
-            } catch (MessagingException e) {
-                LOGGER.error("Warning: could not close the SMTP transport after sending mail ({}) to {} at {} for {}; " +
-                        "probably the server has already closed the connection. Message is considered to be delivered. Exception: {}",
-                    mail.getName(), outgoingMailServer.getHostName(), outgoingMailServer.getHost(), mail.getRecipients(), e.getMessage());
-            }
-            transport = null;
+    private void closeTransport(HostAddress outgoingMailServer, SMTPTransport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            LOGGER.debug("Could not close the SMTP transport to {} at {} after a connection failure",
+                outgoingMailServer.getHostName(), outgoingMailServer.getHost(), e);
         }
     }
-
-
 }
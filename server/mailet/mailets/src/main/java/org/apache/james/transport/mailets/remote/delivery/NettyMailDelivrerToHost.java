@@ -0,0 +1,357 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import javax.mail.Address;
+import javax.mail.AuthenticationFailedException;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import javax.net.ssl.SSLContext;
+
+import org.apache.james.core.MaybeSender;
+import org.apache.mailet.HostAddress;
+import org.apache.mailet.Mail;
+import org.apache.mailet.MailetContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPOutputStream;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Delivers mails to a remote SMTP server with {@link NettySMTPClient}, so that waiting for the server does not hold a
+ * thread.
+ *
+ * Server replies are turned into the exceptions JavaMail throws in the same situation, so that retries and bounces
+ * behave as with {@link MailDelivrerToHost}.
+ *
+ * Reading the mail content, converting it to 7 bit and handling the delivery result can block, and are hence
+ * performed on a bounded elastic scheduler rather than on the Netty IO threads.
+ *
+ * The mail content is streamed to the server rather than serialized in memory beforehand, so that the memory used by
+ * concurrent deliveries does not grow with the size of the mails.
+ */
+@SuppressWarnings("deprecation")
+public class NettyMailDelivrerToHost implements AsyncMailDelivrerToHost {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NettyMailDelivrerToHost.class);
+    private static final int DEFAULT_SMTP_PORT = 25;
+    private static final int DEFAULT_SMTPS_PORT = 465;
+    private static final String STARTTLS = "STARTTLS";
+    private static final String PIPELINING = "PIPELINING";
+    private static final String AUTH = "AUTH";
+    private static final String PLAIN = "PLAIN";
+    private static final String LOGIN = "LOGIN";
+    private static final String[] IGNORED_HEADERS = {"Bcc", "Content-Length"};
+    private static final byte[] END_OF_DATA = ".\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int DATA_CONTINUATION = 354;
+
+    private static class RecipientReply {
+        private final InternetAddress recipient;
+        private final SMTPReply reply;
+
+        private RecipientReply(InternetAddress recipient, SMTPReply reply) {
+            this.recipient = recipient;
+            this.reply = reply;
+        }
+    }
+
+    private static class RecipientReplies {
+        private final List<Address> valid = new ArrayList<>();
+        private final List<Address> validUnsent = new ArrayList<>();
+        private final List<Address> invalid = new ArrayList<>();
+        private Optional<MessagingException> failures = Optional.empty();
+
+        private RecipientReplies record(RecipientReply recipientReply) {
+            InternetAddress recipient = recipientReply.recipient;
+            SMTPReply reply = recipientReply.reply;
+            if (reply.isPositiveCompletion()) {
+                valid.add(recipient);
+                return this;
+            }
+            SMTPAddressFailedException failure = new SMTPAddressFailedException(recipient, "RCPT", reply.getCode(), reply.asString());
+            // Same classification than JavaMail: mailbox full and transient failures can be retried
+            if (reply.isTransientNegative() || reply.getCode() == 552) {
+                validUnsent.add(recipient);
+            } else {
+                invalid.add(recipient);
+            }
+            if (failures.isPresent()) {
+                failures.get().setNextException(failure);
+            } else {
+                failures = Optional.of(failure);
+            }
+            return this;
+        }
+
+        private boolean hasFailures() {
+            return !invalid.isEmpty() || !validUnsent.isEmpty();
+        }
+
+        private Address[] unsent() {
+            return ImmutableList.<Address>builder()
+                .addAll(valid)
+                .addAll(validUnsent)
+                .build()
+                .toArray(new Address[0]);
+        }
+    }
+
+    private final RemoteDeliveryConfiguration configuration;
+    private final Converter7Bit converter7Bit;
+    private final NettySMTPClient client;
+
+    public NettyMailDelivrerToHost(RemoteDeliveryConfiguration configuration, MailetContext mailetContext) {
+        this(configuration, mailetContext, new NettySMTPClient(Duration.ofMillis(configuration.getConnectionTimeout()),
+            Duration.ofMillis(configuration.getSmtpTimeout()),
+            localAddress(configuration)));
+    }
+
+    NettyMailDelivrerToHost(RemoteDeliveryConfiguration configuration, MailetContext mailetContext, NettySMTPClient client) {
+        this.configuration = configuration;
+        this.converter7Bit = new Converter7Bit(mailetContext);
+        this.client = client;
+    }
+
+    private static Optional<InetSocketAddress> localAddress(RemoteDeliveryConfiguration configuration) {
+        if (configuration.isBindUsed()) {
+            return Optional.of(new InetSocketAddress(configuration.getBindAddress(), 0));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Mono<ExecutionResult> tryDeliveryToHost(Mail mail, Collection<InternetAddress> addresses, HostAddress outgoingMailServer) {
+        List<InternetAddress> recipients = ImmutableList.copyOf(addresses);
+        int port = port(outgoingMailServer);
+        LOGGER.debug("Attempting delivery of {} to host {} at {} from {}",
+            mail.getName(), outgoingMailServer.getHostName(), outgoingMailServer.getHost(), mail.getMaybeSender().asString());
+
+        return Mono.fromCallable(() -> new InetSocketAddress(outgoingMailServer.getHost(), port))
+            .flatMap(address -> client.connect(outgoingMailServer.getHostName(), address))
+            .flatMap(session -> deliver(session, mail, recipients, port)
+                .then(session.quit())
+                .onErrorResume(e -> session.close().then(Mono.error(e)))
+                .doOnCancel(() -> session.close().subscribe()))
+            .doOnSuccess(any -> LOGGER.debug("Mail ({}) sent successfully to {} at {} from {} for {}", mail.getName(),
+                outgoingMailServer.getHostName(), outgoingMailServer.getHost(), mail.getMaybeSender().asString(), mail.getRecipients()))
+            .thenReturn(ExecutionResult.success())
+            .publishOn(Schedulers.boundedElastic());
+    }
+
+    private int port(HostAddress outgoingMailServer) {
+        if (outgoingMailServer.getPort() > 0) {
+            return outgoingMailServer.getPort();
+        }
+        if (configuration.isSSLEnable()) {
+            return DEFAULT_SMTPS_PORT;
+        }
+        return DEFAULT_SMTP_PORT;
+    }
+
+    private Mono<Void> deliver(SMTPClientSession session, Mail mail, List<InternetAddress> recipients, int port) {
+        String heloName = configuration.getHeloNameProvider().getHeloName();
+        return implicitTls(session, port)
+            .then(session.greeting())
+            .flatMap(greeting -> checkGreeting(session, greeting, port))
+            .then(session.ehlo(heloName))
+            .then(Mono.defer(() -> startTls(session, heloName, port)))
+            .then(Mono.defer(() -> authenticate(session)))
+            .then(Mono.fromCallable(() -> message(mail, session))
+                .subscribeOn(Schedulers.boundedElastic()))
+            .flatMap(message -> sendMessage(session, mail.getMaybeSender(), recipients, outputStream -> writeContent(message, outputStream)));
+    }
+
+    private Mono<Void> implicitTls(SMTPClientSession session, int port) {
+        if (configuration.isSSLEnable()) {
+            return sslContext().flatMap(sslContext -> session.startTls(sslContext, port));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<Void> checkGreeting(SMTPClientSession session, SMTPReply greeting, int port) {
+        if (greeting.isPositiveCompletion()) {
+            return Mono.empty();
+        }
+        return Mono.error(new MessagingException("Could not connect to SMTP host: " + session.getServerName()
+            + ", port: " + port + ", response: " + greeting.getCode()));
+    }
+
+    private Mono<Void> startTls(SMTPClientSession session, String heloName, int port) {
+        if (!configuration.isStartTLS() || configuration.isSSLEnable() || !session.supportsExtension(STARTTLS)) {
+            return Mono.empty();
+        }
+        return session.command(STARTTLS)
+            .flatMap(session::expectCompletion)
+            .then(sslContext())
+            .flatMap(sslContext -> session.startTls(sslContext, port))
+            // Extensions advertised before STARTTLS can not be trusted
+            .then(session.ehlo(heloName));
+    }
+
+    private Mono<SSLContext> sslContext() {
+        return Mono.fromCallable(SSLContext::getDefault)
+            .onErrorMap(NoSuchAlgorithmException.class, e -> new MessagingException("Could not create a TLS context", e));
+    }
+
+    private Mono<Void> authenticate(SMTPClientSession session) {
+        if (configuration.getAuthUser() == null || !session.supportsExtension(AUTH)) {
+            return Mono.empty();
+        }
+        List<String> mechanisms = ImmutableList.copyOf(session.getExtensionParameters(AUTH).orElse("").toUpperCase(Locale.US).split(" "));
+        if (mechanisms.contains(PLAIN)) {
+            String credentials = "\0" + configuration.getAuthUser() + "\0" + configuration.getAuthPass();
+            return session.command("AUTH PLAIN " + base64(credentials))
+                .flatMap(this::expectAuthenticated);
+        }
+        if (mechanisms.contains(LOGIN)) {
+            return session.command("AUTH LOGIN")
+                .flatMap(this::expectAuthenticationChallenge)
+                .then(session.command(base64(configuration.getAuthUser())))
+                .flatMap(this::expectAuthenticationChallenge)
+                .then(session.command(base64(configuration.getAuthPass())))
+                .flatMap(this::expectAuthenticated);
+        }
+        return Mono.error(new AuthenticationFailedException("No supported authentication mechanism in " + mechanisms));
+    }
+
+    private String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<Void> expectAuthenticationChallenge(SMTPReply reply) {
+        if (reply.isPositiveIntermediate()) {
+            return Mono.empty();
+        }
+        return Mono.error(new AuthenticationFailedException(reply.asString()));
+    }
+
+    private Mono<Void> expectAuthenticated(SMTPReply reply) {
+        if (reply.isPositiveCompletion()) {
+            return Mono.empty();
+        }
+        return Mono.error(new AuthenticationFailedException(reply.asString()));
+    }
+
+    private MimeMessage message(Mail mail, SMTPClientSession session) throws MessagingException {
+        MimeMessage message = mail.getMessage();
+        if (!session.supportsExtension(MailDelivrerToHost.BIT_MIME_8)) {
+            // The message needs to be converted to 7 bit, as the server does not support the 8BITMIME extension.
+            try {
+                converter7Bit.convertTo7Bit(message);
+            } catch (IOException e) {
+                LOGGER.error("Error during the conversion to 7 bit.", e);
+            }
+        }
+        return message;
+    }
+
+    private void writeContent(MimeMessage message, OutputStream outputStream) throws MessagingException, IOException {
+        SMTPOutputStream dotStuffingStream = new SMTPOutputStream(outputStream);
+        message.writeTo(dotStuffingStream, IGNORED_HEADERS);
+        dotStuffingStream.ensureAtBOL();
+        outputStream.write(END_OF_DATA);
+    }
+
+    private Mono<Void> sendMessage(SMTPClientSession session, MaybeSender sender, List<InternetAddress> recipients, SMTPClientSession.Content content) {
+        Address[] allRecipients = recipients.toArray(new Address[0]);
+        return session.command("MAIL FROM:<" + sender.asString("") + ">")
+            .flatMap(reply -> {
+                if (reply.isPositiveCompletion()) {
+                    return Mono.empty();
+                }
+                return Mono.error(new SMTPSendFailedException("MAIL", reply.getCode(), reply.asString(), null, null, allRecipients, null));
+            })
+            .then(sendRecipients(session, recipients))
+            .flatMap(recipientReplies -> sendData(session, recipientReplies, content));
+    }
+
+    private Mono<RecipientReplies> sendRecipients(SMTPClientSession session, List<InternetAddress> recipients) {
+        Flux<InternetAddress> toSend = Flux.fromIterable(recipients);
+        if (session.supportsExtension(PIPELINING)) {
+            return toSend.flatMapSequential(recipient -> rcpt(session, recipient))
+                .reduce(new RecipientReplies(), RecipientReplies::record);
+        }
+        return toSend.concatMap(recipient -> rcpt(session, recipient))
+            .reduce(new RecipientReplies(), RecipientReplies::record);
+    }
+
+    private Mono<RecipientReply> rcpt(SMTPClientSession session, InternetAddress recipient) {
+        return session.command("RCPT TO:<" + recipient.getAddress() + ">")
+            .map(reply -> new RecipientReply(recipient, reply));
+    }
+
+    private Mono<Void> sendData(SMTPClientSession session, RecipientReplies replies, SMTPClientSession.Content content) {
+        if (replies.valid.isEmpty() || (!configuration.isSendPartial() && replies.hasFailures())) {
+            return Mono.error(new SendFailedException("Invalid Addresses", replies.failures.orElse(null),
+                new Address[0], replies.unsent(), replies.invalid.toArray(new Address[0])));
+        }
+        return session.command("DATA")
+            .flatMap(reply -> {
+                if (reply.getCode() == DATA_CONTINUATION) {
+                    return session.data(content);
+                }
+                return Mono.error(sendFailed("DATA", reply, replies));
+            })
+            .flatMap(reply -> {
+                if (!reply.isPositiveCompletion()) {
+                    return Mono.error(sendFailed(".", reply, replies));
+                }
+                if (replies.hasFailures()) {
+                    // Partial delivery: the mail was sent to valid recipients only
+                    return Mono.error(new SMTPSendFailedException(".", reply.getCode(), reply.asString(), replies.failures.orElse(null),
+                        replies.valid.toArray(new Address[0]),
+                        replies.validUnsent.toArray(new Address[0]),
+                        replies.invalid.toArray(new Address[0])));
+                }
+                return Mono.empty();
+            });
+    }
+
+    private SMTPSendFailedException sendFailed(String command, SMTPReply reply, RecipientReplies replies) {
+        return new SMTPSendFailedException(command, reply.getCode(), reply.asString(), replies.failures.orElse(null),
+            null, replies.unsent(), replies.invalid.toArray(new Address[0]));
+    }
+
+    @Override
+    public void dispose() {
+        client.dispose();
+    }
+}
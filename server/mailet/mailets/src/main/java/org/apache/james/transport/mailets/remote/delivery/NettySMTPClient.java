@@ -0,0 +1,104 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.util.concurrent.NamedThreadFactory;
+import org.jboss.netty.bootstrap.ClientBootstrap;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
+import org.jboss.netty.handler.codec.frame.DelimiterBasedFrameDecoder;
+import org.jboss.netty.handler.codec.frame.Delimiters;
+import org.jboss.netty.handler.codec.string.StringDecoder;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Opens SMTP sessions without blocking the calling thread: a few Netty IO threads serve all the sessions in flight.
+ */
+public class NettySMTPClient {
+    private static final int MAX_LINE_LENGTH = 8192;
+    private static final int BOSS_COUNT = 1;
+    private static final String FRAMER = "framer";
+    private static final String DECODER = "decoder";
+    private static final String HANDLER = "handler";
+
+    private final ClientBootstrap bootstrap;
+    private final Duration replyTimeout;
+
+    public NettySMTPClient(Duration connectionTimeout, Duration replyTimeout, Optional<InetSocketAddress> localAddress) {
+        NamedThreadFactory threadFactory = NamedThreadFactory.withClassName(getClass());
+        this.bootstrap = new ClientBootstrap(new NioClientSocketChannelFactory(
+            Executors.newCachedThreadPool(threadFactory),
+            Executors.newCachedThreadPool(threadFactory),
+            BOSS_COUNT,
+            Runtime.getRuntime().availableProcessors()));
+        this.replyTimeout = replyTimeout;
+
+        bootstrap.setOption("tcpNoDelay", true);
+        bootstrap.setOption("connectTimeoutMillis", connectionTimeout.toMillis());
+        localAddress.ifPresent(address -> bootstrap.setOption("localAddress", address));
+        bootstrap.setPipelineFactory(() -> {
+            ChannelPipeline pipeline = Channels.pipeline();
+            pipeline.addLast(FRAMER, new DelimiterBasedFrameDecoder(MAX_LINE_LENGTH, Delimiters.lineDelimiter()));
+            pipeline.addLast(DECODER, new StringDecoder(StandardCharsets.UTF_8));
+            pipeline.addLast(HANDLER, new SMTPClientHandler());
+            return pipeline;
+        });
+    }
+
+    /**
+     * Connects to the given server. The returned session still needs to read the server greeting.
+     *
+     * @param serverName the name of the server, used for TLS and error reporting
+     */
+    public Mono<SMTPClientSession> connect(String serverName, InetSocketAddress address) {
+        return Mono.defer(() -> {
+            ChannelFuture connection = bootstrap.connect(address);
+            return SMTPClientSession.toMono(connection)
+                .then(Mono.fromCallable(() -> new SMTPClientSession(connection.getChannel(),
+                    connection.getChannel().getPipeline().get(SMTPClientHandler.class),
+                    serverName,
+                    replyTimeout)));
+        })
+        .onErrorMap(e -> !(e instanceof MessagingException),
+            e -> new MessagingException("Could not connect to SMTP host: " + serverName + ", port: " + address.getPort(), asException(e)));
+    }
+
+    private Exception asException(Throwable e) {
+        if (e instanceof Exception) {
+            return (Exception) e;
+        }
+        return new RuntimeException(e);
+    }
+
+    public void dispose() {
+        bootstrap.releaseExternalResources();
+    }
+}
@@ -20,6 +20,8 @@
 package org.apache.james.transport.mailets.remote.delivery;
 
 import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -27,18 +29,33 @@ import java.util.Properties;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.domainlist.api.DomainList;
+import org.apache.james.util.DurationParser;
 import org.apache.mailet.MailetConfig;
 import org.apache.mailet.base.MailetUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 
 public class RemoteDeliveryConfiguration {
 
+    public enum DeliveryEngine {
+        JAVAMAIL,
+        NETTY;
+
+        public static DeliveryEngine parse(String value) {
+            return Arrays.stream(values())
+                .filter(engine -> engine.name().equalsIgnoreCase(value.trim()))
+                .findAny()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown delivery engine '" + value + "'. Supported values are "
+                    + Arrays.toString(values())));
+        }
+    }
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteDeliveryConfiguration.class);
 
     public static final String USE_PRIORITY = "usePriority";
@@ -61,12 +78,21 @@ public class RemoteDeliveryConfiguration {
     public static final String MAX_RETRIES = "maxRetries";
     public static final String DELAY_TIME = "delayTime";
     public static final String DEBUG = "debug";
+    public static final String MAX_MESSAGES_PER_CONNECTION = "maxMessagesPerConnection";
+    public static final String CONNECTION_IDLE_TIMEOUT = "connectionIdleTimeout";
+    public static final String MAX_CONNECTIONS_PER_HOST = "maxConnectionsPerHost";
+    public static final String DELIVERY_ENGINE = "deliveryEngine";
+    public static final String MAX_CONCURRENT_DELIVERIES = "maxConcurrentDeliveries";
     public static final int DEFAULT_SMTP_TIMEOUT = 180000;
     public static final String DEFAULT_OUTGOING_QUEUE_NAME = "outgoing";
     public static final int DEFAULT_CONNECTION_TIMEOUT = 60000;
     public static final int DEFAULT_DNS_RETRY_PROBLEM = 0;
     public static final int DEFAULT_MAX_RETRY = 5;
     public static final String ADDRESS_PORT_SEPARATOR = ":";
+    public static final int DEFAULT_MAX_MESSAGES_PER_CONNECTION = 1;
+    public static final Duration DEFAULT_CONNECTION_IDLE_TIMEOUT = Duration.ofSeconds(30);
+    public static final DeliveryEngine DEFAULT_DELIVERY_ENGINE = DeliveryEngine.JAVAMAIL;
+    public static final int DEFAULT_MAX_CONCURRENT_DELIVERIES = 1000;
 
     private final boolean isDebug;
     private final boolean usePriority;
@@ -78,6 +104,11 @@ public class RemoteDeliveryConfiguration {
     private final long smtpTimeout;
     private final int dnsProblemRetry;
     private final int connectionTimeout;
+    private final int maxMessagesPerConnection;
+    private final Duration connectionIdleTimeout;
+    private final Optional<Integer> maxConnectionsPerHost;
+    private final DeliveryEngine deliveryEngine;
+    private final int maxConcurrentDeliveries;
     private final List<Duration> delayTimes;
     private final HeloNameProvider heloNameProvider;
     private final String outGoingQueueName;
@@ -104,6 +135,18 @@ public class RemoteDeliveryConfiguration {
         smtpTimeout = computeSmtpTimeout(mailetConfig);
         connectionTimeout = computeConnectionTimeout(mailetConfig);
         dnsProblemRetry = computeDnsProblemRetry(mailetConfig);
+        maxMessagesPerConnection = computeStrictlyPositiveInteger(mailetConfig, MAX_MESSAGES_PER_CONNECTION)
+            .orElse(DEFAULT_MAX_MESSAGES_PER_CONNECTION);
+        connectionIdleTimeout = Optional.ofNullable(mailetConfig.getInitParameter(CONNECTION_IDLE_TIMEOUT))
+            .map(value -> DurationParser.parse(value, ChronoUnit.SECONDS))
+            .orElse(DEFAULT_CONNECTION_IDLE_TIMEOUT);
+        maxConnectionsPerHost = computeStrictlyPositiveInteger(mailetConfig, MAX_CONNECTIONS_PER_HOST);
+        deliveryEngine = Optional.ofNullable(mailetConfig.getInitParameter(DELIVERY_ENGINE))
+            .filter(value -> !Strings.isNullOrEmpty(value))
+            .map(DeliveryEngine::parse)
+            .orElse(DEFAULT_DELIVERY_ENGINE);
+        maxConcurrentDeliveries = computeStrictlyPositiveInteger(mailetConfig, MAX_CONCURRENT_DELIVERIES)
+            .orElse(DEFAULT_MAX_CONCURRENT_DELIVERIES);
         heloNameProvider = new HeloNameProvider(mailetConfig.getInitParameter(HELO_NAME), domainList);
 
         String gatewayPort = mailetConfig.getInitParameter(GATEWAY_PORT);
@@ -132,6 +175,14 @@ public class RemoteDeliveryConfiguration {
         return result;
     }
 
+    private Optional<Integer> computeStrictlyPositiveInteger(MailetConfig mailetConfig, String name) {
+        Optional<Integer> value = Optional.ofNullable(mailetConfig.getInitParameter(name))
+            .filter(string -> !Strings.isNullOrEmpty(string))
+            .map(Integer::parseInt);
+        value.ifPresent(integer -> Preconditions.checkArgument(integer > 0, "'%s' needs to be strictly positive", name));
+        return value;
+    }
+
     private int computeDnsProblemRetry(MailetConfig mailetConfig) {
         String dnsRetry = mailetConfig.getInitParameter(MAX_DNS_PROBLEM_RETRIES);
         if (!Strings.isNullOrEmpty(dnsRetry)) {
@@ -260,6 +311,26 @@ public class RemoteDeliveryConfiguration {
         return connectionTimeout;
     }
 
+    public int getMaxMessagesPerConnection() {
+        return maxMessagesPerConnection;
+    }
+
+    public Duration getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    public Optional<Integer> getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public DeliveryEngine getDeliveryEngine() {
+        return deliveryEngine;
+    }
+
+    public int getMaxConcurrentDeliveries() {
+        return maxConcurrentDeliveries;
+    }
+
     public Collection<String> getGatewayServer() {
         return gatewayServer;
     }
@@ -0,0 +1,129 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.ExceptionEvent;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Matches the replies read from an SMTP server with the commands awaiting them.
+ *
+ * Replies come in the order commands were sent, hence awaited replies are queued. The server greeting is the first
+ * awaited reply.
+ */
+class SMTPClientHandler extends SimpleChannelUpstreamHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SMTPClientHandler.class);
+
+    private final Queue<CompletableFuture<SMTPReply>> awaitedReplies;
+    private final List<String> replyLines;
+    private final CompletableFuture<SMTPReply> greeting;
+    private Optional<Throwable> failure;
+
+    SMTPClientHandler() {
+        this.awaitedReplies = new ArrayDeque<>();
+        this.replyLines = new ArrayList<>();
+        this.greeting = new CompletableFuture<>();
+        this.failure = Optional.empty();
+        this.awaitedReplies.add(greeting);
+    }
+
+    CompletableFuture<SMTPReply> greeting() {
+        return greeting;
+    }
+
+    /**
+     * Registers a reply to be awaited. Callers need to register it before sending the matching command.
+     */
+    synchronized CompletableFuture<SMTPReply> awaitReply() {
+        CompletableFuture<SMTPReply> reply = new CompletableFuture<>();
+        if (failure.isPresent()) {
+            reply.completeExceptionally(failure.get());
+        } else {
+            awaitedReplies.add(reply);
+        }
+        return reply;
+    }
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) {
+        String line = (String) e.getMessage();
+        replyLines.add(line);
+        if (!SMTPReply.isContinuation(line)) {
+            List<String> lines = ImmutableList.copyOf(replyLines);
+            replyLines.clear();
+            complete(ctx, lines);
+        }
+    }
+
+    private void complete(ChannelHandlerContext ctx, List<String> lines) {
+        Optional<CompletableFuture<SMTPReply>> awaitedReply = pollAwaitedReply();
+        if (!awaitedReply.isPresent()) {
+            LOGGER.debug("Ignoring unexpected reply from {}: {}", ctx.getChannel().getRemoteAddress(), lines);
+            return;
+        }
+        try {
+            awaitedReply.get().complete(SMTPReply.parse(lines));
+        } catch (IllegalArgumentException e) {
+            fail(new IOException(e.getMessage(), e));
+            ctx.getChannel().close();
+        }
+    }
+
+    private synchronized Optional<CompletableFuture<SMTPReply>> pollAwaitedReply() {
+        return Optional.ofNullable(awaitedReplies.poll());
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, ExceptionEvent e) {
+        fail(e.getCause());
+        e.getChannel().close();
+    }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        fail(new IOException("Connection closed by " + ctx.getChannel().getRemoteAddress()));
+        super.channelClosed(ctx, e);
+    }
+
+    private synchronized void fail(Throwable cause) {
+        if (!failure.isPresent()) {
+            failure = Optional.of(cause);
+        }
+        CompletableFuture<SMTPReply> awaitedReply;
+        while ((awaitedReply = awaitedReplies.poll()) != null) {
+            awaitedReply.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.mail.MessagingException;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.handler.ssl.SslHandler;
+
+import com.google.common.collect.ImmutableMap;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * An SMTP session opened by {@link NettySMTPClient}.
+ *
+ * Commands are written as soon as they are subscribed to. Several commands can hence be in flight when the server
+ * supports PIPELINING, their replies being matched in order.
+ *
+ * Failures to read a reply are reported as {@link MessagingException} nesting an {@link IOException}, which is how
+ * JavaMail reports connection problems.
+ */
+public class SMTPClientSession {
+    private static final String CRLF = "\r\n";
+    private static final String SSL_HANDLER = "ssl";
+    private static final int CHUNK_SIZE = 8192;
+
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(OutputStream outputStream) throws IOException, MessagingException;
+    }
+
+    /**
+     * Writes to the channel in chunks of {@link #CHUNK_SIZE} bytes. Once the channel is no longer writable, that is to
+     * say once the bytes not yet sent reach its high water mark, writing blocks until the previous chunks are sent.
+     */
+    private static class ChannelOutputStream extends OutputStream {
+        private final Channel channel;
+        private final Duration writeTimeout;
+        private byte[] chunk;
+        private int chunkLength;
+        private Optional<ChannelFuture> lastWrite;
+
+        private ChannelOutputStream(Channel channel, Duration writeTimeout) {
+            this.channel = channel;
+            this.writeTimeout = writeTimeout;
+            this.chunk = new byte[CHUNK_SIZE];
+            this.chunkLength = 0;
+            this.lastWrite = Optional.empty();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            chunk[chunkLength++] = (byte) b;
+            if (chunkLength == CHUNK_SIZE) {
+                writeChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int written = 0;
+            while (written < len) {
+                int length = Math.min(len - written, CHUNK_SIZE - chunkLength);
+                System.arraycopy(b, off + written, chunk, chunkLength, length);
+                chunkLength += length;
+                written += length;
+                if (chunkLength == CHUNK_SIZE) {
+                    writeChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (chunkLength > 0) {
+                writeChunk();
+            }
+        }
+
+        private void writeChunk() throws IOException {
+            if (!channel.isWritable() && lastWrite.isPresent()) {
+                awaitWritten(lastWrite.get());
+            }
+            // The chunk is written asynchronously, hence can not be reused
+            lastWrite = Optional.of(channel.write(ChannelBuffers.wrappedBuffer(chunk, 0, chunkLength)));
+            chunk = new byte[CHUNK_SIZE];
+            chunkLength = 0;
+        }
+
+        private void awaitWritten(ChannelFuture write) throws IOException {
+            try {
+                if (!write.await(writeTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new SocketTimeoutException("Content not sent within " + writeTimeout.toMillis() + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while sending the content");
+            }
+            if (!write.isSuccess()) {
+                throw new IOException("Failed to send the content", write.getCause());
+            }
+        }
+    }
+
+    static Mono<Void> toMono(ChannelFuture future) {
+        return Mono.create(sink -> future.addListener(done -> {
+            if (done.isSuccess()) {
+                sink.success();
+            } else {
+                sink.error(done.getCause());
+            }
+        }));
+    }
+
+    private final Channel channel;
+    private final SMTPClientHandler handler;
+    private final String serverName;
+    private final Duration replyTimeout;
+    private Map<String, String> extensions;
+
+    SMTPClientSession(Channel channel, SMTPClientHandler handler, String serverName, Duration replyTimeout) {
+        this.channel = channel;
+        this.handler = handler;
+        this.serverName = serverName;
+        this.replyTimeout = replyTimeout;
+        this.extensions = ImmutableMap.of();
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public Mono<SMTPReply> greeting() {
+        return awaitReply(handler.greeting());
+    }
+
+    public Mono<SMTPReply> command(String command) {
+        return write(ChannelBuffers.copiedBuffer(command + CRLF, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends the content of a mail, once the server accepted the DATA command.
+     *
+     * The content is written from a bounded elastic thread, as it might block, and streamed in chunks: at most the
+     * channel high water mark of it is buffered in memory.
+     *
+     * @param content writes the mail content, already dot-stuffed and terminated by the end of data line
+     */
+    public Mono<SMTPReply> data(Content content) {
+        return Mono.fromCallable(() -> {
+                CompletableFuture<SMTPReply> reply;
+                synchronized (handler) {
+                    reply = handler.awaitReply();
+                }
+                try (OutputStream outputStream = new ChannelOutputStream(channel, replyTimeout)) {
+                    content.writeTo(outputStream);
+                }
+                return reply;
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(this::awaitReply);
+    }
+
+    private Mono<SMTPReply> write(Object message) {
+        return Mono.defer(() -> {
+            CompletableFuture<SMTPReply> reply;
+            synchronized (handler) {
+                reply = handler.awaitReply();
+                channel.write(message);
+            }
+            return awaitReply(reply);
+        });
+    }
+
+    private Mono<SMTPReply> awaitReply(CompletableFuture<SMTPReply> reply) {
+        return Mono.fromFuture(reply)
+            .timeout(replyTimeout)
+            .onErrorMap(e -> !(e instanceof MessagingException),
+                e -> new MessagingException("Exception reading response from " + serverName, asIOException(e)));
+    }
+
+    private IOException asIOException(Throwable e) {
+        if (e instanceof IOException) {
+            return (IOException) e;
+        }
+        if (e instanceof TimeoutException) {
+            return new SocketTimeoutException("No reply received within " + replyTimeout.toMillis() + " ms");
+        }
+        return new IOException(e);
+    }
+
+    /**
+     * Greets the server with EHLO, falling back to HELO, and records the extensions it advertises.
+     */
+    public Mono<Void> ehlo(String heloName) {
+        return command("EHLO " + heloName)
+            .flatMap(reply -> {
+                if (reply.isPositiveCompletion()) {
+                    extensions = parseExtensions(reply);
+                    return Mono.empty();
+                }
+                extensions = ImmutableMap.of();
+                return command("HELO " + heloName)
+                    .flatMap(heloReply -> expectCompletion(heloReply));
+            });
+    }
+
+    private Map<String, String> parseExtensions(SMTPReply reply) {
+        return reply.getTextLines()
+            .stream()
+            .skip(1)
+            .map(line -> line.trim().split(" ", 2))
+            .collect(ImmutableMap.toImmutableMap(
+                parts -> parts[0].toUpperCase(Locale.US),
+                parts -> parts.length > 1 ? parts[1] : "",
+                (first, second) -> first));
+    }
+
+    public boolean supportsExtension(String extension) {
+        return extensions.containsKey(extension.toUpperCase(Locale.US));
+    }
+
+    public Optional<String> getExtensionParameters(String extension) {
+        return Optional.ofNullable(extensions.get(extension.toUpperCase(Locale.US)));
+    }
+
+    /**
+     * Performs the TLS handshake, either right after connecting or once the server accepted STARTTLS.
+     */
+    public Mono<Void> startTls(SSLContext sslContext, int port) {
+        return Mono.defer(() -> {
+            SSLEngine engine = sslContext.createSSLEngine(serverName, port);
+            engine.setUseClientMode(true);
+            SslHandler sslHandler = new SslHandler(engine);
+            channel.getPipeline().addFirst(SSL_HANDLER, sslHandler);
+            return toMono(sslHandler.handshake());
+        })
+        .timeout(replyTimeout)
+        .onErrorMap(e -> new MessagingException("Could not establish a TLS session with " + serverName, asIOException(e)));
+    }
+
+    /**
+     * Checks a reply is a positive completion, failing the way JavaMail does otherwise.
+     */
+    public Mono<Void> expectCompletion(SMTPReply reply) {
+        if (reply.isPositiveCompletion()) {
+            return Mono.empty();
+        }
+        return Mono.error(new MessagingException(reply.asString()));
+    }
+
+    /**
+     * Ends the session politely. Failing to do so does not affect the mails already sent.
+     */
+    public Mono<Void> quit() {
+        return command("QUIT")
+            .onErrorResume(any -> Mono.empty())
+            .then(close());
+    }
+
+    public Mono<Void> close() {
+        return Mono.defer(() -> toMono(channel.close()))
+            .onErrorResume(any -> Mono.empty());
+    }
+}
@@ -0,0 +1,250 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.metrics.api.Metric;
+import org.apache.james.metrics.api.MetricFactory;
+import org.apache.mailet.HostAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.sun.mail.smtp.SMTPTransport;
+
+/**
+ * Keeps the SMTP connections opened by RemoteDelivery so that mails sent to the same server share a session instead
+ * of paying the TCP connection, EHLO and STARTTLS round trips each time.
+ *
+ * A connection is reused until it has sent <code>maxMessagesPerConnection</code> mails, or stayed idle longer than
+ * <code>idleTimeout</code>. Only connections whose last transaction succeeded are reused, and a connection is checked
+ * to still be alive before being reused. The number of connections opened concurrently to a given server can be
+ * limited.
+ */
+@SuppressWarnings("deprecation")
+public class SMTPConnectionPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SMTPConnectionPool.class);
+
+    public static final String OPENED_CONNECTIONS = "remoteDeliveryOpenedConnections";
+    public static final String REUSED_CONNECTIONS = "remoteDeliveryReusedConnections";
+    public static final String ACTIVE_CONNECTIONS = "remoteDeliveryActiveConnections";
+    public static final String IDLE_CONNECTIONS = "remoteDeliveryIdleConnections";
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        SMTPTransport connect(HostAddress outgoingMailServer) throws MessagingException;
+    }
+
+    public class PooledConnection {
+        private final Destination destination;
+        private final SMTPTransport transport;
+        private int sentMessages;
+        private Instant lastUsed;
+
+        private PooledConnection(Destination destination, SMTPTransport transport) {
+            this.destination = destination;
+            this.transport = transport;
+            this.sentMessages = 0;
+            this.lastUsed = clock.instant();
+        }
+
+        public SMTPTransport getTransport() {
+            return transport;
+        }
+
+        private boolean isExpired(Instant now) {
+            return lastUsed.plus(idleTimeout).isBefore(now);
+        }
+    }
+
+    private class Destination {
+        private final String key;
+        private final Deque<PooledConnection> idleConnections;
+        private final Optional<Semaphore> permits;
+
+        private Destination(String key) {
+            this.key = key;
+            this.idleConnections = new ConcurrentLinkedDeque<>();
+            this.permits = maxConnectionsPerHost.map(max -> new Semaphore(max, true));
+        }
+
+        private void acquire() throws MessagingException {
+            if (permits.isPresent()) {
+                try {
+                    permits.get().acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MessagingException("Interrupted while waiting for a connection to " + key, e);
+                }
+            }
+        }
+
+        private void release() {
+            permits.ifPresent(Semaphore::release);
+        }
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final int maxMessagesPerConnection;
+    private final Duration idleTimeout;
+    private final Optional<Integer> maxConnectionsPerHost;
+    private final Clock clock;
+    private final Map<String, Destination> destinations;
+    private final Metric openedConnections;
+    private final Metric reusedConnections;
+    private final Metric activeConnections;
+    private final Metric idleConnections;
+
+    public SMTPConnectionPool(ConnectionFactory connectionFactory, RemoteDeliveryConfiguration configuration, MetricFactory metricFactory) {
+        this(connectionFactory, configuration.getMaxMessagesPerConnection(), configuration.getConnectionIdleTimeout(),
+            configuration.getMaxConnectionsPerHost(), metricFactory, Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    SMTPConnectionPool(ConnectionFactory connectionFactory, int maxMessagesPerConnection, Duration idleTimeout,
+                       Optional<Integer> maxConnectionsPerHost, MetricFactory metricFactory, Clock clock) {
+        this.connectionFactory = connectionFactory;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeout = idleTimeout;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.clock = clock;
+        this.destinations = new ConcurrentHashMap<>();
+        this.openedConnections = metricFactory.generate(OPENED_CONNECTIONS);
+        this.reusedConnections = metricFactory.generate(REUSED_CONNECTIONS);
+        this.activeConnections = metricFactory.generate(ACTIVE_CONNECTIONS);
+        this.idleConnections = metricFactory.generate(IDLE_CONNECTIONS);
+    }
+
+    /**
+     * Returns a connection to the given server, reusing an idle one when possible. The connection needs to be given
+     * back with {@link #release(PooledConnection, boolean)}.
+     */
+    public PooledConnection borrow(HostAddress outgoingMailServer) throws MessagingException {
+        evictExpiredConnections();
+        Destination destination = destinations.computeIfAbsent(keyOf(outgoingMailServer), Destination::new);
+        destination.acquire();
+        try {
+            Optional<PooledConnection> idleConnection = pollIdleConnection(destination);
+            PooledConnection connection;
+            if (idleConnection.isPresent()) {
+                connection = idleConnection.get();
+                reusedConnections.increment();
+            } else {
+                connection = new PooledConnection(destination, connectionFactory.connect(outgoingMailServer));
+                openedConnections.increment();
+            }
+            activeConnections.increment();
+            return connection;
+        } catch (MessagingException | RuntimeException e) {
+            destination.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back a connection obtained by {@link #borrow(HostAddress)}.
+     *
+     * @param succeeded whether the mail transaction performed with this connection succeeded. Only connections whose
+     *                  last transaction succeeded are kept for reuse.
+     */
+    public void release(PooledConnection connection, boolean succeeded) {
+        activeConnections.decrement();
+        connection.sentMessages++;
+        connection.lastUsed = clock.instant();
+        try {
+            if (succeeded && connection.sentMessages < maxMessagesPerConnection) {
+                connection.destination.idleConnections.offerFirst(connection);
+                idleConnections.increment();
+            } else {
+                close(connection);
+            }
+        } finally {
+            connection.destination.release();
+        }
+    }
+
+    /**
+     * Closes all idle connections.
+     */
+    public void close() {
+        destinations.values()
+            .forEach(destination -> {
+                PooledConnection connection;
+                while ((connection = destination.idleConnections.pollFirst()) != null) {
+                    idleConnections.decrement();
+                    close(connection);
+                }
+            });
+    }
+
+    private Optional<PooledConnection> pollIdleConnection(Destination destination) {
+        Instant now = clock.instant();
+        PooledConnection connection;
+        // Most recently used connections are the most likely to be still alive
+        while ((connection = destination.idleConnections.pollFirst()) != null) {
+            idleConnections.decrement();
+            if (!connection.isExpired(now) && connection.transport.isConnected()) {
+                return Optional.of(connection);
+            }
+            close(connection);
+        }
+        return Optional.empty();
+    }
+
+    private void evictExpiredConnections() {
+        Instant now = clock.instant();
+        destinations.values()
+            .forEach(destination -> {
+                // Least recently used connections are at the end
+                PooledConnection connection;
+                while ((connection = destination.idleConnections.peekLast()) != null && connection.isExpired(now)) {
+                    if (destination.idleConnections.removeLastOccurrence(connection)) {
+                        idleConnections.decrement();
+                        close(connection);
+                    }
+                }
+            });
+    }
+
+    private void close(PooledConnection connection) {
+        try {
+            // James-899: closing sends QUIT to the server; failing to do so does not affect the mails already sent.
+            connection.transport.close();
+        } catch (MessagingException e) {
+            LOGGER.info("Could not close the SMTP connection to {}; probably the server has already closed it: {}",
+                connection.destination.key, e.getMessage());
+        }
+    }
+
+    private String keyOf(HostAddress outgoingMailServer) {
+        return outgoingMailServer.getHostName() + "/" + outgoingMailServer.getHost() + ":" + outgoingMailServer.getPort();
+    }
+}
@@ -0,0 +1,95 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import java.util.List;
+
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A reply sent by a remote SMTP server, possibly spanning several lines.
+ */
+public class SMTPReply {
+    private static final int CODE_LENGTH = 3;
+    private static final char CONTINUATION = '-';
+
+    static boolean isContinuation(String line) {
+        return line.length() > CODE_LENGTH && line.charAt(CODE_LENGTH) == CONTINUATION;
+    }
+
+    static SMTPReply parse(List<String> lines) {
+        Preconditions.checkArgument(!lines.isEmpty(), "A reply needs at least one line");
+        String lastLine = lines.get(lines.size() - 1);
+        Preconditions.checkArgument(lastLine.length() >= CODE_LENGTH, "Invalid SMTP reply '%s'", lastLine);
+        try {
+            return new SMTPReply(Integer.parseInt(lastLine.substring(0, CODE_LENGTH)), lines);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid SMTP reply '" + lastLine + "'", e);
+        }
+    }
+
+    private final int code;
+    private final List<String> lines;
+
+    private SMTPReply(int code, List<String> lines) {
+        this.code = code;
+        this.lines = ImmutableList.copyOf(lines);
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public boolean isPositiveCompletion() {
+        return code >= 200 && code < 300;
+    }
+
+    public boolean isPositiveIntermediate() {
+        return code >= 300 && code < 400;
+    }
+
+    public boolean isTransientNegative() {
+        return code >= 400 && code < 500;
+    }
+
+    /**
+     * The text of each line, stripped from the reply code.
+     */
+    public List<String> getTextLines() {
+        return lines.stream()
+            .map(line -> line.length() > CODE_LENGTH + 1 ? line.substring(CODE_LENGTH + 1) : "")
+            .collect(Guavate.toImmutableList());
+    }
+
+    /**
+     * The reply as sent by the server, as JavaMail reports it in its exceptions.
+     */
+    public String asString() {
+        return Joiner.on('\n').join(lines);
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
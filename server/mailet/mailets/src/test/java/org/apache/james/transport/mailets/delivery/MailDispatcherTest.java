@@ -20,7 +20,10 @@
 package org.apache.james.transport.mailets.delivery;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -29,6 +32,11 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.mail.MessagingException;
 
@@ -36,6 +44,9 @@ import org.apache.commons.io.IOUtils;
 import org.apache.james.core.MailAddress;
 import org.apache.james.core.builder.MimeMessageBuilder;
 import org.apache.james.util.MimeMessageUtil;
+import org.apache.mailet.Attribute;
+import org.apache.mailet.AttributeName;
+import org.apache.mailet.AttributeValue;
 import org.apache.mailet.Mail;
 import org.apache.mailet.PerRecipientHeaders.Header;
 import org.apache.mailet.base.MailAddressFixture;
@@ -47,6 +58,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 
 public class MailDispatcherTest {
     private static final String TEST_HEADER_NAME = "X-HEADER";
@@ -330,6 +342,174 @@ public class MailDispatcherTest {
         assertThat(mail.getMessage().getHeader(TEST_HEADER_NAME)).containsOnly(headerValue);
     }
 
+    @Test
+    public void concurrentDispatchShouldStoreMailForAllRecipients() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .concurrency(4)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2, MailAddressFixture.OTHER_AT_JAMES2)
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .state("state")
+            .build();
+        testee.dispatch(mail);
+
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES), any(Mail.class));
+        verify(mailStore).storeMail(eq(MailAddressFixture.ANY_AT_JAMES2), any(Mail.class));
+        verify(mailStore).storeMail(eq(MailAddressFixture.OTHER_AT_JAMES2), any(Mail.class));
+        verifyNoMoreInteractions(mailStore);
+        assertThat(mail.getState()).isEqualTo(Mail.GHOST);
+    }
+
+    @Test
+    public void concurrentDispatchShouldIsolateMailModificationsOfEachRecipient() throws Exception {
+        AttributeName recipientAttribute = AttributeName.of("recipient");
+        CountDownLatch allStoring = new CountDownLatch(3);
+        Map<MailAddress, Optional<Attribute>> seenAttributes = new ConcurrentHashMap<>();
+        Map<MailAddress, Collection<MailAddress>> seenRecipients = new ConcurrentHashMap<>();
+        MailStore mutatingMailStore = (recipient, mail) -> {
+            // Like Sieve: record the recipient in an attribute, and discard other recipients
+            mail.setAttribute(new Attribute(recipientAttribute, AttributeValue.of(recipient.asString())));
+            mail.setRecipients(ImmutableList.of(recipient));
+            allStoring.countDown();
+            try {
+                allStoring.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new MessagingException("Interrupted", e);
+            }
+            seenAttributes.put(recipient, mail.getAttribute(recipientAttribute));
+            seenRecipients.put(recipient, ImmutableList.copyOf(mail.getRecipients()));
+        };
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mutatingMailStore)
+            .consume(false)
+            .concurrency(3)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2, MailAddressFixture.OTHER_AT_JAMES2)
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .state("state")
+            .build();
+        testee.dispatch(mail);
+
+        assertThat(seenAttributes).containsOnly(
+            entry(MailAddressFixture.ANY_AT_JAMES, Optional.of(new Attribute(recipientAttribute, AttributeValue.of(MailAddressFixture.ANY_AT_JAMES.asString())))),
+            entry(MailAddressFixture.ANY_AT_JAMES2, Optional.of(new Attribute(recipientAttribute, AttributeValue.of(MailAddressFixture.ANY_AT_JAMES2.asString())))),
+            entry(MailAddressFixture.OTHER_AT_JAMES2, Optional.of(new Attribute(recipientAttribute, AttributeValue.of(MailAddressFixture.OTHER_AT_JAMES2.asString())))));
+        assertThat(seenRecipients).containsOnly(
+            entry(MailAddressFixture.ANY_AT_JAMES, ImmutableList.of(MailAddressFixture.ANY_AT_JAMES)),
+            entry(MailAddressFixture.ANY_AT_JAMES2, ImmutableList.of(MailAddressFixture.ANY_AT_JAMES2)),
+            entry(MailAddressFixture.OTHER_AT_JAMES2, ImmutableList.of(MailAddressFixture.OTHER_AT_JAMES2)));
+        assertThat(mail.getRecipients())
+            .containsOnly(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2, MailAddressFixture.OTHER_AT_JAMES2);
+    }
+
+    @Test
+    public void concurrentDispatchShouldStoreMailForRecipientsConcurrently() throws Exception {
+        CountDownLatch bothStoring = new CountDownLatch(2);
+        MailStore awaitingMailStore = (recipient, mail) -> {
+            bothStoring.countDown();
+            try {
+                if (!bothStoring.await(10, TimeUnit.SECONDS)) {
+                    throw new MessagingException("Recipients were not stored concurrently");
+                }
+            } catch (InterruptedException e) {
+                throw new MessagingException("Interrupted", e);
+            }
+        };
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(awaitingMailStore)
+            .consume(true)
+            .concurrency(2)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .state("state")
+            .build();
+        testee.dispatch(mail);
+
+        assertThat(fakeMailContext.getSentMails()).isEmpty();
+    }
+
+    @Test
+    public void concurrentDispatchShouldSendFailingRecipientsToError() throws Exception {
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(mailStore)
+            .consume(true)
+            .concurrency(2)
+            .build();
+        doThrow(new MessagingException())
+            .when(mailStore)
+            .storeMail(eq(MailAddressFixture.ANY_AT_JAMES2), any(Mail.class));
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2)
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .state("state")
+            .build();
+        testee.dispatch(mail);
+
+        assertThat(fakeMailContext.getSentMails()).containsOnly(FakeMailContext.sentMailBuilder()
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipient(MailAddressFixture.ANY_AT_JAMES2)
+            .fromMailet()
+            .state(Mail.ERROR).build());
+    }
+
+    @Test
+    public void concurrentDispatchShouldAddSpecificHeaderToEachRecipients() throws Exception {
+        AccumulatorHeaderMailStore accumulatorTestHeaderMailStore = new AccumulatorHeaderMailStore(TEST_HEADER_NAME);
+        MailDispatcher testee = MailDispatcher.builder()
+            .mailetContext(fakeMailContext)
+            .mailStore(accumulatorTestHeaderMailStore)
+            .consume(false)
+            .concurrency(4)
+            .build();
+
+        FakeMail mail = FakeMail.builder()
+            .name("name")
+            .sender(MailAddressFixture.OTHER_AT_JAMES)
+            .recipients(MailAddressFixture.ANY_AT_JAMES, MailAddressFixture.ANY_AT_JAMES2, MailAddressFixture.OTHER_AT_JAMES2)
+            .mimeMessage(MimeMessageUtil.defaultMimeMessage())
+            .state("state")
+            .build();
+        mail.addSpecificHeaderForRecipient(TEST_HEADER_USER1, MailAddressFixture.ANY_AT_JAMES);
+        mail.addSpecificHeaderForRecipient(TEST_HEADER_USER2, MailAddressFixture.ANY_AT_JAMES2);
+        testee.dispatch(mail);
+
+        assertThat(accumulatorTestHeaderMailStore.getHeaderValues(MailAddressFixture.ANY_AT_JAMES))
+            .containsOnly(new String[]{VALUE_FOR_USER_1});
+        assertThat(accumulatorTestHeaderMailStore.getHeaderValues(MailAddressFixture.ANY_AT_JAMES2))
+            .containsOnly(new String[]{VALUE_FOR_USER_2});
+        assertThat(accumulatorTestHeaderMailStore.getHeaderValues(MailAddressFixture.OTHER_AT_JAMES2))
+            .isEmpty();
+        assertThat(mail.getMessage().getHeader(TEST_HEADER_NAME)).isNull();
+    }
+
+    @Test
+    public void builderShouldRejectNonPositiveConcurrency() {
+        assertThatThrownBy(() -> MailDispatcher.builder().concurrency(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     public static class AccumulatorHeaderMailStore implements MailStore {
         private final ArrayListMultimap<MailAddress, String[]> headerValues;
         private final String headerName;
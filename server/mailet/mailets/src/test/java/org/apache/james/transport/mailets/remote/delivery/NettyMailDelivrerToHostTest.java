@@ -0,0 +1,292 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.core.builder.MimeMessageBuilder;
+import org.apache.james.domainlist.api.DomainList;
+import org.apache.mailet.HostAddress;
+import org.apache.mailet.Mail;
+import org.apache.mailet.base.test.FakeMail;
+import org.apache.mailet.base.test.FakeMailContext;
+import org.apache.mailet.base.test.FakeMailetConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.subethamail.smtp.MessageHandler;
+import org.subethamail.smtp.RejectException;
+import org.subethamail.smtp.server.SMTPServer;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@SuppressWarnings("deprecation")
+public class NettyMailDelivrerToHostTest {
+    private static final String SENDER = "sender@remote.tld";
+    private static final String RECIPIENT = "recipient@remote.tld";
+    private static final String OTHER_RECIPIENT = "other@remote.tld";
+    private static final String REJECTED_RECIPIENT = "rejected@remote.tld";
+    private static final String DELAYED_RECIPIENT = "delayed@remote.tld";
+    private static final String REJECTED_SENDER = "rejected-sender@remote.tld";
+
+    private static class ReceivedMail {
+        private final String sender;
+        private final List<String> recipients;
+        private final String content;
+
+        private ReceivedMail(String sender, List<String> recipients, String content) {
+            this.sender = sender;
+            this.recipients = recipients;
+            this.content = content;
+        }
+    }
+
+    private class RecordingMessageHandler implements MessageHandler {
+        private String sender;
+        private final List<String> recipients = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void from(String from) throws RejectException {
+            if (from.equals(REJECTED_SENDER)) {
+                throw new RejectException(550, "Sender rejected");
+            }
+            this.sender = from;
+        }
+
+        @Override
+        public void recipient(String recipient) throws RejectException {
+            if (recipient.equals(REJECTED_RECIPIENT)) {
+                throw new RejectException(553, "Unknown user");
+            }
+            if (recipient.equals(DELAYED_RECIPIENT)) {
+                throw new RejectException(451, "Try again later");
+            }
+            recipients.add(recipient);
+        }
+
+        @Override
+        public void data(InputStream data) throws IOException {
+            receivedMails.add(new ReceivedMail(sender, ImmutableList.copyOf(recipients), IOUtils.toString(data, StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public void done() {
+
+        }
+    }
+
+    private final List<ReceivedMail> receivedMails = new CopyOnWriteArrayList<>();
+    private SMTPServer smtpServer;
+    private HostAddress serverAddress;
+    private NettyMailDelivrerToHost testee;
+
+    @Before
+    public void setUp() {
+        smtpServer = new SMTPServer(context -> new RecordingMessageHandler());
+        smtpServer.setPort(0);
+        smtpServer.start();
+        serverAddress = new HostAddress("localhost", "smtp://127.0.0.1:" + smtpServer.getPort());
+        testee = new NettyMailDelivrerToHost(configuration(false), FakeMailContext.defaultContext());
+    }
+
+    @After
+    public void tearDown() {
+        testee.dispose();
+        smtpServer.stop();
+    }
+
+    private RemoteDeliveryConfiguration configuration(boolean sendPartial) {
+        return new RemoteDeliveryConfiguration(FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_ENGINE, "netty")
+            .setProperty(RemoteDeliveryConfiguration.HELO_NAME, "james.local")
+            .setProperty(RemoteDeliveryConfiguration.SENDPARTIAL, String.valueOf(sendPartial))
+            .setProperty(RemoteDeliveryConfiguration.TIMEOUT, "5000")
+            .build(),
+            mock(DomainList.class));
+    }
+
+    private Mail mail(String... recipients) throws Exception {
+        return FakeMail.builder()
+            .name("name")
+            .sender(SENDER)
+            .recipients(recipients)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject("Netty delivery")
+                .setText("First line\r\n.Line starting with a dot\r\nLast line"))
+            .build();
+    }
+
+    private List<InternetAddress> addresses(String... recipients) throws Exception {
+        ImmutableList.Builder<InternetAddress> addresses = ImmutableList.builder();
+        for (String recipient : recipients) {
+            addresses.add(new InternetAddress(recipient));
+        }
+        return addresses.build();
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldSendTheMail() throws Exception {
+        ExecutionResult result = testee.tryDeliveryToHost(mail(RECIPIENT, OTHER_RECIPIENT), addresses(RECIPIENT, OTHER_RECIPIENT), serverAddress)
+            .block();
+
+        assertThat(result.getExecutionState()).isEqualTo(ExecutionResult.ExecutionState.SUCCESS);
+        assertThat(receivedMails).hasSize(1);
+        assertThat(receivedMails.get(0).sender).isEqualTo(SENDER);
+        assertThat(receivedMails.get(0).recipients).containsOnly(RECIPIENT, OTHER_RECIPIENT);
+        assertThat(receivedMails.get(0).content).contains("Subject: Netty delivery");
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldPreserveLinesStartingWithADot() throws Exception {
+        testee.tryDeliveryToHost(mail(RECIPIENT), addresses(RECIPIENT), serverAddress).block();
+
+        assertThat(receivedMails.get(0).content)
+            .contains("First line\r\n.Line starting with a dot\r\nLast line");
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldSendMailsLargerThanTheChannelBuffers() throws Exception {
+        String line = Strings.repeat("0123456789", 7) + "\r\n.dot stuffed\r\n";
+        String body = Strings.repeat(line, 20 * 1024);
+        Mail mail = FakeMail.builder()
+            .name("name")
+            .sender(SENDER)
+            .recipients(RECIPIENT)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder()
+                .setSubject("Large Netty delivery")
+                .setText(body))
+            .build();
+
+        testee.tryDeliveryToHost(mail, addresses(RECIPIENT), serverAddress).block();
+
+        assertThat(receivedMails).hasSize(1);
+        assertThat(receivedMails.get(0).content).contains(body);
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldSendSeveralMailsConcurrently() throws Exception {
+        List<InternetAddress> addresses = addresses(RECIPIENT);
+        ImmutableList.Builder<Mail> mails = ImmutableList.builder();
+        for (int i = 0; i < 10; i++) {
+            mails.add(mail(RECIPIENT));
+        }
+
+        Flux.fromIterable(mails.build())
+            .flatMap(mail -> testee.tryDeliveryToHost(mail, addresses, serverAddress))
+            .blockLast();
+
+        assertThat(receivedMails).hasSize(10);
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldReportRejectedRecipients() throws Exception {
+        assertThat(failure(testee.tryDeliveryToHost(mail(RECIPIENT, REJECTED_RECIPIENT), addresses(RECIPIENT, REJECTED_RECIPIENT), serverAddress)))
+            .isInstanceOfSatisfying(SendFailedException.class, e -> {
+                assertThat(e.getInvalidAddresses()).containsOnly(addressUnchecked(REJECTED_RECIPIENT));
+                assertThat(e.getValidUnsentAddresses()).containsOnly(addressUnchecked(RECIPIENT));
+                assertThat(new EnhancedMessagingException(e).isServerError()).isTrue();
+            });
+        assertThat(receivedMails).isEmpty();
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldReportTemporarilyRejectedRecipientsAsValidUnsent() throws Exception {
+        assertThat(failure(testee.tryDeliveryToHost(mail(DELAYED_RECIPIENT), addresses(DELAYED_RECIPIENT), serverAddress)))
+            .isInstanceOfSatisfying(SendFailedException.class, e -> {
+                assertThat(e.getInvalidAddresses()).isEmpty();
+                assertThat(e.getValidUnsentAddresses()).containsOnly(addressUnchecked(DELAYED_RECIPIENT));
+                assertThat(new EnhancedMessagingException(e).isServerError()).isFalse();
+            });
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldSendToValidRecipientsWhenSendPartial() throws Exception {
+        testee.dispose();
+        testee = new NettyMailDelivrerToHost(configuration(true), FakeMailContext.defaultContext());
+
+        assertThat(failure(testee.tryDeliveryToHost(mail(RECIPIENT, REJECTED_RECIPIENT), addresses(RECIPIENT, REJECTED_RECIPIENT), serverAddress)))
+            .isInstanceOfSatisfying(SMTPSendFailedException.class, e -> {
+                assertThat(e.getValidSentAddresses()).containsOnly(addressUnchecked(RECIPIENT));
+                assertThat(e.getInvalidAddresses()).containsOnly(addressUnchecked(REJECTED_RECIPIENT));
+            });
+        assertThat(receivedMails).hasSize(1);
+        assertThat(receivedMails.get(0).recipients).containsOnly(RECIPIENT);
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldReportRejectedSender() throws Exception {
+        Mail mail = FakeMail.builder()
+            .name("name")
+            .sender(REJECTED_SENDER)
+            .recipient(RECIPIENT)
+            .mimeMessage(MimeMessageBuilder.mimeMessageBuilder().setText("content"))
+            .build();
+
+        assertThat(failure(testee.tryDeliveryToHost(mail, addresses(RECIPIENT), serverAddress)))
+            .isInstanceOfSatisfying(SMTPSendFailedException.class, e -> {
+                assertThat(e.getReturnCode()).isEqualTo(550);
+                assertThat(e.getCommand()).isEqualTo("MAIL");
+            });
+    }
+
+    @Test
+    public void tryDeliveryToHostShouldReportConnectionFailuresAsIOErrors() throws Exception {
+        int closedPort;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            closedPort = serverSocket.getLocalPort();
+        }
+        HostAddress unreachable = new HostAddress("localhost", "smtp://127.0.0.1:" + closedPort);
+
+        assertThat(failure(testee.tryDeliveryToHost(mail(RECIPIENT), addresses(RECIPIENT), unreachable)))
+            .isInstanceOfSatisfying(MessagingException.class, e -> assertThat(e.getNextException()).isInstanceOf(IOException.class));
+    }
+
+    private Throwable failure(Mono<ExecutionResult> delivery) {
+        return delivery.then(Mono.<Throwable>empty())
+            .onErrorResume(Mono::just)
+            .block();
+    }
+
+    private InternetAddress addressUnchecked(String address) {
+        try {
+            return new InternetAddress(address);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -832,4 +832,153 @@ public class RemoteDeliveryConfigurationTest {
                 MapEntry.entry("mail.smtp.starttls.enable", "true"),
                 MapEntry.entry("mail.smtp.auth", "true"));
     }
+
+    @Test
+    public void getMaxMessagesPerConnectionShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxMessagesPerConnection())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_MESSAGES_PER_CONNECTION);
+    }
+
+    @Test
+    public void getMaxMessagesPerConnectionShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_MESSAGES_PER_CONNECTION, "100")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxMessagesPerConnection())
+            .isEqualTo(100);
+    }
+
+    @Test
+    public void constructorShouldThrowOnZeroMaxMessagesPerConnection() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_MESSAGES_PER_CONNECTION, "0")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
+
+    @Test
+    public void getConnectionIdleTimeoutShouldReturnDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionIdleTimeout())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_CONNECTION_IDLE_TIMEOUT);
+    }
+
+    @Test
+    public void getConnectionIdleTimeoutShouldDefaultToSeconds() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_IDLE_TIMEOUT, "10")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionIdleTimeout())
+            .isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void getConnectionIdleTimeoutShouldReturnProvidedValueWithUnit() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.CONNECTION_IDLE_TIMEOUT, "2 minutes")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getConnectionIdleTimeout())
+            .isEqualTo(Duration.ofMinutes(2));
+    }
+
+    @Test
+    public void getMaxConnectionsPerHostShouldBeEmptyByDefault() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConnectionsPerHost())
+            .isEmpty();
+    }
+
+    @Test
+    public void getMaxConnectionsPerHostShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONNECTIONS_PER_HOST, "5")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConnectionsPerHost())
+            .contains(5);
+    }
+
+    @Test
+    public void constructorShouldThrowOnNegativeMaxConnectionsPerHost() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONNECTIONS_PER_HOST, "-1")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
+
+    @Test
+    public void getDeliveryEngineShouldDefaultToJavamail() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getDeliveryEngine())
+            .isEqualTo(RemoteDeliveryConfiguration.DeliveryEngine.JAVAMAIL);
+    }
+
+    @Test
+    public void getDeliveryEngineShouldBeCaseInsensitive() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_ENGINE, "Netty")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getDeliveryEngine())
+            .isEqualTo(RemoteDeliveryConfiguration.DeliveryEngine.NETTY);
+    }
+
+    @Test
+    public void constructorShouldThrowOnUnknownDeliveryEngine() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.DELIVERY_ENGINE, "unknown")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
+
+    @Test
+    public void getMaxConcurrentDeliveriesShouldReturnDefaultValueWhenMissing() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConcurrentDeliveries())
+            .isEqualTo(RemoteDeliveryConfiguration.DEFAULT_MAX_CONCURRENT_DELIVERIES);
+    }
+
+    @Test
+    public void getMaxConcurrentDeliveriesShouldReturnProvidedValue() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES, "5000")
+            .build();
+
+        assertThat(new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class)).getMaxConcurrentDeliveries())
+            .isEqualTo(5000);
+    }
+
+    @Test
+    public void constructorShouldThrowOnZeroMaxConcurrentDeliveries() {
+        FakeMailetConfig mailetConfig = FakeMailetConfig.builder()
+            .setProperty(RemoteDeliveryConfiguration.MAX_CONCURRENT_DELIVERIES, "0")
+            .build();
+
+        expectedException.expect(IllegalArgumentException.class);
+
+        new RemoteDeliveryConfiguration(mailetConfig, mock(DomainList.class));
+    }
 }
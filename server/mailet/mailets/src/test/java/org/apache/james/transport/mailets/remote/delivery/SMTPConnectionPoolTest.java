@@ -0,0 +1,243 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.transport.mailets.remote.delivery;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.mail.MessagingException;
+
+import org.apache.james.metrics.tests.RecordingMetricFactory;
+import org.apache.james.utils.UpdatableTickingClock;
+import org.apache.mailet.HostAddress;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.mail.smtp.SMTPTransport;
+
+@SuppressWarnings("deprecation")
+public class SMTPConnectionPoolTest {
+    private static final Instant NOW = Instant.parse("2020-04-01T10:00:00.00Z");
+    private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_MESSAGES_PER_CONNECTION = 3;
+    private static final HostAddress HOST_1 = new HostAddress("mx1.domain.tld", "smtp://192.168.0.1:25");
+    private static final HostAddress HOST_2 = new HostAddress("mx2.domain.tld", "smtp://192.168.0.2:25");
+
+    private SMTPConnectionPool.ConnectionFactory connectionFactory;
+    private RecordingMetricFactory metricFactory;
+    private UpdatableTickingClock clock;
+    private SMTPConnectionPool testee;
+
+    @Before
+    public void setUp() throws Exception {
+        connectionFactory = mock(SMTPConnectionPool.ConnectionFactory.class);
+        when(connectionFactory.connect(any())).thenAnswer(any -> connectedTransport());
+        metricFactory = new RecordingMetricFactory();
+        clock = new UpdatableTickingClock(NOW);
+        testee = new SMTPConnectionPool(connectionFactory, MAX_MESSAGES_PER_CONNECTION, IDLE_TIMEOUT, Optional.empty(), metricFactory, clock);
+    }
+
+    @Test
+    public void borrowShouldReuseReleasedConnection() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+
+        assertThat(testee.borrow(HOST_1).getTransport()).isSameAs(connection.getTransport());
+        verify(connectionFactory, times(1)).connect(any());
+    }
+
+    @Test
+    public void borrowShouldNotShareConnectionsAcrossHosts() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+
+        assertThat(testee.borrow(HOST_2).getTransport()).isNotSameAs(connection.getTransport());
+    }
+
+    @Test
+    public void borrowShouldOpenNewConnectionWhenAllAreInUse() throws Exception {
+        SMTPConnectionPool.PooledConnection connection1 = testee.borrow(HOST_1);
+        SMTPConnectionPool.PooledConnection connection2 = testee.borrow(HOST_1);
+
+        assertThat(connection1.getTransport()).isNotSameAs(connection2.getTransport());
+    }
+
+    @Test
+    public void releaseShouldCloseConnectionAfterFailure() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, false);
+
+        verify(connection.getTransport()).close();
+        assertThat(testee.borrow(HOST_1).getTransport()).isNotSameAs(connection.getTransport());
+    }
+
+    @Test
+    public void releaseShouldCloseConnectionAfterMaxMessages() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        for (int i = 0; i < MAX_MESSAGES_PER_CONNECTION - 1; i++) {
+            testee.release(connection, true);
+            assertThat(testee.borrow(HOST_1).getTransport()).isSameAs(connection.getTransport());
+        }
+        testee.release(connection, true);
+
+        verify(connection.getTransport()).close();
+        assertThat(testee.borrow(HOST_1).getTransport()).isNotSameAs(connection.getTransport());
+    }
+
+    @Test
+    public void releaseShouldCloseConnectionWhenSingleMessagePerConnection() throws Exception {
+        testee = new SMTPConnectionPool(connectionFactory, 1, IDLE_TIMEOUT, Optional.empty(), metricFactory, clock);
+
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+
+        verify(connection.getTransport()).close();
+    }
+
+    @Test
+    public void borrowShouldNotReuseExpiredConnection() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+
+        clock.setInstant(NOW.plus(IDLE_TIMEOUT).plusSeconds(1));
+
+        assertThat(testee.borrow(HOST_1).getTransport()).isNotSameAs(connection.getTransport());
+        verify(connection.getTransport()).close();
+    }
+
+    @Test
+    public void borrowShouldEvictExpiredConnectionsOfOtherHosts() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+
+        clock.setInstant(NOW.plus(IDLE_TIMEOUT).plusSeconds(1));
+        testee.borrow(HOST_2);
+
+        verify(connection.getTransport()).close();
+    }
+
+    @Test
+    public void borrowShouldNotReuseDisconnectedConnection() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+        when(connection.getTransport().isConnected()).thenReturn(false);
+
+        assertThat(testee.borrow(HOST_1).getTransport()).isNotSameAs(connection.getTransport());
+    }
+
+    @Test
+    public void borrowShouldPropagateConnectionFailures() throws Exception {
+        when(connectionFactory.connect(any())).thenThrow(new MessagingException("connection refused"));
+
+        assertThatThrownBy(() -> testee.borrow(HOST_1))
+            .isInstanceOf(MessagingException.class);
+    }
+
+    @Test
+    public void borrowShouldWaitWhenMaxConnectionsPerHostIsReached() throws Exception {
+        testee = new SMTPConnectionPool(connectionFactory, MAX_MESSAGES_PER_CONNECTION, IDLE_TIMEOUT, Optional.of(1), metricFactory, clock);
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+
+        CompletableFuture<SMTPConnectionPool.PooledConnection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return testee.borrow(HOST_1);
+            } catch (MessagingException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertThatThrownBy(() -> waiting.get(100, TimeUnit.MILLISECONDS))
+            .isInstanceOf(TimeoutException.class);
+
+        testee.release(connection, true);
+
+        assertThat(waiting.get(1, TimeUnit.SECONDS).getTransport()).isSameAs(connection.getTransport());
+    }
+
+    @Test
+    public void maxConnectionsPerHostShouldNotLimitOtherHosts() throws Exception {
+        testee = new SMTPConnectionPool(connectionFactory, MAX_MESSAGES_PER_CONNECTION, IDLE_TIMEOUT, Optional.of(1), metricFactory, clock);
+        testee.borrow(HOST_1);
+
+        assertThat(testee.borrow(HOST_2)).isNotNull();
+    }
+
+    @Test
+    public void failedConnectionShouldNotConsumeConnectionPermits() throws Exception {
+        testee = new SMTPConnectionPool(connectionFactory, MAX_MESSAGES_PER_CONNECTION, IDLE_TIMEOUT, Optional.of(1), metricFactory, clock);
+        when(connectionFactory.connect(any()))
+            .thenThrow(new MessagingException("connection refused"))
+            .thenAnswer(any -> connectedTransport());
+
+        assertThatThrownBy(() -> testee.borrow(HOST_1))
+            .isInstanceOf(MessagingException.class);
+        assertThat(testee.borrow(HOST_1)).isNotNull();
+    }
+
+    @Test
+    public void closeShouldCloseIdleConnections() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+
+        testee.close();
+
+        verify(connection.getTransport()).close();
+    }
+
+    @Test
+    public void closeShouldNotCloseConnectionsInUse() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+
+        testee.close();
+
+        verify(connection.getTransport(), never()).close();
+    }
+
+    @Test
+    public void poolShouldRecordConnectionMetrics() throws Exception {
+        SMTPConnectionPool.PooledConnection connection = testee.borrow(HOST_1);
+        testee.release(connection, true);
+        testee.borrow(HOST_1);
+
+        assertThat(metricFactory.countFor(SMTPConnectionPool.OPENED_CONNECTIONS)).isEqualTo(1);
+        assertThat(metricFactory.countFor(SMTPConnectionPool.REUSED_CONNECTIONS)).isEqualTo(1);
+        assertThat(metricFactory.countFor(SMTPConnectionPool.ACTIVE_CONNECTIONS)).isEqualTo(1);
+        assertThat(metricFactory.countFor(SMTPConnectionPool.IDLE_CONNECTIONS)).isEqualTo(0);
+    }
+
+    private SMTPTransport connectedTransport() {
+        SMTPTransport transport = mock(SMTPTransport.class);
+        when(transport.isConnected()).thenReturn(true);
+        return transport;
+    }
+}
@@ -85,6 +85,7 @@ import com.github.steveash.guavate.Guavate;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMailDaoAPI {
@@ -93,6 +94,7 @@ public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMa
     private final PreparedStatement insertMail;
     private final PreparedStatement deleteMail;
     private final PreparedStatement selectMail;
+    private final PreparedStatement selectBlobIds;
     private final BlobId.Factory blobIdFactory;
     private final CassandraTypesProvider cassandraTypesProvider;
 
@@ -105,6 +107,7 @@ public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMa
         this.insertMail = prepareInsert(session);
         this.deleteMail = prepareDelete(session);
         this.selectMail = prepareSelect(session);
+        this.selectBlobIds = prepareSelectBlobIds(session);
         this.blobIdFactory = blobIdFactory;
         this.cassandraTypesProvider = cassandraTypesProvider;
     }
@@ -142,6 +145,11 @@ public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMa
                 .and(eq(MAIL_KEY, bindMarker(MAIL_KEY))));
     }
 
+    private PreparedStatement prepareSelectBlobIds(Session session) {
+        return session.prepare(select(HEADER_BLOB_ID, BODY_BLOB_ID)
+            .from(CONTENT_TABLE_NAME));
+    }
+
     @Override
     public Mono<Void> store(MailRepositoryUrl url, Mail mail, BlobId headerId, BlobId bodyId) {
         return Mono.fromCallable(() -> {
@@ -178,6 +186,14 @@ public class CassandraMailRepositoryMailDAO implements CassandraMailRepositoryMa
             .setString(MAIL_KEY, key.asString()));
     }
 
+    @Override
+    public Flux<BlobId> listBlobs() {
+        return executor.executeRows(selectBlobIds.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobIdFactory.from(row.getString(HEADER_BLOB_ID)),
+                blobIdFactory.from(row.getString(BODY_BLOB_ID))));
+    }
+
     @Override
     public Mono<Optional<MailDTO>> read(MailRepositoryUrl url, MailKey key) {
         return executor.executeSingleRowOptional(selectMail.bind()
@@ -28,6 +28,7 @@ import org.apache.james.mailrepository.api.MailRepositoryUrl;
 import org.apache.james.server.core.MailImpl;
 import org.apache.mailet.Mail;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface CassandraMailRepositoryMailDaoAPI {
@@ -37,6 +38,11 @@ public interface CassandraMailRepositoryMailDaoAPI {
 
     Mono<Optional<MailDTO>> read(MailRepositoryUrl url, MailKey key);
 
+    /**
+     * Lists the header and body blobs of all stored mails, across repositories, using a full table scan.
+     */
+    Flux<BlobId> listBlobs();
+
     class MailDTO {
         private final MailImpl.Builder mailBuilder;
         private final BlobId headerBlobId;
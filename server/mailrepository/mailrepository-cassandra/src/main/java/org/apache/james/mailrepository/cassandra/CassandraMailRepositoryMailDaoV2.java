@@ -80,6 +80,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepositoryMailDaoAPI {
@@ -88,6 +89,7 @@ public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepository
     private final PreparedStatement insertMail;
     private final PreparedStatement deleteMail;
     private final PreparedStatement selectMail;
+    private final PreparedStatement selectBlobIds;
     private final BlobId.Factory blobIdFactory;
     private final TupleType userHeaderNameHeaderValueTriple;
 
@@ -99,6 +101,7 @@ public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepository
         this.insertMail = prepareInsert(session);
         this.deleteMail = prepareDelete(session);
         this.selectMail = prepareSelect(session);
+        this.selectBlobIds = prepareSelectBlobIds(session);
         this.blobIdFactory = blobIdFactory;
         this.userHeaderNameHeaderValueTriple = session.getCluster().getMetadata().newTupleType(text(), text(), text());
     }
@@ -135,6 +138,11 @@ public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepository
                 .and(eq(MAIL_KEY, bindMarker(MAIL_KEY))));
     }
 
+    private PreparedStatement prepareSelectBlobIds(Session session) {
+        return session.prepare(select(HEADER_BLOB_ID, BODY_BLOB_ID)
+            .from(CONTENT_TABLE_NAME));
+    }
+
     public Mono<Void> store(MailRepositoryUrl url, Mail mail, BlobId headerId, BlobId bodyId) {
         return Mono.fromCallable(() -> {
             BoundStatement boundStatement = insertMail.bind()
@@ -170,6 +178,14 @@ public class CassandraMailRepositoryMailDaoV2 implements CassandraMailRepository
             .setString(MAIL_KEY, key.asString()));
     }
 
+    @Override
+    public Flux<BlobId> listBlobs() {
+        return executor.executeRows(selectBlobIds.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobIdFactory.from(row.getString(HEADER_BLOB_ID)),
+                blobIdFactory.from(row.getString(BODY_BLOB_ID))));
+    }
+
     public Mono<Optional<MailDTO>> read(MailRepositoryUrl url, MailKey key) {
         return executor.executeSingleRowOptional(selectMail.bind()
                 .setString(REPOSITORY_NAME, url.asString())
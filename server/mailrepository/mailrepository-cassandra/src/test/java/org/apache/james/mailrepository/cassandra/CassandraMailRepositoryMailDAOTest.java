@@ -116,6 +116,30 @@ class CassandraMailRepositoryMailDAOTest {
             assertThat(testee().read(URL, KEY_1).block())
                 .isEmpty();
         }
+
+        @Test
+        void listBlobsShouldReturnHeaderAndBodyBlobs() throws Exception {
+            CassandraMailRepositoryMailDaoAPI testee = testee();
+            BlobId blobIdBody = BLOB_ID_FACTORY.from("blobHeader");
+            BlobId blobIdHeader = BLOB_ID_FACTORY.from("blobBody");
+
+            testee.store(URL,
+                FakeMail.builder()
+                    .name(KEY_1.asString())
+                    .build(),
+                blobIdHeader,
+                blobIdBody)
+                .block();
+
+            assertThat(testee.listBlobs().collectList().block())
+                .containsOnly(blobIdHeader, blobIdBody);
+        }
+
+        @Test
+        void listBlobsShouldReturnEmptyWhenNoMail() {
+            assertThat(testee().listBlobs().collectList().block())
+                .isEmpty();
+        }
     }
 
     @Nested
@@ -55,10 +55,12 @@ public class LineHandlerStats extends StandardMBean implements HandlerStatsMBean
 
     /**
      * Increment the stats
+     *
+     * @param response the response of the line handler, null when nothing is written back yet
      */
     public void increment(Response response) {
         all.incrementAndGet();
-        if (response.isEndSession()) {
+        if (response != null && response.isEndSession()) {
             disconnect.incrementAndGet();
         }
     }
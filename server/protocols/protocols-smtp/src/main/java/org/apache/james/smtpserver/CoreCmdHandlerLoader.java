@@ -26,6 +26,7 @@ import java.util.stream.Stream;
 import org.apache.james.protocols.api.handler.CommandDispatcher;
 import org.apache.james.protocols.api.handler.CommandHandlerResultLogger;
 import org.apache.james.protocols.lib.handler.HandlersPackage;
+import org.apache.james.protocols.smtp.core.BdatCmdHandler;
 import org.apache.james.protocols.smtp.core.ExpnCmdHandler;
 import org.apache.james.protocols.smtp.core.HeloCmdHandler;
 import org.apache.james.protocols.smtp.core.HelpCmdHandler;
@@ -55,6 +56,7 @@ public class CoreCmdHandlerLoader implements HandlersPackage {
             JamesWelcomeMessageHandler.class,
             CommandDispatcher.class,
             AuthCmdHandler.class,
+            BdatCmdHandler.class,
             JamesDataCmdHandler.class,
             EhloCmdHandler.class,
             ExpnCmdHandler.class,
@@ -71,8 +71,18 @@ public class DataLineJamesMessageHookHandler implements DataLineFilter, Extensib
     @Override
     public Response onLine(SMTPSession session, ByteBuffer lineByteBuffer, LineHandler<SMTPSession> next) {
 
-        byte[] line = new byte[lineByteBuffer.remaining()];
-        lineByteBuffer.get(line, 0, line.length);
+        // Lines are read in place from heap buffers rather than copied
+        byte[] line;
+        int offset;
+        int length = lineByteBuffer.remaining();
+        if (lineByteBuffer.hasArray()) {
+            line = lineByteBuffer.array();
+            offset = lineByteBuffer.arrayOffset() + lineByteBuffer.position();
+        } else {
+            line = new byte[length];
+            offset = 0;
+            lineByteBuffer.get(line, 0, length);
+        }
 
         MimeMessageInputStreamSource mmiss = (MimeMessageInputStreamSource) session.getAttachment(SMTPConstants.DATA_MIMEMESSAGE_STREAMSOURCE, State.Transaction);
 
@@ -81,7 +91,7 @@ public class DataLineJamesMessageHookHandler implements DataLineFilter, Extensib
 
             // 46 is "."
             // Stream terminated
-            if (line.length == 3 && line[0] == 46) {
+            if (length == 3 && line[offset] == 46) {
                 out.flush();
                 out.close();
 
@@ -119,14 +129,14 @@ public class DataLineJamesMessageHookHandler implements DataLineFilter, Extensib
                 }
 
                 // DotStuffing.
-            } else if (line[0] == 46 && line[1] == 46) {
-                out.write(line, 1, line.length - 1);
+            } else if (length > 1 && line[offset] == 46 && line[offset + 1] == 46) {
+                out.write(line, offset + 1, length - 1);
                 // Standard write
             } else {
                 // TODO: maybe we should handle the Header/Body recognition here
                 // and if needed let a filter to cache the headers to apply some
                 // transformation before writing them to output.
-                out.write(line);
+                out.write(line, offset, length);
             }
         } catch (IOException e) {
             LifecycleUtil.dispose(mmiss);
@@ -18,6 +18,8 @@
  ****************************************************************/
 package org.apache.james.smtpserver;
 
+import java.io.OutputStream;
+
 import javax.inject.Inject;
 
 import org.apache.james.metrics.api.MetricFactory;
@@ -43,26 +45,34 @@ public class JamesDataCmdHandler extends DataCmdHandler {
     }
 
     /**
-     * Handler method called upon receipt of a DATA command. Reads in message
-     * data, creates header, and delivers to mail server service for delivery.
+     * Creates the source the message content, sent with DATA or BDAT, gets
+     * written to.
      *
      * @param session  SMTP session object
-     * @param argument the argument passed in with the command by the SMTP client
      */
     @Override
-    protected SMTPResponse doDATA(SMTPSession session, String argument) {
+    protected SMTPResponse prepareMessage(SMTPSession session) {
         try {
-            MimeMessageInputStreamSource mmiss = new MimeMessageInputStreamSource(MailImpl.getId());
+            MimeMessageInputStreamSource mmiss = new MimeMessageInputStreamSource(MailImpl.getId(), getDataSpoolThreshold(session));
             session.setAttachment(SMTPConstants.DATA_MIMEMESSAGE_STREAMSOURCE, mmiss, State.Transaction);
         } catch (Exception e) {
             LOGGER.warn("Error creating mimemessagesource for incoming data", e);
             return new SMTPResponse(SMTPRetCode.LOCAL_ERROR, "Unexpected error preparing to receive DATA.");
         }
+        return null;
+    }
 
-        // out = new PipedOutputStream(messageIn);
-        session.pushLineHandler(getLineHandler());
+    @Override
+    protected OutputStream getMessageOutputStream(SMTPSession session) {
+        MimeMessageInputStreamSource mmiss = (MimeMessageInputStreamSource) session.getAttachment(SMTPConstants.DATA_MIMEMESSAGE_STREAMSOURCE, State.Transaction);
+        return mmiss.getWritableOutputStream();
+    }
 
-        return new SMTPResponse(SMTPRetCode.DATA_READY, "Ok Send data ending with <CRLF>.<CRLF>");
+    private int getDataSpoolThreshold(SMTPSession session) {
+        if (session instanceof ExtendedSMTPSession) {
+            return ((ExtendedSMTPSession) session).getDataSpoolThreshold();
+        }
+        return MimeMessageInputStreamSource.DEFAULT_THRESHOLD;
     }
 
 }
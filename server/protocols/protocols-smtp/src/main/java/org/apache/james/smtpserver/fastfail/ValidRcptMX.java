@@ -18,10 +18,12 @@
  ****************************************************************/
 package org.apache.james.smtpserver.fastfail;
 
+import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -33,10 +35,12 @@ import org.apache.james.core.MaybeSender;
 import org.apache.james.dnsservice.api.DNSService;
 import org.apache.james.dnsservice.api.TemporaryResolutionException;
 import org.apache.james.dnsservice.library.netmatcher.NetMatcher;
+import org.apache.james.protocols.api.ProtocolSession.State;
 import org.apache.james.protocols.api.handler.ProtocolHandler;
 import org.apache.james.protocols.smtp.SMTPRetCode;
 import org.apache.james.protocols.smtp.SMTPSession;
 import org.apache.james.protocols.smtp.dsn.DSNStatus;
+import org.apache.james.protocols.smtp.hook.ConcurrentHook;
 import org.apache.james.protocols.smtp.hook.HookResult;
 import org.apache.james.protocols.smtp.hook.HookReturnCode;
 import org.apache.james.protocols.smtp.hook.RcptHook;
@@ -45,12 +49,18 @@ import org.slf4j.LoggerFactory;
 
 import com.github.steveash.guavate.Guavate;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 /**
  * This class can be used to reject email with bogus MX which is send from a
  * authorized user or an authorized network.
+ *
+ * The result of the MX check is remembered for the other recipients of the same domain within the transaction.
  */
-public class ValidRcptMX implements RcptHook, ProtocolHandler {
+public class ValidRcptMX implements RcptHook, ConcurrentHook, ProtocolHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(ValidRcptMX.class);
+    private static final String CHECKED_DOMAINS = ValidRcptMX.class.getName() + ".checkedDomains";
 
     private  final DNSService dnsService;
     private NetMatcher bNetwork = null;
@@ -77,39 +87,57 @@ public class ValidRcptMX implements RcptHook, ProtocolHandler {
 
         // Email should be deliver local
         if (!domain.equals(Domain.LOCALHOST)) {
-
-            Iterator<String> mx;
-            try {
-                mx = dnsService.findMXRecords(domain.name()).iterator();
-            } catch (TemporaryResolutionException e1) {
-                return HookResult.DENYSOFT;
+            Map<Domain, HookResult> checkedDomains = checkedDomains(session);
+            HookResult checkedResult = checkedDomains.get(domain);
+            if (checkedResult != null) {
+                return checkedResult;
             }
-
-            if (mx != null && mx.hasNext()) {
-                while (mx.hasNext()) {
-                    String mxRec = mx.next();
-
-                    try {
-                        String ip = dnsService.getByName(mxRec).getHostAddress();
-
-                        // Check for invalid MX
-                        if (bNetwork.matchInetNetwork(ip)) {
-                            return HookResult.builder()
-                                .hookReturnCode(HookReturnCode.deny())
-                                .smtpReturnCode(SMTPRetCode.AUTH_REQUIRED)
-                                .smtpDescription(DSNStatus.getStatus(DSNStatus.PERMANENT, DSNStatus.SECURITY_AUTH)
-                                    + " Invalid MX " + session.getRemoteAddress().getAddress().toString() + " for domain " + domain.asString() + ". Reject email")
-                                .build();
-                        }
-                    } catch (UnknownHostException e) {
-                        // Ignore this
-                    }
-                }
+            HookResult result = checkMX(session, domain);
+            // Temporary failures are worth retrying for the next recipient
+            if (!result.equals(HookResult.DENYSOFT)) {
+                checkedDomains.put(domain, result);
             }
+            return result;
         }
         return HookResult.DECLINED;
     }
 
+    @SuppressWarnings("unchecked")
+    private Map<Domain, HookResult> checkedDomains(SMTPSession session) {
+        Map<Domain, HookResult> checkedDomains = (Map<Domain, HookResult>) session.getAttachment(CHECKED_DOMAINS, State.Transaction);
+        if (checkedDomains == null) {
+            checkedDomains = new ConcurrentHashMap<>();
+            session.setAttachment(CHECKED_DOMAINS, checkedDomains, State.Transaction);
+        }
+        return checkedDomains;
+    }
+
+    private HookResult checkMX(SMTPSession session, Domain domain) {
+        // The MX hosts are resolved concurrently
+        return dnsService.findMXRecordsReactive(domain.name())
+            .flatMapMany(Flux::fromIterable)
+            .flatMap(this::resolveIp)
+            // Check for invalid MX
+            .filter(bNetwork::matchInetNetwork)
+            .next()
+            .map(invalidIp -> HookResult.builder()
+                .hookReturnCode(HookReturnCode.deny())
+                .smtpReturnCode(SMTPRetCode.AUTH_REQUIRED)
+                .smtpDescription(DSNStatus.getStatus(DSNStatus.PERMANENT, DSNStatus.SECURITY_AUTH)
+                    + " Invalid MX " + session.getRemoteAddress().getAddress().toString() + " for domain " + domain.asString() + ". Reject email")
+                .build())
+            .onErrorResume(TemporaryResolutionException.class, e -> Mono.just(HookResult.DENYSOFT))
+            .defaultIfEmpty(HookResult.DECLINED)
+            .block();
+    }
+
+    private Mono<String> resolveIp(String mxRecord) {
+        return dnsService.getByNameReactive(mxRecord)
+            .map(InetAddress::getHostAddress)
+            // Ignore this
+            .onErrorResume(UnknownHostException.class, e -> Mono.empty());
+    }
+
     @Override
     public void init(Configuration config) throws ConfigurationException {
 
@@ -36,6 +36,7 @@ import org.apache.james.protocols.netty.ChannelHandlerFactory;
 import org.apache.james.protocols.smtp.AllButStartTlsLineChannelHandlerFactory;
 import org.apache.james.protocols.smtp.SMTPConfiguration;
 import org.apache.james.protocols.smtp.SMTPProtocol;
+import org.apache.james.server.core.MimeMessageInputStreamSource;
 import org.apache.james.smtpserver.CoreCmdHandlerLoader;
 import org.apache.james.smtpserver.ExtendedSMTPSession;
 import org.apache.james.smtpserver.jmx.JMXHandlersLoader;
@@ -79,6 +80,12 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
      */
     private long maxMessageSize = 0;
 
+    /**
+     * The size above which the DATA of a message is spooled to a temporary file
+     * rather than held in memory.
+     */
+    private int dataSpoolThreshold = MimeMessageInputStreamSource.DEFAULT_THRESHOLD;
+
     /**
      * The configuration data to be passed to the handler
      */
@@ -176,6 +183,14 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
                 LOGGER.info("No maximum message size is enforced for this server.");
             }
 
+            // get the data spool threshold from the conf file and multiply
+            // by 1024, to put it in bytes
+            long dataSpoolThresholdInBytes = configuration.getLong("dataSpoolThreshold", dataSpoolThreshold / 1024) * 1024;
+            if (dataSpoolThresholdInBytes < 0 || dataSpoolThresholdInBytes > Integer.MAX_VALUE) {
+                throw new ConfigurationException("'dataSpoolThreshold' needs to be between 0 and " + Integer.MAX_VALUE / 1024 + " KB");
+            }
+            dataSpoolThreshold = (int) dataSpoolThresholdInBytes;
+
             heloEhloEnforcement = configuration.getBoolean("heloEhloEnforcement", true);
 
             if (authRequiredString.equals("true")) {
@@ -264,6 +279,14 @@ public class SMTPServer extends AbstractProtocolAsyncServer implements SMTPServe
             return SMTPServer.this.verifyIdentity;
         }
 
+        /**
+         * Return the size, in bytes, above which the DATA of a message is
+         * spooled to a temporary file
+         */
+        public int getDataSpoolThreshold() {
+            return SMTPServer.this.dataSpoolThreshold;
+        }
+
         @Override
         public String getGreeting() {
             return SMTPServer.this.smtpGreeting;
@@ -18,8 +18,10 @@
  ****************************************************************/
 package org.apache.james.smtpserver;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Fail.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -42,6 +44,7 @@ import java.util.List;
 import javax.mail.internet.MimeMessage;
 
 import org.apache.commons.configuration2.BaseHierarchicalConfiguration;
+import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.commons.net.ProtocolCommandEvent;
 import org.apache.commons.net.ProtocolCommandListener;
 import org.apache.commons.net.smtp.SMTPClient;
@@ -86,7 +89,9 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 import com.google.inject.TypeLiteral;
 
 public class SMTPServerTest {
@@ -397,7 +402,10 @@ public class SMTPServerTest {
 
         assertThat(capabilitieslist)
             .as("capabilities")
-            .hasSize(3);
+            .hasSize(4);
+        assertThat(capabilitieslist.contains("CHUNKING"))
+            .as("capabilities present CHUNKING")
+            .isTrue();
         assertThat(capabilitieslist.contains("PIPELINING"))
             .as("capabilities present PIPELINING")
             .isTrue();
@@ -513,10 +521,10 @@ public class SMTPServerTest {
 
         assertThat(capabilitieslist)
             .as("capabilities")
-            .hasSize(4);
+            .hasSize(5);
         assertThat(capabilitieslist)
-            .as("capabilities present PIPELINING ENHANCEDSTATUSCODES 8BITMIME STARTTLS")
-            .containsOnly("PIPELINING", "ENHANCEDSTATUSCODES", "8BITMIME", "STARTTLS");
+            .as("capabilities present CHUNKING PIPELINING ENHANCEDSTATUSCODES 8BITMIME STARTTLS")
+            .containsOnly("CHUNKING", "PIPELINING", "ENHANCEDSTATUSCODES", "8BITMIME", "STARTTLS");
 
         smtpProtocol.quit();
         smtpProtocol.disconnect();
@@ -1522,6 +1530,279 @@ public class SMTPServerTest {
             .isEqualTo(250);
 
     }
+    @Test
+    public void dotStuffedLinesShouldBeUnstuffed() throws Exception {
+        init(smtpConfiguration);
+
+        SMTPClient smtpProtocol = newSMTPClient();
+        smtpProtocol.sendCommand("ehlo " + InetAddress.getLocalHost());
+        smtpProtocol.setSender("mail@localhost");
+        smtpProtocol.addRecipient("mail@localhost");
+
+        // the client dot-stuffs lines starting with a dot
+        String body = ".leading dot\r\n.\r\n..\r\n";
+        smtpProtocol.sendShortMessageData("Subject: test\r\n\r\n" + body);
+        smtpProtocol.quit();
+        smtpProtocol.disconnect();
+
+        assertThat(messageBody(queue.getLastMail()))
+            .isEqualTo(body);
+    }
+
+    @Test
+    public void messagesAboveTheDataSpoolThresholdShouldBeReceived() throws Exception {
+        smtpConfiguration.setDataSpoolThreshold(1);
+        init(smtpConfiguration);
+
+        SMTPClient smtpProtocol = newSMTPClient();
+        smtpProtocol.sendCommand("ehlo " + InetAddress.getLocalHost());
+        smtpProtocol.setSender("mail@localhost");
+        smtpProtocol.addRecipient("mail@localhost");
+
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            body.append(".line ").append(i).append(" of a message larger than the spool threshold\r\n");
+        }
+        smtpProtocol.sendShortMessageData("Subject: test\r\n\r\n" + body);
+        smtpProtocol.quit();
+        smtpProtocol.disconnect();
+
+        assertThat(messageBody(queue.getLastMail()))
+            .isEqualTo(body.toString());
+    }
+
+    @Test
+    public void dataSpoolThresholdOverflowingAnIntShouldBeRejected() {
+        smtpConfiguration.setDataSpoolThreshold(4194304);
+        smtpConfiguration.init();
+        SMTPServer server = new SMTPServer(mock(SmtpMetricsImpl.class));
+        server.setDnsService(dnsServer);
+        server.setFileSystem(fileSystem);
+
+        assertThatThrownBy(() -> server.configure(smtpConfiguration))
+            .isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    public void bdatChunksShouldBeAssembledIntoTheMessage() throws Exception {
+        init(smtpConfiguration);
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+
+        try (Socket client = new Socket(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort())) {
+            OutputStream out = client.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertThat(readReplyCode(in)).isEqualTo(220);
+
+            String firstChunk = "Subject: test\r\n\r\n.leading dot\r\nline split ";
+            String lastChunk = "across chunks\r\n.\r\n";
+            out.write(("EHLO test\r\n"
+                + "MAIL FROM:<mail@localhost>\r\n"
+                + "RCPT TO:<mail@localhost>\r\n"
+                + "BDAT " + firstChunk.length() + "\r\n" + firstChunk
+                + "BDAT " + lastChunk.length() + " LAST\r\n" + lastChunk
+                + "QUIT\r\n").getBytes(US_ASCII));
+            out.flush();
+
+            assertThat(readReplyCode(in)).as("EHLO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("MAIL FROM").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("RCPT TO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("first chunk").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("last chunk").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("QUIT").isEqualTo(221);
+        }
+
+        assertThat(messageBody(queue.getLastMail()))
+            .isEqualTo(".leading dot\r\nline split across chunks\r\n.\r\n");
+    }
+
+    @Test
+    public void bdatShouldNotEndTheHeadersWhenAChunkEndsRightBeforeTheCrlfOfALongHeaderLine() throws Exception {
+        init(smtpConfiguration);
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+
+        String longHeader = "X-Long: " + Strings.repeat("a", 8192 - "X-Long: ".length());
+        try (Socket client = new Socket(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort())) {
+            OutputStream out = client.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertThat(readReplyCode(in)).isEqualTo(220);
+
+            String firstChunk = longHeader;
+            String lastChunk = "\r\nSubject: test\r\n\r\n" + Strings.repeat("b", 20000) + "\r\n";
+            out.write(("EHLO test\r\n"
+                + "MAIL FROM:<mail@localhost>\r\n"
+                + "RCPT TO:<mail@localhost>\r\n"
+                + "BDAT " + firstChunk.length() + "\r\n" + firstChunk
+                + "BDAT " + lastChunk.length() + " LAST\r\n" + lastChunk
+                + "QUIT\r\n").getBytes(US_ASCII));
+            out.flush();
+
+            assertThat(readReplyCode(in)).as("EHLO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("MAIL FROM").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("RCPT TO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("first chunk").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("last chunk").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("QUIT").isEqualTo(221);
+        }
+
+        Mail mail = queue.getLastMail();
+        assertThat(mail.getMessage().getSubject()).isEqualTo("test");
+        assertThat(messageBody(mail)).isEqualTo(Strings.repeat("b", 20000) + "\r\n");
+    }
+
+    @Test
+    public void bdatChunksExceedingTheMaximumMessageSizeShouldBeRejected() throws Exception {
+        smtpConfiguration.setMaxMessageSize(1); // set message limit to 1kb
+        init(smtpConfiguration);
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+
+        try (Socket client = new Socket(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort())) {
+            OutputStream out = client.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertThat(readReplyCode(in)).isEqualTo(220);
+
+            String firstChunk = "Subject: test\r\n\r\n" + Strings.repeat("a", 1000) + "\r\n";
+            String lastChunk = Strings.repeat("b", 1000) + "\r\n";
+            out.write(("EHLO test\r\n"
+                + "MAIL FROM:<mail@localhost>\r\n"
+                + "RCPT TO:<mail@localhost>\r\n"
+                + "BDAT " + firstChunk.length() + "\r\n" + firstChunk
+                + "BDAT " + lastChunk.length() + " LAST\r\n" + lastChunk
+                + "NOOP\r\n").getBytes(US_ASCII));
+            out.flush();
+
+            assertThat(readReplyCode(in)).as("EHLO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("MAIL FROM").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("RCPT TO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("first chunk").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("last chunk").isEqualTo(552);
+            assertThat(readReplyCode(in)).as("NOOP").isEqualTo(250);
+        }
+
+        assertThat(queue.getLastMail()).isNull();
+    }
+
+    @Test
+    public void bdatWithoutSenderShouldBeRejectedOnceTheChunkIsRead() throws Exception {
+        init(smtpConfiguration);
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+
+        try (Socket client = new Socket(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort())) {
+            OutputStream out = client.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertThat(readReplyCode(in)).isEqualTo(220);
+
+            out.write(("EHLO test\r\n"
+                + "BDAT 10 LAST\r\nNOOP\r\nRSET"
+                + "NOOP\r\n").getBytes(US_ASCII));
+            out.flush();
+
+            assertThat(readReplyCode(in)).as("EHLO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("BDAT").isEqualTo(503);
+            assertThat(readReplyCode(in)).as("NOOP").isEqualTo(250);
+        }
+
+        assertThat(queue.getLastMail()).isNull();
+    }
+
+    @Test
+    public void dataShouldBeRejectedWhenMessageIsSentWithBdat() throws Exception {
+        init(smtpConfiguration);
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+
+        try (Socket client = new Socket(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort())) {
+            OutputStream out = client.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertThat(readReplyCode(in)).isEqualTo(220);
+
+            out.write(("EHLO test\r\n"
+                + "MAIL FROM:<mail@localhost>\r\n"
+                + "RCPT TO:<mail@localhost>\r\n"
+                + "BDAT 6\r\nabcdef"
+                + "DATA\r\n").getBytes(US_ASCII));
+            out.flush();
+
+            assertThat(readReplyCode(in)).as("EHLO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("MAIL FROM").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("RCPT TO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("BDAT").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("DATA").isEqualTo(503);
+        }
+    }
+
+    @Test
+    public void bdatPipelinedAfterTheEndOfAMessageSentWithDataShouldBeAccepted() throws Exception {
+        init(smtpConfiguration);
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+
+        try (Socket client = new Socket(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort())) {
+            OutputStream out = client.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertThat(readReplyCode(in)).isEqualTo(220);
+
+            out.write(("EHLO test\r\n"
+                + "MAIL FROM:<mail@localhost>\r\n"
+                + "RCPT TO:<mail@localhost>\r\n"
+                + "DATA\r\n").getBytes(US_ASCII));
+            out.flush();
+            assertThat(readReplyCode(in)).as("EHLO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("MAIL FROM").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("RCPT TO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("DATA").isEqualTo(354);
+
+            String chunk = "Subject: second\r\n\r\nsent with BDAT\r\n";
+            out.write(("Subject: first\r\n\r\nsent with DATA\r\n.\r\n"
+                + "MAIL FROM:<mail@localhost>\r\n"
+                + "RCPT TO:<mail@localhost>\r\n"
+                + "BDAT " + chunk.length() + " LAST\r\n" + chunk
+                + "QUIT\r\n").getBytes(US_ASCII));
+            out.flush();
+
+            assertThat(readReplyCode(in)).as("end of DATA").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("MAIL FROM").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("RCPT TO").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("BDAT").isEqualTo(250);
+            assertThat(readReplyCode(in)).as("QUIT").isEqualTo(221);
+        }
+
+        assertThat(queue.getLastMail().getMessage().getSubject()).isEqualTo("second");
+    }
+
+    @Test
+    public void startTlsPipelinedAfterABdatChunkShouldBeRejected() throws Exception {
+        smtpConfiguration.setStartTLS();
+        init(smtpConfiguration);
+        InetSocketAddress bindedAddress = new ProtocolServerUtils(smtpServer).retrieveBindedAddress();
+
+        try (Socket client = new Socket(bindedAddress.getAddress().getHostAddress(), bindedAddress.getPort())) {
+            OutputStream out = client.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), US_ASCII));
+            assertThat(readReplyCode(in)).isEqualTo(220);
+
+            out.write("EHLO test\r\n".getBytes(US_ASCII));
+            out.flush();
+            assertThat(readReplyCode(in)).as("EHLO").isEqualTo(250);
+
+            out.write(("BDAT 10\r\n0123456789"
+                + "STARTTLS\r\n"
+                + "AUTH PLAIN\r\n").getBytes(US_ASCII));
+            out.flush();
+
+            assertThat(readReplyCode(in)).isEqualTo(451);
+        }
+    }
+
+    private int readReplyCode(BufferedReader in) throws IOException {
+        String line = in.readLine();
+        while (line.length() > 3 && line.charAt(3) == '-') {
+            line = in.readLine();
+        }
+        return Integer.parseInt(line.substring(0, 3));
+    }
+
+    private String messageBody(Mail mail) throws Exception {
+        return new String(ByteStreams.toByteArray(mail.getMessage().getRawInputStream()), UTF_8);
+    }
+
     // Check if auth users get not rejected cause rbl. See JAMES-566
 
     @Test
@@ -29,6 +29,7 @@ import org.apache.james.smtpserver.fastfail.ValidSenderDomainHandler;
 public class SMTPTestConfiguration extends BaseHierarchicalConfiguration {
 
     private int maxMessageSizeKB = 0;
+    private Integer dataSpoolThresholdKB = null;
     private String authorizedAddresses = "127.0.0.0/8";
     private String authorizingMode = "false";
     private boolean verifyIdentity = false;
@@ -54,6 +55,10 @@ public class SMTPTestConfiguration extends BaseHierarchicalConfiguration {
         maxMessageSizeKB = kilobytes;
     }
 
+    public void setDataSpoolThreshold(int kilobytes) {
+        dataSpoolThresholdKB = kilobytes;
+    }
+
     public void setAuthorizedAddresses(String authorizedAddresses) {
         this.authorizedAddresses = authorizedAddresses;
     }
@@ -124,6 +129,9 @@ public class SMTPTestConfiguration extends BaseHierarchicalConfiguration {
         addProperty("connectiontimeout", 360000);
         addProperty("authorizedAddresses", authorizedAddresses);
         addProperty("maxmessagesize", maxMessageSizeKB);
+        if (dataSpoolThresholdKB != null) {
+            addProperty("dataSpoolThreshold", dataSpoolThresholdKB);
+        }
         addProperty("authRequired", authorizingMode);
         addProperty("heloEhloEnforcement", heloEhloEnforcement);
         addProperty("addressBracketsEnforcement", addressBracketsEnforcement);
@@ -19,6 +19,10 @@
 package org.apache.james.smtpserver;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.HashMap;
 
@@ -87,4 +91,25 @@ public class ValidRcptMXTest {
 
         assertThat(HookReturnCode.deny()).describedAs("Reject").isEqualTo(rCode);
     }
+
+    @Test
+    public void mxShouldBeCheckedOncePerDomainWithinATransaction() throws Exception {
+        String bannedAddress = "172.53.64.2";
+
+        DNSService dns = spy(new InMemoryDNSService()
+            .registerMxRecord(INVALID_HOST, bannedAddress)
+            .registerMxRecord("255.255.255.255", "255.255.255.255")
+            .registerMxRecord(bannedAddress, bannedAddress));
+        MailAddress firstRecipient = new MailAddress("first@" + INVALID_HOST);
+        MailAddress secondRecipient = new MailAddress("second@" + INVALID_HOST);
+        SMTPSession session = setupMockedSMTPSession(firstRecipient);
+
+        ValidRcptMX handler = new ValidRcptMX(dns);
+        handler.setBannedNetworks(ImmutableList.of(bannedAddress), dns);
+        handler.doRcpt(session, MaybeSender.nullSender(), firstRecipient);
+        HookReturnCode rCode = handler.doRcpt(session, MaybeSender.nullSender(), secondRecipient).getResult();
+
+        assertThat(rCode).isEqualTo(HookReturnCode.deny());
+        verify(dns, times(1)).findMXRecordsReactive(any());
+    }
 }
@@ -0,0 +1,138 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.function.Function;
+
+import javax.inject.Inject;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.apache.james.blob.gc.BlobGarbageCollectionTask;
+import org.apache.james.blob.gc.BlobGarbageCollector;
+import org.apache.james.task.TaskId;
+import org.apache.james.task.TaskManager;
+import org.apache.james.util.DurationParser;
+import org.apache.james.webadmin.Constants;
+import org.apache.james.webadmin.Routes;
+import org.apache.james.webadmin.dto.TaskIdDto;
+import org.apache.james.webadmin.utils.ErrorResponder;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import io.swagger.annotations.ResponseHeader;
+import spark.Request;
+import spark.Response;
+import spark.Service;
+
+@Api(tags = "Blobs")
+@Path(BlobGarbageCollectionRoutes.ROOT_PATH)
+@Produces(Constants.JSON_CONTENT_TYPE)
+public class BlobGarbageCollectionRoutes implements Routes {
+    public static final String ROOT_PATH = "blobs";
+
+    private static final String SCOPE_QUERY_PARAM = "scope";
+    private static final String UNREFERENCED_SCOPE = "unreferenced";
+    private static final String EXPECTED_BLOB_COUNT_QUERY_PARAM = "expectedBlobCount";
+    private static final String ASSOCIATED_PROBABILITY_QUERY_PARAM = "associatedProbability";
+    private static final String DELETIONS_PER_SECOND_QUERY_PARAM = "deletionsPerSecond";
+    private static final String GRACE_PERIOD_QUERY_PARAM = "gracePeriod";
+
+    private final BlobGarbageCollectionTask.Factory taskFactory;
+    private final TaskManager taskManager;
+    private final JsonTransformer jsonTransformer;
+
+    @Inject
+    BlobGarbageCollectionRoutes(BlobGarbageCollectionTask.Factory taskFactory, TaskManager taskManager, JsonTransformer jsonTransformer) {
+        this.taskFactory = taskFactory;
+        this.taskManager = taskManager;
+        this.jsonTransformer = jsonTransformer;
+    }
+
+    @Override
+    public String getBasePath() {
+        return ROOT_PATH;
+    }
+
+    @Override
+    public void define(Service service) {
+        service.delete(ROOT_PATH, this::collectUnreferencedBlobs, jsonTransformer);
+    }
+
+    @DELETE
+    @ApiOperation(value = "Deletes the blobs of the default bucket that are no longer referenced")
+    @ApiImplicitParams({
+        @ApiImplicitParam(required = true, dataType = "String", name = SCOPE_QUERY_PARAM, paramType = "query",
+            example = "?scope=unreferenced", value = "Compulsory. Only 'unreferenced' is supported."),
+        @ApiImplicitParam(dataType = "Long", name = EXPECTED_BLOB_COUNT_QUERY_PARAM, paramType = "query",
+            value = "Expected count of referenced blobs, used to size the bloom filter. Defaults to 1000000."),
+        @ApiImplicitParam(dataType = "Double", name = ASSOCIATED_PROBABILITY_QUERY_PARAM, paramType = "query",
+            value = "Bloom filter false positive probability, leading to keeping unreferenced blobs. Defaults to 0.01."),
+        @ApiImplicitParam(dataType = "Integer", name = DELETIONS_PER_SECOND_QUERY_PARAM, paramType = "query",
+            value = "Maximum count of blobs deleted per second. Defaults to 100."),
+        @ApiImplicitParam(dataType = "String", name = GRACE_PERIOD_QUERY_PARAM, paramType = "query",
+            example = "?gracePeriod=1d",
+            value = "Blobs written within this period are kept. Unit defaults to seconds. Defaults to 1 day.")
+    })
+    @ApiResponses(value = {
+        @ApiResponse(code = HttpStatus.CREATED_201, message = "The taskId of the given scheduled task", response = TaskIdDto.class,
+            responseHeaders = {
+                @ResponseHeader(name = "Location", description = "URL of the resource associated with the scheduled task")
+            }),
+        @ApiResponse(code = HttpStatus.BAD_REQUEST_400, message = "Bad request - invalid parameter"),
+        @ApiResponse(code = HttpStatus.INTERNAL_SERVER_ERROR_500, message = "Internal server error - Something went bad on the server side.")
+    })
+    public TaskIdDto collectUnreferencedBlobs(Request request, Response response) {
+        if (!UNREFERENCED_SCOPE.equals(request.queryParams(SCOPE_QUERY_PARAM))) {
+            throw ErrorResponder.builder()
+                .statusCode(HttpStatus.BAD_REQUEST_400)
+                .type(ErrorResponder.ErrorType.INVALID_ARGUMENT)
+                .message(String.format("Invalid '%s' parameter, only '%s' is supported", SCOPE_QUERY_PARAM, UNREFERENCED_SCOPE))
+                .haltError();
+        }
+
+        BlobGarbageCollector.RunningOptions runningOptions = new BlobGarbageCollector.RunningOptions(
+            extractParam(request, EXPECTED_BLOB_COUNT_QUERY_PARAM, Long::parseLong)
+                .orElse(BlobGarbageCollector.RunningOptions.DEFAULT_EXPECTED_BLOB_COUNT),
+            extractParam(request, ASSOCIATED_PROBABILITY_QUERY_PARAM, Double::parseDouble)
+                .orElse(BlobGarbageCollector.RunningOptions.DEFAULT_ASSOCIATED_PROBABILITY),
+            extractParam(request, DELETIONS_PER_SECOND_QUERY_PARAM, Integer::parseInt)
+                .orElse(BlobGarbageCollector.RunningOptions.DEFAULT_DELETIONS_PER_SECOND),
+            extractParam(request, GRACE_PERIOD_QUERY_PARAM, value -> DurationParser.parse(value, ChronoUnit.SECONDS))
+                .orElse(BlobGarbageCollector.RunningOptions.DEFAULT_GRACE_PERIOD));
+
+        TaskId taskId = taskManager.submit(taskFactory.create(runningOptions));
+        return TaskIdDto.respond(response, taskId);
+    }
+
+    private <T> Optional<T> extractParam(Request request, String queryParam, Function<String, T> parser) {
+        return Optional.ofNullable(request.queryParams(queryParam))
+            .map(parser);
+    }
+}
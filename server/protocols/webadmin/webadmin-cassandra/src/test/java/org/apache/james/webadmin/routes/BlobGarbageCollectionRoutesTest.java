@@ -0,0 +1,186 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.webadmin.routes;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.apache.james.blob.api.BlobId;
+import org.apache.james.blob.api.BlobReferenceSource;
+import org.apache.james.blob.api.HashBlobId;
+import org.apache.james.blob.gc.BlobGarbageCollectionTask;
+import org.apache.james.blob.gc.BlobGarbageCollector;
+import org.apache.james.blob.memory.MemoryBlobStore;
+import org.apache.james.task.Hostname;
+import org.apache.james.task.MemoryTaskManager;
+import org.apache.james.webadmin.WebAdminServer;
+import org.apache.james.webadmin.WebAdminUtils;
+import org.apache.james.webadmin.utils.JsonTransformer;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import io.restassured.RestAssured;
+import reactor.core.publisher.Flux;
+
+class BlobGarbageCollectionRoutesTest {
+    private WebAdminServer webAdminServer;
+    private MemoryTaskManager taskManager;
+    private MemoryBlobStore blobStore;
+    private BlobId referencedBlob;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new MemoryBlobStore(new HashBlobId.Factory());
+        referencedBlob = save("referenced");
+        BlobReferenceSource referenceSource = () -> Flux.just(referencedBlob);
+        Clock clock = Clock.fixed(Instant.now().plus(Duration.ofMinutes(1)), ZoneOffset.UTC);
+        BlobGarbageCollector garbageCollector = new BlobGarbageCollector(blobStore, ImmutableSet.of(referenceSource), clock);
+
+        taskManager = new MemoryTaskManager(new Hostname("foo"));
+        JsonTransformer jsonTransformer = new JsonTransformer();
+        webAdminServer = WebAdminUtils.createWebAdminServer(
+                new BlobGarbageCollectionRoutes(new BlobGarbageCollectionTask.Factory(garbageCollector), taskManager, jsonTransformer),
+                new TasksRoutes(taskManager, jsonTransformer))
+            .start();
+
+        RestAssured.requestSpecification = WebAdminUtils.buildRequestSpecification(webAdminServer)
+            .setBasePath(BlobGarbageCollectionRoutes.ROOT_PATH)
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webAdminServer.destroy();
+        taskManager.stop();
+    }
+
+    private BlobId save(String content) {
+        return blobStore.save(blobStore.getDefaultBucketName(), content.getBytes(StandardCharsets.UTF_8)).block();
+    }
+
+    @Test
+    void deleteShouldRejectMissingScope() {
+        when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void deleteShouldRejectInvalidScope() {
+        given()
+            .queryParam("scope", "all")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void deleteShouldRejectInvalidDeletionsPerSecond() {
+        given()
+            .queryParam("scope", "unreferenced")
+            .queryParam("deletionsPerSecond", "-1")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void deleteShouldRejectInvalidGracePeriod() {
+        given()
+            .queryParam("scope", "unreferenced")
+            .queryParam("gracePeriod", "invalid")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.BAD_REQUEST_400);
+    }
+
+    @Test
+    void deleteShouldDeleteUnreferencedBlobs() {
+        save("unreferenced");
+
+        String taskId = given()
+            .queryParam("scope", "unreferenced")
+            .queryParam("gracePeriod", "0")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .extract()
+            .jsonPath()
+            .get("taskId");
+
+        given()
+            .basePath(TasksRoutes.BASE)
+        .when()
+            .get(taskId + "/await")
+        .then()
+            .body("status", is("completed"))
+            .body("type", is("blob-garbage-collection"))
+            .body("additionalInformation.referenceCount", is(1))
+            .body("additionalInformation.candidateCount", is(1))
+            .body("additionalInformation.deletedCount", is(1))
+            .body("additionalInformation.failedCount", is(0));
+
+        assertThat(blobStore.listBlobs(blobStore.getDefaultBucketName(), Instant.MAX).collectList().block())
+            .containsExactly(referencedBlob);
+    }
+
+    @Test
+    void deleteShouldKeepBlobsWithinTheDefaultGracePeriod() {
+        save("unreferenced");
+
+        String taskId = given()
+            .queryParam("scope", "unreferenced")
+        .when()
+            .delete()
+        .then()
+            .statusCode(HttpStatus.CREATED_201)
+            .extract()
+            .jsonPath()
+            .get("taskId");
+
+        given()
+            .basePath(TasksRoutes.BASE)
+        .when()
+            .get(taskId + "/await")
+        .then()
+            .body("status", is("completed"))
+            .body("additionalInformation.deletedCount", is(0));
+
+        assertThat(blobStore.listBlobs(blobStore.getDefaultBucketName(), Instant.MAX).collectList().block())
+            .hasSize(2);
+    }
+}
@@ -38,7 +38,15 @@ import org.apache.mailet.Mail;
 
 import com.github.fge.lambdas.Throwing;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public class ReprocessingService {
+    // Mails of a repository are enqueued concurrently so that the mail queue can batch them: reprocessing does not
+    // preserve the repository order
+    private static final int CONCURRENT_ENQUEUES = 16;
+
     public static class MissingKeyException extends RuntimeException {
         MissingKeyException(MailKey key) {
             super(key.asString() + " can not be found");
@@ -63,6 +71,15 @@ public class ReprocessingService {
                 throw new RuntimeException("Error encountered while reprocessing mail " + mail.getName(), e);
             }
         }
+
+        private Mono<Void> reprocessReactive(MailRepository repository, Mail mail) {
+            targetProcessor.ifPresent(mail::setState);
+            return Mono.from(mailQueue.enqueueReactive(mail))
+                .then(Mono.fromRunnable(Throwing.runnable(() -> repository.remove(mail)).sneakyThrow())
+                    .subscribeOn(Schedulers.elastic()))
+                .onErrorMap(e -> new RuntimeException("Error encountered while reprocessing mail " + mail.getName(), e))
+                .then();
+        }
     }
 
     private final MailQueueFactory<?> mailQueueFactory;
@@ -81,11 +98,13 @@ public class ReprocessingService {
         mailRepositoryStoreService
             .getRepositories(path)
             .forEach(Throwing.consumer((MailRepository repository) ->
-                Iterators.toStream(repository.list())
-                    .peek(keyListener)
-                    .map(Throwing.function(key -> Optional.ofNullable(repository.retrieve(key))))
-                    .flatMap(OptionalUtils::toStream)
-                    .forEach(mail -> reprocessor.reprocess(repository, mail))));
+                Flux.fromStream(Iterators.toStream(repository.list())
+                        .peek(keyListener)
+                        .map(Throwing.function(key -> Optional.ofNullable(repository.retrieve(key))))
+                        .flatMap(OptionalUtils::toStream))
+                    .flatMap(mail -> reprocessor.reprocessReactive(repository, mail), CONCURRENT_ENQUEUES)
+                    .then()
+                    .block()));
     }
 
     public void reprocess(MailRepositoryPath path, MailKey key, Optional<String> targetProcessor, String targetQueue) throws MailRepositoryStore.MailRepositoryStoreException, MessagingException {
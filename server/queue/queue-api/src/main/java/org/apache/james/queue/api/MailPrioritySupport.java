@@ -20,7 +20,9 @@ package org.apache.james.queue.api;
 
 import org.apache.mailet.Attribute;
 import org.apache.mailet.AttributeName;
+import org.apache.mailet.AttributeUtils;
 import org.apache.mailet.AttributeValue;
+import org.apache.mailet.Mail;
 
 /**
  * Supports Mail Priority handling
@@ -46,4 +48,14 @@ public interface MailPrioritySupport {
     /** Handle mail with highest priority */
     int HIGH_PRIORITY = 9;
     Attribute HIGH_PRIORITY_ATTRIBUTE = new Attribute(MAIL_PRIORITY, AttributeValue.of(HIGH_PRIORITY));
+
+    /**
+     * Priority of the given mail, bounded between {@link #LOW_PRIORITY} and {@link #HIGH_PRIORITY}.
+     * Mails without a valid priority attribute get the {@link #NORMAL_PRIORITY}.
+     */
+    static int priorityOf(Mail mail) {
+        return AttributeUtils.getValueAndCastFromMail(mail, MAIL_PRIORITY, Integer.class)
+            .map(priority -> Math.max(LOW_PRIORITY, Math.min(HIGH_PRIORITY, priority)))
+            .orElse(NORMAL_PRIORITY);
+    }
 }
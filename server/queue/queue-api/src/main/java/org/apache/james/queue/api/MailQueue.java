@@ -28,6 +28,9 @@ import org.apache.mailet.Mail;
 import org.reactivestreams.Publisher;
 import org.threeten.extra.Temporals;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 /**
  * <p>
  * A Queue/Spool for Mails. How the Queue handles the ordering of the dequeuing
@@ -64,6 +67,7 @@ public interface MailQueue {
     String DEQUEUED_METRIC_NAME_PREFIX = "dequeuedMail:";
     String ENQUEUED_TIMER_METRIC_NAME_PREFIX = "enqueueTime:";
     String QUEUE_SIZE_METRIC_NAME_PREFIX = "mailQueueSize:";
+    String QUEUE_TIME_METRIC_NAME_PREFIX = "mailQueueTime:";
 
     /**
      * No delay for queued {@link MailQueueItem}
@@ -104,6 +108,25 @@ public interface MailQueue {
      */
     void enQueue(Mail mail) throws MailQueueException;
 
+    /**
+     * Enqueue the Mail to the queue upon subscription, without blocking the caller.
+     *
+     * Implementations able to enqueue asynchronously should override this method, for instance to group
+     * concurrent enqueues together. The default implementation delegates to {@link #enQueue(Mail)} on a bounded
+     * elastic scheduler.
+     *
+     * @param mail
+     * @return a {@link Publisher} completing once the mail is enqueued
+     */
+    default Publisher<Void> enqueueReactive(Mail mail) {
+        return Mono.fromCallable(() -> {
+                enQueue(mail);
+                return mail;
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
     /**
      * Dequeue the next ready-to-process Mail of the queue. This method will
      * block until a Mail is ready and then process the operation.
@@ -97,6 +97,29 @@ public interface MailQueueContract {
             .containsOnly(RECIPIENT1, RECIPIENT2);
     }
 
+    @Test
+    default void enqueueReactiveShouldEnqueueConcurrentMails() {
+        int mailCount = 20;
+
+        Flux.range(0, mailCount)
+            .flatMap(Throwing.function(i -> getMailQueue().enqueueReactive(defaultMail()
+                .name("name" + i)
+                .build())))
+            .then()
+            .block();
+
+        assertThat(Flux.from(getMailQueue().deQueue())
+                .take(mailCount)
+                .flatMap(Throwing.function(item -> {
+                    item.done(true);
+                    return Mono.just(item.getMail().getName());
+                }))
+                .collectList()
+                .block(Duration.ofMinutes(1)))
+            .hasSize(mailCount)
+            .doesNotHaveDuplicates();
+    }
+
     @Test
     default void queueShouldHandleSender() throws Exception {
         enQueue(FakeMail.builder()
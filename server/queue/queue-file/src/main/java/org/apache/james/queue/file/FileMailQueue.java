@@ -23,8 +23,6 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.security.SecureRandom;
 import java.time.Duration;
 import java.time.Instant;
@@ -37,9 +35,8 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -50,8 +47,10 @@ import javax.mail.util.SharedFileInputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.james.lifecycle.api.Disposable;
 import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.queue.api.MailPrioritySupport;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.server.core.MailImplCodec;
 import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
 import org.apache.james.server.core.MimeMessageSource;
 import org.apache.james.util.concurrent.NamedThreadFactory;
@@ -73,16 +72,19 @@ import reactor.core.publisher.Mono;
  * <p/>
  * On create of the {@link FileMailQueue} the {@link #init()} will get called. This takes care of
  * loading the needed meta-data into memory for fast access.
+ * <p/>
+ * Mails are dequeued by decreasing priority, see {@link MailPrioritySupport}. Mails sharing the same priority are
+ * dequeued in the order they became available.
  *
  * @deprecated FileMailQueue implementation is unmaintained, incomplete and not thread safe
  * We recommend using embedded ActiveMQMailQueue implementation instead
  */
 @Deprecated
-public class FileMailQueue implements ManageableMailQueue {
+public class FileMailQueue implements ManageableMailQueue, MailPrioritySupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(FileMailQueue.class);
 
     private final Map<String, FileItem> keyMappings = Collections.synchronizedMap(new LinkedHashMap<>());
-    private final BlockingQueue<String> inmemoryQueue = new LinkedBlockingQueue<>();
+    private final PriorityBlockingQueue<QueuedKey> inmemoryQueue = new PriorityBlockingQueue<>();
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(NamedThreadFactory.withClassName(getClass()));
     private static final AtomicLong COUNTER = new AtomicLong();
     private final String queueDirName;
@@ -126,43 +128,30 @@ public class FileMailQueue implements ManageableMailQueue {
 
             for (String name : files) {
 
-                ObjectInputStream oin = null;
+                InputStream oin = null;
 
                 try {
 
                     final String msgFileName = name.substring(0, name.length() - OBJECT_EXTENSION.length()) + MSG_EXTENSION;
+                    final String objectFile = qDir.getAbsolutePath() + File.separator + name;
 
-                    FileItem item = new FileItem(qDir.getAbsolutePath() + File.separator + name, qDir.getAbsolutePath() + File.separator + msgFileName);
-
-                    oin = new ObjectInputStream(new FileInputStream(item.getObjectFile()));
-                    Mail mail = (Mail) oin.readObject();
+                    oin = new FileInputStream(objectFile);
+                    Mail mail = MailImplCodec.decode(oin);
                     Optional<ZonedDateTime> next = getNextDelivery(mail);
 
+                    FileItem item = new FileItem(objectFile, qDir.getAbsolutePath() + File.separator + msgFileName, MailPrioritySupport.priorityOf(mail));
                     final String key = mail.getName();
                     keyMappings.put(key, item);
                     if (!next.isPresent() || next.get().isBefore(ZonedDateTime.now())) {
-
-                        try {
-                            inmemoryQueue.put(key);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            throw new RuntimeException("Unable to init", e);
-                        }
+                        makeAvailable(key, item);
                     } else {
 
                         // Schedule a task which will put the mail in the queue
                         // for processing after a given delay
                         long nextDeliveryDelay = ZonedDateTime.now().until(next.get(), ChronoUnit.MILLIS);
-                        scheduler.schedule(() -> {
-                            try {
-                                inmemoryQueue.put(key);
-                            } catch (InterruptedException e) {
-                                Thread.currentThread().interrupt();
-                                throw new RuntimeException("Unable to init", e);
-                            }
-                        }, nextDeliveryDelay, TimeUnit.MILLISECONDS);
+                        scheduler.schedule(() -> makeAvailable(key, item), nextDeliveryDelay, TimeUnit.MILLISECONDS);
                     }
-                } catch (ClassNotFoundException | IOException e) {
+                } catch (IOException e) {
                     LOGGER.error("Unable to load Mail", e);
                 } finally {
                     if (oin != null) {
@@ -192,14 +181,12 @@ public class FileMailQueue implements ManageableMailQueue {
 
             String name = queueDirName + "/" + i + "/" + key;
 
-            final FileItem item = new FileItem(name + OBJECT_EXTENSION, name + MSG_EXTENSION);
+            final FileItem item = new FileItem(name + OBJECT_EXTENSION, name + MSG_EXTENSION, MailPrioritySupport.priorityOf(mail));
             if (!delay.isNegative()) {
                 mail.setAttribute(new Attribute(NEXT_DELIVERY, AttributeValue.of(computeNextDelivery(delay))));
             }
-            try (FileOutputStream foout = new FileOutputStream(item.getObjectFile());
-                ObjectOutputStream oout = new ObjectOutputStream(foout)) {
-                oout.writeObject(mail);
-                oout.flush();
+            try (FileOutputStream foout = new FileOutputStream(item.getObjectFile())) {
+                MailImplCodec.encode(mail, foout);
                 if (sync) {
                     foout.getFD().sync();
                 }
@@ -214,29 +201,25 @@ public class FileMailQueue implements ManageableMailQueue {
 
             keyMappings.put(key, item);
 
-            if (!delay.isNegative()) {
+            if (!delay.isNegative() && !delay.isZero()) {
                 // The message should get delayed so schedule it for later
-                scheduler.schedule(() -> {
-                    try {
-                        inmemoryQueue.put(key);
-
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Unable to init", e);
-                    }
-                }, delay.getSeconds(), TimeUnit.SECONDS);
+                scheduler.schedule(() -> makeAvailable(key, item), delay.getSeconds(), TimeUnit.SECONDS);
 
             } else {
-                inmemoryQueue.put(key);
+                makeAvailable(key, item);
             }
 
             //TODO: Think about exception handling in detail
-        } catch (IOException | MessagingException | InterruptedException e) {
+        } catch (IOException | MessagingException e) {
             throw new MailQueueException("Unable to enqueue mail", e);
         }
 
     }
 
+    private void makeAvailable(String key, FileItem item) {
+        inmemoryQueue.put(new QueuedKey(key, item.getPriority()));
+    }
+
     private long computeNextDelivery(Duration delay) {
         try {
             return Instant.now().plus(delay).getEpochSecond();
@@ -260,7 +243,7 @@ public class FileMailQueue implements ManageableMailQueue {
             FileItem item = null;
             String k = null;
             while (item == null) {
-                k = inmemoryQueue.take();
+                k = inmemoryQueue.take().getKey();
 
                 item = keyMappings.get(k);
 
@@ -270,8 +253,8 @@ public class FileMailQueue implements ManageableMailQueue {
             try {
                 final File objectFile = new File(fitem.getObjectFile());
                 final File msgFile = new File(fitem.getMessageFile());
-                try (ObjectInputStream oin = new ObjectInputStream(new FileInputStream(objectFile))) {
-                    final Mail mail = (Mail) oin.readObject();
+                try (InputStream oin = new FileInputStream(objectFile)) {
+                    final Mail mail = MailImplCodec.decode(oin);
                     mail.setMessage(new MimeMessageCopyOnWriteProxy(new FileMimeMessageSource(msgFile)));
                     MailQueueItem fileMailQueueItem = new MailQueueItem() {
 
@@ -283,12 +266,7 @@ public class FileMailQueue implements ManageableMailQueue {
                         @Override
                         public void done(boolean success) throws MailQueueException {
                             if (!success) {
-                                try {
-                                    inmemoryQueue.put(key);
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                    throw new MailQueueException("Unable to rollback", e);
-                                }
+                                makeAvailable(key, fitem);
                             } else {
                                 fitem.delete();
                                 keyMappings.remove(key);
@@ -300,7 +278,7 @@ public class FileMailQueue implements ManageableMailQueue {
                     return Mono.just(mailQueueItemDecoratorFactory.decorate(fileMailQueueItem));
                 }
                 // TODO: Think about exception handling in detail
-            } catch (IOException | ClassNotFoundException | MessagingException e) {
+            } catch (IOException | MessagingException e) {
                 return Mono.error(new MailQueueException("Unable to dequeue", e));
             }
 
@@ -358,10 +336,12 @@ public class FileMailQueue implements ManageableMailQueue {
     private static final class FileItem {
         private final String objectfile;
         private final String messagefile;
+        private final int priority;
 
-        public FileItem(String objectfile, String messagefile) {
+        public FileItem(String objectfile, String messagefile, int priority) {
             this.objectfile = objectfile;
             this.messagefile = messagefile;
+            this.priority = priority;
         }
 
         public String getObjectFile() {
@@ -372,6 +352,10 @@ public class FileMailQueue implements ManageableMailQueue {
             return messagefile;
         }
 
+        public int getPriority() {
+            return priority;
+        }
+
         public void delete() throws MailQueueException {
             try {
                 FileUtils.forceDelete(new File(getObjectFile()));
@@ -394,12 +378,12 @@ public class FileMailQueue implements ManageableMailQueue {
 
     @Override
     public long flush() throws MailQueueException {
-        Iterator<String> keys = keyMappings.keySet().iterator();
+        Iterator<Map.Entry<String, FileItem>> entries = keyMappings.entrySet().iterator();
         long i = 0;
-        while (keys.hasNext()) {
-            String key = keys.next();
-            if (!inmemoryQueue.contains(key)) {
-                inmemoryQueue.add(key);
+        while (entries.hasNext()) {
+            Map.Entry<String, FileItem> entry = entries.next();
+            if (inmemoryQueue.stream().noneMatch(queuedKey -> queuedKey.getKey().equals(entry.getKey()))) {
+                makeAvailable(entry.getKey(), entry.getValue());
                 i++;
             }
         }
@@ -469,11 +453,11 @@ public class FileMailQueue implements ManageableMailQueue {
                 }
 
                 while (items.hasNext()) {
-                    try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(items.next().getObjectFile()))) {
-                        final Mail mail = (Mail) in.readObject();
+                    try (InputStream in = new FileInputStream(items.next().getObjectFile())) {
+                        final Mail mail = MailImplCodec.decode(in);
                         item = new MailQueueItemView(mail, getNextDelivery(mail));
                         return true;
-                    } catch (IOException | ClassNotFoundException e) {
+                    } catch (IOException e) {
                         LOGGER.info("Unable to load mail", e);
                     }
                 }
@@ -0,0 +1,56 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Key of a mail available for dequeue. Higher priorities come first, then the keys made available first.
+ */
+final class QueuedKey implements Comparable<QueuedKey> {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final Comparator<QueuedKey> COMPARATOR = Comparator
+        .comparingInt((QueuedKey queuedKey) -> queuedKey.priority).reversed()
+        .thenComparingLong(queuedKey -> queuedKey.sequence);
+
+    private final String key;
+    private final int priority;
+    private final long sequence;
+
+    QueuedKey(String key, int priority) {
+        this.key = key;
+        this.priority = priority;
+        this.sequence = SEQUENCE.incrementAndGet();
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public int compareTo(QueuedKey other) {
+        return COMPARATOR.compare(this, other);
+    }
+}
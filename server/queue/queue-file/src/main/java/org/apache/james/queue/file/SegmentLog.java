@@ -0,0 +1,458 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Durable key value store appending records to memory-mapped segment files.
+ *
+ * Each record is laid out as follows:
+ *
+ *  - length (int): size of what follows the checksum
+ *  - checksum (int): CRC32 of what follows the checksum
+ *  - type (byte): {@link #PUT} or {@link #REMOVE}
+ *  - key length (short) then key (UTF-8)
+ *  - value, for {@link #PUT} records only
+ *
+ * Segments are pre-allocated, hence zero filled: a zero length marks the end of a segment. On restart the segments are
+ * replayed in order to rebuild the in-memory index. Replay stops at the first record which checksum does not match,
+ * which discards a record partially written before a crash.
+ *
+ * Concurrent writers share the cost of synchronizing to disk: a writer waiting for its record to be durable benefits
+ * from the synchronization performed by another writer (group commit).
+ *
+ * Segments are deleted oldest first, once they hold no live value, so that a {@link #REMOVE} record is never lost
+ * while the {@link #PUT} record it cancels is still on disk. A segment which values were overridden is only deleted
+ * once the overriding records are synchronized to disk. Live values of mostly dead segments are relocated at the end
+ * of the log by {@link #compact()} so that a few long lived values do not retain the whole log.
+ *
+ * Values are read straight from the mapped segments, without copy. Mappings are thus never released explicitly, not
+ * even upon {@link #close()}: doing so would make the values previously read, for instance the content of a dequeued
+ * mail still being processed, point to unmapped memory. A mapping is released by the garbage collector once no value
+ * read from its segment is referenced anymore.
+ */
+class SegmentLog implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLog.class);
+
+    static final int DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+    static final double DEFAULT_COMPACTION_THRESHOLD = 0.25;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int CHECKSUM_SIZE = Integer.BYTES;
+    private static final int HEADER_SIZE = LENGTH_SIZE + CHECKSUM_SIZE;
+    private static final String SEGMENT_EXTENSION = ".segment";
+
+    private static class Segment {
+        private final long id;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int liveValues;
+        private int values;
+        private long lastOverridingRecord;
+
+        Segment(long id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+    }
+
+    private static class Location {
+        private final Segment segment;
+        private final int recordOffset;
+        private final int valueOffset;
+        private final int valueLength;
+
+        Location(Segment segment, int recordOffset, int valueOffset, int valueLength) {
+            this.segment = segment;
+            this.recordOffset = recordOffset;
+            this.valueOffset = valueOffset;
+            this.valueLength = valueLength;
+        }
+
+        ByteBuffer read() {
+            ByteBuffer value = segment.buffer.duplicate();
+            value.position(valueOffset);
+            value.limit(valueOffset + valueLength);
+            return value.slice().asReadOnlyBuffer();
+        }
+    }
+
+    private final File directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final double compactionThreshold;
+    private final TreeMap<Long, Segment> segments;
+    private final Map<String, Location> index;
+    private final Set<Segment> unsyncedSegments;
+    private final Object syncLock;
+    private Segment activeSegment;
+    private long appendedRecords;
+    private volatile long syncedRecords;
+    private boolean closed;
+
+    SegmentLog(File directory, int segmentSize, boolean sync) throws IOException {
+        this(directory, segmentSize, sync, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    SegmentLog(File directory, int segmentSize, boolean sync, double compactionThreshold) throws IOException {
+        Preconditions.checkArgument(segmentSize > HEADER_SIZE, "'segmentSize' needs to be greater than " + HEADER_SIZE);
+        Preconditions.checkArgument(compactionThreshold >= 0 && compactionThreshold <= 1, "'compactionThreshold' needs to be between 0 and 1");
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        this.compactionThreshold = compactionThreshold;
+        this.segments = new TreeMap<>();
+        this.index = new HashMap<>();
+        this.unsyncedSegments = new HashSet<>();
+        this.syncLock = new Object();
+
+        FileUtils.forceMkdir(directory);
+        recover();
+    }
+
+    /**
+     * Appends the value, then waits for it to be synchronized to disk.
+     */
+    void put(String key, ByteBuffer... value) throws IOException {
+        long record;
+        synchronized (this) {
+            record = append(key, value);
+        }
+        awaitSynced(record);
+    }
+
+    synchronized Optional<ByteBuffer> get(String key) {
+        return Optional.ofNullable(index.get(key))
+            .map(Location::read);
+    }
+
+    /**
+     * Removes the value associated to the given key. The removal is not synchronized to disk straight away: following a
+     * crash, the value might be recovered again.
+     */
+    synchronized boolean remove(String key) throws IOException {
+        Location location = index.get(key);
+        if (location == null) {
+            return false;
+        }
+        appendRecord(REMOVE, key);
+        index.remove(key);
+        location.segment.liveValues--;
+        deleteDeadSegments();
+        return true;
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Keys of the live values, in the order they were appended.
+     */
+    synchronized List<String> keys() {
+        return index.entrySet()
+            .stream()
+            .sorted(Comparator.comparing((Map.Entry<String, Location> entry) -> entry.getValue().segment.id)
+                .thenComparing(entry -> entry.getValue().recordOffset))
+            .map(Map.Entry::getKey)
+            .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Relocates the live values of the oldest segments at the end of the log when their ratio of live values is below
+     * the compaction threshold, then deletes them once the relocated values are synchronized to disk.
+     */
+    void compact() throws IOException {
+        long lastRecord;
+        synchronized (this) {
+            checkOpen();
+            for (Segment oldest : ImmutableList.copyOf(segments.values())) {
+                if (oldest == activeSegment || oldest.liveValues > oldest.values * compactionThreshold) {
+                    break;
+                }
+                relocateLiveValues(oldest);
+            }
+            lastRecord = appendedRecords;
+        }
+        awaitSynced(lastRecord);
+        synchronized (this) {
+            deleteDeadSegments();
+        }
+    }
+
+    @VisibleForTesting
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Synchronizes the segments to disk. Their mappings are left to the garbage collector, see the class documentation.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                closed = true;
+                if (sync) {
+                    segments.values().forEach(segment -> force(segment.file, segment.buffer));
+                }
+                segments.clear();
+                index.clear();
+                unsyncedSegments.clear();
+                activeSegment = null;
+            }
+        }
+    }
+
+    private void relocateLiveValues(Segment segment) throws IOException {
+        List<Map.Entry<String, Location>> liveValues = index.entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().segment == segment)
+            .collect(ImmutableList.toImmutableList());
+
+        for (Map.Entry<String, Location> liveValue : liveValues) {
+            append(liveValue.getKey(), liveValue.getValue().read());
+        }
+    }
+
+    private long append(String key, ByteBuffer... value) throws IOException {
+        checkOpen();
+        Location previous = index.get(key);
+        Location location = appendRecord(PUT, key, value);
+        location.segment.values++;
+        location.segment.liveValues++;
+        index.put(key, location);
+        if (previous != null) {
+            previous.segment.liveValues--;
+            previous.segment.lastOverridingRecord = appendedRecords;
+        }
+        return appendedRecords;
+    }
+
+    private void checkOpen() {
+        Preconditions.checkState(!closed, "Segment log of %s is closed", directory);
+    }
+
+    private Location appendRecord(byte type, String key, ByteBuffer... value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        Preconditions.checkArgument(keyBytes.length <= Short.MAX_VALUE, "'key' is too long");
+
+        int valueLength = Arrays.stream(value).mapToInt(ByteBuffer::remaining).sum();
+        int bodyLength = Byte.BYTES + Short.BYTES + keyBytes.length + valueLength;
+        Segment segment = segmentFitting(HEADER_SIZE + bodyLength);
+
+        int recordOffset = segment.writePosition;
+        ByteBuffer body = segment.buffer.duplicate();
+        body.position(recordOffset + HEADER_SIZE);
+        body.put(type);
+        body.putShort((short) keyBytes.length);
+        body.put(keyBytes);
+        int valueOffset = body.position();
+        for (ByteBuffer part : value) {
+            body.put(part.duplicate());
+        }
+
+        ByteBuffer checksummed = segment.buffer.duplicate();
+        checksummed.position(recordOffset + HEADER_SIZE);
+        checksummed.limit(recordOffset + HEADER_SIZE + bodyLength);
+        CRC32 crc = new CRC32();
+        crc.update(checksummed);
+
+        int recordEnd = recordOffset + HEADER_SIZE + bodyLength;
+        if (segment.buffer.capacity() - recordEnd >= LENGTH_SIZE) {
+            // Overrides leftovers of records discarded upon recovery
+            segment.buffer.putInt(recordEnd, 0);
+        }
+        // The length is written last so that a record is never visible before being complete
+        segment.buffer.putInt(recordOffset + LENGTH_SIZE, (int) crc.getValue());
+        segment.buffer.putInt(recordOffset, bodyLength);
+
+        segment.writePosition = recordEnd;
+        unsyncedSegments.add(segment);
+        appendedRecords++;
+        return new Location(segment, recordOffset, valueOffset, valueLength);
+    }
+
+    private Segment segmentFitting(int recordLength) throws IOException {
+        // A trailing zero length is needed to mark the end of the segment, unless the record fills it
+        if (activeSegment == null || (activeSegment.remaining() != recordLength && activeSegment.remaining() < recordLength + LENGTH_SIZE)) {
+            long id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+            activeSegment = createSegment(id, Math.max(segmentSize, recordLength + LENGTH_SIZE));
+            segments.put(id, activeSegment);
+        }
+        return activeSegment;
+    }
+
+    private void awaitSynced(long record) throws IOException {
+        if (!sync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedRecords >= record) {
+                return;
+            }
+            long lastRecord;
+            List<Segment> toSync;
+            synchronized (this) {
+                lastRecord = appendedRecords;
+                toSync = new ArrayList<>(unsyncedSegments);
+                unsyncedSegments.clear();
+            }
+            toSync.forEach(segment -> force(segment.file, segment.buffer));
+            syncedRecords = lastRecord;
+            synchronized (this) {
+                deleteDeadSegments();
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void force(File file, MappedByteBuffer buffer) {
+        buffer.force();
+    }
+
+    private void deleteDeadSegments() throws IOException {
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == activeSegment || oldest.liveValues > 0 || !isSynced(oldest.lastOverridingRecord)) {
+                return;
+            }
+            segments.pollFirstEntry();
+            unsyncedSegments.remove(oldest);
+            FileUtils.forceDelete(oldest.file);
+        }
+    }
+
+    private boolean isSynced(long record) {
+        return !sync || syncedRecords >= record;
+    }
+
+    private Segment createSegment(long id, int size) throws IOException {
+        File file = new File(directory, String.format("%020d%s", id, SEGMENT_EXTENSION));
+        return new Segment(id, file, map(file, size));
+    }
+
+    private MappedByteBuffer map(File file, long size) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private void recover() throws IOException {
+        File[] segmentFiles = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_EXTENSION));
+        Map<Long, File> filesById = new LinkedHashMap<>();
+        Arrays.stream(Optional.ofNullable(segmentFiles).orElse(new File[0]))
+            .sorted(Comparator.comparing(File::getName))
+            .forEach(file -> filesById.put(Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_EXTENSION.length())), file));
+
+        for (Map.Entry<Long, File> segmentFile : filesById.entrySet()) {
+            Segment segment = new Segment(segmentFile.getKey(), segmentFile.getValue(), map(segmentFile.getValue(), segmentFile.getValue().length()));
+            segments.put(segment.id, segment);
+            activeSegment = segment;
+            replay(segment);
+        }
+        deleteDeadSegments();
+    }
+
+    private void replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int recordOffset = buffer.position();
+            int bodyLength = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (bodyLength <= 0 || bodyLength > buffer.remaining() || !checksumMatches(buffer, bodyLength, checksum)) {
+                if (bodyLength != 0) {
+                    LOGGER.warn("Discarding corrupted record at offset {} of {}", recordOffset, segment.file);
+                }
+                segment.writePosition = recordOffset;
+                return;
+            }
+            byte type = buffer.get();
+            byte[] keyBytes = new byte[buffer.getShort()];
+            buffer.get(keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+            int valueOffset = buffer.position();
+            int recordEnd = recordOffset + HEADER_SIZE + bodyLength;
+            replay(type, key, new Location(segment, recordOffset, valueOffset, recordEnd - valueOffset));
+            buffer.position(recordEnd);
+        }
+        segment.writePosition = buffer.position();
+    }
+
+    private void replay(byte type, String key, Location location) {
+        Location previous;
+        if (type == PUT) {
+            location.segment.values++;
+            location.segment.liveValues++;
+            previous = index.put(key, location);
+        } else {
+            previous = index.remove(key);
+        }
+        if (previous != null) {
+            previous.segment.liveValues--;
+        }
+    }
+
+    private boolean checksumMatches(ByteBuffer buffer, int bodyLength, int checksum) {
+        ByteBuffer body = buffer.duplicate();
+        body.limit(body.position() + bodyLength);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue() == checksum;
+    }
+}
@@ -0,0 +1,493 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.mail.MessagingException;
+
+import org.apache.commons.lang3.NotImplementedException;
+import org.apache.james.core.MailAddress;
+import org.apache.james.lifecycle.api.Disposable;
+import org.apache.james.lifecycle.api.LifecycleUtil;
+import org.apache.james.queue.api.MailPrioritySupport;
+import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
+import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.server.core.MailImplCodec;
+import org.apache.james.server.core.MimeMessageCopyOnWriteProxy;
+import org.apache.james.server.core.MimeMessageSource;
+import org.apache.james.util.concurrent.NamedThreadFactory;
+import org.apache.mailet.Mail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ManageableMailQueue} implementation storing {@link Mail}'s in a {@link SegmentLog}.
+ * <p/>
+ * Instead of writing two files per mail, mails are appended to memory-mapped segment files. Writes are sequential,
+ * and concurrent enqueues share the synchronization to disk. Dequeued messages are read straight from the mapped
+ * segments, without being copied.
+ * <p/>
+ * Mails are dequeued by decreasing priority, see {@link MailPrioritySupport}, then in the order they became available.
+ * The queue is recovered from the segments upon restart, mails being processed at that time are delivered again.
+ */
+public class SegmentLogMailQueue implements ManageableMailQueue, MailPrioritySupport, Disposable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLogMailQueue.class);
+    private static final Duration COMPACTION_PERIOD = Duration.ofMinutes(1);
+    private static final Duration DEQUEUE_POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final long NO_NEXT_DELIVERY = -1L;
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Metadata stored ahead of each mail: next delivery, priority and length of the encoded {@link Mail}.
+     */
+    private static class Header {
+        static Header read(ByteBuffer value) {
+            ByteBuffer buffer = value.duplicate();
+            long nextDelivery = buffer.getLong();
+            int priority = buffer.getInt();
+            int mailLength = buffer.getInt();
+            return new Header(nextDelivery == NO_NEXT_DELIVERY ? Optional.empty() : Optional.of(Instant.ofEpochMilli(nextDelivery)),
+                priority, mailLength);
+        }
+
+        private final Optional<Instant> nextDelivery;
+        private final int priority;
+        private final int mailLength;
+
+        Header(Optional<Instant> nextDelivery, int priority, int mailLength) {
+            this.nextDelivery = nextDelivery;
+            this.priority = priority;
+            this.mailLength = mailLength;
+        }
+
+        ByteBuffer asByteBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+            buffer.putLong(nextDelivery.map(Instant::toEpochMilli).orElse(NO_NEXT_DELIVERY));
+            buffer.putInt(priority);
+            buffer.putInt(mailLength);
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer.duplicate();
+        }
+
+        @Override
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static class ByteBufferMimeMessageSource extends MimeMessageSource {
+        private final String sourceId;
+        private final ByteBuffer message;
+
+        ByteBufferMimeMessageSource(String sourceId, ByteBuffer message) {
+            this.sourceId = sourceId;
+            this.message = message;
+        }
+
+        @Override
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferInputStream(message);
+        }
+
+        @Override
+        public long getMessageSize() {
+            return message.remaining();
+        }
+    }
+
+    private final String queueName;
+    private final SegmentLog log;
+    private final MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory;
+    private final PriorityBlockingQueue<QueuedKey> availableKeys;
+    private final Map<String, ScheduledFuture<?>> delayedKeys;
+    private final ScheduledExecutorService scheduler;
+    private final Flux<MailQueueItem> flux;
+    private volatile boolean disposed;
+
+    public SegmentLogMailQueue(MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, File parentDir, String queueName, boolean sync) throws IOException {
+        this(mailQueueItemDecoratorFactory, parentDir, queueName, sync, SegmentLog.DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SegmentLogMailQueue(MailQueueItemDecoratorFactory mailQueueItemDecoratorFactory, File parentDir, String queueName, boolean sync, int segmentSize) throws IOException {
+        this.queueName = queueName;
+        this.mailQueueItemDecoratorFactory = mailQueueItemDecoratorFactory;
+        this.log = new SegmentLog(new File(parentDir, queueName), segmentSize, sync);
+        this.availableKeys = new PriorityBlockingQueue<>();
+        this.delayedKeys = new ConcurrentHashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(NamedThreadFactory.withClassName(getClass()));
+        this.flux = Mono.defer(this::deQueueOneItem)
+            .repeat(() -> !disposed)
+            .limitRate(1);
+
+        recover();
+        scheduler.scheduleWithFixedDelay(this::compact, COMPACTION_PERIOD.toMillis(), COMPACTION_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String getName() {
+        return queueName;
+    }
+
+    @Override
+    public void enQueue(Mail mail, Duration delay) throws MailQueueException {
+        String key = mail.getName() + "-" + UUID.randomUUID();
+        Optional<Instant> nextDelivery = computeNextDelivery(delay);
+        int priority = MailPrioritySupport.priorityOf(mail);
+
+        try {
+            byte[] encodedMail = MailImplCodec.encode(mail);
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            mail.getMessage().writeTo(message);
+
+            log.put(key,
+                new Header(nextDelivery, priority, encodedMail.length).asByteBuffer(),
+                ByteBuffer.wrap(encodedMail),
+                ByteBuffer.wrap(message.toByteArray()));
+        } catch (IOException | MessagingException e) {
+            throw new MailQueueException("Unable to enqueue mail", e);
+        }
+
+        makeAvailableAt(key, priority, nextDelivery);
+    }
+
+    @Override
+    public void enQueue(Mail mail) throws MailQueueException {
+        enQueue(mail, Duration.ZERO);
+    }
+
+    @Override
+    public Flux<MailQueueItem> deQueue() {
+        return flux;
+    }
+
+    @Override
+    public long getSize() {
+        return log.size();
+    }
+
+    @Override
+    public long flush() {
+        long count = 0;
+        for (String key : delayedKeys.keySet()) {
+            ScheduledFuture<?> delayed = delayedKeys.remove(key);
+            if (delayed != null && delayed.cancel(false)) {
+                readHeader(key).ifPresent(header -> makeAvailable(key, header.priority));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long clear() throws MailQueueException {
+        delayedKeys.values().forEach(delayed -> delayed.cancel(false));
+        delayedKeys.clear();
+        availableKeys.clear();
+
+        long count = 0;
+        for (String key : log.keys()) {
+            if (removeKey(key)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long remove(Type type, String value) throws MailQueueException {
+        long count = 0;
+        for (String key : log.keys()) {
+            Optional<Mail> mail = readMailMetadata(key);
+            if (mail.isPresent() && shouldRemove(mail.get(), type, value) && removeKey(key)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public MailQueueIterator browse() {
+        Iterator<String> keys = log.keys()
+            .stream()
+            .flatMap(key -> readHeader(key)
+                .map(header -> new QueuedKey(key, header.priority))
+                .map(Stream::of)
+                .orElse(Stream.empty()))
+            .sorted()
+            .map(QueuedKey::getKey)
+            .iterator();
+
+        return new MailQueueIterator() {
+            private MailQueueItemView item;
+
+            @Override
+            public boolean hasNext() {
+                while (item == null && keys.hasNext()) {
+                    String key = keys.next();
+                    item = log.get(key)
+                        .flatMap(value -> toItemView(key, value))
+                        .orElse(null);
+                }
+                return item != null;
+            }
+
+            @Override
+            public MailQueueItemView next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                MailQueueItemView itemView = item;
+                item = null;
+                return itemView;
+            }
+
+            @Override
+            public void close() {
+                // do nothing
+            }
+        };
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        scheduler.shutdownNow();
+        try {
+            log.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close mail queue {}", queueName, e);
+        }
+    }
+
+    private void recover() {
+        List<String> keys = log.keys();
+        keys.forEach(key -> readHeader(key)
+            .ifPresent(header -> makeAvailableAt(key, header.priority, header.nextDelivery)));
+        LOGGER.info("Recovered {} mails in mail queue {}", keys.size(), queueName);
+    }
+
+    private void compact() {
+        try {
+            log.compact();
+        } catch (IOException e) {
+            LOGGER.error("Failed to compact mail queue {}", queueName, e);
+        }
+    }
+
+    private Mono<MailQueueItem> deQueueOneItem() {
+        try {
+            while (!disposed) {
+                QueuedKey queuedKey = availableKeys.poll(DEQUEUE_POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                Optional<ByteBuffer> value = Optional.ofNullable(queuedKey)
+                    .flatMap(key -> log.get(key.getKey()));
+                if (value.isPresent()) {
+                    Mail mail = readMail(queuedKey.getKey(), value.get());
+                    return Mono.just(mailQueueItemDecoratorFactory.decorate(new SegmentLogMailQueueItem(queuedKey, mail)));
+                }
+            }
+            return Mono.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Mono.error(new MailQueueException("Unable to dequeue", e));
+        } catch (IOException | MessagingException e) {
+            return Mono.error(new MailQueueException("Unable to dequeue", e));
+        }
+    }
+
+    private class SegmentLogMailQueueItem implements MailQueueItem {
+        private final QueuedKey queuedKey;
+        private final Mail mail;
+
+        SegmentLogMailQueueItem(QueuedKey queuedKey, Mail mail) {
+            this.queuedKey = queuedKey;
+            this.mail = mail;
+        }
+
+        @Override
+        public Mail getMail() {
+            return mail;
+        }
+
+        @Override
+        public void done(boolean success) throws MailQueueException {
+            if (success) {
+                removeKey(queuedKey.getKey());
+            } else {
+                makeAvailable(queuedKey.getKey(), queuedKey.getPriority());
+            }
+            LifecycleUtil.dispose(mail);
+        }
+    }
+
+    private void makeAvailableAt(String key, int priority, Optional<Instant> nextDelivery) {
+        long delay = nextDelivery
+            .map(instant -> Duration.between(Instant.now(), instant).toMillis())
+            .orElse(0L);
+
+        if (delay <= 0) {
+            makeAvailable(key, priority);
+            return;
+        }
+        delayedKeys.put(key, scheduler.schedule(() -> {
+            delayedKeys.remove(key);
+            makeAvailable(key, priority);
+        }, delay, TimeUnit.MILLISECONDS));
+    }
+
+    private void makeAvailable(String key, int priority) {
+        availableKeys.put(new QueuedKey(key, priority));
+    }
+
+    private boolean removeKey(String key) throws MailQueueException {
+        try {
+            Optional.ofNullable(delayedKeys.remove(key)).ifPresent(delayed -> delayed.cancel(false));
+            return log.remove(key);
+        } catch (IOException e) {
+            throw new MailQueueException("Unable to remove mail " + key, e);
+        }
+    }
+
+    private Optional<Instant> computeNextDelivery(Duration delay) {
+        if (delay.isNegative() || delay.isZero()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Instant.ofEpochMilli(Math.addExact(Instant.now().toEpochMilli(), delay.toMillis())));
+        } catch (ArithmeticException e) {
+            return Optional.of(Instant.ofEpochMilli(Long.MAX_VALUE));
+        }
+    }
+
+    private boolean shouldRemove(Mail mail, Type type, String value) {
+        switch (type) {
+            case Name:
+                return mail.getName().equals(value);
+            case Recipient:
+                return mail.getRecipients().stream()
+                    .map(MailAddress::asString)
+                    .anyMatch(value::equals);
+            case Sender:
+                return mail.getMaybeSender()
+                    .asString()
+                    .equals(value);
+            default:
+                throw new NotImplementedException("Unknown type " + type);
+        }
+    }
+
+    private Optional<Header> readHeader(String key) {
+        return log.get(key).map(Header::read);
+    }
+
+    private Optional<Mail> readMailMetadata(String key) {
+        return log.get(key)
+            .flatMap(value -> {
+                try {
+                    return Optional.of(MailImplCodec.decode(new ByteBufferInputStream(mailBytes(value, Header.read(value)))));
+                } catch (IOException e) {
+                    LOGGER.warn("Unable to read mail {} of mail queue {}", key, queueName, e);
+                    return Optional.empty();
+                }
+            });
+    }
+
+    private Optional<MailQueueItemView> toItemView(String key, ByteBuffer value) {
+        try {
+            Header header = Header.read(value);
+            Mail mail = readMail(key, value);
+            return Optional.of(new MailQueueItemView(mail, header.nextDelivery.map(instant -> instant.atZone(ZoneId.systemDefault()))));
+        } catch (IOException | MessagingException e) {
+            LOGGER.info("Unable to load mail {}", key, e);
+            return Optional.empty();
+        }
+    }
+
+    private Mail readMail(String key, ByteBuffer value) throws IOException, MessagingException {
+        Header header = Header.read(value);
+        Mail mail = MailImplCodec.decode(new ByteBufferInputStream(mailBytes(value, header)));
+
+        ByteBuffer message = value.duplicate();
+        message.position(HEADER_SIZE + header.mailLength);
+        mail.setMessage(new MimeMessageCopyOnWriteProxy(new ByteBufferMimeMessageSource(queueName + "/" + key, message.slice())));
+        return mail;
+    }
+
+    private ByteBuffer mailBytes(ByteBuffer value, Header header) {
+        ByteBuffer mailBytes = value.duplicate();
+        mailBytes.position(HEADER_SIZE);
+        mailBytes.limit(HEADER_SIZE + header.mailLength);
+        return mailBytes.slice();
+    }
+}
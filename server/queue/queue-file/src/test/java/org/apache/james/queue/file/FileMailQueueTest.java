@@ -20,8 +20,10 @@
 package org.apache.james.queue.file;
 
 import org.apache.james.queue.api.DelayedManageableMailQueueContract;
+import org.apache.james.queue.api.DelayedPriorityMailQueueContract;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.queue.api.PriorityManageableMailQueueContract;
 import org.apache.james.queue.api.RawMailQueueItemDecoratorFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,7 +36,7 @@ import org.junit.rules.TemporaryFolder;
     " - JAMES-2954 Incomplete browse implementation" +
     " - JAMES-2544 Mixing concurrent operation might lead to a deadlock and missing fields" +
     " - JAMES-2979 dequeue is not thread safe")
-public class FileMailQueueTest implements DelayedManageableMailQueueContract {
+public class FileMailQueueTest implements DelayedManageableMailQueueContract, DelayedPriorityMailQueueContract, PriorityManageableMailQueueContract {
     private static final boolean SYNC = true;
 
     private TemporaryFolder temporaryFolder = new TemporaryFolder();
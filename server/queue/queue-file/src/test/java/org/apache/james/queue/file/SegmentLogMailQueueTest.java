@@ -0,0 +1,107 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import static org.apache.james.queue.api.Mails.defaultMail;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import org.apache.james.queue.api.DelayedManageableMailQueueContract;
+import org.apache.james.queue.api.DelayedPriorityMailQueueContract;
+import org.apache.james.queue.api.MailQueue;
+import org.apache.james.queue.api.ManageableMailQueue;
+import org.apache.james.queue.api.PriorityManageableMailQueueContract;
+import org.apache.james.queue.api.RawMailQueueItemDecoratorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.rules.TemporaryFolder;
+
+import reactor.core.publisher.Flux;
+
+public class SegmentLogMailQueueTest implements DelayedManageableMailQueueContract, DelayedPriorityMailQueueContract, PriorityManageableMailQueueContract {
+    private static final boolean SYNC = true;
+    private static final String QUEUE_NAME = "test";
+
+    private TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private File queueFolder;
+    private SegmentLogMailQueue mailQueue;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        temporaryFolder.create();
+        queueFolder = temporaryFolder.newFolder();
+        mailQueue = new SegmentLogMailQueue(new RawMailQueueItemDecoratorFactory(), queueFolder, QUEUE_NAME, SYNC);
+    }
+
+    @AfterEach
+    void teardown() {
+        mailQueue.dispose();
+        temporaryFolder.delete();
+    }
+
+    @Override
+    public MailQueue getMailQueue() {
+        return mailQueue;
+    }
+
+    @Override
+    public ManageableMailQueue getManageableMailQueue() {
+        return mailQueue;
+    }
+
+    @Test
+    void mailsShouldBeRecoveredAfterRestart() throws Exception {
+        mailQueue.enQueue(defaultMail()
+            .name("name1")
+            .build());
+        mailQueue.enQueue(defaultMail()
+            .name("name2")
+            .build());
+        mailQueue.dispose();
+
+        mailQueue = new SegmentLogMailQueue(new RawMailQueueItemDecoratorFactory(), queueFolder, QUEUE_NAME, SYNC);
+
+        assertThat(Flux.from(mailQueue.deQueue())
+                .take(2)
+                .map(item -> item.getMail().getName())
+                .collectList()
+                .block())
+            .containsExactly("name1", "name2");
+    }
+
+    @Test
+    void acknowledgedMailsShouldNotBeRecoveredAfterRestart() throws Exception {
+        mailQueue.enQueue(defaultMail()
+            .name("name1")
+            .build());
+        mailQueue.enQueue(defaultMail()
+            .name("name2")
+            .build());
+        MailQueue.MailQueueItem item = Flux.from(mailQueue.deQueue()).blockFirst();
+        item.done(true);
+        mailQueue.dispose();
+
+        mailQueue = new SegmentLogMailQueue(new RawMailQueueItemDecoratorFactory(), queueFolder, QUEUE_NAME, SYNC);
+
+        assertThat(mailQueue.getSize()).isEqualTo(1);
+    }
+}
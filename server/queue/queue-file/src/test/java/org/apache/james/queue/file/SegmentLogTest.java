@@ -0,0 +1,283 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.rules.TemporaryFolder;
+
+class SegmentLogTest {
+    private static final int SEGMENT_SIZE = 1024;
+    private static final boolean SYNC = true;
+
+    private TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private File directory;
+    private SegmentLog log;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        temporaryFolder.create();
+        directory = temporaryFolder.newFolder();
+        log = new SegmentLog(directory, SEGMENT_SIZE, SYNC);
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        log.close();
+        temporaryFolder.delete();
+    }
+
+    @Test
+    void getShouldReturnEmptyWhenMissingKey() {
+        assertThat(log.get("key")).isEmpty();
+    }
+
+    @Test
+    void getShouldReturnPutValue() throws Exception {
+        log.put("key", bytes("value"));
+
+        assertThat(log.get("key").map(this::asString)).contains("value");
+    }
+
+    @Test
+    void getShouldConcatenateValueParts() throws Exception {
+        log.put("key", bytes("first"), bytes("-"), bytes("second"));
+
+        assertThat(log.get("key").map(this::asString)).contains("first-second");
+    }
+
+    @Test
+    void putShouldOverridePreviousValue() throws Exception {
+        log.put("key", bytes("value1"));
+        log.put("key", bytes("value2"));
+
+        assertThat(log.get("key").map(this::asString)).contains("value2");
+        assertThat(log.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeShouldRemoveValue() throws Exception {
+        log.put("key", bytes("value"));
+
+        assertThat(log.remove("key")).isTrue();
+        assertThat(log.get("key")).isEmpty();
+        assertThat(log.size()).isZero();
+    }
+
+    @Test
+    void removeShouldReturnFalseWhenMissingKey() throws Exception {
+        assertThat(log.remove("key")).isFalse();
+    }
+
+    @Test
+    void keysShouldBeOrderedByInsertion() throws Exception {
+        log.put("b", bytes("value"));
+        log.put("a", bytes("value"));
+        log.put("c", bytes("value"));
+
+        assertThat(log.keys()).containsExactly("b", "a", "c");
+    }
+
+    @Test
+    void putShouldRollToANewSegmentWhenFull() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            log.put("key" + i, ByteBuffer.allocate(200));
+        }
+
+        assertThat(log.segmentCount()).isGreaterThan(1);
+        assertThat(log.size()).isEqualTo(10);
+    }
+
+    @Test
+    void valuesShouldBeRecoveredAfterReopening() throws Exception {
+        log.put("key1", bytes("value1"));
+        log.put("key2", bytes("value2"));
+        log.remove("key1");
+        log.close();
+
+        log = new SegmentLog(directory, SEGMENT_SIZE, SYNC);
+
+        assertThat(log.keys()).containsExactly("key2");
+        assertThat(log.get("key2").map(this::asString)).contains("value2");
+    }
+
+    @Test
+    void valuesShouldBeRecoveredAcrossSegmentsAfterReopening() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            log.put("key" + i, ByteBuffer.allocate(200));
+        }
+        log.close();
+
+        log = new SegmentLog(directory, SEGMENT_SIZE, SYNC);
+
+        assertThat(log.size()).isEqualTo(10);
+    }
+
+    @Test
+    void recoveryShouldDiscardCorruptedRecords() throws Exception {
+        log.put("key1", bytes("value1"));
+        log.put("key2", bytes("value2"));
+        log.close();
+
+        corruptLastByteOf("value2");
+        log = new SegmentLog(directory, SEGMENT_SIZE, SYNC);
+
+        assertThat(log.keys()).containsExactly("key1");
+    }
+
+    @Test
+    void segmentsShouldBeDeletedOnceAllTheirValuesAreRemoved() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            log.put("key" + i, ByteBuffer.allocate(200));
+        }
+        for (int i = 0; i < 10; i++) {
+            log.remove("key" + i);
+        }
+
+        assertThat(log.segmentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void compactShouldRelocateLiveValuesOfMostlyDeadSegments() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            log.put("key" + i, ByteBuffer.wrap(String.format("%0200d", i).getBytes(StandardCharsets.UTF_8)));
+        }
+        for (int i = 1; i < 10; i++) {
+            log.remove("key" + i);
+        }
+        int segmentsBeforeCompaction = log.segmentCount();
+
+        log.compact();
+
+        assertThat(log.segmentCount()).isLessThan(segmentsBeforeCompaction);
+        assertThat(log.get("key0").map(this::asString)).contains(String.format("%0200d", 0));
+    }
+
+    @Test
+    void compactedValuesShouldBeRecoveredAfterReopening() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            log.put("key" + i, ByteBuffer.allocate(200));
+        }
+        for (int i = 1; i < 10; i++) {
+            log.remove("key" + i);
+        }
+        log.compact();
+        log.close();
+
+        log = new SegmentLog(directory, SEGMENT_SIZE, SYNC);
+
+        assertThat(log.keys()).containsExactly("key0");
+    }
+
+    @Test
+    void compactShouldSynchronizeRelocatedValuesBeforeDeletingCompactedSegments() throws Exception {
+        List<Boolean> compactedSegmentExistedUponSync = new ArrayList<>();
+        File[] compactedSegment = new File[1];
+        log.close();
+        log = new SegmentLog(directory, SEGMENT_SIZE, SYNC) {
+            @Override
+            void force(File file, MappedByteBuffer buffer) {
+                if (compactedSegment[0] != null) {
+                    compactedSegmentExistedUponSync.add(compactedSegment[0].exists());
+                }
+                super.force(file, buffer);
+            }
+        };
+        for (int i = 0; i < 10; i++) {
+            log.put("key" + i, ByteBuffer.allocate(200));
+        }
+        for (int i = 1; i < 10; i++) {
+            log.remove("key" + i);
+        }
+        compactedSegment[0] = Arrays.stream(directory.listFiles())
+            .min(Comparator.comparing(File::getName))
+            .get();
+
+        log.compact();
+
+        assertThat(compactedSegmentExistedUponSync).isNotEmpty().containsOnly(true);
+        assertThat(compactedSegment[0]).doesNotExist();
+    }
+
+    @Test
+    void valuesReadBeforeClosingShouldRemainReadable() throws Exception {
+        log.put("key", bytes("value"));
+        ByteBuffer value = log.get("key").get();
+
+        log.close();
+
+        assertThat(asString(value)).isEqualTo("value");
+    }
+
+    @Test
+    void putShouldFailWhenClosed() throws Exception {
+        log.close();
+
+        assertThatThrownBy(() -> log.put("key", bytes("value")))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void closingShouldNotPreventReopening() throws Exception {
+        log.put("key", bytes("value"));
+        log.close();
+
+        log = new SegmentLog(directory, SEGMENT_SIZE, SYNC);
+
+        assertThat(log.get("key").map(this::asString)).contains("value");
+    }
+
+    private void corruptLastByteOf(String value) throws IOException {
+        File[] segments = directory.listFiles();
+        assertThat(segments).hasSize(1);
+        try (RandomAccessFile file = new RandomAccessFile(segments[0], "rw")) {
+            byte[] content = new byte[(int) file.length()];
+            file.readFully(content);
+            int position = new String(content, StandardCharsets.ISO_8859_1).indexOf(value) + value.length() - 1;
+            file.seek(position);
+            file.write('X');
+        }
+    }
+
+    private ByteBuffer bytes(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String asString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
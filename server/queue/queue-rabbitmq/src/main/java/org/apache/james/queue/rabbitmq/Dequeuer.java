@@ -22,12 +22,17 @@ package org.apache.james.queue.rabbitmq;
 import static org.apache.james.queue.api.MailQueue.DEQUEUED_METRIC_NAME_PREFIX;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.apache.james.backends.rabbitmq.ReactorRabbitMQChannelPool;
 import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.queue.api.MailPrioritySupport;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.rabbitmq.view.api.DeleteCondition;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
@@ -76,19 +81,30 @@ class Dequeuer {
     private final Metric dequeueMetric;
     private final MailReferenceSerializer mailReferenceSerializer;
     private final MailQueueView mailQueueView;
+    private final Clock clock;
+    private final AtomicLongArray lastQueueTimesByPriority;
 
     Dequeuer(MailQueueName name, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, Function<MailReferenceDTO, MailWithEnqueueId> mailLoader,
              MailReferenceSerializer serializer, MetricFactory metricFactory,
-             MailQueueView mailQueueView) {
+             MailQueueView mailQueueView, Clock clock) {
         this.mailLoader = mailLoader;
         this.mailReferenceSerializer = serializer;
         this.mailQueueView = mailQueueView;
+        this.clock = clock;
+        this.lastQueueTimesByPriority = new AtomicLongArray(MailPrioritySupport.HIGH_PRIORITY + 1);
         this.dequeueMetric = metricFactory.generate(DEQUEUED_METRIC_NAME_PREFIX + name.asString());
         this.flux = reactorRabbitMQChannelPool.createReceiver()
             .consumeManualAck(name.toWorkQueueName().asString(), new ConsumeOptions().qos(EXECUTION_RATE))
             .filter(getResponse -> getResponse.getBody() != null);
     }
 
+    /**
+     * Time in milliseconds the last dequeued mail of the given priority spent in the queue.
+     */
+    long lastQueueTime(int priority) {
+        return lastQueueTimesByPriority.get(priority);
+    }
+
     Flux<? extends MailQueue.MailQueueItem> deQueue() {
         return flux.concatMap(this::loadItem)
             .concatMap(this::filterIfDeleted);
@@ -110,6 +126,7 @@ class Dequeuer {
     private Mono<RabbitMQMailQueueItem> loadItem(AcknowledgableDelivery response) {
         try {
             MailWithEnqueueId mailWithEnqueueId = loadMail(response);
+            recordQueueTime(response, mailWithEnqueueId);
             ThrowingConsumer<Boolean> ack = ack(response, mailWithEnqueueId);
             return Mono.just(new RabbitMQMailQueueItem(ack, mailWithEnqueueId));
         } catch (MailQueue.MailQueueException e) {
@@ -117,12 +134,22 @@ class Dequeuer {
         }
     }
 
+    private void recordQueueTime(Delivery response, MailWithEnqueueId mailWithEnqueueId) {
+        int priority = Optional.ofNullable(response.getProperties().getPriority())
+            .map(value -> Math.max(MailPrioritySupport.LOW_PRIORITY, Math.min(MailPrioritySupport.HIGH_PRIORITY, value)))
+            .orElse(MailPrioritySupport.NORMAL_PRIORITY);
+
+        mailWithEnqueueId.getEnqueuedTime()
+            .map(enqueuedTime -> Duration.between(enqueuedTime, clock.instant()).toMillis())
+            .ifPresent(queueTime -> lastQueueTimesByPriority.set(priority, queueTime));
+    }
+
     private ThrowingConsumer<Boolean> ack(AcknowledgableDelivery response, MailWithEnqueueId mailWithEnqueueId) {
         return success -> {
             if (success) {
                 dequeueMetric.increment();
                 response.ack();
-                mailQueueView.delete(DeleteCondition.withEnqueueId(mailWithEnqueueId.getEnqueueId()));
+                mailQueueView.delete(DeleteCondition.withEnqueueId(mailWithEnqueueId.getEnqueueId(), mailWithEnqueueId.getEnqueuedTime()));
             } else {
                 response.nack(REQUEUE);
             }
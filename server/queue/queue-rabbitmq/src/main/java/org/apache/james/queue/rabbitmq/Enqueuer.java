@@ -23,6 +23,12 @@ import static org.apache.james.backends.rabbitmq.Constants.EMPTY_ROUTING_KEY;
 import static org.apache.james.queue.api.MailQueue.ENQUEUED_METRIC_NAME_PREFIX;
 
 import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -32,18 +38,73 @@ import org.apache.james.blob.api.Store;
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.james.metrics.api.Metric;
 import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.queue.api.MailPrioritySupport;
 import org.apache.james.queue.api.MailQueue;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 import org.apache.mailet.Mail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.fge.lambdas.Throwing;
+import com.github.steveash.guavate.Guavate;
+import com.google.common.base.Preconditions;
+import com.rabbitmq.client.AMQP;
 
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
 import reactor.rabbitmq.OutboundMessage;
+import reactor.rabbitmq.OutboundMessageResult;
 import reactor.rabbitmq.Sender;
 
+/**
+ * Enqueues mails by saving their content in the blob store, publishing a reference to RabbitMQ then storing it in
+ * the {@link MailQueueView}.
+ *
+ * With a batchSize of 1 (the default) each reference is published and stored on its own, with no limit on the number
+ * of concurrent enqueues.
+ *
+ * With a greater batchSize, references enqueued concurrently are grouped in batches of up to batchSize items, waiting
+ * at most {@link #BATCH_TIMEOUT} for a batch to fill up. Each batch is published with publisher confirms on a single
+ * channel, which pipelines the confirmations instead of waiting for a round trip per mail, then stored at once in the
+ * {@link MailQueueView}. At most maxConcurrentBatches batches are in flight, further references wait for one of them
+ * to complete. A mail is only considered enqueued once RabbitMQ acknowledged it and the view stored it.
+ *
+ * The priority of the mail is carried by the published message, and honored by work queues declared as priority queues.
+ */
 class Enqueuer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Enqueuer.class);
+    static final Duration BATCH_TIMEOUT = Duration.ofMillis(10);
+
+    private static class PendingEnqueue {
+        private final EnqueuedItem enqueuedItem;
+        private final OutboundMessage message;
+        private final MonoProcessor<Void> result;
+
+        PendingEnqueue(EnqueuedItem enqueuedItem, OutboundMessage message) {
+            this.enqueuedItem = enqueuedItem;
+            this.message = message;
+            this.result = MonoProcessor.create();
+        }
+
+        void complete() {
+            if (!result.isTerminated()) {
+                result.onComplete();
+            }
+        }
+
+        void fail(Throwable error) {
+            if (!result.isTerminated()) {
+                result.onError(error);
+            }
+        }
+    }
+
     private final MailQueueName name;
     private final Sender sender;
     private final Store<MimeMessage, MimeMessagePartsId> mimeMessageStore;
@@ -51,10 +112,16 @@ class Enqueuer {
     private final Metric enqueueMetric;
     private final MailQueueView mailQueueView;
     private final Clock clock;
+    private final Optional<FluxSink<PendingEnqueue>> pendingEnqueues;
+    private final Optional<Disposable> batchSubscription;
+    private final Set<PendingEnqueue> inFlightEnqueues;
+    private volatile boolean closed;
 
     Enqueuer(MailQueueName name, ReactorRabbitMQChannelPool reactorRabbitMQChannelPool, Store<MimeMessage, MimeMessagePartsId> mimeMessageStore,
              MailReferenceSerializer serializer, MetricFactory metricFactory,
-             MailQueueView mailQueueView, Clock clock) {
+             MailQueueView mailQueueView, Clock clock, int batchSize, int maxConcurrentBatches) {
+        Preconditions.checkArgument(batchSize > 0, "'batchSize' needs to be strictly positive");
+        Preconditions.checkArgument(maxConcurrentBatches > 0, "'maxConcurrentBatches' needs to be strictly positive");
         this.name = name;
         this.sender = reactorRabbitMQChannelPool.getSender();
         this.mimeMessageStore = mimeMessageStore;
@@ -62,40 +129,147 @@ class Enqueuer {
         this.mailQueueView = mailQueueView;
         this.clock = clock;
         this.enqueueMetric = metricFactory.generate(ENQUEUED_METRIC_NAME_PREFIX + name.asString());
+
+        this.inFlightEnqueues = ConcurrentHashMap.newKeySet();
+        this.closed = false;
+
+        if (batchSize == 1) {
+            this.pendingEnqueues = Optional.empty();
+            this.batchSubscription = Optional.empty();
+        } else {
+            UnicastProcessor<PendingEnqueue> processor = UnicastProcessor.create();
+            this.pendingEnqueues = Optional.of(processor.sink());
+            this.batchSubscription = Optional.of(processor
+                .bufferTimeout(batchSize, BATCH_TIMEOUT)
+                .onBackpressureBuffer()
+                .flatMap(this::enqueueBatch, maxConcurrentBatches)
+                .subscribe());
+        }
     }
 
-    void enQueue(Mail mail) throws MailQueue.MailQueueException {
-        EnqueueId enqueueId = EnqueueId.generate();
-        saveMail(mail)
-            .map(partIds -> new MailReference(enqueueId, mail, partIds))
-            .flatMap(Throwing.function(this::publishReferenceToRabbit).sneakyThrow())
-            .flatMap(mailQueueView::storeMail)
-            .thenEmpty(Mono.fromRunnable(enqueueMetric::increment))
-            .block();
+    /**
+     * Stops the batching pipeline. Enqueues still waiting for their batch to be published fail, as do later enqueues.
+     */
+    void close() {
+        closed = true;
+        batchSubscription.ifPresent(Disposable::dispose);
+        pendingEnqueues.ifPresent(FluxSink::complete);
+        inFlightEnqueues.forEach(pending -> pending.fail(closedException()));
     }
 
-    private Mono<MimeMessagePartsId> saveMail(Mail mail) throws MailQueue.MailQueueException {
+    private MailQueue.MailQueueException closedException() {
+        return new MailQueue.MailQueueException("Mail queue " + name.asString() + " is closed");
+    }
+
+    void enQueue(Mail mail) throws MailQueue.MailQueueException {
         try {
-            return mimeMessageStore.save(mail.getMessage());
-        } catch (MessagingException e) {
-            throw new MailQueue.MailQueueException("Error while saving blob", e);
+            enqueueReactive(mail).block();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof MailQueue.MailQueueException) {
+                throw (MailQueue.MailQueueException) cause;
+            }
+            throw e;
         }
     }
 
-    private Mono<EnqueuedItem> publishReferenceToRabbit(MailReference mailReference) throws MailQueue.MailQueueException {
-        OutboundMessage data = new OutboundMessage(
+    Mono<Void> enqueueReactive(Mail mail) {
+        EnqueueId enqueueId = EnqueueId.generate();
+        return saveMail(mail)
+            .map(partIds -> new MailReference(enqueueId, mail, partIds, Optional.of(clock.instant())))
+            .flatMap(Throwing.function(this::publishReference).sneakyThrow())
+            .thenEmpty(Mono.fromRunnable(enqueueMetric::increment));
+    }
+
+    private Mono<MimeMessagePartsId> saveMail(Mail mail) {
+        return Mono.fromCallable(mail::getMessage)
+            .onErrorMap(MessagingException.class, e -> new MailQueue.MailQueueException("Error while saving blob", e))
+            .flatMap(mimeMessageStore::save);
+    }
+
+    private Mono<Void> publishReference(MailReference mailReference) throws MailQueue.MailQueueException {
+        OutboundMessage message = new OutboundMessage(
             name.toRabbitExchangeName().asString(),
             EMPTY_ROUTING_KEY,
+            new AMQP.BasicProperties.Builder()
+                .priority(MailPrioritySupport.priorityOf(mailReference.getMail()))
+                .build(),
             getMailReferenceBytes(mailReference));
-        return sender.send(Mono.just(data))
-            .then(Mono.just(
-                EnqueuedItem.builder()
-                    .enqueueId(mailReference.getEnqueueId())
-                    .mailQueueName(name)
-                    .mail(mailReference.getMail())
-                    .enqueuedTime(clock.instant())
-                    .mimeMessagePartsId(mailReference.getPartsId())
-                    .build()));
+        EnqueuedItem enqueuedItem = EnqueuedItem.builder()
+            .enqueueId(mailReference.getEnqueueId())
+            .mailQueueName(name)
+            .mail(mailReference.getMail())
+            .enqueuedTime(mailReference.getEnqueuedTime().orElseGet(clock::instant))
+            .mimeMessagePartsId(mailReference.getPartsId())
+            .build();
+
+        return pendingEnqueues
+            .map(sink -> enqueueInBatch(sink, enqueuedItem, message))
+            .orElseGet(() -> enqueueAlone(enqueuedItem, message));
+    }
+
+    private Mono<Void> enqueueAlone(EnqueuedItem enqueuedItem, OutboundMessage message) {
+        return Mono.defer(() -> {
+            if (closed) {
+                return Mono.error(closedException());
+            }
+            return sender.send(Mono.just(message))
+                .then(mailQueueView.storeMail(enqueuedItem));
+        });
+    }
+
+    private Mono<Void> enqueueInBatch(FluxSink<PendingEnqueue> sink, EnqueuedItem enqueuedItem, OutboundMessage message) {
+        return Mono.defer(() -> {
+            PendingEnqueue pendingEnqueue = new PendingEnqueue(enqueuedItem, message);
+            inFlightEnqueues.add(pendingEnqueue);
+            if (closed) {
+                // close() may have failed the in flight enqueues before this one was registered
+                pendingEnqueue.fail(closedException());
+            } else {
+                sink.next(pendingEnqueue);
+            }
+            return pendingEnqueue.result
+                .doFinally(signal -> inFlightEnqueues.remove(pendingEnqueue));
+        });
+    }
+
+    private Mono<Void> enqueueBatch(List<PendingEnqueue> batch) {
+        Map<OutboundMessage, PendingEnqueue> pendingByMessage = batch.stream()
+            .collect(Guavate.toImmutableMap(pending -> pending.message, pending -> pending));
+
+        return sender.sendWithPublishConfirms(Flux.fromIterable(batch).map(pending -> pending.message))
+            .collectList()
+            .flatMap(results -> storeConfirmed(results, pendingByMessage))
+            // Completed enqueues are left untouched, this only fails the ones for which no confirm was received
+            .then(Mono.<Void>fromRunnable(() -> batch.forEach(pending -> pending.fail(
+                new MailQueue.MailQueueException("No publisher confirm received for " + pending.enqueuedItem.getEnqueueId().asUUID())))))
+            .onErrorResume(e -> {
+                LOGGER.error("Error while enqueuing a batch of {} mails in {}", batch.size(), name.asString(), e);
+                batch.forEach(pending -> pending.fail(e));
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> storeConfirmed(List<OutboundMessageResult> results, Map<OutboundMessage, PendingEnqueue> pendingByMessage) {
+        results.stream()
+            .filter(result -> !result.isAck())
+            .map(result -> pendingByMessage.get(result.getOutboundMessage()))
+            .forEach(pending -> pending.fail(new MailQueue.MailQueueException("RabbitMQ did not acknowledge the publication of "
+                + pending.enqueuedItem.getEnqueueId().asUUID())));
+
+        List<PendingEnqueue> confirmed = results.stream()
+            .filter(OutboundMessageResult::isAck)
+            .map(result -> pendingByMessage.get(result.getOutboundMessage()))
+            .collect(Guavate.toImmutableList());
+        if (confirmed.isEmpty()) {
+            return Mono.empty();
+        }
+
+        return mailQueueView.storeMails(confirmed.stream()
+                .map(pending -> pending.enqueuedItem)
+                .collect(Guavate.toImmutableList()))
+            .doOnSuccess(any -> confirmed.forEach(PendingEnqueue::complete))
+            .doOnError(e -> confirmed.forEach(pending -> pending.fail(e)));
     }
 
     private byte[] getMailReferenceBytes(MailReference mailReference) throws MailQueue.MailQueueException {
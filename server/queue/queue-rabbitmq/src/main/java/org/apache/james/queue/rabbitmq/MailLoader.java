@@ -45,7 +45,7 @@ class MailLoader {
             Mail mail = mailReference.getMail();
             MimeMessage mimeMessage = mimeMessageStore.read(mailReference.getPartsId()).block();
             mail.setMessage(mimeMessage);
-            return new MailWithEnqueueId(mailReference.getEnqueueId(), mail);
+            return new MailWithEnqueueId(mailReference.getEnqueueId(), mail, mailReference.getEnqueuedTime());
         } catch (AddressException e) {
             throw new MailQueue.MailQueueException("Failed to parse mail address", e);
         } catch (MessagingException e) {
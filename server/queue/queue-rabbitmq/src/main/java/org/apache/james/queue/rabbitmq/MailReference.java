@@ -19,6 +19,9 @@
 
 package org.apache.james.queue.rabbitmq;
 
+import java.time.Instant;
+import java.util.Optional;
+
 import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.mailet.Mail;
 
@@ -27,11 +30,17 @@ public class MailReference {
     private final EnqueueId enqueueId;
     private final Mail mail;
     private final MimeMessagePartsId partsId;
+    private final Optional<Instant> enqueuedTime;
 
     public MailReference(EnqueueId enqueueId, Mail mail, MimeMessagePartsId partsId) {
+        this(enqueueId, mail, partsId, Optional.empty());
+    }
+
+    public MailReference(EnqueueId enqueueId, Mail mail, MimeMessagePartsId partsId, Optional<Instant> enqueuedTime) {
         this.enqueueId = enqueueId;
         this.mail = mail;
         this.partsId = partsId;
+        this.enqueuedTime = enqueuedTime;
     }
 
     public EnqueueId getEnqueueId() {
@@ -45,4 +54,8 @@ public class MailReference {
     public MimeMessagePartsId getPartsId() {
         return partsId;
     }
+
+    public Optional<Instant> getEnqueuedTime() {
+        return enqueuedTime;
+    }
 }
@@ -70,7 +70,8 @@ class MailReferenceDTO {
             mail.getRemoteHost(),
             fromPerRecipientHeaders(mail.getPerRecipientSpecificHeaders()),
             partsId.getHeaderBlobId().asString(),
-            partsId.getBodyBlobId().asString());
+            partsId.getBodyBlobId().asString(),
+            mailReference.getEnqueuedTime());
     }
 
     private static Map<String, HeadersDto> fromPerRecipientHeaders(PerRecipientHeaders perRecipientHeaders) {
@@ -104,6 +105,7 @@ class MailReferenceDTO {
     private final Map<String, HeadersDto> perRecipientHeaders;
     private final String headerBlobId;
     private final String bodyBlobId;
+    private final Optional<Instant> enqueuedTime;
 
     @JsonCreator
     private MailReferenceDTO(@JsonProperty("enqueueId") String enqueueId,
@@ -118,7 +120,8 @@ class MailReferenceDTO {
                              @JsonProperty("remoteHost") String remoteHost,
                              @JsonProperty("perRecipientHeaders") Map<String, HeadersDto> perRecipientHeaders,
                              @JsonProperty("headerBlobId") String headerBlobId,
-                             @JsonProperty("bodyBlobId") String bodyBlobId) {
+                             @JsonProperty("bodyBlobId") String bodyBlobId,
+                             @JsonProperty("enqueuedTime") Optional<Instant> enqueuedTime) {
         this.enqueueId = enqueueId;
         this.recipients = recipients;
         this.name = name;
@@ -132,6 +135,7 @@ class MailReferenceDTO {
         this.perRecipientHeaders = perRecipientHeaders;
         this.headerBlobId = headerBlobId;
         this.bodyBlobId = bodyBlobId;
+        this.enqueuedTime = Optional.ofNullable(enqueuedTime).flatMap(Function.identity());
     }
 
     @JsonProperty("enqueueId")
@@ -199,13 +203,18 @@ class MailReferenceDTO {
         return bodyBlobId;
     }
 
+    @JsonProperty("enqueuedTime")
+    Optional<Instant> getEnqueuedTime() {
+        return enqueuedTime;
+    }
+
     MailReference toMailReference(BlobId.Factory blobIdFactory) {
         MimeMessagePartsId messagePartsId = MimeMessagePartsId.builder()
             .headerBlobId(blobIdFactory.from(headerBlobId))
             .bodyBlobId(blobIdFactory.from(bodyBlobId))
             .build();
 
-        return new MailReference(EnqueueId.ofSerialized(enqueueId), mailMetadata(), messagePartsId);
+        return new MailReference(EnqueueId.ofSerialized(enqueueId), mailMetadata(), messagePartsId, enqueuedTime);
     }
 
     private MailImpl mailMetadata() {
@@ -263,13 +272,14 @@ class MailReferenceDTO {
                 && Objects.equals(this.remoteHost, mailDTO.remoteHost)
                 && Objects.equals(this.perRecipientHeaders, mailDTO.perRecipientHeaders)
                 && Objects.equals(this.headerBlobId, mailDTO.headerBlobId)
-                && Objects.equals(this.bodyBlobId, mailDTO.bodyBlobId);
+                && Objects.equals(this.bodyBlobId, mailDTO.bodyBlobId)
+                && Objects.equals(this.enqueuedTime, mailDTO.enqueuedTime);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(enqueueId, recipients, name, sender, state, errorMessage, lastUpdated, attributes, remoteAddr, remoteHost, perRecipientHeaders, headerBlobId, bodyBlobId);
+        return Objects.hash(enqueueId, recipients, name, sender, state, errorMessage, lastUpdated, attributes, remoteAddr, remoteHost, perRecipientHeaders, headerBlobId, bodyBlobId, enqueuedTime);
     }
 }
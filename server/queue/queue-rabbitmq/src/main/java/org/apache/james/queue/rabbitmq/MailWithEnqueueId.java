@@ -19,15 +19,20 @@
 
 package org.apache.james.queue.rabbitmq;
 
+import java.time.Instant;
+import java.util.Optional;
+
 import org.apache.mailet.Mail;
 
 public class MailWithEnqueueId {
     private final EnqueueId enqueueId;
     private final Mail mail;
+    private final Optional<Instant> enqueuedTime;
 
-    MailWithEnqueueId(EnqueueId enqueueId, Mail mail) {
+    MailWithEnqueueId(EnqueueId enqueueId, Mail mail, Optional<Instant> enqueuedTime) {
         this.enqueueId = enqueueId;
         this.mail = mail;
+        this.enqueuedTime = enqueuedTime;
     }
 
     public EnqueueId getEnqueueId() {
@@ -37,4 +42,8 @@ public class MailWithEnqueueId {
     public Mail getMail() {
         return mail;
     }
+
+    public Optional<Instant> getEnqueuedTime() {
+        return enqueuedTime;
+    }
 }
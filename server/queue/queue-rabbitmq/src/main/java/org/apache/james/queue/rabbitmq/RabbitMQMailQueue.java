@@ -32,7 +32,9 @@ import org.slf4j.LoggerFactory;
 
 import com.github.fge.lambdas.Throwing;
 import com.google.common.base.MoreObjects;
+
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class RabbitMQMailQueue implements ManageableMailQueue {
 
@@ -75,6 +77,12 @@ public class RabbitMQMailQueue implements ManageableMailQueue {
             Throwing.runnable(() -> enqueuer.enQueue(mail)).sneakyThrow());
     }
 
+    @Override
+    public Mono<Void> enqueueReactive(Mail mail) {
+        return Mono.defer(() -> metricFactory.runPublishingTimerMetric(ENQUEUED_TIMER_METRIC_NAME_PREFIX + name.asString(),
+            enqueuer.enqueueReactive(mail)));
+    }
+
     @Override
     public Flux<MailQueueItem> deQueue() {
         return dequeuer.deQueue()
@@ -107,6 +115,10 @@ public class RabbitMQMailQueue implements ManageableMailQueue {
         return mailQueueView.browse();
     }
 
+    public void close() {
+        enqueuer.close();
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
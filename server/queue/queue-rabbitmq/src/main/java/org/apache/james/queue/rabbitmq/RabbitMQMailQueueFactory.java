@@ -25,13 +25,16 @@ import static org.apache.james.backends.rabbitmq.Constants.EMPTY_ROUTING_KEY;
 import static org.apache.james.backends.rabbitmq.Constants.EXCLUSIVE;
 import static org.apache.james.backends.rabbitmq.Constants.NO_ARGUMENTS;
 import static org.apache.james.queue.api.MailQueue.QUEUE_SIZE_METRIC_NAME_PREFIX;
+import static org.apache.james.queue.api.MailQueue.QUEUE_TIME_METRIC_NAME_PREFIX;
 
 import java.time.Clock;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.mail.internet.MimeMessage;
 
@@ -42,6 +45,7 @@ import org.apache.james.blob.mail.MimeMessagePartsId;
 import org.apache.james.blob.mail.MimeMessageStore;
 import org.apache.james.metrics.api.GaugeRegistry;
 import org.apache.james.metrics.api.MetricFactory;
+import org.apache.james.queue.api.MailPrioritySupport;
 import org.apache.james.queue.api.MailQueueFactory;
 import org.apache.james.queue.api.MailQueueItemDecoratorFactory;
 import org.apache.james.queue.rabbitmq.view.RabbitMQMailQueueConfiguration;
@@ -49,6 +53,7 @@ import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 
 import com.github.fge.lambdas.Throwing;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import reactor.core.publisher.Flux;
@@ -57,6 +62,7 @@ import reactor.rabbitmq.ExchangeSpecification;
 import reactor.rabbitmq.QueueSpecification;
 
 public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQueue> {
+    private static final String MAX_PRIORITY_ARGUMENT = "x-max-priority";
 
     @VisibleForTesting static class PrivateFactory {
         private final MetricFactory metricFactory;
@@ -96,17 +102,19 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
             MailQueueView mailQueueView = mailQueueViewFactory.create(mailQueueName);
             mailQueueView.initialize(mailQueueName);
 
+            Dequeuer dequeuer = new Dequeuer(mailQueueName, reactorRabbitMQChannelPool, mailLoader, mailReferenceSerializer,
+                metricFactory, mailQueueView, clock);
             RabbitMQMailQueue rabbitMQMailQueue = new RabbitMQMailQueue(
                 metricFactory,
                 mailQueueName,
                 new Enqueuer(mailQueueName, reactorRabbitMQChannelPool, mimeMessageStore, mailReferenceSerializer,
-                    metricFactory, mailQueueView, clock),
-                new Dequeuer(mailQueueName, reactorRabbitMQChannelPool, mailLoader, mailReferenceSerializer,
-                    metricFactory, mailQueueView),
+                    metricFactory, mailQueueView, clock, configuration.getEnqueueBatchSize(), configuration.getEnqueueMaxConcurrentBatches()),
+                dequeuer,
                 mailQueueView,
                 decoratorFactory);
 
             registerGaugeFor(rabbitMQMailQueue);
+            registerQueueTimeGaugesFor(mailQueueName, dequeuer);
             return rabbitMQMailQueue;
         }
 
@@ -115,6 +123,23 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
                 this.gaugeRegistry.register(QUEUE_SIZE_METRIC_NAME_PREFIX + rabbitMQMailQueue.getName(), rabbitMQMailQueue::getSize);
             }
         }
+
+        private void registerQueueTimeGaugesFor(MailQueueName mailQueueName, Dequeuer dequeuer) {
+            if (configuration.isPriorityEnabled()) {
+                for (int priority = MailPrioritySupport.LOW_PRIORITY; priority <= MailPrioritySupport.HIGH_PRIORITY; priority++) {
+                    int lanePriority = priority;
+                    this.gaugeRegistry.register(QUEUE_TIME_METRIC_NAME_PREFIX + mailQueueName.asString() + ":priority" + lanePriority,
+                        () -> dequeuer.lastQueueTime(lanePriority));
+                }
+            }
+        }
+
+        private Map<String, Object> workQueueArguments() {
+            if (configuration.isPriorityEnabled()) {
+                return ImmutableMap.of(MAX_PRIORITY_ARGUMENT, MailPrioritySupport.HIGH_PRIORITY);
+            }
+            return NO_ARGUMENTS;
+        }
     }
 
     /**
@@ -132,6 +157,10 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
         RabbitMQMailQueue retrieveInstanceFor(MailQueueName name) {
             return instantiatedQueues.computeIfAbsent(name, privateFactory::create);
         }
+
+        void close() {
+            instantiatedQueues.values().forEach(RabbitMQMailQueue::close);
+        }
     }
 
     private final RabbitMQMailQueueManagement mqManagementApi;
@@ -150,6 +179,11 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
         this.mailQueueObjectPool = new RabbitMQMailQueueObjectPool();
     }
 
+    @PreDestroy
+    public void close() {
+        mailQueueObjectPool.close();
+    }
+
     @Override
     public Optional<RabbitMQMailQueue> getQueue(String name) {
         return getQueueFromRabbitServer(MailQueueName.fromString(name));
@@ -179,7 +213,7 @@ public class RabbitMQMailQueueFactory implements MailQueueFactory<RabbitMQMailQu
                 .durable(DURABLE)
                 .exclusive(!EXCLUSIVE)
                 .autoDelete(!AUTO_DELETE)
-                .arguments(NO_ARGUMENTS)),
+                .arguments(privateFactory.workQueueArguments())),
             reactorRabbitMQChannelPool.getSender()
                 .bind(BindingSpecification.binding()
                 .exchange(mailQueueName.toRabbitExchangeName().asString())
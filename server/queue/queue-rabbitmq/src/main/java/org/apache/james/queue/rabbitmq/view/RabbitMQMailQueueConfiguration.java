@@ -24,11 +24,19 @@ import java.util.Optional;
 
 import org.apache.commons.configuration2.Configuration;
 
+import com.google.common.base.Preconditions;
+
 public class RabbitMQMailQueueConfiguration {
     private static final boolean DEFAULT_SIZE_METRICS_ENABLED = true;
+    private static final int DEFAULT_ENQUEUE_BATCH_SIZE = 1;
+    private static final int DEFAULT_ENQUEUE_MAX_CONCURRENT_BATCHES = 16;
+    private static final boolean DEFAULT_PRIORITY_ENABLED = false;
 
     public static class Builder {
-        private Optional<Boolean> sizeMetricsEnabled;
+        private Optional<Boolean> sizeMetricsEnabled = Optional.empty();
+        private Optional<Integer> enqueueBatchSize = Optional.empty();
+        private Optional<Integer> enqueueMaxConcurrentBatches = Optional.empty();
+        private Optional<Boolean> priorityEnabled = Optional.empty();
 
         public Builder sizeMetricsEnabled(boolean sizeMetricsEnabled) {
             this.sizeMetricsEnabled = Optional.of(sizeMetricsEnabled);
@@ -40,12 +48,51 @@ public class RabbitMQMailQueueConfiguration {
             return this;
         }
 
+        public Builder enqueueBatchSize(int enqueueBatchSize) {
+            this.enqueueBatchSize = Optional.of(enqueueBatchSize);
+            return this;
+        }
+
+        public Builder enqueueBatchSize(Optional<Integer> enqueueBatchSize) {
+            this.enqueueBatchSize = enqueueBatchSize;
+            return this;
+        }
+
+        public Builder enqueueMaxConcurrentBatches(int enqueueMaxConcurrentBatches) {
+            this.enqueueMaxConcurrentBatches = Optional.of(enqueueMaxConcurrentBatches);
+            return this;
+        }
+
+        public Builder enqueueMaxConcurrentBatches(Optional<Integer> enqueueMaxConcurrentBatches) {
+            this.enqueueMaxConcurrentBatches = enqueueMaxConcurrentBatches;
+            return this;
+        }
+
+        public Builder priorityEnabled(boolean priorityEnabled) {
+            this.priorityEnabled = Optional.of(priorityEnabled);
+            return this;
+        }
+
+        public Builder priorityEnabled(Optional<Boolean> priorityEnabled) {
+            this.priorityEnabled = priorityEnabled;
+            return this;
+        }
+
         public RabbitMQMailQueueConfiguration build() {
-            return new RabbitMQMailQueueConfiguration(sizeMetricsEnabled.orElse(DEFAULT_SIZE_METRICS_ENABLED));
+            int batchSize = enqueueBatchSize.orElse(DEFAULT_ENQUEUE_BATCH_SIZE);
+            Preconditions.checkArgument(batchSize > 0, "'%s' needs to be strictly positive", ENQUEUE_BATCH_SIZE_PROPERTY);
+            int maxConcurrentBatches = enqueueMaxConcurrentBatches.orElse(DEFAULT_ENQUEUE_MAX_CONCURRENT_BATCHES);
+            Preconditions.checkArgument(maxConcurrentBatches > 0, "'%s' needs to be strictly positive", ENQUEUE_MAX_CONCURRENT_BATCHES_PROPERTY);
+
+            return new RabbitMQMailQueueConfiguration(sizeMetricsEnabled.orElse(DEFAULT_SIZE_METRICS_ENABLED), batchSize,
+                maxConcurrentBatches, priorityEnabled.orElse(DEFAULT_PRIORITY_ENABLED));
         }
     }
 
     public static final String SIZE_METRICS_ENABLED_PROPERTY = "mailqueue.size.metricsEnabled";
+    public static final String ENQUEUE_BATCH_SIZE_PROPERTY = "mailqueue.enqueue.batchSize";
+    public static final String ENQUEUE_MAX_CONCURRENT_BATCHES_PROPERTY = "mailqueue.enqueue.maxConcurrentBatches";
+    public static final String PRIORITY_ENABLED_PROPERTY = "mailqueue.priority.enabled";
 
     public static Builder builder() {
         return new Builder();
@@ -54,6 +101,9 @@ public class RabbitMQMailQueueConfiguration {
     public static RabbitMQMailQueueConfiguration from(Configuration configuration) {
         return builder()
             .sizeMetricsEnabled(Optional.ofNullable(configuration.getBoolean(SIZE_METRICS_ENABLED_PROPERTY, null)))
+            .enqueueBatchSize(Optional.ofNullable(configuration.getInteger(ENQUEUE_BATCH_SIZE_PROPERTY, null)))
+            .enqueueMaxConcurrentBatches(Optional.ofNullable(configuration.getInteger(ENQUEUE_MAX_CONCURRENT_BATCHES_PROPERTY, null)))
+            .priorityEnabled(Optional.ofNullable(configuration.getBoolean(PRIORITY_ENABLED_PROPERTY, null)))
             .build();
     }
 
@@ -70,27 +120,49 @@ public class RabbitMQMailQueueConfiguration {
     }
 
     private final boolean sizeMetricsEnabled;
+    private final int enqueueBatchSize;
+    private final int enqueueMaxConcurrentBatches;
+    private final boolean priorityEnabled;
 
-    private RabbitMQMailQueueConfiguration(boolean sizeMetricsEnabled) {
+    private RabbitMQMailQueueConfiguration(boolean sizeMetricsEnabled, int enqueueBatchSize, int enqueueMaxConcurrentBatches,
+                                           boolean priorityEnabled) {
         this.sizeMetricsEnabled = sizeMetricsEnabled;
+        this.enqueueBatchSize = enqueueBatchSize;
+        this.enqueueMaxConcurrentBatches = enqueueMaxConcurrentBatches;
+        this.priorityEnabled = priorityEnabled;
     }
 
     public boolean isSizeMetricsEnabled() {
         return sizeMetricsEnabled;
     }
 
+    public int getEnqueueBatchSize() {
+        return enqueueBatchSize;
+    }
+
+    public int getEnqueueMaxConcurrentBatches() {
+        return enqueueMaxConcurrentBatches;
+    }
+
+    public boolean isPriorityEnabled() {
+        return priorityEnabled;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (o instanceof RabbitMQMailQueueConfiguration) {
             RabbitMQMailQueueConfiguration that = (RabbitMQMailQueueConfiguration) o;
 
-            return Objects.equals(this.sizeMetricsEnabled, that.sizeMetricsEnabled);
+            return Objects.equals(this.sizeMetricsEnabled, that.sizeMetricsEnabled)
+                && Objects.equals(this.enqueueBatchSize, that.enqueueBatchSize)
+                && Objects.equals(this.enqueueMaxConcurrentBatches, that.enqueueMaxConcurrentBatches)
+                && Objects.equals(this.priorityEnabled, that.priorityEnabled);
         }
         return false;
     }
 
     @Override
     public final int hashCode() {
-        return Objects.hash(sizeMetricsEnabled);
+        return Objects.hash(sizeMetricsEnabled, enqueueBatchSize, enqueueMaxConcurrentBatches, priorityEnabled);
     }
 }
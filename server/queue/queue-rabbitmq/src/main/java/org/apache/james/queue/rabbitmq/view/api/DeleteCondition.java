@@ -19,7 +19,9 @@
 
 package org.apache.james.queue.rabbitmq.view.api;
 
+import java.time.Instant;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.james.queue.api.ManageableMailQueue;
@@ -114,15 +116,21 @@ public interface DeleteCondition {
 
     class WithEnqueueId implements DeleteCondition {
         private final EnqueueId enqueueId;
+        private final Optional<Instant> enqueuedTime;
 
-        WithEnqueueId(EnqueueId enqueueId) {
+        WithEnqueueId(EnqueueId enqueueId, Optional<Instant> enqueuedTime) {
             this.enqueueId = enqueueId;
+            this.enqueuedTime = enqueuedTime;
         }
 
         public EnqueueId getEnqueueId() {
             return enqueueId;
         }
 
+        public Optional<Instant> getEnqueuedTime() {
+            return enqueuedTime;
+        }
+
         @Override
         public boolean shouldBeDeleted(EnqueuedItem enqueuedItem) {
             Preconditions.checkNotNull(enqueuedItem);
@@ -192,8 +200,13 @@ public interface DeleteCondition {
     }
 
     static WithEnqueueId withEnqueueId(EnqueueId value) {
+        return withEnqueueId(value, Optional.empty());
+    }
+
+    static WithEnqueueId withEnqueueId(EnqueueId value, Optional<Instant> enqueuedTime) {
         Preconditions.checkNotNull(value);
-        return new WithEnqueueId(value);
+        Preconditions.checkNotNull(enqueuedTime);
+        return new WithEnqueueId(value, enqueuedTime);
     }
 
     static DeleteCondition all() {
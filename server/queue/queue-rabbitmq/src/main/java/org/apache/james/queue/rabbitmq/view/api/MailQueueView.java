@@ -19,11 +19,14 @@
 
 package org.apache.james.queue.rabbitmq.view.api;
 
+import java.util.Collection;
+
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.rabbitmq.EnqueueId;
 import org.apache.james.queue.rabbitmq.EnqueuedItem;
 import org.apache.james.queue.rabbitmq.MailQueueName;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface MailQueueView {
@@ -36,6 +39,12 @@ public interface MailQueueView {
 
     Mono<Void> storeMail(EnqueuedItem enqueuedItem);
 
+    default Mono<Void> storeMails(Collection<EnqueuedItem> enqueuedItems) {
+        return Flux.fromIterable(enqueuedItems)
+            .flatMap(this::storeMail)
+            .then();
+    }
+
     long delete(DeleteCondition deleteCondition);
 
     Mono<Boolean> isPresent(EnqueueId id);
@@ -78,6 +78,8 @@ public class CassandraMailQueueBrowser {
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CassandraMailQueueBrowser.class);
+    private static final int SLICE_CONCURRENCY = 4;
+    private static final int DELETION_CHECK_CONCURRENCY = 16;
 
     private final BrowseStartDAO browseStartDao;
     private final DeletedMailsDAO deletedMailsDao;
@@ -108,12 +110,16 @@ public class CassandraMailQueueBrowser {
     }
 
     Flux<EnqueuedItemWithSlicingContext> browseReferences(MailQueueName queueName) {
-        return browseStartDao.findBrowseStart(queueName)
+        return findBrowseStart(queueName)
             .flatMapMany(this::allSlicesStartingAt)
-            .flatMapSequential(slice -> browseSlice(queueName, slice))
+            .flatMapSequential(slice -> browseSlice(queueName, slice), SLICE_CONCURRENCY)
             .subscribeOn(Schedulers.parallel());
     }
 
+    Mono<Instant> findBrowseStart(MailQueueName queueName) {
+        return browseStartDao.findBrowseStart(queueName);
+    }
+
     private Mono<Mail> toMailFuture(EnqueuedItemWithSlicingContext enqueuedItemWithSlicingContext) {
         EnqueuedItem enqueuedItem = enqueuedItemWithSlicingContext.getEnqueuedItem();
         return mimeMessageStore.read(enqueuedItem.getPartsId())
@@ -141,7 +147,9 @@ public class CassandraMailQueueBrowser {
 
     private Flux<EnqueuedItemWithSlicingContext> browseBucket(MailQueueName queueName, Slice slice, BucketId bucketId) {
         return enqueuedMailsDao.selectEnqueuedMails(queueName, slice, bucketId)
-            .filterWhen(mailReference -> deletedMailsDao.isStillEnqueued(queueName, mailReference.getEnqueuedItem().getEnqueueId()));
+            .flatMap(mailReference -> deletedMailsDao.isStillEnqueued(queueName, mailReference.getEnqueuedItem().getEnqueueId())
+                .filter(stillEnqueued -> stillEnqueued)
+                .map(any -> mailReference), DELETION_CHECK_CONCURRENCY);
     }
 
     private Flux<Slice> allSlicesStartingAt(Instant browseStart) {
@@ -20,6 +20,8 @@
 package org.apache.james.queue.rabbitmq.view.cassandra;
 
 import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
 
 import javax.inject.Inject;
@@ -27,6 +29,7 @@ import javax.inject.Inject;
 import org.apache.james.queue.rabbitmq.EnqueueId;
 import org.apache.james.queue.rabbitmq.MailQueueName;
 import org.apache.james.queue.rabbitmq.view.cassandra.configuration.CassandraMailQueueViewConfiguration;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
 
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -35,24 +38,49 @@ public class CassandraMailQueueMailDelete {
 
     private final DeletedMailsDAO deletedMailsDao;
     private final BrowseStartDAO browseStartDao;
+    private final SliceCountersDAO sliceCountersDao;
     private final CassandraMailQueueBrowser cassandraMailQueueBrowser;
     private final CassandraMailQueueViewConfiguration configuration;
+    private final Set<MailQueueName> browseStartUpdatesInProgress;
 
     @Inject
     CassandraMailQueueMailDelete(DeletedMailsDAO deletedMailsDao,
                                  BrowseStartDAO browseStartDao,
+                                 SliceCountersDAO sliceCountersDao,
                                  CassandraMailQueueBrowser cassandraMailQueueBrowser,
                                  CassandraMailQueueViewConfiguration configuration) {
         this.deletedMailsDao = deletedMailsDao;
         this.browseStartDao = browseStartDao;
+        this.sliceCountersDao = sliceCountersDao;
         this.cassandraMailQueueBrowser = cassandraMailQueueBrowser;
         this.configuration = configuration;
+        this.browseStartUpdatesInProgress = ConcurrentHashMap.newKeySet();
     }
 
+    /**
+     * For mails whose slice is unknown, namely the ones enqueued before the enqueued time was carried along. Those
+     * counted upon the initialization of the counters are decremented in the slice recorded then.
+     */
     Mono<Void> considerDeleted(EnqueueId enqueueId, MailQueueName mailQueueName) {
-        return deletedMailsDao
-            .markAsDeleted(mailQueueName, enqueueId)
-            .doOnNext(ignored -> maybeUpdateBrowseStart(mailQueueName));
+        return sliceCountersDao.retrieveInitialSlice(mailQueueName, enqueueId)
+            .flatMap(slice -> considerDeleted(enqueueId, mailQueueName, slice)
+                .then(sliceCountersDao.deleteInitialSlice(mailQueueName, enqueueId))
+                .thenReturn(slice))
+            .switchIfEmpty(Mono.defer(() -> deletedMailsDao.markAsDeleted(mailQueueName, enqueueId)
+                .doOnSuccess(ignored -> maybeUpdateBrowseStart(mailQueueName))
+                .then(Mono.empty())))
+            .then();
+    }
+
+    /**
+     * Also decrements the estimated size of the queue, thus the slice the mail had been stored in needs to be known.
+     * Concurrent deletions of the same mail might both decrement it: this drift only lowers the estimate, that never
+     * goes below zero for a given slice, and vanishes once the browse start moves past that slice.
+     */
+    Mono<Void> considerDeleted(EnqueueId enqueueId, MailQueueName mailQueueName, Slice slice) {
+        return deletedMailsDao.markAsDeleted(mailQueueName, enqueueId)
+            .then(sliceCountersDao.incrementDeleted(mailQueueName, slice))
+            .doOnSuccess(ignored -> maybeUpdateBrowseStart(mailQueueName));
     }
 
     Mono<Boolean> isDeleted(EnqueueId enqueueId, MailQueueName mailQueueName) {
@@ -60,8 +88,12 @@ public class CassandraMailQueueMailDelete {
     }
 
     void updateBrowseStart(MailQueueName mailQueueName) {
+        if (!browseStartUpdatesInProgress.add(mailQueueName)) {
+            return;
+        }
         findNewBrowseStart(mailQueueName)
             .flatMap(newBrowseStart -> updateNewBrowseStart(mailQueueName, newBrowseStart))
+            .doFinally(any -> browseStartUpdatesInProgress.remove(mailQueueName))
             .subscribeOn(Schedulers.boundedElastic())
             .subscribe();
     }
@@ -21,32 +21,42 @@ package org.apache.james.queue.rabbitmq.view.cassandra;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.james.queue.rabbitmq.EnqueuedItem;
 import org.apache.james.queue.rabbitmq.MailQueueName;
 import org.apache.james.queue.rabbitmq.view.cassandra.configuration.CassandraMailQueueViewConfiguration;
 import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.BucketId;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
 import org.apache.mailet.Mail;
 
+import com.google.common.collect.ImmutableList;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailQueueMailStore {
 
     private final EnqueuedMailsDAO enqueuedMailsDao;
     private final BrowseStartDAO browseStartDao;
+    private final SliceCountersDAO sliceCountersDao;
     private final CassandraMailQueueViewConfiguration configuration;
     private final Clock clock;
 
     @Inject
     CassandraMailQueueMailStore(EnqueuedMailsDAO enqueuedMailsDao,
                                 BrowseStartDAO browseStartDao,
+                                SliceCountersDAO sliceCountersDao,
                                 CassandraMailQueueViewConfiguration configuration,
                                 Clock clock) {
         this.enqueuedMailsDao = enqueuedMailsDao;
         this.browseStartDao = browseStartDao;
+        this.sliceCountersDao = sliceCountersDao;
         this.configuration = configuration;
         this.clock = clock;
     }
@@ -54,7 +64,33 @@ public class CassandraMailQueueMailStore {
     Mono<Void> storeMail(EnqueuedItem enqueuedItem) {
         EnqueuedItemWithSlicingContext enqueuedItemAndSlicing = addSliceContext(enqueuedItem);
 
-        return enqueuedMailsDao.insert(enqueuedItemAndSlicing);
+        return enqueuedMailsDao.insert(enqueuedItemAndSlicing)
+            .then(sliceCountersDao.incrementEnqueued(enqueuedItem.getMailQueueName(), sliceOf(enqueuedItemAndSlicing), 1L));
+    }
+
+    Mono<Void> storeMails(Collection<EnqueuedItem> enqueuedItems) {
+        ImmutableList<EnqueuedItemWithSlicingContext> enqueuedItemsAndSlicing = enqueuedItems.stream()
+            .map(this::addSliceContext)
+            .collect(ImmutableList.toImmutableList());
+
+        return enqueuedMailsDao.insert(enqueuedItemsAndSlicing)
+            .thenMany(Flux.fromIterable(enqueuedItemsAndSlicing.stream()
+                .collect(Collectors.groupingBy(this::queueAndSlice, Collectors.counting()))
+                .entrySet()))
+            .flatMap(entry -> sliceCountersDao.incrementEnqueued(entry.getKey().getLeft(), entry.getKey().getRight(), entry.getValue()))
+            .then();
+    }
+
+    Slice sliceContaining(Instant instant) {
+        return Slice.containing(instant, configuration.getSliceWindow());
+    }
+
+    private Pair<MailQueueName, Slice> queueAndSlice(EnqueuedItemWithSlicingContext enqueuedItemAndSlicing) {
+        return Pair.of(enqueuedItemAndSlicing.getEnqueuedItem().getMailQueueName(), sliceOf(enqueuedItemAndSlicing));
+    }
+
+    private Slice sliceOf(EnqueuedItemWithSlicingContext enqueuedItemAndSlicing) {
+        return Slice.of(enqueuedItemAndSlicing.getSlicingContext().getTimeRangeStart());
     }
 
     Mono<Void> initializeBrowseStart(MailQueueName mailQueueName) {
@@ -68,14 +104,12 @@ public class CassandraMailQueueMailStore {
         return EnqueuedItemWithSlicingContext.builder()
             .enqueuedItem(enqueuedItem)
             .slicingContext(EnqueuedItemWithSlicingContext.SlicingContext
-                .of(computedBucketId(mail), currentSliceStartInstant()))
+                .of(computedBucketId(mail), sliceContaining(enqueuedItem.getEnqueuedTime()).getStartSliceInstant()))
             .build();
     }
 
     private Instant currentSliceStartInstant() {
-        long sliceSize = configuration.getSliceWindow().getSeconds();
-        long sliceId = clock.instant().getEpochSecond() / sliceSize;
-        return Instant.ofEpochSecond(sliceId * sliceSize);
+        return sliceContaining(clock.instant()).getStartSliceInstant();
     }
 
     private BucketId computedBucketId(Mail mail) {
@@ -19,6 +19,13 @@
 
 package org.apache.james.queue.rabbitmq.view.cassandra;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import javax.inject.Inject;
 
 import org.apache.james.queue.api.ManageableMailQueue;
@@ -29,8 +36,12 @@ import org.apache.james.queue.rabbitmq.view.api.DeleteCondition;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
 import org.apache.james.queue.rabbitmq.view.cassandra.configuration.CassandraMailQueueViewConfiguration;
 import org.apache.james.queue.rabbitmq.view.cassandra.configuration.EventsourcingConfigurationManagement;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
 
+import com.google.common.collect.Sets;
+
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public class CassandraMailQueueView implements MailQueueView {
@@ -39,40 +50,48 @@ public class CassandraMailQueueView implements MailQueueView {
         private final CassandraMailQueueMailStore storeHelper;
         private final CassandraMailQueueBrowser cassandraMailQueueBrowser;
         private final CassandraMailQueueMailDelete cassandraMailQueueMailDelete;
+        private final SliceCountersDAO sliceCountersDao;
 
         @Inject
         public Factory(CassandraMailQueueMailStore storeHelper,
                        CassandraMailQueueBrowser cassandraMailQueueBrowser,
                        CassandraMailQueueMailDelete cassandraMailQueueMailDelete,
+                       SliceCountersDAO sliceCountersDao,
                        EventsourcingConfigurationManagement eventsourcingConfigurationManagement,
                        CassandraMailQueueViewConfiguration configuration) {
             this.storeHelper = storeHelper;
             this.cassandraMailQueueBrowser = cassandraMailQueueBrowser;
             this.cassandraMailQueueMailDelete = cassandraMailQueueMailDelete;
+            this.sliceCountersDao = sliceCountersDao;
 
             eventsourcingConfigurationManagement.registerConfiguration(configuration);
         }
 
         @Override
         public MailQueueView create(MailQueueName mailQueueName) {
-            return new CassandraMailQueueView(storeHelper, mailQueueName, cassandraMailQueueBrowser, cassandraMailQueueMailDelete);
+            return new CassandraMailQueueView(storeHelper, mailQueueName, cassandraMailQueueBrowser, cassandraMailQueueMailDelete, sliceCountersDao);
         }
     }
 
     private final CassandraMailQueueMailStore storeHelper;
     private final CassandraMailQueueBrowser cassandraMailQueueBrowser;
     private final CassandraMailQueueMailDelete cassandraMailQueueMailDelete;
+    private final SliceCountersDAO sliceCountersDao;
 
     private final MailQueueName mailQueueName;
+    private volatile boolean sliceCountersInitialized;
 
     CassandraMailQueueView(CassandraMailQueueMailStore storeHelper,
                            MailQueueName mailQueueName,
                            CassandraMailQueueBrowser cassandraMailQueueBrowser,
-                           CassandraMailQueueMailDelete cassandraMailQueueMailDelete) {
+                           CassandraMailQueueMailDelete cassandraMailQueueMailDelete,
+                           SliceCountersDAO sliceCountersDao) {
         this.mailQueueName = mailQueueName;
         this.storeHelper = storeHelper;
         this.cassandraMailQueueBrowser = cassandraMailQueueBrowser;
         this.cassandraMailQueueMailDelete = cassandraMailQueueMailDelete;
+        this.sliceCountersDao = sliceCountersDao;
+        this.sliceCountersInitialized = false;
     }
 
     @Override
@@ -85,6 +104,11 @@ public class CassandraMailQueueView implements MailQueueView {
         return storeHelper.storeMail(enqueuedItem);
     }
 
+    @Override
+    public Mono<Void> storeMails(Collection<EnqueuedItem> enqueuedItems) {
+        return storeHelper.storeMails(enqueuedItems);
+    }
+
     @Override
     public ManageableMailQueue.MailQueueIterator browse() {
         return new CassandraMailQueueBrowser.CassandraMailQueueIterator(
@@ -93,16 +117,91 @@ public class CassandraMailQueueView implements MailQueueView {
                 .iterator());
     }
 
+    /**
+     * Relies on the per slice counters rather than browsing the queue content, hence the returned size is an
+     * estimation.
+     *
+     * The first time the size of a mail queue is read, its counters are initialized by browsing the queue content, so
+     * that mails stored before these counters were introduced are accounted.
+     */
     @Override
     public long getSize() {
-        return cassandraMailQueueBrowser.browseReferences(mailQueueName).count().block();
+        return initializeSliceCounters()
+            .then(cassandraMailQueueBrowser.findBrowseStart(mailQueueName))
+            .flatMap(browseStart -> sliceCountersDao.countEnqueuedMails(mailQueueName, browseStart))
+            .defaultIfEmpty(0L)
+            .block();
+    }
+
+    private Mono<Void> initializeSliceCounters() {
+        if (sliceCountersInitialized) {
+            return Mono.empty();
+        }
+        return sliceCountersDao.isInitialized(mailQueueName)
+            .flatMap(initialized -> {
+                if (initialized) {
+                    return Mono.just(true);
+                }
+                // Only the James server claiming the initialization fills the counters in
+                return sliceCountersDao.claimInitialization(mailQueueName)
+                    .flatMap(claimedByThisCall -> {
+                        if (claimedByThisCall) {
+                            return initializeClaimedSliceCounters();
+                        }
+                        return Mono.just(false);
+                    });
+            })
+            .doOnNext(initialized -> sliceCountersInitialized = initialized)
+            .then();
+    }
+
+    /**
+     * The counters are marked initialized only once reset, a failed reset releases the claim so that it is retried.
+     */
+    private Mono<Boolean> initializeClaimedSliceCounters() {
+        return resetSliceCounters()
+            .then(sliceCountersDao.markInitialized(mailQueueName))
+            .thenReturn(true)
+            .onErrorResume(e -> sliceCountersDao.releaseInitialization(mailQueueName)
+                .then(Mono.error(e)));
+    }
+
+    /**
+     * Adjusts the counter of each slice to the count of mails browsed in it.
+     */
+    private Mono<Void> resetSliceCounters() {
+        return cassandraMailQueueBrowser.findBrowseStart(mailQueueName)
+            .flatMap(browseStart -> Mono.zip(
+                cassandraMailQueueBrowser.browseReferences(mailQueueName)
+                    .flatMap(this::recordInitialSlice)
+                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting())),
+                sliceCountersDao.countEnqueuedMailsBySlice(mailQueueName, browseStart)))
+            .flatMapMany(counts -> resetSliceCounters(counts.getT1(), counts.getT2()))
+            .then();
+    }
+
+    private Mono<Instant> recordInitialSlice(EnqueuedItemWithSlicingContext item) {
+        Instant sliceStart = item.getSlicingContext().getTimeRangeStart();
+        return sliceCountersDao.recordInitialSlice(mailQueueName, item.getEnqueuedItem().getEnqueueId(), Slice.of(sliceStart))
+            .thenReturn(sliceStart);
+    }
+
+    private Flux<Void> resetSliceCounters(Map<Instant, Long> browsedCounts, Map<Instant, Long> countedCounts) {
+        return Flux.fromIterable(Sets.union(browsedCounts.keySet(), countedCounts.keySet()))
+            .flatMap(sliceStart -> {
+                long difference = browsedCounts.getOrDefault(sliceStart, 0L) - countedCounts.getOrDefault(sliceStart, 0L);
+                if (difference == 0L) {
+                    return Mono.empty();
+                }
+                return sliceCountersDao.incrementEnqueued(mailQueueName, Slice.of(sliceStart), difference);
+            });
     }
 
     @Override
     public long delete(DeleteCondition deleteCondition) {
         if (deleteCondition instanceof DeleteCondition.WithEnqueueId) {
             DeleteCondition.WithEnqueueId enqueueIdCondition = (DeleteCondition.WithEnqueueId) deleteCondition;
-            delete(enqueueIdCondition.getEnqueueId()).block();
+            delete(enqueueIdCondition.getEnqueueId(), enqueueIdCondition.getEnqueuedTime()).block();
             return 1L;
         }
         return browseThenDelete(deleteCondition);
@@ -110,16 +209,19 @@ public class CassandraMailQueueView implements MailQueueView {
 
     private long browseThenDelete(DeleteCondition deleteCondition) {
         return cassandraMailQueueBrowser.browseReferences(mailQueueName)
-            .map(EnqueuedItemWithSlicingContext::getEnqueuedItem)
-            .filter(deleteCondition::shouldBeDeleted)
-            .flatMap(mailReference -> cassandraMailQueueMailDelete.considerDeleted(mailReference.getEnqueueId(), mailQueueName))
+            .filter(item -> deleteCondition.shouldBeDeleted(item.getEnqueuedItem()))
+            .flatMap(item -> cassandraMailQueueMailDelete.considerDeleted(item.getEnqueuedItem().getEnqueueId(), mailQueueName,
+                Slice.of(item.getSlicingContext().getTimeRangeStart())))
             .count()
             .doOnNext(ignored -> cassandraMailQueueMailDelete.updateBrowseStart(mailQueueName))
             .block();
     }
 
-    private Mono<Void> delete(EnqueueId enqueueId) {
-        return cassandraMailQueueMailDelete.considerDeleted(enqueueId, mailQueueName);
+    private Mono<Void> delete(EnqueueId enqueueId, Optional<Instant> enqueuedTime) {
+        return enqueuedTime
+            .map(storeHelper::sliceContaining)
+            .map(slice -> cassandraMailQueueMailDelete.considerDeleted(enqueueId, mailQueueName, slice))
+            .orElseGet(() -> cassandraMailQueueMailDelete.considerDeleted(enqueueId, mailQueueName));
     }
 
     @Override
@@ -20,7 +20,9 @@
 package org.apache.james.queue.rabbitmq.view.cassandra;
 
 import static com.datastax.driver.core.DataType.blob;
+import static com.datastax.driver.core.DataType.cboolean;
 import static com.datastax.driver.core.DataType.cint;
+import static com.datastax.driver.core.DataType.counter;
 import static com.datastax.driver.core.DataType.list;
 import static com.datastax.driver.core.DataType.map;
 import static com.datastax.driver.core.DataType.text;
@@ -72,6 +74,30 @@ public interface CassandraMailQueueViewModule {
         String ENQUEUE_ID = "enqueueId";
     }
 
+    interface SliceCountersTable {
+        String TABLE_NAME = "mailQueueSliceCounters";
+
+        String QUEUE_NAME = "queueName";
+        String TIME_RANGE_START = "timeRangeStart";
+        String ENQUEUED = "enqueued";
+        String DELETED = "deleted";
+    }
+
+    interface SliceCountersInitializationTable {
+        String TABLE_NAME = "mailQueueSliceCountersInitialization";
+
+        String QUEUE_NAME = "queueName";
+        String INITIALIZED = "initialized";
+    }
+
+    interface InitialSlicesTable {
+        String TABLE_NAME = "mailQueueInitialSlices";
+
+        String QUEUE_NAME = "queueName";
+        String ENQUEUE_ID = "enqueueId";
+        String TIME_RANGE_START = "timeRangeStart";
+    }
+
     interface HeaderEntry {
         int USER_INDEX = 0;
         int HEADER_NAME_INDEX = 1;
@@ -121,5 +147,33 @@ public interface CassandraMailQueueViewModule {
             .addPartitionKey(DeletedMailTable.QUEUE_NAME, text())
             .addPartitionKey(DeletedMailTable.ENQUEUE_ID, uuid()))
 
+        .table(SliceCountersTable.TABLE_NAME)
+        .comment("this table counts the mails enqueued and deleted in each slice of the table: "
+            + EnqueuedMailsTable.TABLE_NAME + ", allowing to compute the size of a mail queue without browsing it")
+        .options(options -> options)
+        .statement(statement -> statement
+            .addPartitionKey(SliceCountersTable.QUEUE_NAME, text())
+            .addClusteringColumn(SliceCountersTable.TIME_RANGE_START, timestamp())
+            .addColumn(SliceCountersTable.ENQUEUED, counter())
+            .addColumn(SliceCountersTable.DELETED, counter()))
+
+        .table(SliceCountersInitializationTable.TABLE_NAME)
+        .comment("this table records the mail queues whose counters of " + SliceCountersTable.TABLE_NAME
+            + " are being, or had been, initialized with the content of " + EnqueuedMailsTable.TABLE_NAME)
+        .options(options -> options)
+        .statement(statement -> statement
+            .addPartitionKey(SliceCountersInitializationTable.QUEUE_NAME, text())
+            .addColumn(SliceCountersInitializationTable.INITIALIZED, cboolean()))
+
+        .table(InitialSlicesTable.TABLE_NAME)
+        .comment("this table records the slice each mail was counted in when initializing the counters of "
+            + SliceCountersTable.TABLE_NAME + ", so that deleting mails enqueued without their enqueued time decrements "
+            + "that slice")
+        .options(options -> options)
+        .statement(statement -> statement
+            .addPartitionKey(InitialSlicesTable.QUEUE_NAME, text())
+            .addPartitionKey(InitialSlicesTable.ENQUEUE_ID, uuid())
+            .addColumn(InitialSlicesTable.TIME_RANGE_START, timestamp()))
+
         .build();
 }
@@ -46,7 +46,9 @@ import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUti
 import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUtil.toRawAttributeMap;
 import static org.apache.james.queue.rabbitmq.view.cassandra.EnqueuedMailsDaoUtil.toTupleList;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import javax.inject.Inject;
@@ -62,10 +64,14 @@ import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice
 import org.apache.james.queue.rabbitmq.view.cassandra.model.EnqueuedItemWithSlicingContext;
 import org.apache.mailet.Mail;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.TupleType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -74,6 +80,7 @@ public class EnqueuedMailsDAO {
     private final CassandraAsyncExecutor executor;
     private final PreparedStatement selectFrom;
     private final PreparedStatement insert;
+    private final PreparedStatement selectBlobIds;
     private final BlobId.Factory blobFactory;
     private final TupleType userHeaderNameHeaderValueTriple;
 
@@ -83,6 +90,7 @@ public class EnqueuedMailsDAO {
 
         this.selectFrom = prepareSelectFrom(session);
         this.insert = prepareInsert(session);
+        this.selectBlobIds = prepareSelectBlobIds(session);
         this.blobFactory = blobIdFactory;
         this.userHeaderNameHeaderValueTriple = session.getCluster().getMetadata().newTupleType(text(), text(), text());
     }
@@ -95,6 +103,11 @@ public class EnqueuedMailsDAO {
             .and(eq(BUCKET_ID, bindMarker(BUCKET_ID))));
     }
 
+    private PreparedStatement prepareSelectBlobIds(Session session) {
+        return session.prepare(select(HEADER_BLOB_ID, BODY_BLOB_ID)
+            .from(TABLE_NAME));
+    }
+
     private PreparedStatement prepareInsert(Session session) {
         return session.prepare(insertInto(TABLE_NAME)
             .value(QUEUE_NAME, bindMarker(QUEUE_NAME))
@@ -117,6 +130,40 @@ public class EnqueuedMailsDAO {
     }
 
     Mono<Void> insert(EnqueuedItemWithSlicingContext enqueuedItemWithSlicing) {
+        return executor.executeVoid(bindInsert(enqueuedItemWithSlicing));
+    }
+
+    /**
+     * Items sharing a partition are inserted with a single unlogged batch, which Cassandra applies as one mutation.
+     * Batches are not used across partitions, as they would overload their coordinator.
+     */
+    Mono<Void> insert(Collection<EnqueuedItemWithSlicingContext> enqueuedItemsWithSlicing) {
+        return Flux.fromIterable(enqueuedItemsWithSlicing.stream()
+                .collect(ImmutableListMultimap.toImmutableListMultimap(this::partitionKey, item -> item))
+                .asMap()
+                .values())
+            .flatMap(this::insertPartition)
+            .then();
+    }
+
+    private Mono<Void> insertPartition(Collection<EnqueuedItemWithSlicingContext> partitionItems) {
+        if (partitionItems.size() == 1) {
+            return insert(partitionItems.iterator().next());
+        }
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        partitionItems.forEach(item -> batch.add(bindInsert(item)));
+        return executor.executeVoid(batch);
+    }
+
+    private List<Object> partitionKey(EnqueuedItemWithSlicingContext enqueuedItemWithSlicing) {
+        EnqueuedItemWithSlicingContext.SlicingContext slicingContext = enqueuedItemWithSlicing.getSlicingContext();
+        return ImmutableList.of(
+            enqueuedItemWithSlicing.getEnqueuedItem().getMailQueueName(),
+            slicingContext.getTimeRangeStart(),
+            slicingContext.getBucketId());
+    }
+
+    private BoundStatement bindInsert(EnqueuedItemWithSlicingContext enqueuedItemWithSlicing) {
         EnqueuedItem enqueuedItem = enqueuedItemWithSlicing.getEnqueuedItem();
         EnqueuedItemWithSlicingContext.SlicingContext slicingContext = enqueuedItemWithSlicing.getSlicingContext();
         Mail mail = enqueuedItem.getMail();
@@ -148,7 +195,7 @@ public class EnqueuedMailsDAO {
             .map(MailAddress::asString)
             .ifPresent(mailAddress -> statement.setString(SENDER, mailAddress));
 
-        return executor.executeVoid(statement);
+        return statement;
     }
 
     Flux<EnqueuedItemWithSlicingContext> selectEnqueuedMails(
@@ -162,4 +209,10 @@ public class EnqueuedMailsDAO {
             .map(row -> EnqueuedMailsDaoUtil.toEnqueuedMail(row, blobFactory));
     }
 
+    Flux<BlobId> listBlobs() {
+        return executor.executeRows(selectBlobIds.bind())
+            .flatMapIterable(row -> ImmutableList.of(
+                blobFactory.from(row.getString(HEADER_BLOB_ID)),
+                blobFactory.from(row.getString(BODY_BLOB_ID))));
+    }
 }
@@ -0,0 +1,251 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.delete;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.gte;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.incr;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.insertInto;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.update;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.SliceCountersTable.DELETED;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.SliceCountersTable.ENQUEUED;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.SliceCountersTable.QUEUE_NAME;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.SliceCountersTable.TABLE_NAME;
+import static org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.SliceCountersTable.TIME_RANGE_START;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.apache.james.backends.cassandra.utils.CassandraAsyncExecutor;
+import org.apache.james.queue.rabbitmq.EnqueueId;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.InitialSlicesTable;
+import org.apache.james.queue.rabbitmq.view.cassandra.CassandraMailQueueViewModule.SliceCountersInitializationTable;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.google.common.primitives.Ints;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the mails enqueued and deleted in each slice of a mail queue.
+ *
+ * Cassandra counters are not idempotent: a retried increment might be applied twice. The resulting size is thus an
+ * estimate, that never goes below zero for a given slice.
+ *
+ * Counters are initialized once per mail queue, so that mails stored before they were introduced are accounted. The
+ * James server claiming the initialization marks it done once the counters are filled in. A claim expires, so that
+ * another James server takes over the initialization when the claiming one failed to complete it.
+ *
+ * The slice of each mail counted upon initialization is recorded, as mails enqueued before the enqueued time was
+ * carried along can not be decremented otherwise.
+ */
+public class SliceCountersDAO {
+    private static final Duration INITIALIZATION_CLAIM_DURATION = Duration.ofHours(1);
+    private static final String TTL = "ttl";
+
+    private final CassandraAsyncExecutor executor;
+    private final PreparedStatement incrementEnqueued;
+    private final PreparedStatement incrementDeleted;
+    private final PreparedStatement selectFrom;
+    private final PreparedStatement claimInitialization;
+    private final PreparedStatement releaseInitialization;
+    private final PreparedStatement markInitialized;
+    private final PreparedStatement selectInitialization;
+    private final PreparedStatement insertInitialSlice;
+    private final PreparedStatement selectInitialSlice;
+    private final PreparedStatement deleteInitialSlice;
+
+    @Inject
+    SliceCountersDAO(Session session) {
+        this.executor = new CassandraAsyncExecutor(session);
+
+        this.incrementEnqueued = prepareIncrement(session, ENQUEUED);
+        this.incrementDeleted = prepareIncrement(session, DELETED);
+        this.selectFrom = prepareSelectFrom(session);
+        this.claimInitialization = prepareClaimInitialization(session);
+        this.releaseInitialization = prepareReleaseInitialization(session);
+        this.markInitialized = prepareMarkInitialized(session);
+        this.selectInitialization = prepareSelectInitialization(session);
+        this.insertInitialSlice = prepareInsertInitialSlice(session);
+        this.selectInitialSlice = prepareSelectInitialSlice(session);
+        this.deleteInitialSlice = prepareDeleteInitialSlice(session);
+    }
+
+    private PreparedStatement prepareIncrement(Session session, String counter) {
+        return session.prepare(update(TABLE_NAME)
+            .with(incr(counter, bindMarker(counter)))
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(eq(TIME_RANGE_START, bindMarker(TIME_RANGE_START))));
+    }
+
+    private PreparedStatement prepareSelectFrom(Session session) {
+        return session.prepare(select(TIME_RANGE_START, ENQUEUED, DELETED)
+            .from(TABLE_NAME)
+            .where(eq(QUEUE_NAME, bindMarker(QUEUE_NAME)))
+            .and(gte(TIME_RANGE_START, bindMarker(TIME_RANGE_START))));
+    }
+
+    private PreparedStatement prepareClaimInitialization(Session session) {
+        return session.prepare(insertInto(SliceCountersInitializationTable.TABLE_NAME)
+            .value(SliceCountersInitializationTable.QUEUE_NAME, bindMarker(SliceCountersInitializationTable.QUEUE_NAME))
+            .ifNotExists()
+            .using(ttl(bindMarker(TTL))));
+    }
+
+    private PreparedStatement prepareReleaseInitialization(Session session) {
+        return session.prepare(delete()
+            .from(SliceCountersInitializationTable.TABLE_NAME)
+            .where(eq(SliceCountersInitializationTable.QUEUE_NAME, bindMarker(SliceCountersInitializationTable.QUEUE_NAME))));
+    }
+
+    private PreparedStatement prepareMarkInitialized(Session session) {
+        return session.prepare(update(SliceCountersInitializationTable.TABLE_NAME)
+            .with(set(SliceCountersInitializationTable.INITIALIZED, true))
+            .where(eq(SliceCountersInitializationTable.QUEUE_NAME, bindMarker(SliceCountersInitializationTable.QUEUE_NAME))));
+    }
+
+    private PreparedStatement prepareSelectInitialization(Session session) {
+        return session.prepare(select(SliceCountersInitializationTable.INITIALIZED)
+            .from(SliceCountersInitializationTable.TABLE_NAME)
+            .where(eq(SliceCountersInitializationTable.QUEUE_NAME, bindMarker(SliceCountersInitializationTable.QUEUE_NAME))));
+    }
+
+    private PreparedStatement prepareInsertInitialSlice(Session session) {
+        return session.prepare(insertInto(InitialSlicesTable.TABLE_NAME)
+            .value(InitialSlicesTable.QUEUE_NAME, bindMarker(InitialSlicesTable.QUEUE_NAME))
+            .value(InitialSlicesTable.ENQUEUE_ID, bindMarker(InitialSlicesTable.ENQUEUE_ID))
+            .value(InitialSlicesTable.TIME_RANGE_START, bindMarker(InitialSlicesTable.TIME_RANGE_START)));
+    }
+
+    private PreparedStatement prepareSelectInitialSlice(Session session) {
+        return session.prepare(select(InitialSlicesTable.TIME_RANGE_START)
+            .from(InitialSlicesTable.TABLE_NAME)
+            .where(eq(InitialSlicesTable.QUEUE_NAME, bindMarker(InitialSlicesTable.QUEUE_NAME)))
+            .and(eq(InitialSlicesTable.ENQUEUE_ID, bindMarker(InitialSlicesTable.ENQUEUE_ID))));
+    }
+
+    private PreparedStatement prepareDeleteInitialSlice(Session session) {
+        return session.prepare(delete()
+            .from(InitialSlicesTable.TABLE_NAME)
+            .where(eq(InitialSlicesTable.QUEUE_NAME, bindMarker(InitialSlicesTable.QUEUE_NAME)))
+            .and(eq(InitialSlicesTable.ENQUEUE_ID, bindMarker(InitialSlicesTable.ENQUEUE_ID))));
+    }
+
+    Mono<Void> incrementEnqueued(MailQueueName mailQueueName, Slice slice, long count) {
+        return executor.executeVoid(incrementEnqueued.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant()))
+            .setLong(ENQUEUED, count));
+    }
+
+    Mono<Void> incrementDeleted(MailQueueName mailQueueName, Slice slice) {
+        return executor.executeVoid(incrementDeleted.bind()
+            .setString(QUEUE_NAME, mailQueueName.asString())
+            .setTimestamp(TIME_RANGE_START, Date.from(slice.getStartSliceInstant()))
+            .setLong(DELETED, 1L));
+    }
+
+    Mono<Long> countEnqueuedMails(MailQueueName mailQueueName, Instant browseStart) {
+        return executor.executeRows(selectFrom.bind()
+                .setString(QUEUE_NAME, mailQueueName.asString())
+                .setTimestamp(TIME_RANGE_START, Date.from(browseStart)))
+            .map(this::enqueuedMailsCount)
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Unlike {@link #countEnqueuedMails(MailQueueName, Instant)}, the count of a slice can be negative.
+     */
+    Mono<Map<Instant, Long>> countEnqueuedMailsBySlice(MailQueueName mailQueueName, Instant browseStart) {
+        return executor.executeRows(selectFrom.bind()
+                .setString(QUEUE_NAME, mailQueueName.asString())
+                .setTimestamp(TIME_RANGE_START, Date.from(browseStart)))
+            .collectMap(row -> row.getTimestamp(TIME_RANGE_START).toInstant(),
+                row -> row.getLong(ENQUEUED) - row.getLong(DELETED));
+    }
+
+    Mono<Boolean> isInitialized(MailQueueName mailQueueName) {
+        return executor.executeSingleRowOptional(selectInitialization.bind()
+                .setString(SliceCountersInitializationTable.QUEUE_NAME, mailQueueName.asString()))
+            .map(maybeRow -> maybeRow
+                .map(row -> row.getBool(SliceCountersInitializationTable.INITIALIZED))
+                .orElse(false));
+    }
+
+    /**
+     * @return true if this call claimed the initialization of the counters of this mail queue, false if it is
+     * initialized or being initialized
+     */
+    Mono<Boolean> claimInitialization(MailQueueName mailQueueName) {
+        return executor.executeReturnApplied(claimInitialization.bind()
+            .setString(SliceCountersInitializationTable.QUEUE_NAME, mailQueueName.asString())
+            .setInt(TTL, Ints.checkedCast(INITIALIZATION_CLAIM_DURATION.getSeconds())));
+    }
+
+    /**
+     * Allows another call to claim the initialization, once the claiming one failed.
+     */
+    Mono<Void> releaseInitialization(MailQueueName mailQueueName) {
+        return executor.executeVoid(releaseInitialization.bind()
+            .setString(SliceCountersInitializationTable.QUEUE_NAME, mailQueueName.asString()));
+    }
+
+    Mono<Void> markInitialized(MailQueueName mailQueueName) {
+        return executor.executeVoid(markInitialized.bind()
+            .setString(SliceCountersInitializationTable.QUEUE_NAME, mailQueueName.asString()));
+    }
+
+    Mono<Void> recordInitialSlice(MailQueueName mailQueueName, EnqueueId enqueueId, Slice slice) {
+        return executor.executeVoid(insertInitialSlice.bind()
+            .setString(InitialSlicesTable.QUEUE_NAME, mailQueueName.asString())
+            .setUUID(InitialSlicesTable.ENQUEUE_ID, enqueueId.asUUID())
+            .setTimestamp(InitialSlicesTable.TIME_RANGE_START, Date.from(slice.getStartSliceInstant())));
+    }
+
+    Mono<Slice> retrieveInitialSlice(MailQueueName mailQueueName, EnqueueId enqueueId) {
+        return executor.executeSingleRow(selectInitialSlice.bind()
+                .setString(InitialSlicesTable.QUEUE_NAME, mailQueueName.asString())
+                .setUUID(InitialSlicesTable.ENQUEUE_ID, enqueueId.asUUID()))
+            .map(row -> Slice.of(row.getTimestamp(InitialSlicesTable.TIME_RANGE_START).toInstant()));
+    }
+
+    Mono<Void> deleteInitialSlice(MailQueueName mailQueueName, EnqueueId enqueueId) {
+        return executor.executeVoid(deleteInitialSlice.bind()
+            .setString(InitialSlicesTable.QUEUE_NAME, mailQueueName.asString())
+            .setUUID(InitialSlicesTable.ENQUEUE_ID, enqueueId.asUUID()));
+    }
+
+    private long enqueuedMailsCount(Row row) {
+        return Math.max(0L, row.getLong(ENQUEUED) - row.getLong(DELETED));
+    }
+}
@@ -69,6 +69,12 @@ public class BucketedSlices {
             return new Slice(sliceStartInstant);
         }
 
+        public static Slice containing(Instant instant, Duration windowSize) {
+            long windowSizeInSeconds = windowSize.getSeconds();
+            long sliceId = instant.getEpochSecond() / windowSizeInSeconds;
+            return of(Instant.ofEpochSecond(sliceId * windowSizeInSeconds));
+        }
+
         private static long calculateSliceCount(Slice firstSlice, Instant endAt, Duration windowSize) {
             long startAtSeconds =  firstSlice.getStartSliceInstant().getEpochSecond();
             long endAtSeconds = endAt.getEpochSecond();
@@ -25,6 +25,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 
 import javax.mail.MessagingException;
 
@@ -49,6 +50,7 @@ class MailDTOTest {
     static final EnqueueId EN_QUEUE_ID = EnqueueId.ofSerialized("110e8400-e29b-11d4-a716-446655440000");
     static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
     static final Date LAST_UPDATED = Date.from(Instant.parse("2016-09-08T14:25:52.000Z"));
+    static final Instant ENQUEUED_TIME = Instant.parse("2016-09-08T14:26:52.000Z");
 
     private ObjectMapper objectMapper;
 
@@ -110,7 +112,8 @@ class MailDTOTest {
             MimeMessagePartsId.builder()
                 .headerBlobId(BLOB_ID_FACTORY.from("210e7136-ede3-44eb-9495-3ed816d6e23b"))
                 .bodyBlobId(BLOB_ID_FACTORY.from("ef46c026-7819-4048-b562-3a37469191ed"))
-                .build()));
+                .build(),
+            Optional.of(ENQUEUED_TIME)));
     }
 
     private MailReferenceDTO mailDTOMin() {
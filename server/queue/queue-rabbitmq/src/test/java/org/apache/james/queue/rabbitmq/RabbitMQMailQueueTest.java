@@ -20,10 +20,13 @@
 package org.apache.james.queue.rabbitmq;
 
 import static java.time.temporal.ChronoUnit.HOURS;
+import static org.apache.james.queue.api.MailQueue.QUEUE_TIME_METRIC_NAME_PREFIX;
 import static org.apache.james.queue.api.Mails.defaultMail;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -50,6 +53,7 @@ import org.apache.james.queue.api.MailQueueMetricContract;
 import org.apache.james.queue.api.MailQueueMetricExtension;
 import org.apache.james.queue.api.ManageableMailQueue;
 import org.apache.james.queue.api.ManageableMailQueueContract;
+import org.apache.james.queue.api.PriorityManageableMailQueueContract;
 import org.apache.james.queue.api.RawMailQueueItemDecoratorFactory;
 import org.apache.james.queue.rabbitmq.view.RabbitMQMailQueueConfiguration;
 import org.apache.james.queue.rabbitmq.view.api.MailQueueView;
@@ -71,6 +75,7 @@ import com.github.fge.lambdas.Throwing;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 class RabbitMQMailQueueTest {
     private static final HashBlobId.Factory BLOB_ID_FACTORY = new HashBlobId.Factory();
@@ -83,6 +88,7 @@ class RabbitMQMailQueueTest {
     private static final Instant IN_SLICE_3 = IN_SLICE_1.plus(2, HOURS);
     private static final Instant IN_SLICE_5 = IN_SLICE_1.plus(4, HOURS);
     private static final Instant IN_SLICE_7 = IN_SLICE_1.plus(6, HOURS);
+    private static final int MANY_MAILS = 200;
 
     @RegisterExtension
     static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(CassandraModule.aggregateModules(
@@ -190,6 +196,43 @@ class RabbitMQMailQueueTest {
                 .containsExactly("3-4", "3-5", "5-1", "5-2", "5-3", "5-4", "5-5");
         }
 
+        @Test
+        void manyConcurrentEnqueuesShouldSucceed() {
+            assertThat(enqueueConcurrentlyThenDequeue(MANY_MAILS))
+                .hasSize(MANY_MAILS)
+                .doesNotHaveDuplicates();
+        }
+
+        @Test
+        void enqueueShouldFailAfterClose() {
+            mailQueue.close();
+
+            assertThatThrownBy(() -> mailQueue.enQueue(defaultMail().name("name").build()))
+                .isInstanceOf(MailQueue.MailQueueException.class);
+        }
+
+        @Test
+        void getSizeShouldAccountMailsStoredBeforeSliceCounters(CassandraCluster cassandra) throws Exception {
+            clock.setInstant(IN_SLICE_1);
+            enqueueSomeMails(namePatternForSlice(1), 3);
+            clock.setInstant(IN_SLICE_2);
+            enqueueSomeMails(namePatternForSlice(2), 2);
+
+            cassandra.getConf().execute("TRUNCATE " + CassandraMailQueueViewModule.SliceCountersTable.TABLE_NAME);
+
+            assertThat(mailQueue.getSize()).isEqualTo(5L);
+        }
+
+        @Test
+        void getSizeShouldNotCountTwiceAMailDeletedTwice() throws Exception {
+            enqueueSomeMails(namePatternForSlice(1), 3);
+
+            mailQueue.remove(ManageableMailQueue.Type.Name, "1-1");
+            mailQueue.remove(ManageableMailQueue.Type.Name, "1-1");
+
+            assertThat(mailQueue.getSize()).isEqualTo(2L);
+        }
+
         private Function<Integer, String> namePatternForSlice(int sliceId) {
             return i -> sliceId + "-" + i;
         }
@@ -290,6 +333,126 @@ class RabbitMQMailQueueTest {
         }
     }
 
+    @Nested
+    class BatchedEnqueue implements ManageableMailQueueContract {
+        @RegisterExtension
+        MailQueueMetricExtension mailQueueMetricExtension = new MailQueueMetricExtension();
+
+        @BeforeEach
+        void setup(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem) throws Exception {
+            setUp(cassandra,
+                metricTestSystem,
+                RabbitMQMailQueueConfiguration.builder()
+                    .sizeMetricsEnabled(true)
+                    .enqueueBatchSize(10)
+                    .build());
+        }
+
+        @Override
+        public void enQueue(Mail mail) throws MailQueue.MailQueueException {
+            ManageableMailQueueContract.super.enQueue(mail);
+            clock.tick();
+        }
+
+        @Override
+        public MailQueue getMailQueue() {
+            return mailQueue;
+        }
+
+        @Override
+        public ManageableMailQueue getManageableMailQueue() {
+            return mailQueue;
+        }
+
+        @Test
+        void manyConcurrentEnqueuesShouldSucceed() {
+            assertThat(enqueueConcurrentlyThenDequeue(MANY_MAILS))
+                .hasSize(MANY_MAILS)
+                .doesNotHaveDuplicates();
+        }
+
+        @Test
+        void enqueueShouldFailAfterClose() {
+            mailQueue.close();
+
+            assertThatThrownBy(() -> mailQueue.enQueue(defaultMail().name("name").build()))
+                .isInstanceOf(MailQueue.MailQueueException.class);
+        }
+
+        @Disabled("JAMES-2614 RabbitMQMailQueueTest::concurrentEnqueueDequeueShouldNotFail is unstable." +
+            "The related test is disabled, and need to be re-enabled after investigation and a fix.")
+        @Test
+        @Override
+        public void concurrentEnqueueDequeueShouldNotFail() {
+
+        }
+    }
+
+    @Nested
+    class PriorityEnabled implements PriorityManageableMailQueueContract {
+        @RegisterExtension
+        MailQueueMetricExtension mailQueueMetricExtension = new MailQueueMetricExtension();
+
+        @BeforeEach
+        void setup(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem) throws Exception {
+            setUp(cassandra,
+                metricTestSystem,
+                RabbitMQMailQueueConfiguration.builder()
+                    .sizeMetricsEnabled(true)
+                    .priorityEnabled(true)
+                    .build());
+        }
+
+        @Override
+        public void enQueue(Mail mail) throws MailQueue.MailQueueException {
+            PriorityManageableMailQueueContract.super.enQueue(mail);
+            clock.tick();
+        }
+
+        @Override
+        public MailQueue getMailQueue() {
+            return mailQueue;
+        }
+
+        @Override
+        public ManageableMailQueue getManageableMailQueue() {
+            return mailQueue;
+        }
+
+        @Test
+        void constructorShouldRegisterQueueTimeGaugePerPriority(MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem) {
+            verify(metricTestSystem.getSpyGaugeRegistry()).register(eq(QUEUE_TIME_METRIC_NAME_PREFIX + SPOOL + ":priority9"), any());
+            verify(metricTestSystem.getSpyGaugeRegistry()).register(eq(QUEUE_TIME_METRIC_NAME_PREFIX + SPOOL + ":priority0"), any());
+        }
+
+        @Disabled("JAMES-2614 RabbitMQMailQueueTest::concurrentEnqueueDequeueShouldNotFail is unstable." +
+            "The related test is disabled, and need to be re-enabled after investigation and a fix.")
+        @Test
+        @Override
+        public void concurrentEnqueueDequeueShouldNotFail() {
+
+        }
+    }
+
+    private List<String> enqueueConcurrentlyThenDequeue(int mailCount) {
+        Flux.range(0, mailCount)
+            .flatMap(i -> Mono.fromRunnable(Throwing.runnable(() -> mailQueue.enQueue(defaultMail()
+                    .name("name" + i)
+                    .build())).sneakyThrow())
+                .subscribeOn(Schedulers.boundedElastic()), mailCount)
+            .then()
+            .block(Duration.ofMinutes(1));
+
+        return Flux.from(mailQueue.deQueue())
+            .take(mailCount)
+            .flatMap(Throwing.function(item -> {
+                item.done(true);
+                return Mono.just(item.getMail().getName());
+            }))
+            .collectList()
+            .block(Duration.ofMinutes(1));
+    }
+
     private void setUp(CassandraCluster cassandra, MailQueueMetricExtension.MailQueueMetricTestSystem metricTestSystem, RabbitMQMailQueueConfiguration configuration) throws Exception {
         CassandraBlobStore blobStore = new CassandraBlobStore(cassandra.getConf());
         MimeMessageStore.Factory mimeMessageStoreFactory = MimeMessageStore.factory(blobStore);
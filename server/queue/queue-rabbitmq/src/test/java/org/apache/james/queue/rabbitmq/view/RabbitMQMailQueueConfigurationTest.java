@@ -20,6 +20,7 @@
 package org.apache.james.queue.rabbitmq.view;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.junit.jupiter.api.Test;
@@ -49,4 +50,52 @@ class RabbitMQMailQueueConfigurationTest {
         assertThat(actual.isSizeMetricsEnabled())
             .isEqualTo(false);
     }
+
+    @Test
+    void fromShouldReturnConfiguredEnqueueBatchSize() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.ENQUEUE_BATCH_SIZE_PROPERTY, 50);
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(configuration);
+
+        assertThat(actual.getEnqueueBatchSize())
+            .isEqualTo(50);
+    }
+
+    @Test
+    void fromShouldReturnConfiguredEnqueueMaxConcurrentBatches() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.ENQUEUE_MAX_CONCURRENT_BATCHES_PROPERTY, 32);
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(configuration);
+
+        assertThat(actual.getEnqueueMaxConcurrentBatches())
+            .isEqualTo(32);
+    }
+
+    @Test
+    void fromShouldReturnConfiguredPriorityEnabled() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.PRIORITY_ENABLED_PROPERTY, true);
+        RabbitMQMailQueueConfiguration actual = RabbitMQMailQueueConfiguration.from(configuration);
+
+        assertThat(actual.isPriorityEnabled())
+            .isTrue();
+    }
+
+    @Test
+    void fromShouldRejectNonPositiveEnqueueBatchSize() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.ENQUEUE_BATCH_SIZE_PROPERTY, 0);
+
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromShouldRejectNonPositiveEnqueueMaxConcurrentBatches() {
+        PropertiesConfiguration configuration = new PropertiesConfiguration();
+        configuration.addProperty(RabbitMQMailQueueConfiguration.ENQUEUE_MAX_CONCURRENT_BATCHES_PROPERTY, 0);
+
+        assertThatThrownBy(() -> RabbitMQMailQueueConfiguration.from(configuration))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 }
@@ -0,0 +1,225 @@
+/****************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one   *
+ * or more contributor license agreements.  See the NOTICE file *
+ * distributed with this work for additional information        *
+ * regarding copyright ownership.  The ASF licenses this file   *
+ * to you under the Apache License, Version 2.0 (the            *
+ * "License"); you may not use this file except in compliance   *
+ * with the License.  You may obtain a copy of the License at   *
+ *                                                              *
+ *   http://www.apache.org/licenses/LICENSE-2.0                 *
+ *                                                              *
+ * Unless required by applicable law or agreed to in writing,   *
+ * software distributed under the License is distributed on an  *
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY       *
+ * KIND, either express or implied.  See the License for the    *
+ * specific language governing permissions and limitations      *
+ * under the License.                                           *
+ ****************************************************************/
+
+package org.apache.james.queue.rabbitmq.view.cassandra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.Instant;
+
+import org.apache.james.backends.cassandra.CassandraCluster;
+import org.apache.james.backends.cassandra.CassandraClusterExtension;
+import org.apache.james.backends.cassandra.components.CassandraModule;
+import org.apache.james.backends.cassandra.versions.CassandraSchemaVersionModule;
+import org.apache.james.queue.rabbitmq.EnqueueId;
+import org.apache.james.queue.rabbitmq.MailQueueName;
+import org.apache.james.queue.rabbitmq.view.cassandra.model.BucketedSlices.Slice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class SliceCountersDAOTest {
+
+    private static final MailQueueName OUT_GOING_1 = MailQueueName.fromString("OUT_GOING_1");
+    private static final MailQueueName OUT_GOING_2 = MailQueueName.fromString("OUT_GOING_2");
+    private static final Instant NOW = Instant.parse("2018-05-20T12:00:00.000Z");
+    private static final Slice SLICE_1 = Slice.of(NOW);
+    private static final Slice SLICE_2 = Slice.of(NOW.plusSeconds(3600));
+    private static final EnqueueId ENQUEUE_ID_1 = EnqueueId.ofSerialized("110e8400-e29b-11d4-a716-446655440000");
+
+    @RegisterExtension
+    static CassandraClusterExtension cassandraCluster = new CassandraClusterExtension(
+        CassandraModule.aggregateModules(
+            CassandraSchemaVersionModule.MODULE,
+            CassandraMailQueueViewModule.MODULE));
+
+    private SliceCountersDAO testee;
+
+    @BeforeEach
+    void setUp(CassandraCluster cassandra) {
+        testee = new SliceCountersDAO(cassandra.getConf());
+    }
+
+    @Test
+    void countEnqueuedMailsShouldReturnZeroWhenNoCounters() {
+        assertThat(testee.countEnqueuedMails(OUT_GOING_1, NOW).block())
+            .isEqualTo(0L);
+    }
+
+    @Test
+    void countEnqueuedMailsShouldSumEnqueuedMailsOfAllSlices() {
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_1, 3L).block();
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_2, 2L).block();
+
+        assertThat(testee.countEnqueuedMails(OUT_GOING_1, NOW).block())
+            .isEqualTo(5L);
+    }
+
+    @Test
+    void countEnqueuedMailsShouldSubtractDeletedMails() {
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_1, 3L).block();
+        testee.incrementDeleted(OUT_GOING_1, SLICE_1).block();
+
+        assertThat(testee.countEnqueuedMails(OUT_GOING_1, NOW).block())
+            .isEqualTo(2L);
+    }
+
+    @Test
+    void countEnqueuedMailsShouldIgnoreSlicesBeforeBrowseStart() {
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_1, 3L).block();
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_2, 2L).block();
+
+        assertThat(testee.countEnqueuedMails(OUT_GOING_1, SLICE_2.getStartSliceInstant()).block())
+            .isEqualTo(2L);
+    }
+
+    @Test
+    void countEnqueuedMailsShouldNotGoBelowZeroForASlice() {
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_1, 1L).block();
+        testee.incrementDeleted(OUT_GOING_1, SLICE_1).block();
+        testee.incrementDeleted(OUT_GOING_1, SLICE_1).block();
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_2, 2L).block();
+
+        assertThat(testee.countEnqueuedMails(OUT_GOING_1, NOW).block())
+            .isEqualTo(2L);
+    }
+
+    @Test
+    void countEnqueuedMailsShouldIgnoreOtherQueues() {
+        testee.incrementEnqueued(OUT_GOING_2, SLICE_1, 3L).block();
+
+        assertThat(testee.countEnqueuedMails(OUT_GOING_1, NOW).block())
+            .isEqualTo(0L);
+    }
+
+    @Test
+    void countEnqueuedMailsBySliceShouldReturnTheCountOfEachSlice() {
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_1, 3L).block();
+        testee.incrementDeleted(OUT_GOING_1, SLICE_1).block();
+        testee.incrementEnqueued(OUT_GOING_1, SLICE_2, 2L).block();
+
+        assertThat(testee.countEnqueuedMailsBySlice(OUT_GOING_1, NOW).block())
+            .containsOnly(
+                entry(SLICE_1.getStartSliceInstant(), 2L),
+                entry(SLICE_2.getStartSliceInstant(), 2L));
+    }
+
+    @Test
+    void countEnqueuedMailsBySliceShouldReturnNegativeCounts() {
+        testee.incrementDeleted(OUT_GOING_1, SLICE_1).block();
+
+        assertThat(testee.countEnqueuedMailsBySlice(OUT_GOING_1, NOW).block())
+            .containsOnly(entry(SLICE_1.getStartSliceInstant(), -1L));
+    }
+
+    @Test
+    void isInitializedShouldReturnFalseByDefault() {
+        assertThat(testee.isInitialized(OUT_GOING_1).block())
+            .isFalse();
+    }
+
+    @Test
+    void isInitializedShouldReturnTrueWhenMarked() {
+        testee.markInitialized(OUT_GOING_1).block();
+
+        assertThat(testee.isInitialized(OUT_GOING_1).block())
+            .isTrue();
+    }
+
+    @Test
+    void isInitializedShouldReturnFalseWhenOnlyClaimed() {
+        testee.claimInitialization(OUT_GOING_1).block();
+
+        assertThat(testee.isInitialized(OUT_GOING_1).block())
+            .isFalse();
+    }
+
+    @Test
+    void claimInitializationShouldReturnTrueWhenNotClaimed() {
+        assertThat(testee.claimInitialization(OUT_GOING_1).block())
+            .isTrue();
+    }
+
+    @Test
+    void claimInitializationShouldReturnFalseWhenAlreadyClaimed() {
+        testee.claimInitialization(OUT_GOING_1).block();
+
+        assertThat(testee.claimInitialization(OUT_GOING_1).block())
+            .isFalse();
+    }
+
+    @Test
+    void claimInitializationShouldReturnFalseWhenInitialized() {
+        testee.claimInitialization(OUT_GOING_1).block();
+        testee.markInitialized(OUT_GOING_1).block();
+
+        assertThat(testee.claimInitialization(OUT_GOING_1).block())
+            .isFalse();
+    }
+
+    @Test
+    void claimInitializationShouldReturnTrueWhenReleased() {
+        testee.claimInitialization(OUT_GOING_1).block();
+        testee.releaseInitialization(OUT_GOING_1).block();
+
+        assertThat(testee.claimInitialization(OUT_GOING_1).block())
+            .isTrue();
+    }
+
+    @Test
+    void markInitializedShouldNotAffectOtherQueues() {
+        testee.markInitialized(OUT_GOING_2).block();
+
+        assertThat(testee.isInitialized(OUT_GOING_1).block())
+            .isFalse();
+    }
+
+    @Test
+    void retrieveInitialSliceShouldReturnEmptyByDefault() {
+        assertThat(testee.retrieveInitialSlice(OUT_GOING_1, ENQUEUE_ID_1).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveInitialSliceShouldReturnTheRecordedSlice() {
+        testee.recordInitialSlice(OUT_GOING_1, ENQUEUE_ID_1, SLICE_2).block();
+
+        assertThat(testee.retrieveInitialSlice(OUT_GOING_1, ENQUEUE_ID_1).blockOptional())
+            .contains(SLICE_2);
+    }
+
+    @Test
+    void retrieveInitialSliceShouldNotReturnTheSliceRecordedForOtherQueues() {
+        testee.recordInitialSlice(OUT_GOING_2, ENQUEUE_ID_1, SLICE_2).block();
+
+        assertThat(testee.retrieveInitialSlice(OUT_GOING_1, ENQUEUE_ID_1).blockOptional())
+            .isEmpty();
+    }
+
+    @Test
+    void retrieveInitialSliceShouldReturnEmptyWhenDeleted() {
+        testee.recordInitialSlice(OUT_GOING_1, ENQUEUE_ID_1, SLICE_2).block();
+
+        testee.deleteInitialSlice(OUT_GOING_1, ENQUEUE_ID_1).block();
+
+        assertThat(testee.retrieveInitialSlice(OUT_GOING_1, ENQUEUE_ID_1).blockOptional())
+            .isEmpty();
+    }
+}
@@ -100,6 +100,18 @@ class BucketedSlicesTest {
             .containsExactly(allSlicesInThreeHours);
     }
 
+    @Test
+    void containingShouldReturnTheSliceStartingAtTheGivenInstantWhenAligned() {
+        assertThat(Slice.containing(FIRST_SLICE_INSTANT, ONE_HOUR_SLICE_WINDOW))
+            .isEqualTo(FIRST_SLICE);
+    }
+
+    @Test
+    void containingShouldReturnTheSliceTheGivenInstantBelongsTo() {
+        assertThat(Slice.containing(FIRST_SLICE_INSTANT.plusSeconds(ONE_HOUR_IN_SECONDS - 1), ONE_HOUR_SLICE_WINDOW))
+            .isEqualTo(FIRST_SLICE);
+    }
+
     @Test
     void allSlicesTillShouldReturnEmptyIfEndAtBeforeStartSlice() {
         Stream<Slice> allSlices = FIRST_SLICE_NEXT_TWO_HOUR.allSlicesTill(FIRST_SLICE_INSTANT, ONE_HOUR_SLICE_WINDOW);